@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2015 Hannes Dorfmann.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.hannesdorfmann.adapterdelegates4.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an AdapterDelegate that is responsible for all items of the type {@link #item()} (and its
+ * subtypes). The annotation processor generates an AdapterDelegatesManager subclass named {@link
+ * #manager()} for all delegates with the same manager name. Its getItemViewType() resolves the
+ * view type with <code>instanceof</code> checks (most specific item class first) instead of
+ * asking each delegate's isForViewType().
+ * <pre>
+ * {@code
+ * @DelegateFor(item = Cat.class, viewType = 1, manager = "AnimalDelegatesManager")
+ * public class CatAdapterDelegate extends AbsListItemAdapterDelegate<Cat, Animal, CatViewHolder> {
+ *     ...
+ * }
+ *
+ * AdapterDelegatesManager<List<Animal>> manager =
+ *      new AnimalDelegatesManager(new CatAdapterDelegate(), new DogAdapterDelegate());
+ * }
+ * </pre>
+ * The view types of the delegates of one manager must be unique, must not be negative and must
+ * not be one of the view types reserved for the fallback and the placeholder delegate. This is
+ * checked at compile time.
+ *
+ * @author Hannes Dorfmann
+ * @since 4.3.3
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface DelegateFor {
+
+    /**
+     * @return The class of the items the annotated delegate is responsible for
+     */
+    Class<?> item();
+
+    /**
+     * @return The view type of the annotated delegate
+     */
+    int viewType();
+
+    /**
+     * @return The simple name of the generated AdapterDelegatesManager subclass. It is generated
+     * in the package of the annotated delegates, so all delegates of one manager must be in the
+     * same package.
+     */
+    String manager();
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2015 Hannes Dorfmann.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.hannesdorfmann.adapterdelegates4.sample.simulation;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.hannesdorfmann.adapterdelegates4.AdapterDelegatesManager;
+import com.hannesdorfmann.adapterdelegates4.AsyncListDifferDelegationAdapter;
+import com.hannesdorfmann.adapterdelegates4.ListDelegationAdapter;
+import com.hannesdorfmann.adapterdelegates4.paging.PagedListDelegationAdapter;
+import com.hannesdorfmann.adapterdelegates4.sample.model.DisplayableItem;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import androidx.annotation.NonNull;
+import androidx.paging.PagedList;
+import androidx.paging.PositionalDataSource;
+import androidx.recyclerview.widget.AsyncDifferConfig;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * The adapters that are compared. Diffs are computed on the calling thread, so that they are part
+ * of the measured allocations and wall time and the scenarios are deterministic.
+ *
+ * @author Hannes Dorfmann
+ */
+enum AdapterStrategy {
+
+    /**
+     * {@link ListDelegationAdapter}, each update is a <code>notifyDataSetChanged()</code>
+     */
+    LIST {
+        @Override
+        RecyclerView.Adapter<?> createAdapter(AdapterDelegatesManager<List<DisplayableItem>> manager) {
+            return new ListDelegationAdapter<>(manager);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        void submit(RecyclerView.Adapter<?> adapter, List<DisplayableItem> items) {
+            ((ListDelegationAdapter<List<DisplayableItem>>) adapter).setItems(items);
+        }
+    },
+
+    /**
+     * {@link AsyncListDifferDelegationAdapter}, updates are diffed
+     */
+    ASYNC_LIST_DIFFER {
+        @Override
+        RecyclerView.Adapter<?> createAdapter(AdapterDelegatesManager<List<DisplayableItem>> manager) {
+            return new AsyncListDifferDelegationAdapter<>(Feed.DIFF_CALLBACK, DIRECT_EXECUTOR, manager);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        void submit(RecyclerView.Adapter<?> adapter, List<DisplayableItem> items) {
+            ((AsyncListDifferDelegationAdapter<DisplayableItem>) adapter).setItems(items);
+        }
+    },
+
+    /**
+     * {@link PagedListDelegationAdapter}, the items are loaded in pages while scrolling and updates
+     * are diffed
+     */
+    PAGED_LIST {
+        @Override
+        RecyclerView.Adapter<?> createAdapter(AdapterDelegatesManager<List<DisplayableItem>> manager) {
+            AsyncDifferConfig<DisplayableItem> config = new AsyncDifferConfig.Builder<>(Feed.DIFF_CALLBACK)
+                    .setBackgroundThreadExecutor(DIRECT_EXECUTOR)
+                    .build();
+            return new PagedListDelegationAdapter<>(manager, config);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        void submit(RecyclerView.Adapter<?> adapter, List<DisplayableItem> items) {
+            PagedList.Config config = new PagedList.Config.Builder()
+                    .setPageSize(PAGE_SIZE)
+                    .setEnablePlaceholders(false)
+                    .build();
+            PagedList<DisplayableItem> pagedList = new PagedList.Builder<>(new FeedDataSource(items), config)
+                    .setFetchExecutor(DIRECT_EXECUTOR)
+                    .setNotifyExecutor(MAIN_THREAD_EXECUTOR)
+                    .build();
+            ((PagedListDelegationAdapter<DisplayableItem>) adapter).submitList(pagedList);
+        }
+    };
+
+    private static final int PAGE_SIZE = 20;
+
+    private static final Executor DIRECT_EXECUTOR = new Executor() {
+        @Override
+        public void execute(@NonNull Runnable command) {
+            command.run();
+        }
+    };
+
+    /**
+     * Pages are loaded while binding, so RecyclerView must be notified afterwards
+     */
+    private static final Executor MAIN_THREAD_EXECUTOR = new Executor() {
+        private final Handler handler = new Handler(Looper.getMainLooper());
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            handler.post(command);
+        }
+    };
+
+    abstract RecyclerView.Adapter<?> createAdapter(AdapterDelegatesManager<List<DisplayableItem>> manager);
+
+    /**
+     * Sets the items of the given adapter that has been created by {@link
+     * #createAdapter(AdapterDelegatesManager)}
+     */
+    abstract void submit(RecyclerView.Adapter<?> adapter, List<DisplayableItem> items);
+
+    private static final class FeedDataSource extends PositionalDataSource<DisplayableItem> {
+        private final List<DisplayableItem> items;
+
+        FeedDataSource(List<DisplayableItem> items) {
+            this.items = items;
+        }
+
+        @Override
+        public void loadInitial(@NonNull LoadInitialParams params,
+                                @NonNull LoadInitialCallback<DisplayableItem> callback) {
+            int totalCount = items.size();
+            int position = computeInitialLoadPosition(params, totalCount);
+            int size = computeInitialLoadSize(params, position, totalCount);
+            callback.onResult(items.subList(position, position + size), position, totalCount);
+        }
+
+        @Override
+        public void loadRange(@NonNull LoadRangeParams params,
+                              @NonNull LoadRangeCallback<DisplayableItem> callback) {
+            int end = Math.min(items.size(), params.startPosition + params.loadSize);
+            callback.onResult(items.subList(params.startPosition, end));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2015 Hannes Dorfmann.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.hannesdorfmann.adapterdelegates4.sample.simulation;
+
+import com.hannesdorfmann.adapterdelegates4.sample.model.Advertisement;
+import com.hannesdorfmann.adapterdelegates4.sample.model.Cat;
+import com.hannesdorfmann.adapterdelegates4.sample.model.DisplayableItem;
+import com.hannesdorfmann.adapterdelegates4.sample.model.Dog;
+import com.hannesdorfmann.adapterdelegates4.sample.model.Gecko;
+import com.hannesdorfmann.adapterdelegates4.sample.model.Snake;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+
+/**
+ * A feed of the sample models, generated from a seeded {@link Random} so that each run of a
+ * scenario sees the same items.
+ *
+ * @author Hannes Dorfmann
+ */
+final class Feed {
+
+    /**
+     * Items are the same if they are the same instance, the sample models have no ids
+     */
+    static final DiffUtil.ItemCallback<DisplayableItem> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<DisplayableItem>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull DisplayableItem oldItem,
+                                               @NonNull DisplayableItem newItem) {
+                    return oldItem == newItem;
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull DisplayableItem oldItem,
+                                                  @NonNull DisplayableItem newItem) {
+                    return oldItem.equals(newItem);
+                }
+            };
+
+    private Feed() {
+    }
+
+    static List<DisplayableItem> create(int size, Random random) {
+        List<DisplayableItem> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(newItem(random, i));
+        }
+        return items;
+    }
+
+    /**
+     * Returns a copy of the given feed with some items inserted, removed and replaced, like a feed
+     * that is refreshed while the user scrolls
+     */
+    static List<DisplayableItem> update(List<DisplayableItem> items, Random random) {
+        List<DisplayableItem> updated = new ArrayList<>(items);
+        for (int i = 0; i < 3; i++) {
+            updated.add(random.nextInt(updated.size() + 1), newItem(random, updated.size()));
+        }
+        for (int i = 0; i < 3; i++) {
+            updated.remove(random.nextInt(updated.size()));
+        }
+        for (int i = 0; i < 3; i++) {
+            int position = random.nextInt(updated.size());
+            updated.set(position, newItem(random, position));
+        }
+        return updated;
+    }
+
+    private static DisplayableItem newItem(Random random, int index) {
+        switch (random.nextInt(5)) {
+            case 0:
+                return new Cat("Cat " + index);
+            case 1:
+                return new Dog("Dog " + index);
+            case 2:
+                return new Gecko("Gecko " + index, "Leopard gecko");
+            case 3:
+                return new Snake("Snake " + index, "Viper");
+            default:
+                return new Advertisement();
+        }
+    }
+}
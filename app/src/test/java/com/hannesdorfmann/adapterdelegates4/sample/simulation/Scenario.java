@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2015 Hannes Dorfmann.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.hannesdorfmann.adapterdelegates4.sample.simulation;
+
+/**
+ * A scripted sequence of flings and updates
+ *
+ * @author Hannes Dorfmann
+ */
+enum Scenario {
+
+    /**
+     * Three flings towards the end of the feed
+     */
+    FLING {
+        @Override
+        void run(ScrollSimulation simulation) {
+            for (int i = 0; i < 3; i++) {
+                simulation.fling(FLING_VELOCITY);
+            }
+        }
+    },
+
+    /**
+     * Flings down and up again, so ViewHolders of the same items are needed again
+     */
+    FLING_DOWN_AND_UP {
+        @Override
+        void run(ScrollSimulation simulation) {
+            simulation.fling(FLING_VELOCITY);
+            simulation.fling(-FLING_VELOCITY);
+            simulation.fling(FLING_VELOCITY);
+        }
+    },
+
+    /**
+     * Scrolls slowly while the feed is updated every few frames
+     */
+    UPDATES_WHILE_SCROLLING {
+        @Override
+        void run(ScrollSimulation simulation) {
+            for (int i = 0; i < 20; i++) {
+                simulation.scroll(SLOW_SCROLL_DISTANCE);
+                simulation.update();
+                simulation.scroll(SLOW_SCROLL_DISTANCE);
+            }
+        }
+    };
+
+    /**
+     * Pixels scrolled in the first frame of a fling
+     */
+    private static final int FLING_VELOCITY = 300;
+
+    private static final int SLOW_SCROLL_DISTANCE = 40;
+
+    abstract void run(ScrollSimulation simulation);
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2015 Hannes Dorfmann.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.hannesdorfmann.adapterdelegates4.sample.simulation;
+
+import android.app.Activity;
+import android.os.Looper;
+
+import com.hannesdorfmann.adapterdelegates4.AdapterDelegatesManager;
+import com.hannesdorfmann.adapterdelegates4.DelegateMetricsSink;
+import com.hannesdorfmann.adapterdelegates4.sample.adapterdelegates.AdvertisementAdapterDelegate;
+import com.hannesdorfmann.adapterdelegates4.sample.adapterdelegates.CatAdapterDelegate;
+import com.hannesdorfmann.adapterdelegates4.sample.adapterdelegates.DogAdapterDelegate;
+import com.hannesdorfmann.adapterdelegates4.sample.adapterdelegates.GeckoAdapterDelegate;
+import com.hannesdorfmann.adapterdelegates4.sample.adapterdelegates.SnakeListItemAdapterDelegate;
+import com.hannesdorfmann.adapterdelegates4.sample.model.DisplayableItem;
+
+import org.robolectric.shadows.ShadowLog;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Drives a real RecyclerView with the sample delegates through a {@link Scenario} and counts what
+ * the adapter did. The main looper is advanced by one frame after each step, so that layout
+ * passes, prefetching and posted updates run like on a device.
+ *
+ * @author Hannes Dorfmann
+ */
+final class ScrollSimulation {
+
+    static final int FEED_SIZE = 2000;
+
+    private static final Duration FRAME = Duration.ofMillis(16);
+
+    /**
+     * Share of the velocity that is left after each frame of a fling
+     */
+    private static final float FLING_FRICTION = 0.95f;
+
+    private final AdapterStrategy strategy;
+    private final CountingDelegatesManager manager;
+    private final RecyclerView.Adapter<?> adapter;
+    private final RecyclerView recyclerView;
+    private final Random random = new Random(42);
+    private List<DisplayableItem> items;
+
+    ScrollSimulation(@NonNull Activity activity, @NonNull AdapterStrategy strategy) {
+        this.strategy = strategy;
+        manager = new CountingDelegatesManager();
+        manager.addDelegate(new AdvertisementAdapterDelegate(activity))
+                .addDelegate(new CatAdapterDelegate(activity))
+                .addDelegate(new DogAdapterDelegate(activity))
+                .addDelegate(new GeckoAdapterDelegate(activity))
+                .addDelegate(new SnakeListItemAdapterDelegate(activity));
+        adapter = strategy.createAdapter(manager);
+
+        recyclerView = new RecyclerView(activity);
+        recyclerView.setLayoutManager(new LinearLayoutManager(activity));
+        recyclerView.setAdapter(adapter);
+        activity.setContentView(recyclerView);
+
+        items = Feed.create(FEED_SIZE, random);
+        strategy.submit(adapter, items);
+        frame();
+    }
+
+    /**
+     * Runs the given scenario
+     *
+     * @return What the adapter did during the scenario
+     */
+    @NonNull
+    Result run(@NonNull Scenario scenario) {
+        ShadowLog.clear();
+        manager.resetCounts();
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        scenario.run(this);
+        long wallNanos = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+        return new Result(strategy, scenario, manager.creates, manager.binds, manager.dispatches,
+                allocated, wallNanos);
+    }
+
+    /**
+     * Scrolls with the given velocity in pixels per frame that decays each frame
+     */
+    void fling(int velocity) {
+        float v = velocity;
+        while (Math.abs(v) >= 1) {
+            scroll((int) v);
+            v *= FLING_FRICTION;
+        }
+    }
+
+    /**
+     * Scrolls by the given distance within one frame
+     */
+    void scroll(int dy) {
+        recyclerView.scrollBy(0, dy);
+        frame();
+    }
+
+    /**
+     * Submits an updated feed
+     */
+    void update() {
+        items = Feed.update(items, random);
+        strategy.submit(adapter, items);
+        frame();
+    }
+
+    private void frame() {
+        shadowOf(Looper.getMainLooper()).idleFor(FRAME);
+    }
+
+    /**
+     * @return The bytes allocated by the current thread or -1 if the JVM doesn't support it
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+            if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()) {
+                return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Counts the dispatches and, as {@link DelegateMetricsSink}, the creates and binds
+     */
+    private static final class CountingDelegatesManager extends AdapterDelegatesManager<List<DisplayableItem>>
+            implements DelegateMetricsSink {
+        int creates;
+        int binds;
+        int dispatches;
+
+        CountingDelegatesManager() {
+            addMetricsSink(this);
+        }
+
+        @Override
+        public int getItemViewType(@NonNull List<DisplayableItem> items, int position) {
+            dispatches++;
+            return super.getItemViewType(items, position);
+        }
+
+        @Override
+        public void onEvent(int viewType, int event, long durationNanos) {
+            if (event == EVENT_CREATE) {
+                creates++;
+            } else if (event == EVENT_BIND) {
+                binds++;
+            }
+        }
+
+        void resetCounts() {
+            creates = 0;
+            binds = 0;
+            dispatches = 0;
+        }
+    }
+
+    /**
+     * What the adapter did during a scenario
+     */
+    static final class Result {
+        final AdapterStrategy strategy;
+        final Scenario scenario;
+        final int creates;
+        final int binds;
+        final int dispatches;
+        final long allocatedBytes;
+        final long wallNanos;
+
+        Result(AdapterStrategy strategy, Scenario scenario, int creates, int binds, int dispatches,
+               long allocatedBytes, long wallNanos) {
+            this.strategy = strategy;
+            this.scenario = scenario;
+            this.creates = creates;
+            this.binds = binds;
+            this.dispatches = dispatches;
+            this.allocatedBytes = allocatedBytes;
+            this.wallNanos = wallNanos;
+        }
+
+        static String header() {
+            return String.format(Locale.US, "%-18s %-24s %8s %8s %10s %12s %10s",
+                    "adapter", "scenario", "creates", "binds", "dispatches", "allocated KB", "wall ms");
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%-18s %-24s %8d %8d %10d %12d %10.1f",
+                    strategy, scenario, creates, binds, dispatches,
+                    allocatedBytes < 0 ? -1 : allocatedBytes / 1024, wallNanos / 1e6);
+        }
+    }
+}
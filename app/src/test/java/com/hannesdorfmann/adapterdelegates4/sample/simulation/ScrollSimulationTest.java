@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2015 Hannes Dorfmann.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.hannesdorfmann.adapterdelegates4.sample.simulation;
+
+import android.app.Activity;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.LooperMode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs each {@link Scenario} with each {@link AdapterStrategy} and prints creates, binds,
+ * dispatches, allocations and wall time per run. Wall time under Robolectric is only meaningful
+ * to compare the strategies with each other, not as absolute numbers.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28, qualifiers = "w360dp-h640dp-xhdpi")
+@LooperMode(LooperMode.Mode.PAUSED)
+public class ScrollSimulationTest {
+
+    @Test
+    public void compareAdapterStrategies() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+
+        List<ScrollSimulation.Result> results = new ArrayList<>();
+        for (Scenario scenario : Scenario.values()) {
+            for (AdapterStrategy strategy : AdapterStrategy.values()) {
+                // Warm up class loading and the JIT, then measure a fresh RecyclerView
+                new ScrollSimulation(activity, strategy).run(scenario);
+                ScrollSimulation.Result result = new ScrollSimulation(activity, strategy).run(scenario);
+                results.add(result);
+
+                Assert.assertTrue(result.toString(), result.binds > 0);
+                Assert.assertTrue(result.toString(), result.dispatches > 0);
+                // ViewHolders are recycled instead of created for each item
+                Assert.assertTrue(result.toString(), result.creates < result.binds);
+            }
+        }
+
+        System.out.println(ScrollSimulation.Result.header());
+        for (ScrollSimulation.Result result : results) {
+            System.out.println(result);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2015 Hannes Dorfmann.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.hannesdorfmann.adapterdelegates4.benchmark;
+
+import com.hannesdorfmann.adapterdelegates4.AdapterDelegate;
+import com.hannesdorfmann.adapterdelegates4.AdapterDelegatesManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks replacing a delegate followed by a lookup, i.e. for adapters that add and remove
+ * delegates at runtime. Each change invalidates the item class index of the manager, so the
+ * lookup afterwards includes rebuilding it.
+ *
+ * @author Hannes Dorfmann
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DelegateChurnBenchmark {
+
+    private static final int ITEM_COUNT = 1024;
+
+    @Param({"5", "20", "100"})
+    public int delegateCount;
+
+    @Param({"SCAN", "ITEM_CLASS"})
+    public Delegates.Dispatch dispatch;
+
+    private AdapterDelegatesManager<List<Items.Item>> manager;
+    private List<Items.Item> items;
+    private AdapterDelegate<List<Items.Item>> churnDelegate;
+    private int churnViewType;
+    private int position;
+
+    @Setup
+    public void setUp() {
+        manager = Delegates.createManager(delegateCount, dispatch);
+        items = Items.create(ITEM_COUNT, delegateCount, Items.Distribution.UNIFORM, 0);
+        churnViewType = delegateCount - 1;
+        churnDelegate = manager.getDelegateForViewType(churnViewType);
+    }
+
+    @Benchmark
+    public int removeAndAddDelegate() {
+        manager.removeDelegate(churnViewType);
+        manager.addDelegate(churnViewType, churnDelegate);
+        position = (position + 1) & (ITEM_COUNT - 1);
+        return manager.getItemViewType(items, position);
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2015 Hannes Dorfmann.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.hannesdorfmann.adapterdelegates4.benchmark;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.hannesdorfmann.adapterdelegates4.AbsFallbackAdapterDelegate;
+import com.hannesdorfmann.adapterdelegates4.AdapterDelegate;
+import com.hannesdorfmann.adapterdelegates4.AdapterDelegatesManager;
+
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * The delegates of the benchmarks
+ *
+ * @author Hannes Dorfmann
+ */
+final class Delegates {
+
+    /**
+     * How the manager finds the delegate of an item
+     */
+    enum Dispatch {
+
+        /**
+         * The delegates don't publish their item class, so the manager asks one delegate after
+         * another
+         */
+        SCAN,
+
+        /**
+         * The delegates publish their item class, so the manager looks up the view type by the
+         * class of the item
+         */
+        ITEM_CLASS
+    }
+
+    private Delegates() {
+    }
+
+    /**
+     * Creates a manager with one delegate per kind of item and a fallback delegate
+     */
+    static AdapterDelegatesManager<List<Items.Item>> createManager(int kinds, Dispatch dispatch) {
+        AdapterDelegatesManager<List<Items.Item>> manager = new AdapterDelegatesManager<>();
+        for (int kind = 0; kind < kinds; kind++) {
+            manager.addDelegate(kind, create(kind, dispatch));
+        }
+        manager.setFallbackDelegate(new FallbackDelegate());
+        return manager;
+    }
+
+    static AdapterDelegate<List<Items.Item>> create(int kind, Dispatch dispatch) {
+        return dispatch == Dispatch.SCAN ? new KindDelegate(kind) : new ItemClassDelegate(kind);
+    }
+
+    private static RecyclerView.ViewHolder createViewHolder() {
+        return new RecyclerView.ViewHolder(new View()) {
+        };
+    }
+
+    private abstract static class BenchmarkDelegate extends AdapterDelegate<List<Items.Item>> {
+
+        @NonNull
+        @Override
+        protected RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent) {
+            return createViewHolder();
+        }
+
+        @Override
+        protected void onBindViewHolder(@NonNull List<Items.Item> items, int position,
+                                        @NonNull RecyclerView.ViewHolder holder, @NonNull List<Object> payloads) {
+        }
+    }
+
+    /**
+     * Checks the kind of the item in {@link #isForViewType(List, int)}
+     */
+    static final class KindDelegate extends BenchmarkDelegate {
+        private final int kind;
+
+        KindDelegate(int kind) {
+            this.kind = kind;
+        }
+
+        @Override
+        protected boolean isForViewType(@NonNull List<Items.Item> items, int position) {
+            return items.get(position).kind == kind;
+        }
+    }
+
+    /**
+     * Publishes the class of its items
+     */
+    static final class ItemClassDelegate extends BenchmarkDelegate {
+        private final Class<? extends Items.Item> itemClass;
+
+        ItemClassDelegate(int kind) {
+            this.itemClass = Items.itemClass(kind);
+        }
+
+        @Override
+        protected boolean isForViewType(@NonNull List<Items.Item> items, int position) {
+            return itemClass.isInstance(items.get(position));
+        }
+
+        @Nullable
+        @Override
+        protected Class<?> getItemClass() {
+            return itemClass;
+        }
+    }
+
+    static final class FallbackDelegate extends AbsFallbackAdapterDelegate<List<Items.Item>> {
+
+        @NonNull
+        @Override
+        protected RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent) {
+            return createViewHolder();
+        }
+
+        @Override
+        protected void onBindViewHolder(@NonNull List<Items.Item> items, int position,
+                                        @NonNull RecyclerView.ViewHolder holder, @NonNull List<Object> payloads) {
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2015 Hannes Dorfmann.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.hannesdorfmann.adapterdelegates4.benchmark;
+
+import com.hannesdorfmann.adapterdelegates4.AdapterDelegatesManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link AdapterDelegatesManager#getItemViewType(Object, int)}, the hot path that
+ * RecyclerView calls for each item that is laid out.
+ *
+ * @author Hannes Dorfmann
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class GetItemViewTypeBenchmark {
+
+    /**
+     * Power of two, so that the next position can be computed with a mask
+     */
+    private static final int ITEM_COUNT = 4096;
+
+    @Param({"5", "20", "100"})
+    public int delegateCount;
+
+    @Param({"SCAN", "ITEM_CLASS"})
+    public Delegates.Dispatch dispatch;
+
+    @Param({"UNIFORM", "ZIPF"})
+    public Items.Distribution distribution;
+
+    /**
+     * Share of items that are handled by the fallback delegate
+     */
+    @Param({"0", "10"})
+    public int fallbackPercent;
+
+    private AdapterDelegatesManager<List<Items.Item>> manager;
+    private List<Items.Item> items;
+    private int position;
+
+    @Setup
+    public void setUp() {
+        manager = Delegates.createManager(delegateCount, dispatch);
+        items = Items.create(ITEM_COUNT, delegateCount, distribution, fallbackPercent);
+    }
+
+    @Benchmark
+    public int getItemViewType() {
+        position = (position + 1) & (ITEM_COUNT - 1);
+        return manager.getItemViewType(items, position);
+    }
+}
@@ -0,0 +1,453 @@
+/*
+ * Copyright (c) 2015 Hannes Dorfmann.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.hannesdorfmann.adapterdelegates4.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The items of the benchmarks. Each kind of item has its own class, so that the item class index
+ * of the manager can be benchmarked with up to {@link #MAX_KINDS} delegates.
+ *
+ * @author Hannes Dorfmann
+ */
+final class Items {
+
+    static final int MAX_KINDS = 100;
+
+    /**
+     * Kind of the items no delegate is responsible for, so the fallback delegate is used
+     */
+    static final int FALLBACK_KIND = -1;
+
+    static class Item {
+        int kind;
+    }
+
+    static final class FallbackItem extends Item {
+    }
+
+    private Items() {
+    }
+
+    /**
+     * The class of the items of the given kind
+     */
+    static Class<? extends Item> itemClass(int kind) {
+        return TYPES[kind];
+    }
+
+    /**
+     * Creates a list of items
+     *
+     * @param size            The number of items
+     * @param kinds           The number of different kinds of items
+     * @param distribution    How the kinds are distributed
+     * @param fallbackPercent The share of items no delegate is responsible for
+     */
+    static List<Item> create(int size, int kinds, Distribution distribution, int fallbackPercent) {
+        Random random = new Random(42);
+        List<Item> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Item item;
+            if (random.nextInt(100) < fallbackPercent) {
+                item = new FallbackItem();
+                item.kind = FALLBACK_KIND;
+            } else {
+                int kind = distribution.nextKind(random, kinds);
+                item = newItem(kind);
+                item.kind = kind;
+            }
+            items.add(item);
+        }
+        return items;
+    }
+
+    private static Item newItem(int kind) {
+        try {
+            return TYPES[kind].getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Can't create item of kind " + kind, e);
+        }
+    }
+
+    /**
+     * How often each kind of item occurs
+     */
+    enum Distribution {
+
+        /**
+         * All kinds occur equally often
+         */
+        UNIFORM {
+            @Override
+            int nextKind(Random random, int kinds) {
+                return random.nextInt(kinds);
+            }
+        },
+
+        /**
+         * The kind with index k occurs with a probability proportional to 1 / (k + 1), like a feed
+         * with a few common and many rare item types
+         */
+        ZIPF {
+            @Override
+            int nextKind(Random random, int kinds) {
+                double harmonic = 0;
+                for (int k = 1; k <= kinds; k++) {
+                    harmonic += 1.0 / k;
+                }
+                double target = random.nextDouble() * harmonic;
+                double sum = 0;
+                for (int k = 1; k <= kinds; k++) {
+                    sum += 1.0 / k;
+                    if (sum >= target) {
+                        return k - 1;
+                    }
+                }
+                return kinds - 1;
+            }
+        };
+
+        abstract int nextKind(Random random, int kinds);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static final Class<? extends Item>[] TYPES = new Class[]{
+            Item0.class, Item1.class, Item2.class, Item3.class, Item4.class,
+            Item5.class, Item6.class, Item7.class, Item8.class, Item9.class,
+            Item10.class, Item11.class, Item12.class, Item13.class, Item14.class,
+            Item15.class, Item16.class, Item17.class, Item18.class, Item19.class,
+            Item20.class, Item21.class, Item22.class, Item23.class, Item24.class,
+            Item25.class, Item26.class, Item27.class, Item28.class, Item29.class,
+            Item30.class, Item31.class, Item32.class, Item33.class, Item34.class,
+            Item35.class, Item36.class, Item37.class, Item38.class, Item39.class,
+            Item40.class, Item41.class, Item42.class, Item43.class, Item44.class,
+            Item45.class, Item46.class, Item47.class, Item48.class, Item49.class,
+            Item50.class, Item51.class, Item52.class, Item53.class, Item54.class,
+            Item55.class, Item56.class, Item57.class, Item58.class, Item59.class,
+            Item60.class, Item61.class, Item62.class, Item63.class, Item64.class,
+            Item65.class, Item66.class, Item67.class, Item68.class, Item69.class,
+            Item70.class, Item71.class, Item72.class, Item73.class, Item74.class,
+            Item75.class, Item76.class, Item77.class, Item78.class, Item79.class,
+            Item80.class, Item81.class, Item82.class, Item83.class, Item84.class,
+            Item85.class, Item86.class, Item87.class, Item88.class, Item89.class,
+            Item90.class, Item91.class, Item92.class, Item93.class, Item94.class,
+            Item95.class, Item96.class, Item97.class, Item98.class, Item99.class
+    };
+
+    static final class Item0 extends Item {
+    }
+
+    static final class Item1 extends Item {
+    }
+
+    static final class Item2 extends Item {
+    }
+
+    static final class Item3 extends Item {
+    }
+
+    static final class Item4 extends Item {
+    }
+
+    static final class Item5 extends Item {
+    }
+
+    static final class Item6 extends Item {
+    }
+
+    static final class Item7 extends Item {
+    }
+
+    static final class Item8 extends Item {
+    }
+
+    static final class Item9 extends Item {
+    }
+
+    static final class Item10 extends Item {
+    }
+
+    static final class Item11 extends Item {
+    }
+
+    static final class Item12 extends Item {
+    }
+
+    static final class Item13 extends Item {
+    }
+
+    static final class Item14 extends Item {
+    }
+
+    static final class Item15 extends Item {
+    }
+
+    static final class Item16 extends Item {
+    }
+
+    static final class Item17 extends Item {
+    }
+
+    static final class Item18 extends Item {
+    }
+
+    static final class Item19 extends Item {
+    }
+
+    static final class Item20 extends Item {
+    }
+
+    static final class Item21 extends Item {
+    }
+
+    static final class Item22 extends Item {
+    }
+
+    static final class Item23 extends Item {
+    }
+
+    static final class Item24 extends Item {
+    }
+
+    static final class Item25 extends Item {
+    }
+
+    static final class Item26 extends Item {
+    }
+
+    static final class Item27 extends Item {
+    }
+
+    static final class Item28 extends Item {
+    }
+
+    static final class Item29 extends Item {
+    }
+
+    static final class Item30 extends Item {
+    }
+
+    static final class Item31 extends Item {
+    }
+
+    static final class Item32 extends Item {
+    }
+
+    static final class Item33 extends Item {
+    }
+
+    static final class Item34 extends Item {
+    }
+
+    static final class Item35 extends Item {
+    }
+
+    static final class Item36 extends Item {
+    }
+
+    static final class Item37 extends Item {
+    }
+
+    static final class Item38 extends Item {
+    }
+
+    static final class Item39 extends Item {
+    }
+
+    static final class Item40 extends Item {
+    }
+
+    static final class Item41 extends Item {
+    }
+
+    static final class Item42 extends Item {
+    }
+
+    static final class Item43 extends Item {
+    }
+
+    static final class Item44 extends Item {
+    }
+
+    static final class Item45 extends Item {
+    }
+
+    static final class Item46 extends Item {
+    }
+
+    static final class Item47 extends Item {
+    }
+
+    static final class Item48 extends Item {
+    }
+
+    static final class Item49 extends Item {
+    }
+
+    static final class Item50 extends Item {
+    }
+
+    static final class Item51 extends Item {
+    }
+
+    static final class Item52 extends Item {
+    }
+
+    static final class Item53 extends Item {
+    }
+
+    static final class Item54 extends Item {
+    }
+
+    static final class Item55 extends Item {
+    }
+
+    static final class Item56 extends Item {
+    }
+
+    static final class Item57 extends Item {
+    }
+
+    static final class Item58 extends Item {
+    }
+
+    static final class Item59 extends Item {
+    }
+
+    static final class Item60 extends Item {
+    }
+
+    static final class Item61 extends Item {
+    }
+
+    static final class Item62 extends Item {
+    }
+
+    static final class Item63 extends Item {
+    }
+
+    static final class Item64 extends Item {
+    }
+
+    static final class Item65 extends Item {
+    }
+
+    static final class Item66 extends Item {
+    }
+
+    static final class Item67 extends Item {
+    }
+
+    static final class Item68 extends Item {
+    }
+
+    static final class Item69 extends Item {
+    }
+
+    static final class Item70 extends Item {
+    }
+
+    static final class Item71 extends Item {
+    }
+
+    static final class Item72 extends Item {
+    }
+
+    static final class Item73 extends Item {
+    }
+
+    static final class Item74 extends Item {
+    }
+
+    static final class Item75 extends Item {
+    }
+
+    static final class Item76 extends Item {
+    }
+
+    static final class Item77 extends Item {
+    }
+
+    static final class Item78 extends Item {
+    }
+
+    static final class Item79 extends Item {
+    }
+
+    static final class Item80 extends Item {
+    }
+
+    static final class Item81 extends Item {
+    }
+
+    static final class Item82 extends Item {
+    }
+
+    static final class Item83 extends Item {
+    }
+
+    static final class Item84 extends Item {
+    }
+
+    static final class Item85 extends Item {
+    }
+
+    static final class Item86 extends Item {
+    }
+
+    static final class Item87 extends Item {
+    }
+
+    static final class Item88 extends Item {
+    }
+
+    static final class Item89 extends Item {
+    }
+
+    static final class Item90 extends Item {
+    }
+
+    static final class Item91 extends Item {
+    }
+
+    static final class Item92 extends Item {
+    }
+
+    static final class Item93 extends Item {
+    }
+
+    static final class Item94 extends Item {
+    }
+
+    static final class Item95 extends Item {
+    }
+
+    static final class Item96 extends Item {
+    }
+
+    static final class Item97 extends Item {
+    }
+
+    static final class Item98 extends Item {
+    }
+
+    static final class Item99 extends Item {
+    }
+}
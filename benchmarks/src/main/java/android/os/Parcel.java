@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2015 Hannes Dorfmann.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package android.os;
+
+/**
+ * Stand-in for the Android class, so that the library compiles on a plain JVM. Saving state isn't
+ * benchmarked, so parcels are not supported.
+ */
+public final class Parcel {
+
+    public static Parcel obtain() {
+        throw new UnsupportedOperationException("Parcel is not available in benchmarks");
+    }
+
+    public void writeBundle(Bundle value) {
+    }
+
+    public Bundle readBundle(ClassLoader loader) {
+        return null;
+    }
+
+    public int dataSize() {
+        return 0;
+    }
+
+    public byte[] marshall() {
+        return new byte[0];
+    }
+
+    public void unmarshall(byte[] data, int offset, int length) {
+    }
+
+    public void setDataPosition(int pos) {
+    }
+
+    public void recycle() {
+    }
+}
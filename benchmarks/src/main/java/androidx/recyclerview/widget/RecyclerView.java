@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2015 Hannes Dorfmann.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package androidx.recyclerview.widget;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * Stand-in for the RecyclerView types the library uses, so that the library runs on a plain JVM
+ */
+public class RecyclerView extends ViewGroup {
+
+    public static final int NO_POSITION = -1;
+
+    public abstract static class ViewHolder {
+        public final View itemView;
+        int itemViewType = -1;
+        int position = NO_POSITION;
+
+        public ViewHolder(View itemView) {
+            if (itemView == null) {
+                throw new IllegalArgumentException("itemView may not be null");
+            }
+            this.itemView = itemView;
+        }
+
+        public final int getItemViewType() {
+            return itemViewType;
+        }
+
+        public final int getAdapterPosition() {
+            return position;
+        }
+    }
+
+    public abstract static class Adapter<VH extends ViewHolder> {
+    }
+
+    public abstract static class LayoutManager {
+    }
+
+    public abstract static class ItemAnimator {
+    }
+}
@@ -5,6 +5,8 @@ import android.view.View
 import android.view.ViewGroup
 import com.hannesdorfmann.adapterdelegates4.dsl.AdapterDelegateLayoutContainerViewHolder
 import com.hannesdorfmann.adapterdelegates4.dsl.adapterDelegateLayoutContainer
+import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.Dispatchers
 import org.junit.Assert
 import org.junit.Test
 import org.mockito.Mockito
@@ -327,4 +329,183 @@ class LayoutContainerListAdapterDelegateDslTest {
             Assert.assertEquals(expectedMsg, e.message)
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    fun `item class is published for default on block`() {
+        val delegate = adapterDelegateLayoutContainer<Item, Any>(0) {
+        }
+        Assert.assertSame(Item::class.java, delegate.itemClass)
+
+        val primitiveDelegate = adapterDelegateLayoutContainer<Int, Any>(0) {
+        }
+        Assert.assertSame(Int::class.javaObjectType, primitiveDelegate.itemClass)
+    }
+
+    @Test
+    fun `no item class is published for custom on block`() {
+        val delegate = adapterDelegateLayoutContainer<Item, Any>(layout = 0, on = { _, _, _ -> true }) {
+        }
+        Assert.assertNull(delegate.itemClass)
+    }
+
+    @Test
+    fun `findViewById is cached`() {
+        val view = Mockito.mock(View::class.java)
+        val child = Mockito.mock(View::class.java)
+        whenever(view.context).thenReturn(Mockito.mock(Context::class.java))
+        whenever(view.findViewById<View>(42)).thenReturn(child)
+
+        val viewHolder = AdapterDelegateLayoutContainerViewHolder<Any>(view)
+        Assert.assertSame(child, viewHolder.findViewById<View>(42))
+        Assert.assertSame(child, viewHolder.findViewById<View>(42))
+        Mockito.verify(view, Mockito.times(1)).findViewById<View>(42)
+    }
+
+    @Test
+    fun `bindAsync is cancelled when bound again and when recycled`() {
+        val (inflater, viewGroup) = fakeLayoutInflater(0)
+        val loads = mutableListOf<CompletableDeferred<String>>()
+        val results = mutableListOf<String>()
+        var viewHolder: AdapterDelegateLayoutContainerViewHolder<Any>? = null
+        val delegate = adapterDelegateLayoutContainer<Any, Any>(
+            layout = 0,
+            layoutInflater = inflater
+        ) {
+            viewHolder = this
+            bindAsync(Dispatchers.Unconfined) {
+                val load = CompletableDeferred<String>()
+                loads.add(load)
+                results.add(load.await())
+            }
+        }
+        val items = listOf<Any>("a", "b")
+
+        delegate.onCreateViewHolder(viewGroup)
+        delegate.onBindViewHolder(items, 0, viewHolder!!, emptyList<Any>())
+        delegate.onBindViewHolder(items, 1, viewHolder!!, emptyList<Any>())
+        loads[1].complete("b")
+        loads[0].complete("a")
+        Assert.assertEquals(listOf("b"), results)
+
+        delegate.onBindViewHolder(items, 0, viewHolder!!, emptyList<Any>())
+        delegate.onViewRecycled(viewHolder!!)
+        loads[2].complete("a")
+        Assert.assertEquals(listOf("b"), results)
+    }
+
+    @Test
+    fun `bindAsync is restarted when attached again`() {
+        val (inflater, viewGroup) = fakeLayoutInflater(0)
+        val loads = mutableListOf<CompletableDeferred<String>>()
+        val results = mutableListOf<String>()
+        var viewHolder: AdapterDelegateLayoutContainerViewHolder<Any>? = null
+        val delegate = adapterDelegateLayoutContainer<Any, Any>(
+            layout = 0,
+            layoutInflater = inflater
+        ) {
+            viewHolder = this
+            bindAsync(Dispatchers.Unconfined) {
+                val load = CompletableDeferred<String>()
+                loads.add(load)
+                results.add(load.await())
+            }
+        }
+        val payload = listOf<Any>("payload")
+
+        delegate.onCreateViewHolder(viewGroup)
+        delegate.onBindViewHolder(listOf<Any>("a"), 0, viewHolder!!, payload)
+        delegate.onViewDetachedFromWindow(viewHolder!!)
+        delegate.onViewAttachedToWindow(viewHolder!!)
+        Assert.assertEquals(2, loads.size)
+        loads[0].complete("cancelled")
+        loads[1].complete("a")
+        Assert.assertEquals(listOf("a"), results)
+
+        // Completed binds are not restarted
+        delegate.onViewDetachedFromWindow(viewHolder!!)
+        delegate.onViewAttachedToWindow(viewHolder!!)
+        Assert.assertEquals(2, loads.size)
+    }
+
+    @Test
+    fun `bindAsync runs once when attached after bind`() {
+        val (inflater, viewGroup) = fakeLayoutInflater(0)
+        val loads = mutableListOf<CompletableDeferred<String>>()
+        val results = mutableListOf<String>()
+        var viewHolder: AdapterDelegateLayoutContainerViewHolder<Any>? = null
+        val delegate = adapterDelegateLayoutContainer<Any, Any>(
+            layout = 0,
+            layoutInflater = inflater
+        ) {
+            viewHolder = this
+            bindAsync(Dispatchers.Unconfined) {
+                val load = CompletableDeferred<String>()
+                loads.add(load)
+                results.add(load.await())
+            }
+        }
+        val payload = listOf<Any>("payload")
+
+        delegate.onCreateViewHolder(viewGroup)
+        delegate.onBindViewHolder(listOf<Any>("a"), 0, viewHolder!!, payload)
+        delegate.onViewAttachedToWindow(viewHolder!!)
+        Assert.assertEquals(1, loads.size)
+        loads[0].complete("a")
+        Assert.assertEquals(listOf("a"), results)
+
+        delegate.onViewDetachedFromWindow(viewHolder!!)
+        delegate.onViewAttachedToWindow(viewHolder!!)
+        Assert.assertEquals(1, loads.size)
+    }
+
+    @Test
+    fun `bindAsync keeps payloads after onBindViewHolder returned`() {
+        val (inflater, viewGroup) = fakeLayoutInflater(0)
+        val loads = mutableListOf<CompletableDeferred<String>>()
+        val results = mutableListOf<List<Any>>()
+        var viewHolder: AdapterDelegateLayoutContainerViewHolder<Any>? = null
+        val delegate = adapterDelegateLayoutContainer<Any, Any>(
+            layout = 0,
+            layoutInflater = inflater
+        ) {
+            viewHolder = this
+            bindAsync(Dispatchers.Unconfined) {
+                val load = CompletableDeferred<String>()
+                loads.add(load)
+                load.await()
+                results.add(it)
+            }
+        }
+        // RecyclerView clears its payloads list after binding
+        val payloads = mutableListOf<Any>("payload")
+
+        delegate.onCreateViewHolder(viewGroup)
+        delegate.onBindViewHolder(listOf<Any>("a"), 0, viewHolder!!, payloads)
+        payloads.clear()
+        delegate.onViewDetachedFromWindow(viewHolder!!)
+        delegate.onViewAttachedToWindow(viewHolder!!)
+        loads[1].complete("a")
+        Assert.assertEquals(listOf(listOf<Any>("payload")), results)
+    }
+
+    @Test
+    fun `multiple bindAsync throws exception`() {
+        val (inflater, viewGroup) = fakeLayoutInflater(0)
+
+        try {
+            val delegate = adapterDelegateLayoutContainer<Any, Any>(
+                layout = 0,
+                layoutInflater = inflater
+            ) {
+                bindAsync(Dispatchers.Unconfined) { }
+
+                bindAsync(Dispatchers.Unconfined) { }
+            }
+            delegate.onCreateViewHolder(viewGroup)
+            Assert.fail("Exception expected")
+        } catch (e: IllegalStateException) {
+            val expectedMsg = "bindAsync { ... } is already defined. Only one bindAsync { ... } is allowed."
+            Assert.assertEquals(expectedMsg, e.message)
+        }
+    }
+}
@@ -16,6 +16,17 @@ import androidx.recyclerview.widget.RecyclerView
 import androidx.viewbinding.ViewBinding
 import com.hannesdorfmann.adapterdelegates4.AbsListItemAdapterDelegate
 import com.hannesdorfmann.adapterdelegates4.AdapterDelegate
+import com.hannesdorfmann.adapterdelegates4.ResourceCache
+import kotlin.coroutines.CoroutineContext
+import kotlin.coroutines.EmptyCoroutineContext
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.CoroutineStart
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.withContext
 
 /**
  * Simple DSL builder to create an [AdapterDelegate] that is backed by a [List] as dataset.
@@ -24,6 +35,8 @@ import com.hannesdorfmann.adapterdelegates4.AdapterDelegate
  * @param viewBinding return a [ViewBinding] for this adapter delegate.
  * @param on The check that should be run if the AdapterDelegate is for the corresponding Item in the datasource.
  * In other words its the implementation of [AdapterDelegate.isForViewType].
+ * If not set, the AdapterDelegate is responsible for all items of type [I] and publishes [I] as item class,
+ * so that [com.hannesdorfmann.adapterdelegates4.AdapterDelegatesManager] can look it up by the class of the item.
  * @param block The DSL block. Specify here what to do when the ViewHolder gets created. Think of it as some kind of
  * initializer block. For example, you would setup a click listener on a Ui widget in that block followed by specifying
  * what to do once the ViewHolder binds to the data by specifying a bind block for
@@ -32,14 +45,15 @@ import com.hannesdorfmann.adapterdelegates4.AdapterDelegate
 inline fun <reified I : T, T, V : ViewBinding> adapterDelegateViewBinding(
     noinline viewBinding: (layoutInflater: LayoutInflater, parent: ViewGroup) -> V,
      itemType:Int =  -1 ,
-    noinline on: (item: T, items: List<T>, position: Int) -> Boolean = { item, _, _ -> item is I },
+    noinline on: ((item: T, items: List<T>, position: Int) -> Boolean)? = null,
     noinline layoutInflater: (parent: ViewGroup) -> LayoutInflater = { parent -> LayoutInflater.from(parent.context) },
     noinline block: AdapterDelegateViewBindingViewHolder<I, V>.() -> Unit
 ): AdapterDelegate<List<T>> {
 
     return DslViewBindingListAdapterDelegate(
         binding = viewBinding,
-        on = on,
+        on = on ?: { item: T, _: List<T>, _: Int -> item is I },
+        itemClass = if (on == null) itemClassOf<I>() else null,
         itemType = itemType,
         initializerBlock = block,
         layoutInflater = layoutInflater
@@ -53,6 +67,8 @@ inline fun <reified I : T, T, V : ViewBinding> adapterDelegateViewBinding(
  * @param viewBinding return a [ViewBinding] for this adapter delegate.
  * @param on The check that should be run if the AdapterDelegate is for the corresponding Item in the datasource.
  * In other words its the implementation of [AdapterDelegate.isForViewType].
+ * If not set, the AdapterDelegate is responsible for all items of type [I] and publishes [I] as item class,
+ * so that [com.hannesdorfmann.adapterdelegates4.AdapterDelegatesManager] can look it up by the class of the item.
  * @param block The DSL block. Specify here what to do when the ViewHolder gets created. Think of it as some kind of
  * initializer block. For example, you would setup a click listener on a Ui widget in that block followed by specifying
  * what to do once the ViewHolder binds to the data by specifying a bind block for
@@ -61,29 +77,43 @@ inline fun <reified I : T, T, V : ViewBinding> adapterDelegateViewBinding(
 inline fun <reified I : T, T, V : ViewBinding> adapterMutableListDelegateViewBinding(
     noinline viewBinding: (layoutInflater: LayoutInflater, parent: ViewGroup) -> V,
      itemType:Int =-1,
-    noinline on: (item: T, items: List<T>, position: Int) -> Boolean = { item, _, _ -> item is I },
+    noinline on: ((item: T, items: List<T>, position: Int) -> Boolean)? = null,
     noinline layoutInflater: (parent: ViewGroup) -> LayoutInflater = { parent -> LayoutInflater.from(parent.context) },
     noinline block: AdapterDelegateViewBindingViewHolder<I, V>.() -> Unit
 ): AdapterDelegate<MutableList<T>> {
 
     return DslViewBindingListAdapterDelegate(
         binding = viewBinding,
-        on = on,
+        on = on ?: { item: T, _: List<T>, _: Int -> item is I },
+        itemClass = if (on == null) itemClassOf<I>() else null,
         itemType = itemType,
         initializerBlock = block,
         layoutInflater = layoutInflater
     )
 }
 
+/**
+ * The class of [I] that is published by the DSL delegates if the default `on` check is used.
+ * Unlike `I::class.java` this returns the wrapper class for primitive types like [Int].
+ */
+@PublishedApi
+internal inline fun <reified I> itemClassOf(): Class<*> = arrayOfNulls<I>(0).javaClass.componentType
+
 @PublishedApi
 internal class DslViewBindingListAdapterDelegate<I : T, T, V : ViewBinding>(
     private val binding: (layoutInflater: LayoutInflater, parent: ViewGroup) -> V,
     private val on: (item: T, items: List<T>, position: Int) -> Boolean,
+    private val itemClass: Class<*>?,
     private val itemType: Int,
     private val initializerBlock: AdapterDelegateViewBindingViewHolder<I, V>.() -> Unit,
     private val layoutInflater: (parent: ViewGroup) -> LayoutInflater
 ) : AbsListItemAdapterDelegate<I, T, AdapterDelegateViewBindingViewHolder<I, V>>() {
 
+    /**
+     * Shared by all ViewHolders of this delegate
+     */
+    private val resourceCache = ResourceCache()
+
     override fun isForViewType(item: T, items: MutableList<T>, position: Int): Boolean = on(
         item, items, position
     )
@@ -92,11 +122,14 @@ internal class DslViewBindingListAdapterDelegate<I : T, T, V : ViewBinding>(
         return itemType
     }
 
+    override fun getItemClass(): Class<*>? = itemClass
+
     override fun onCreateViewHolder(parent: ViewGroup): AdapterDelegateViewBindingViewHolder<I, V> {
         val binding = binding(layoutInflater(parent), parent)
         return AdapterDelegateViewBindingViewHolder<I, V>(
             binding
         ).also {
+            it.resourceCache = resourceCache
             initializerBlock(it)
         }
     }
@@ -108,12 +141,13 @@ internal class DslViewBindingListAdapterDelegate<I : T, T, V : ViewBinding>(
     ) {
         holder._item = item as Any
         holder._bind?.invoke(payloads) // It's ok to have an AdapterDelegate without binding block (i.e. static content)
+        holder.launchBindAsync(payloads)
     }
 
     override fun onViewRecycled(holder: RecyclerView.ViewHolder) {
         @Suppress("UNCHECKED_CAST")
         val vh = (holder as AdapterDelegateViewBindingViewHolder<I, V>)
-
+        vh.cancelBindAsync()
         vh._onViewRecycled?.invoke()
     }
 
@@ -132,11 +166,13 @@ internal class DslViewBindingListAdapterDelegate<I : T, T, V : ViewBinding>(
         @Suppress("UNCHECKED_CAST")
         val vh = (holder as AdapterDelegateViewBindingViewHolder<I, V>)
         vh._onViewAttachedToWindow?.invoke()
+        vh.resumeBindAsync()
     }
 
     override fun onViewDetachedFromWindow(holder: RecyclerView.ViewHolder) {
         @Suppress("UNCHECKED_CAST")
         val vh = (holder as AdapterDelegateViewBindingViewHolder<I, V>)
+        vh.interruptBindAsync()
         vh._onViewDetachedFromWindow?.invoke()
     }
 }
@@ -161,6 +197,12 @@ class AdapterDelegateViewBindingViewHolder<T, V : ViewBinding>(
      */
     internal var _item: Any = Uninitialized
 
+    /**
+     * Resources shared by all ViewHolders of the AdapterDelegate that created this ViewHolder.
+     * Set internally, resources are resolved through [context] directly if not set.
+     */
+    internal var resourceCache: ResourceCache? = null
+
     /**
      * Get the current bound item.
      */
@@ -193,6 +235,7 @@ class AdapterDelegateViewBindingViewHolder<T, V : ViewBinding>(
      * @since 4.3.0
      */
     fun getString(@StringRes resId: Int): String {
+        resourceCache?.let { return it.getString(context, resId) }
         return context.getString(resId)
     }
 
@@ -210,6 +253,7 @@ class AdapterDelegateViewBindingViewHolder<T, V : ViewBinding>(
      * @since 4.3.0
      */
     fun getString(@StringRes resId: Int, vararg formatArgs: Any): String {
+        resourceCache?.let { return it.getString(context, resId, *formatArgs) }
         return context.getString(resId, *formatArgs)
     }
 
@@ -228,12 +272,14 @@ class AdapterDelegateViewBindingViewHolder<T, V : ViewBinding>(
      */
     @ColorInt
     fun getColor(@ColorRes id: Int): Int {
+        resourceCache?.let { return it.getColor(context, id) }
         return ContextCompat.getColor(context, id)
     }
 
     /**
      * Returns a drawable object associated with a particular resource ID and
      * styled for the current theme.
+     * The drawable shares its state with other drawables of this id, so call [Drawable.mutate] before changing it.
      *
      * @param id The desired resource identifier, as generated by the aapt
      * tool. This integer encodes the package, type, and resource
@@ -245,6 +291,7 @@ class AdapterDelegateViewBindingViewHolder<T, V : ViewBinding>(
      * @since 4.3.0
      */
     fun getDrawable(@DrawableRes id: Int): Drawable? {
+        resourceCache?.let { return it.getDrawable(context, id) }
         return ContextCompat.getDrawable(context, id)
     }
 
@@ -260,6 +307,7 @@ class AdapterDelegateViewBindingViewHolder<T, V : ViewBinding>(
      * does not exist.
      */
     fun getColorStateList(@ColorRes id: Int): ColorStateList? {
+        resourceCache?.let { return it.getColorStateList(context, id) }
         return ContextCompat.getColorStateList(context, id)
     }
 
@@ -298,6 +346,37 @@ class AdapterDelegateViewBindingViewHolder<T, V : ViewBinding>(
     internal var _onViewDetachedFromWindow: (() -> Unit)? = null
         private set
 
+    /**
+     * This should never be called directly.
+     * Use [bindAsync] instead which internally sets this field.
+     */
+    internal var _bindAsync: (suspend CoroutineScope.(payloads: List<Any>) -> Unit)? = null
+        private set
+
+    private var bindAsyncContext: CoroutineContext = EmptyCoroutineContext
+
+    /**
+     * Lazily created, lives as long as this ViewHolder. Only the bind jobs are cancelled.
+     */
+    private var bindAsyncScope: CoroutineScope? = null
+
+    private var bindAsyncJob: Job? = null
+
+    /**
+     * The payloads [bindAsyncJob] has been started with
+     */
+    private var bindAsyncPayloads: List<Any>? = null
+
+    /**
+     * Incremented whenever the current async bind gets stale, see [withBindContext]
+     */
+    private var bindGeneration = 0
+
+    /**
+     * The payloads of an async bind that has been cancelled on detach before it completed
+     */
+    private var interruptedBindPayloads: List<Any>? = null
+
     /**
      * Define here the block that should be run whenever the viewholder get binded.
      * You can access the current bound item with [item]. In case you need the position of the bound item inside the
@@ -310,6 +389,89 @@ class AdapterDelegateViewBindingViewHolder<T, V : ViewBinding>(
         _bind = bindingBlock
     }
 
+    /**
+     * Define here the block that should be run asynchronously whenever the viewholder gets bound, i.e. to load a
+     * thumbnail or to query a database. If [bind] is defined too, it runs first.
+     *
+     * The block is started undispatched in [onBindViewHolder], so everything until the first suspension point runs
+     * synchronously. It is cancelled when the ViewHolder gets bound again or recycled, so results of a previous
+     * bind never show up on a recycled ViewHolder. If the ViewHolder is detached from window before the block has
+     * completed the block is cancelled and started again with the same payloads once the ViewHolder is attached
+     * again.
+     *
+     * Use [withBindContext] to switch to a background thread.
+     *
+     * @param context The context the block is started in, by default the main thread.
+     * @since 4.3.3
+     */
+    fun bindAsync(
+        context: CoroutineContext = Dispatchers.Main.immediate,
+        bindingBlock: suspend CoroutineScope.(payloads: List<Any>) -> Unit
+    ) {
+        if (_bindAsync != null) {
+            throw IllegalStateException("bindAsync { ... } is already defined. Only one bindAsync { ... } is allowed.")
+        }
+        bindAsyncContext = context
+        _bindAsync = bindingBlock
+    }
+
+    /**
+     * Like [withContext] but for use inside [bindAsync]: If this ViewHolder has been bound again or recycled while
+     * [block] was running, the result is dropped and the calling bind is cancelled, even if [block] itself didn't
+     * cooperate with cancellation.
+     *
+     * @since 4.3.3
+     */
+    suspend fun <R> withBindContext(
+        context: CoroutineContext = Dispatchers.Default,
+        block: suspend CoroutineScope.() -> R
+    ): R {
+        val generation = bindGeneration
+        val result = withContext(context, block)
+        if (generation != bindGeneration) {
+            throw CancellationException("ViewHolder has been bound again or recycled")
+        }
+        return result
+    }
+
+    internal fun launchBindAsync(payloads: List<Any>) {
+        val block = _bindAsync ?: return
+        cancelBindAsync()
+        val scope = bindAsyncScope ?: CoroutineScope(SupervisorJob() + bindAsyncContext).also {
+            bindAsyncScope = it
+        }
+        // RecyclerView clears its payloads list once onBindViewHolder returns
+        val boundPayloads = payloads.toList()
+        bindAsyncJob = scope.launch(start = CoroutineStart.UNDISPATCHED) {
+            block(boundPayloads)
+        }
+        bindAsyncPayloads = boundPayloads
+    }
+
+    internal fun cancelBindAsync() {
+        bindGeneration++
+        bindAsyncJob?.cancel()
+        bindAsyncJob = null
+        bindAsyncPayloads = null
+        interruptedBindPayloads = null
+    }
+
+    internal fun interruptBindAsync() {
+        val job = bindAsyncJob ?: return
+        if (job.isActive) {
+            val payloads = bindAsyncPayloads
+            cancelBindAsync()
+            interruptedBindPayloads = payloads
+        } else {
+            cancelBindAsync()
+        }
+    }
+
+    internal fun resumeBindAsync() {
+        val payloads = interruptedBindPayloads ?: return
+        launchBindAsync(payloads)
+    }
+
     /**
      * @see AdapterDelegate.onViewRecycled
      */
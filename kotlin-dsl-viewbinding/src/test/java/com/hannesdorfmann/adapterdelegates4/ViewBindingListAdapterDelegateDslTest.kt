@@ -7,6 +7,8 @@ import android.view.ViewGroup
 import androidx.viewbinding.ViewBinding
 import com.hannesdorfmann.adapterdelegates4.dsl.AdapterDelegateViewBindingViewHolder
 import com.hannesdorfmann.adapterdelegates4.dsl.adapterDelegateViewBinding
+import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.Dispatchers
 import org.junit.Assert
 import org.junit.Test
 import org.mockito.Mockito
@@ -397,4 +399,191 @@ class ViewBindingListAdapterDelegateDslTest {
             Assert.assertEquals(expectedMsg, e.message)
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    fun `item class is published for default on block`() {
+        val binding = ViewBinding { fakeView() }
+        val delegate = adapterDelegateViewBinding<Item, Any, ViewBinding>(
+            viewBinding = { _, _ -> binding }) {
+        }
+        Assert.assertSame(Item::class.java, delegate.itemClass)
+
+        val primitiveDelegate = adapterDelegateViewBinding<Int, Any, ViewBinding>(
+            viewBinding = { _, _ -> binding }) {
+        }
+        Assert.assertSame(Int::class.javaObjectType, primitiveDelegate.itemClass)
+    }
+
+    @Test
+    fun `no item class is published for custom on block`() {
+        val binding = ViewBinding { fakeView() }
+        val delegate = adapterDelegateViewBinding<Item, Any, ViewBinding>(
+            viewBinding = { _, _ -> binding },
+            on = { _, _, _ -> true }) {
+        }
+        Assert.assertNull(delegate.itemClass)
+    }
+
+    @Test
+    fun `bindAsync is cancelled when bound again and when recycled`() {
+        val view = fakeView()
+        val viewGroup = fakeViewGroup()
+        val layoutInflater = fakeLayoutInflater()
+        val binding = ViewBinding { view }
+        val loads = mutableListOf<CompletableDeferred<String>>()
+        val results = mutableListOf<String>()
+        var viewHolder: AdapterDelegateViewBindingViewHolder<Any, ViewBinding>? = null
+        val delegate = adapterDelegateViewBinding<Any, Any, ViewBinding>(
+            viewBinding = { _, _ -> binding },
+            layoutInflater = { layoutInflater }
+        ) {
+            viewHolder = this
+            bindAsync(Dispatchers.Unconfined) {
+                val load = CompletableDeferred<String>()
+                loads.add(load)
+                results.add(load.await())
+            }
+        }
+        val items = listOf<Any>("a", "b")
+
+        delegate.onCreateViewHolder(viewGroup)
+        delegate.onBindViewHolder(items, 0, viewHolder!!, emptyList<Any>())
+        delegate.onBindViewHolder(items, 1, viewHolder!!, emptyList<Any>())
+        loads[1].complete("b")
+        loads[0].complete("a")
+        Assert.assertEquals(listOf("b"), results)
+
+        delegate.onBindViewHolder(items, 0, viewHolder!!, emptyList<Any>())
+        delegate.onViewRecycled(viewHolder!!)
+        loads[2].complete("a")
+        Assert.assertEquals(listOf("b"), results)
+    }
+
+    @Test
+    fun `bindAsync is restarted when attached again`() {
+        val view = fakeView()
+        val viewGroup = fakeViewGroup()
+        val layoutInflater = fakeLayoutInflater()
+        val binding = ViewBinding { view }
+        val loads = mutableListOf<CompletableDeferred<String>>()
+        val results = mutableListOf<String>()
+        var viewHolder: AdapterDelegateViewBindingViewHolder<Any, ViewBinding>? = null
+        val delegate = adapterDelegateViewBinding<Any, Any, ViewBinding>(
+            viewBinding = { _, _ -> binding },
+            layoutInflater = { layoutInflater }
+        ) {
+            viewHolder = this
+            bindAsync(Dispatchers.Unconfined) {
+                val load = CompletableDeferred<String>()
+                loads.add(load)
+                results.add(load.await())
+            }
+        }
+        val payload = listOf<Any>("payload")
+
+        delegate.onCreateViewHolder(viewGroup)
+        delegate.onBindViewHolder(listOf<Any>("a"), 0, viewHolder!!, payload)
+        delegate.onViewDetachedFromWindow(viewHolder!!)
+        delegate.onViewAttachedToWindow(viewHolder!!)
+        Assert.assertEquals(2, loads.size)
+        loads[0].complete("cancelled")
+        loads[1].complete("a")
+        Assert.assertEquals(listOf("a"), results)
+
+        // Completed binds are not restarted
+        delegate.onViewDetachedFromWindow(viewHolder!!)
+        delegate.onViewAttachedToWindow(viewHolder!!)
+        Assert.assertEquals(2, loads.size)
+    }
+
+    @Test
+    fun `bindAsync runs once when attached after bind`() {
+        val view = fakeView()
+        val viewGroup = fakeViewGroup()
+        val layoutInflater = fakeLayoutInflater()
+        val binding = ViewBinding { view }
+        val loads = mutableListOf<CompletableDeferred<String>>()
+        val results = mutableListOf<String>()
+        var viewHolder: AdapterDelegateViewBindingViewHolder<Any, ViewBinding>? = null
+        val delegate = adapterDelegateViewBinding<Any, Any, ViewBinding>(
+            viewBinding = { _, _ -> binding },
+            layoutInflater = { layoutInflater }
+        ) {
+            viewHolder = this
+            bindAsync(Dispatchers.Unconfined) {
+                val load = CompletableDeferred<String>()
+                loads.add(load)
+                results.add(load.await())
+            }
+        }
+        val payload = listOf<Any>("payload")
+
+        delegate.onCreateViewHolder(viewGroup)
+        delegate.onBindViewHolder(listOf<Any>("a"), 0, viewHolder!!, payload)
+        delegate.onViewAttachedToWindow(viewHolder!!)
+        Assert.assertEquals(1, loads.size)
+        loads[0].complete("a")
+        Assert.assertEquals(listOf("a"), results)
+
+        delegate.onViewDetachedFromWindow(viewHolder!!)
+        delegate.onViewAttachedToWindow(viewHolder!!)
+        Assert.assertEquals(1, loads.size)
+    }
+
+    @Test
+    fun `bindAsync keeps payloads after onBindViewHolder returned`() {
+        val view = fakeView()
+        val viewGroup = fakeViewGroup()
+        val layoutInflater = fakeLayoutInflater()
+        val binding = ViewBinding { view }
+        val loads = mutableListOf<CompletableDeferred<String>>()
+        val results = mutableListOf<List<Any>>()
+        var viewHolder: AdapterDelegateViewBindingViewHolder<Any, ViewBinding>? = null
+        val delegate = adapterDelegateViewBinding<Any, Any, ViewBinding>(
+            viewBinding = { _, _ -> binding },
+            layoutInflater = { layoutInflater }
+        ) {
+            viewHolder = this
+            bindAsync(Dispatchers.Unconfined) {
+                val load = CompletableDeferred<String>()
+                loads.add(load)
+                load.await()
+                results.add(it)
+            }
+        }
+        // RecyclerView clears its payloads list after binding
+        val payloads = mutableListOf<Any>("payload")
+
+        delegate.onCreateViewHolder(viewGroup)
+        delegate.onBindViewHolder(listOf<Any>("a"), 0, viewHolder!!, payloads)
+        payloads.clear()
+        delegate.onViewDetachedFromWindow(viewHolder!!)
+        delegate.onViewAttachedToWindow(viewHolder!!)
+        loads[1].complete("a")
+        Assert.assertEquals(listOf(listOf<Any>("payload")), results)
+    }
+
+    @Test
+    fun `multiple bindAsync throws exception`() {
+        val view = fakeView()
+        val viewGroup = fakeViewGroup()
+        val layoutInflater = fakeLayoutInflater()
+        val binding = ViewBinding { view }
+
+        try {
+            val delegate = adapterDelegateViewBinding<Any, Any, ViewBinding>(
+                viewBinding = { _, _ -> binding },
+                layoutInflater = { layoutInflater }
+            ) {
+                bindAsync(Dispatchers.Unconfined) { }
+
+                bindAsync(Dispatchers.Unconfined) { }
+            }
+            delegate.onCreateViewHolder(viewGroup)
+            Assert.fail("Exception expected")
+        } catch (e: IllegalStateException) {
+            val expectedMsg = "bindAsync { ... } is already defined. Only one bindAsync { ... } is allowed."
+            Assert.assertEquals(expectedMsg, e.message)
+        }
+    }
+}
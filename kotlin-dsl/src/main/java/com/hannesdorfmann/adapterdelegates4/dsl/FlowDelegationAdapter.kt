@@ -0,0 +1,114 @@
+package com.hannesdorfmann.adapterdelegates4.dsl
+
+import androidx.lifecycle.Lifecycle
+import androidx.lifecycle.LifecycleOwner
+import androidx.lifecycle.lifecycleScope
+import androidx.lifecycle.repeatOnLifecycle
+import androidx.recyclerview.widget.DiffUtil
+import com.hannesdorfmann.adapterdelegates4.AdapterDelegate
+import com.hannesdorfmann.adapterdelegates4.AsyncListDifferDelegationAdapter
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.collect
+import kotlinx.coroutines.flow.conflate
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.suspendCancellableCoroutine
+import kotlin.coroutines.resume
+
+/**
+ * Creates an [AsyncListDifferDelegationAdapter] for the given delegates (i.e. created by [adapterDelegate])
+ * that displays the lists emitted by [items] while this [LifecycleOwner] is at least [Lifecycle.State.STARTED].
+ * See [collectItems] for the details.
+ *
+ * ```
+ * val adapter = viewLifecycleOwner.asyncListDifferDelegationAdapter(
+ *     viewModel.animals,
+ *     AnimalDiffCallback(),
+ *     catAdapterDelegate(),
+ *     dogAdapterDelegate()
+ * )
+ * ```
+ *
+ * @since 4.3.3
+ */
+fun <T> LifecycleOwner.asyncListDifferDelegationAdapter(
+    items: Flow<List<T>>,
+    diffCallback: DiffUtil.ItemCallback<T>,
+    vararg delegates: AdapterDelegate<List<T>>
+): AsyncListDifferDelegationAdapter<T> {
+    val adapter = AsyncListDifferDelegationAdapter(diffCallback, *delegates)
+    adapter.collectItems(this, items)
+    return adapter
+}
+
+/**
+ * Displays the lists emitted by [items] while [lifecycleOwner] is at least in the state [minActiveState].
+ * Collecting is stopped when the lifecycle falls below [minActiveState] and started again (with the latest list)
+ * once it gets back to [minActiveState].
+ *
+ * Requires androidx.lifecycle:lifecycle-runtime-ktx 2.4.0 or newer, which this artifact doesn't add.
+ *
+ * @return The job of the collector. It is cancelled automatically when the lifecycle gets destroyed.
+ * @see collectItems
+ * @since 4.3.3
+ */
+fun <T> AsyncListDifferDelegationAdapter<T>.collectItems(
+    lifecycleOwner: LifecycleOwner,
+    items: Flow<List<T>>,
+    minActiveState: Lifecycle.State = Lifecycle.State.STARTED
+): Job = requireLifecycleRuntimeKtx { lifecycleOwner.lifecycleScope }.launch {
+    requireLifecycleRuntimeKtx {
+        lifecycleOwner.repeatOnLifecycle(minActiveState) {
+            collectItems(items)
+        }
+    }
+}
+
+/**
+ * lifecycle-runtime-ktx is a compileOnly dependency of this artifact. Turns the [NoClassDefFoundError] of a
+ * missing (or older than 2.4.0) lifecycle-runtime-ktx into an exception that tells how to fix it.
+ */
+private inline fun <R> requireLifecycleRuntimeKtx(block: () -> R): R = try {
+    block()
+} catch (e: NoClassDefFoundError) {
+    // Missing classes of the collected flow are not our business
+    if (e.message?.startsWith("androidx/lifecycle/") != true) {
+        throw e
+    }
+    throw IllegalStateException(
+        "collectItems() requires androidx.lifecycle:lifecycle-runtime-ktx:2.4.0 or newer. " +
+                "Add it to the dependencies of your app.", e
+    )
+}
+
+/**
+ * Displays the lists emitted by [items] until the calling coroutine gets cancelled.
+ *
+ * Only one diff is calculated at a time: The next list is submitted after the previous one has been committed.
+ * Lists that are emitted while a diff is running are conflated, so if a flow emits a burst of lists only the
+ * first and the latest one are diffed and all lists in between are dropped.
+ *
+ * The items of this adapter must not be set from somewhere else while collecting, otherwise the pending list
+ * is never committed and collecting gets stuck until the coroutine gets cancelled.
+ *
+ * @since 4.3.3
+ */
+suspend fun <T> AsyncListDifferDelegationAdapter<T>.collectItems(items: Flow<List<T>>) {
+    items.conflate().collect { submitItems(it) }
+}
+
+/**
+ * Sets the items of this adapter and suspends until the diff has been calculated and the list has been
+ * committed.
+ *
+ * @since 4.3.3
+ */
+suspend fun <T> AsyncListDifferDelegationAdapter<T>.submitItems(items: List<T>) {
+    suspendCancellableCoroutine<Unit> { continuation ->
+        setItems(items) {
+            if (continuation.isActive) {
+                continuation.resume(Unit)
+            }
+        }
+    }
+}
@@ -13,9 +13,21 @@ import androidx.annotation.DrawableRes
 import androidx.annotation.IdRes
 import androidx.annotation.LayoutRes
 import androidx.annotation.StringRes
+import androidx.collection.SparseArrayCompat
 import androidx.recyclerview.widget.RecyclerView
 import com.hannesdorfmann.adapterdelegates4.AbsListItemAdapterDelegate
 import com.hannesdorfmann.adapterdelegates4.AdapterDelegate
+import com.hannesdorfmann.adapterdelegates4.ResourceCache
+import kotlin.coroutines.CoroutineContext
+import kotlin.coroutines.EmptyCoroutineContext
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.CoroutineStart
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.withContext
 
 /**
  * Simple DSL builder to create an [AdapterDelegate] that is backed by a [List] as dataset.
@@ -23,6 +35,8 @@ import com.hannesdorfmann.adapterdelegates4.AdapterDelegate
  * @param layout The android xml layout resource that contains the layout for this adapter delegate.
  * @param on The check that should be run if the AdapterDelegate is for the corresponding Item in the datasource.
  * In other words its the implementation of [AdapterDelegate.isForViewType].
+ * If not set, the AdapterDelegate is responsible for all items of type [I] and publishes [I] as item class,
+ * so that [com.hannesdorfmann.adapterdelegates4.AdapterDelegatesManager] can look it up by the class of the item.
  * @param block The DSL block. Specify here what to do when the ViewHolder gets created. Think of it as some kind of
  * initializer block. For example, you would setup a click listener on a Ui widget in that block followed by specifying
  * what to do once the ViewHolder binds to the data by specifying a bind block for
@@ -31,7 +45,7 @@ import com.hannesdorfmann.adapterdelegates4.AdapterDelegate
 inline fun <reified I : T, T> adapterDelegate(
     @LayoutRes layout: Int,
     itemType: Int = -1,
-    noinline on: (item: T, items: List<T>, position: Int) -> Boolean = { item, _, _ -> item is I },
+    noinline on: ((item: T, items: List<T>, position: Int) -> Boolean)? = null,
     noinline layoutInflater: (parent: ViewGroup, layoutRes: Int) -> View = { parent, layout ->
         LayoutInflater.from(parent.context).inflate(
             layout,
@@ -45,7 +59,8 @@ inline fun <reified I : T, T> adapterDelegate(
     return DslListAdapterDelegate(
         layout = layout,
         itemType = itemType,
-        on = on,
+        on = on ?: { item: T, _: List<T>, _: Int -> item is I },
+        itemClass = if (on == null) itemClassOf<I>() else null,
         initializerBlock = block,
         layoutInflater = layoutInflater
     )
@@ -57,6 +72,8 @@ inline fun <reified I : T, T> adapterDelegate(
  * @param layout The android xml layout resource that contains the layout for this adapter delegate.
  * @param on The check that should be run if the AdapterDelegate is for the corresponding Item in the datasource.
  * In other words its the implementation of [AdapterDelegate.isForViewType].
+ * If not set, the AdapterDelegate is responsible for all items of type [I] and publishes [I] as item class,
+ * so that [com.hannesdorfmann.adapterdelegates4.AdapterDelegatesManager] can look it up by the class of the item.
  * @param block The DSL block. Specify here what to do when the ViewHolder gets created. Think of it as some kind of
  * initializer block. For example, you would setup a click listener on a Ui widget in that block followed by specifying
  * what to do once the ViewHolder binds to the data by specifying a bind block for
@@ -65,7 +82,7 @@ inline fun <reified I : T, T> adapterDelegate(
 inline fun <reified I : T, T> adapterMutableListDelegate(
     @LayoutRes layout: Int,
     itemType: Int = -1,
-    noinline on: (item: T, items: List<T>, position: Int) -> Boolean = { item, _, _ -> item is I },
+    noinline on: ((item: T, items: List<T>, position: Int) -> Boolean)? = null,
     noinline layoutInflater: (parent: ViewGroup, layoutRes: Int) -> View = { parent, layout ->
         LayoutInflater.from(parent.context).inflate(
             layout,
@@ -79,12 +96,20 @@ inline fun <reified I : T, T> adapterMutableListDelegate(
     return DslListAdapterDelegate(
         layout = layout,
         itemType = itemType,
-        on = on,
+        on = on ?: { item: T, _: List<T>, _: Int -> item is I },
+        itemClass = if (on == null) itemClassOf<I>() else null,
         initializerBlock = block,
         layoutInflater = layoutInflater
     )
 }
 
+/**
+ * The class of [I] that is published by the DSL delegates if the default `on` check is used.
+ * Unlike `I::class.java` this returns the wrapper class for primitive types like [Int].
+ */
+@PublishedApi
+internal inline fun <reified I> itemClassOf(): Class<*> = arrayOfNulls<I>(0).javaClass.componentType
+
 /**
  * Delegate used internally in combination with [adapterDelegate]
  * @since 4.1.0
@@ -94,10 +119,16 @@ internal class DslListAdapterDelegate<I : T, T>(
     @LayoutRes private val layout: Int,
     private val itemType: Int,
     private val on: (item: T, items: List<T>, position: Int) -> Boolean,
+    private val itemClass: Class<*>?,
     private val initializerBlock: AdapterDelegateViewHolder<I>.() -> Unit,
     private val layoutInflater: (parent: ViewGroup, layout: Int) -> View
 ) : AbsListItemAdapterDelegate<I, T, AdapterDelegateViewHolder<I>>() {
 
+    /**
+     * Shared by all ViewHolders of this delegate
+     */
+    private val resourceCache = ResourceCache()
+
     override fun isForViewType(item: T, items: MutableList<T>, position: Int): Boolean = on(
         item, items, position
     )
@@ -106,10 +137,13 @@ internal class DslListAdapterDelegate<I : T, T>(
         return itemType
     }
 
+    override fun getItemClass(): Class<*>? = itemClass
+
     override fun onCreateViewHolder(parent: ViewGroup): AdapterDelegateViewHolder<I> =
         AdapterDelegateViewHolder<I>(
             layoutInflater(parent, layout)
         ).also {
+            it.resourceCache = resourceCache
             initializerBlock(it)
         }
 
@@ -120,12 +154,13 @@ internal class DslListAdapterDelegate<I : T, T>(
     ) {
         holder._item = item as Any
         holder._bind?.invoke(payloads) // It's ok to have an AdapterDelegate without binding block (i.e. static content)
+        holder.launchBindAsync(payloads)
     }
 
     override fun onViewRecycled(holder: RecyclerView.ViewHolder) {
         @Suppress("UNCHECKED_CAST")
         val vh = (holder as AdapterDelegateViewHolder<I>)
-
+        vh.cancelBindAsync()
         vh._onViewRecycled?.invoke()
     }
 
@@ -144,11 +179,13 @@ internal class DslListAdapterDelegate<I : T, T>(
         @Suppress("UNCHECKED_CAST")
         val vh = (holder as AdapterDelegateViewHolder<I>)
         vh._onViewAttachedToWindow?.invoke()
+        vh.resumeBindAsync()
     }
 
     override fun onViewDetachedFromWindow(holder: RecyclerView.ViewHolder) {
         @Suppress("UNCHECKED_CAST")
         val vh = (holder as AdapterDelegateViewHolder<I>)
+        vh.interruptBindAsync()
         vh._onViewDetachedFromWindow?.invoke()
     }
 }
@@ -171,6 +208,12 @@ class AdapterDelegateViewHolder<T>(view: View) : RecyclerView.ViewHolder(view) {
      */
     internal var _item: Any = Uninitialized
 
+    /**
+     * Resources shared by all ViewHolders of the AdapterDelegate that created this ViewHolder.
+     * Set internally, resources are resolved through [context] directly if not set.
+     */
+    internal var resourceCache: ResourceCache? = null
+
     /**
      * Get the current bound item.
      */
@@ -203,6 +246,7 @@ class AdapterDelegateViewHolder<T>(view: View) : RecyclerView.ViewHolder(view) {
      * @since 4.1.1
      */
     fun getString(@StringRes resId: Int): String {
+        resourceCache?.let { return it.getString(context, resId) }
         return context.getString(resId)
     }
 
@@ -220,6 +264,7 @@ class AdapterDelegateViewHolder<T>(view: View) : RecyclerView.ViewHolder(view) {
      * @since 4.1.1
      */
     fun getString(@StringRes resId: Int, vararg formatArgs: Any): String {
+        resourceCache?.let { return it.getString(context, resId, *formatArgs) }
         return context.getString(resId, *formatArgs)
     }
 
@@ -238,6 +283,7 @@ class AdapterDelegateViewHolder<T>(view: View) : RecyclerView.ViewHolder(view) {
      */
     @ColorInt
     fun getColor(@ColorRes id: Int): Int {
+        resourceCache?.let { return it.getColor(context, id) }
         return if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
             context.getColor(id)
         } else {
@@ -248,6 +294,7 @@ class AdapterDelegateViewHolder<T>(view: View) : RecyclerView.ViewHolder(view) {
     /**
      * Returns a drawable object associated with a particular resource ID and
      * styled for the current theme.
+     * The drawable shares its state with other drawables of this id, so call [Drawable.mutate] before changing it.
      *
      * @param id The desired resource identifier, as generated by the aapt
      * tool. This integer encodes the package, type, and resource
@@ -259,6 +306,7 @@ class AdapterDelegateViewHolder<T>(view: View) : RecyclerView.ViewHolder(view) {
      * @since 4.1.1
      */
     fun getDrawable(@DrawableRes id: Int): Drawable {
+        resourceCache?.let { return it.getDrawable(context, id)!! }
         return if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
             context.getDrawable(id)!!
         } else {
@@ -278,6 +326,7 @@ class AdapterDelegateViewHolder<T>(view: View) : RecyclerView.ViewHolder(view) {
      * does not exist.
      */
     fun getColorStateList(@ColorRes id: Int): ColorStateList {
+        resourceCache?.let { return it.getColorStateList(context, id)!! }
         return if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
             context.getColorStateList(id)
         } else {
@@ -320,6 +369,37 @@ class AdapterDelegateViewHolder<T>(view: View) : RecyclerView.ViewHolder(view) {
     internal var _onViewDetachedFromWindow: (() -> Unit)? = null
         private set
 
+    /**
+     * This should never be called directly.
+     * Use [bindAsync] instead which internally sets this field.
+     */
+    internal var _bindAsync: (suspend CoroutineScope.(payloads: List<Any>) -> Unit)? = null
+        private set
+
+    private var bindAsyncContext: CoroutineContext = EmptyCoroutineContext
+
+    /**
+     * Lazily created, lives as long as this ViewHolder. Only the bind jobs are cancelled.
+     */
+    private var bindAsyncScope: CoroutineScope? = null
+
+    private var bindAsyncJob: Job? = null
+
+    /**
+     * The payloads [bindAsyncJob] has been started with
+     */
+    private var bindAsyncPayloads: List<Any>? = null
+
+    /**
+     * Incremented whenever the current async bind gets stale, see [withBindContext]
+     */
+    private var bindGeneration = 0
+
+    /**
+     * The payloads of an async bind that has been cancelled on detach before it completed
+     */
+    private var interruptedBindPayloads: List<Any>? = null
+
     /**
      * Define here the block that should be run whenever the viewholder get binded.
      * You can access the current bound item with [item]. In case you need the position of the bound item inside the
@@ -332,6 +412,89 @@ class AdapterDelegateViewHolder<T>(view: View) : RecyclerView.ViewHolder(view) {
         this._bind = bindingBlock
     }
 
+    /**
+     * Define here the block that should be run asynchronously whenever the viewholder gets bound, i.e. to load a
+     * thumbnail or to query a database. If [bind] is defined too, it runs first.
+     *
+     * The block is started undispatched in [onBindViewHolder], so everything until the first suspension point runs
+     * synchronously. It is cancelled when the ViewHolder gets bound again or recycled, so results of a previous
+     * bind never show up on a recycled ViewHolder. If the ViewHolder is detached from window before the block has
+     * completed the block is cancelled and started again with the same payloads once the ViewHolder is attached
+     * again.
+     *
+     * Use [withBindContext] to switch to a background thread.
+     *
+     * @param context The context the block is started in, by default the main thread.
+     * @since 4.3.3
+     */
+    fun bindAsync(
+        context: CoroutineContext = Dispatchers.Main.immediate,
+        bindingBlock: suspend CoroutineScope.(payloads: List<Any>) -> Unit
+    ) {
+        if (_bindAsync != null) {
+            throw IllegalStateException("bindAsync { ... } is already defined. Only one bindAsync { ... } is allowed.")
+        }
+        bindAsyncContext = context
+        _bindAsync = bindingBlock
+    }
+
+    /**
+     * Like [withContext] but for use inside [bindAsync]: If this ViewHolder has been bound again or recycled while
+     * [block] was running, the result is dropped and the calling bind is cancelled, even if [block] itself didn't
+     * cooperate with cancellation.
+     *
+     * @since 4.3.3
+     */
+    suspend fun <R> withBindContext(
+        context: CoroutineContext = Dispatchers.Default,
+        block: suspend CoroutineScope.() -> R
+    ): R {
+        val generation = bindGeneration
+        val result = withContext(context, block)
+        if (generation != bindGeneration) {
+            throw CancellationException("ViewHolder has been bound again or recycled")
+        }
+        return result
+    }
+
+    internal fun launchBindAsync(payloads: List<Any>) {
+        val block = _bindAsync ?: return
+        cancelBindAsync()
+        val scope = bindAsyncScope ?: CoroutineScope(SupervisorJob() + bindAsyncContext).also {
+            bindAsyncScope = it
+        }
+        // RecyclerView clears its payloads list once onBindViewHolder returns
+        val boundPayloads = payloads.toList()
+        bindAsyncJob = scope.launch(start = CoroutineStart.UNDISPATCHED) {
+            block(boundPayloads)
+        }
+        bindAsyncPayloads = boundPayloads
+    }
+
+    internal fun cancelBindAsync() {
+        bindGeneration++
+        bindAsyncJob?.cancel()
+        bindAsyncJob = null
+        bindAsyncPayloads = null
+        interruptedBindPayloads = null
+    }
+
+    internal fun interruptBindAsync() {
+        val job = bindAsyncJob ?: return
+        if (job.isActive) {
+            val payloads = bindAsyncPayloads
+            cancelBindAsync()
+            interruptedBindPayloads = payloads
+        } else {
+            cancelBindAsync()
+        }
+    }
+
+    internal fun resumeBindAsync() {
+        val payloads = interruptedBindPayloads ?: return
+        launchBindAsync(payloads)
+    }
+
     /**
      * @see AdapterDelegate.onViewRecycled
      */
@@ -385,7 +548,24 @@ class AdapterDelegateViewHolder<T>(view: View) : RecyclerView.ViewHolder(view) {
     }
 
     /**
-     * Convenience method find a given view with the given id inside the layout
+     * Views found by [findViewById], keyed by id
+     */
+    private val viewsById = SparseArrayCompat<View>()
+
+    /**
+     * Convenience method find a given view with the given id inside the layout.
+     * The view is looked up only once and cached for the lifetime of this ViewHolder, so it is cheap to call
+     * this method in the bind block. Don't use it for views that are added or replaced later on.
      */
-    fun <V : View> findViewById(@IdRes id: Int): V = itemView.findViewById(id) as V
+    fun <V : View> findViewById(@IdRes id: Int): V {
+        val cached = viewsById.get(id)
+        if (cached != null) {
+            @Suppress("UNCHECKED_CAST")
+            return cached as V
+        }
+        @Suppress("UNCHECKED_CAST")
+        val view = itemView.findViewById<View>(id) as V
+        viewsById.put(id, view)
+        return view
+    }
 }
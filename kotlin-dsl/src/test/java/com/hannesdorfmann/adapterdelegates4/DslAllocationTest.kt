@@ -0,0 +1,163 @@
+package com.hannesdorfmann.adapterdelegates4
+
+import android.content.Context
+import android.view.View
+import android.view.ViewGroup
+import androidx.recyclerview.widget.RecyclerView
+import com.google.monitoring.runtime.instrumentation.AllocationRecorder
+import com.google.monitoring.runtime.instrumentation.Sampler
+import com.hannesdorfmann.adapterdelegates4.dsl.adapterDelegate
+import org.junit.After
+import org.junit.Assert
+import org.junit.Before
+import org.junit.Test
+import org.mockito.Mockito
+import org.mockito.Mockito.`when` as whenever
+
+/**
+ * Like AllocationTest of the library, but for delegates created with [adapterDelegate]. Runs in the
+ * allocationTest task of the kotlin-dsl build.gradle, which adds the java-allocation-instrumenter agent.
+ *
+ * Only the default `on` check is covered. A custom `on` check is a `(T, List<T>, Int) -> Boolean`, so
+ * calling it boxes positions outside of the Integer cache.
+ */
+class DslAllocationTest {
+
+    interface Animal
+    class Cat : Animal
+    class Dog : Animal
+
+    private val counter = AllocationCounter()
+    private val items: List<Animal> = List(ITEM_COUNT) { if (it % 2 == 0) Cat() else Dog() }
+    private val payloads = listOf<Any>("payload")
+
+    private var binds = 0
+    private var recycles = 0
+
+    @Before
+    fun setUp() {
+        AllocationRecorder.addSampler(counter)
+        counter.start()
+        val probe = Any()
+        counter.stop()
+        Assert.assertNotNull(probe)
+        Assert.assertEquals(
+            "Allocations are not recorded. The unit test JVM must be started with " +
+                    "-javaagent:java-allocation-instrumenter.jar", 1, counter.count
+        )
+    }
+
+    @After
+    fun tearDown() {
+        AllocationRecorder.removeSampler(counter)
+    }
+
+    @Test
+    fun `dsl delegates don't allocate in steady state`() {
+        val manager = AdapterDelegatesManager<List<Animal>>()
+        // View types above the Integer cache, boxing them would allocate
+        manager.addDelegate(1000, animalDelegate<Cat>())
+        manager.addDelegate(1001, animalDelegate<Dog>())
+        val holders = viewHolders(manager)
+
+        measure("getItemViewType") {
+            for (i in 0 until ITEM_COUNT) {
+                manager.getItemViewType(items, i)
+            }
+        }
+        measure("onBindViewHolder") {
+            for (i in 0 until ITEM_COUNT) {
+                val holder = holders[i % holders.size]
+                manager.onBindViewHolder(items, i, holder)
+                manager.onBindViewHolder(items, i, holder, payloads)
+            }
+        }
+        measure("onViewRecycled") {
+            for (i in 0 until ITEM_COUNT) {
+                manager.onViewRecycled(holders[i % holders.size])
+            }
+        }
+
+        Assert.assertEquals((WARMUP_ROUNDS + ROUNDS) * ITEM_COUNT * 2, binds)
+        Assert.assertEquals((WARMUP_ROUNDS + ROUNDS) * ITEM_COUNT, recycles)
+    }
+
+    private inline fun <reified I : Animal> animalDelegate(): AdapterDelegate<List<Animal>> {
+        val parentView = Mockito.mock(View::class.java)
+        whenever(parentView.context).thenReturn(Mockito.mock(Context::class.java))
+        return adapterDelegate<I, Animal>(0, layoutInflater = { _, _ -> parentView }) {
+            bind { binds++ }
+            onViewRecycled { recycles++ }
+        }
+    }
+
+    /**
+     * One ViewHolder per item at the positions 0 and 1
+     */
+    private fun viewHolders(manager: AdapterDelegatesManager<List<Animal>>): Array<RecyclerView.ViewHolder> {
+        val parent = Mockito.mock(ViewGroup::class.java)
+        return Array(2) { position ->
+            val viewType = manager.getItemViewType(items, position)
+            manager.onCreateViewHolder(parent, viewType).also {
+                val viewTypeField = RecyclerView.ViewHolder::class.java.getDeclaredField("mItemViewType")
+                viewTypeField.isAccessible = true
+                viewTypeField.set(it, viewType)
+            }
+        }
+    }
+
+    /**
+     * Runs the calls until the steady state is reached and asserts that running them again doesn't allocate
+     */
+    private fun measure(name: String, calls: () -> Unit) {
+        repeat(WARMUP_ROUNDS) { calls() }
+        counter.start()
+        repeat(ROUNDS) { calls() }
+        counter.stop()
+        if (counter.count != 0) {
+            Assert.fail(
+                "$name allocated ${counter.count} objects, first one: " +
+                        "${counter.firstClass?.name} (${counter.firstDescription})"
+            )
+        }
+    }
+
+    /**
+     * Counts the allocations of the test thread between [start] and [stop]. It must not allocate itself, the
+     * first allocation is kept for the failure message.
+     */
+    class AllocationCounter : Sampler {
+        @Volatile
+        private var thread: Thread? = null
+        var count = 0
+        var firstClass: Class<*>? = null
+        var firstDescription: String? = null
+
+        fun start() {
+            count = 0
+            firstClass = null
+            firstDescription = null
+            thread = Thread.currentThread()
+        }
+
+        fun stop() {
+            thread = null
+        }
+
+        override fun sampleAllocation(arrayCount: Int, description: String?, newObject: Any?, size: Long) {
+            if (thread !== Thread.currentThread()) {
+                return
+            }
+            if (count++ == 0) {
+                firstClass = newObject?.javaClass
+                firstDescription = description
+            }
+        }
+    }
+
+    private companion object {
+        const val ITEM_COUNT = 1000
+        const val WARMUP_ROUNDS = 20
+        const val ROUNDS = 5
+    }
+}
@@ -0,0 +1,81 @@
+package com.hannesdorfmann.adapterdelegates4
+
+import com.hannesdorfmann.adapterdelegates4.dsl.collectItems
+import com.hannesdorfmann.adapterdelegates4.dsl.submitItems
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.channels.Channel
+import kotlinx.coroutines.flow.consumeAsFlow
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.runBlocking
+import kotlinx.coroutines.yield
+import org.junit.Assert
+import org.junit.Test
+import org.mockito.Mockito
+
+class FlowDelegationAdapterTest {
+
+    /**
+     * Records the submitted lists, the test decides when a list gets committed
+     */
+    private class RecordingAdapter {
+        val submitted = mutableListOf<List<Int>>()
+        val commitCallbacks = mutableListOf<Runnable>()
+
+        @Suppress("UNCHECKED_CAST")
+        val adapter: AsyncListDifferDelegationAdapter<Int> =
+            Mockito.mock(AsyncListDifferDelegationAdapter::class.java) as AsyncListDifferDelegationAdapter<Int>
+
+        init {
+            Mockito.doAnswer {
+                @Suppress("UNCHECKED_CAST")
+                submitted.add(it.arguments[0] as List<Int>)
+                commitCallbacks.add(it.arguments[1] as Runnable)
+                null
+            }.`when`(adapter).setItems(Mockito.anyList(), Mockito.any(Runnable::class.java))
+        }
+    }
+
+    private suspend fun yieldAll() = repeat(10) { yield() }
+
+    @Test
+    fun `submitItems suspends until committed`() = runBlocking {
+        val recording = RecordingAdapter()
+        var submitted = false
+
+        launch(Dispatchers.Unconfined) {
+            recording.adapter.submitItems(listOf(1))
+            submitted = true
+        }
+
+        Assert.assertEquals(listOf(listOf(1)), recording.submitted)
+        Assert.assertFalse(submitted)
+        recording.commitCallbacks[0].run()
+        yieldAll()
+        Assert.assertTrue(submitted)
+    }
+
+    @Test
+    fun `lists emitted while diffing are conflated`() = runBlocking {
+        val recording = RecordingAdapter()
+        val items = Channel<List<Int>>(Channel.UNLIMITED)
+
+        val job = launch { recording.adapter.collectItems(items.consumeAsFlow()) }
+        items.send(listOf(1))
+        yieldAll()
+        Assert.assertEquals(listOf(listOf(1)), recording.submitted)
+
+        // Burst while the first diff is running
+        items.send(listOf(2))
+        items.send(listOf(3))
+        items.send(listOf(4))
+        yieldAll()
+        Assert.assertEquals(1, recording.submitted.size)
+
+        recording.commitCallbacks[0].run()
+        yieldAll()
+        Assert.assertEquals(listOf(listOf(1), listOf(4)), recording.submitted)
+
+        recording.commitCallbacks[1].run()
+        job.cancel()
+    }
+}
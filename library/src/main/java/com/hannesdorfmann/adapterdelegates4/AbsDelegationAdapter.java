@@ -59,7 +59,7 @@ import androidx.recyclerview.widget.RecyclerView;
  * @param <T> The type of the datasource / items
  * @author Hannes Dorfmann
  */
-public abstract class AbsDelegationAdapter<T> extends RecyclerView.Adapter {
+public abstract class AbsDelegationAdapter<T> extends RecyclerView.Adapter implements DelegationAdapter<T> {
 
     protected AdapterDelegatesManager<T> delegatesManager;
     @Nullable
@@ -132,6 +132,18 @@ public abstract class AbsDelegationAdapter<T> extends RecyclerView.Adapter {
         return delegatesManager.delegates;
     }
 
+    /**
+     * Get the {@link AdapterDelegatesManager} this adapter dispatches to
+     *
+     * @return The manager
+     * @since 4.3.3
+     */
+    @NonNull
+    @Override
+    public AdapterDelegatesManager<T> getDelegatesManager() {
+        return delegatesManager;
+    }
+
     /**
      * Get the items / data source of this adapter
      *
@@ -157,22 +169,13 @@ public abstract class AbsDelegationAdapter<T> extends RecyclerView.Adapter {
      * restarted.  If a new instance of the delegate later needs to be
      * created, the data you place in the Bundle here will be available
      * in the Bundle given to {@link #onRestoreInstanceState(Bundle)}.
+     * Each delegate gets its own Bundle (see {@link AdapterDelegatesManager#onSaveInstanceState(Bundle)}).
      *
      * @param outState Bundle in which to place your saved state.
      */
     @CallSuper
     public void onSaveInstanceState(@NonNull Bundle outState) {
-        SparseArrayCompat<AdapterDelegate<T>> delegates = getDeletes();
-        if (delegates.isEmpty()) {
-            return;
-        }
-        for (int i = 0; i < delegates.size(); i++) {
-            int key = delegates.keyAt(i);
-            AdapterDelegate<T> delegate = delegates.get(key);
-            if (delegate != null) {
-                delegate.onSaveInstanceState(outState);
-            }
-        }
+        delegatesManager.onSaveInstanceState(outState);
     }
 
     /**
@@ -183,17 +186,27 @@ public abstract class AbsDelegationAdapter<T> extends RecyclerView.Adapter {
      * @param state the data most recently supplied in {@link #onSaveInstanceState}.
      */
     @CallSuper
-    public void onRestoreInstanceState(Bundle state) {
-        SparseArrayCompat<AdapterDelegate<T>> delegates = getDeletes();
-        if (delegates.isEmpty()) {
-            return;
-        }
-        for (int i = 0; i < delegates.size(); i++) {
-            int key = delegates.keyAt(i);
-            AdapterDelegate<T> delegate = delegates.get(key);
-            if (delegate != null) {
-                delegate.onRestoreInstanceState(state);
-            }
-        }
+    public void onRestoreInstanceState(@Nullable Bundle state) {
+        delegatesManager.onRestoreInstanceState(state);
+    }
+
+    /**
+     * Adds a sink that receives the time spent in each callback of the delegates, i.e. {@link
+     * RecyclingStats} or {@link DelegateMetrics}
+     *
+     * @param sink The sink
+     * @see AdapterDelegatesManager#addMetricsSink(DelegateMetricsSink)
+     */
+    public void addMetricsSink(@NonNull DelegateMetricsSink sink) {
+        delegatesManager.addMetricsSink(sink);
+    }
+
+    /**
+     * Removes a sink that has been added with {@link #addMetricsSink(DelegateMetricsSink)}
+     *
+     * @param sink The sink
+     */
+    public void removeMetricsSink(@NonNull DelegateMetricsSink sink) {
+        delegatesManager.removeMetricsSink(sink);
     }
 }
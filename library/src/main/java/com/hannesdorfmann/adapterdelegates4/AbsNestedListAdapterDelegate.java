@@ -0,0 +1,285 @@
+/*
+ * Copyright (c) 2015 Hannes Dorfmann.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.hannesdorfmann.adapterdelegates4;
+
+import android.os.Parcelable;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.collection.LruCache;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * A base class for {@link AdapterDelegate}s that display a nested (i.e. horizontal) {@link
+ * RecyclerView} for an item, like a carousel in a vertical feed:
+ * <ul>
+ * <li>All nested RecyclerViews share one {@link RecyclerView.RecycledViewPool}, so the child
+ * ViewHolders are reused across carousels instead of being created for each of them.</li>
+ * <li>The state of the nested {@link RecyclerView.LayoutManager} (scroll position) is kept in a
+ * LRU cache keyed by {@link #getItemId(Object)} when the ViewHolder gets detached, while the
+ * nested list still has its children, and restored when an item with the same id gets bound or
+ * attached again.</li>
+ * <li>{@link LinearLayoutManager}s are configured to prefetch the first items of a nested list
+ * (see {@link #setInitialPrefetchItemCount(int)}) while the parent list scrolls.</li>
+ * </ul>
+ * <pre>
+ * {@code
+ * class CarouselAdapterDelegate extends AbsNestedListAdapterDelegate<Carousel, FeedItem, CarouselViewHolder>{
+ *
+ *      @Override protected boolean isForViewType(FeedItem item, List<FeedItem> items, int position){
+ *          return item instanceof Carousel;
+ *      }
+ *
+ *      @Override protected long getItemId(Carousel item){
+ *          return item.getId();
+ *      }
+ *
+ *      @Override protected CarouselViewHolder onCreateNestedListViewHolder(ViewGroup parent){
+ *          RecyclerView rv = (RecyclerView) inflater.inflate(R.layout.item_carousel, parent, false);
+ *          rv.setLayoutManager(new LinearLayoutManager(context, LinearLayoutManager.HORIZONTAL, false));
+ *          return new CarouselViewHolder(rv);
+ *      }
+ *
+ *      @Override protected void onBindNestedListViewHolder(Carousel item, CarouselViewHolder holder, List<Object> payloads){
+ *          holder.adapter.setItems(item.getEntries());
+ *          holder.adapter.notifyDataSetChanged();
+ *      }
+ * }
+ * }
+ * </pre>
+ *
+ * @param <I>  The type of the item that is managed by this AdapterDelegate. Must be a subtype of T
+ * @param <T>  The generic type of the list, in other words: {@code List<T>}
+ * @param <VH> The type of the ViewHolder
+ * @author Hannes Dorfmann
+ * @since 4.3.3
+ */
+public abstract class AbsNestedListAdapterDelegate<I extends T, T, VH extends AbsNestedListAdapterDelegate.NestedListViewHolder>
+        extends AbsListItemAdapterDelegate<I, T, VH> {
+
+    /**
+     * Default number of nested LayoutManager states that are kept in memory
+     */
+    public static final int DEFAULT_MAX_STATES = 50;
+
+    /**
+     * Default number of items a nested {@link LinearLayoutManager} prefetches
+     */
+    public static final int DEFAULT_INITIAL_PREFETCH_ITEM_COUNT = 4;
+
+    /**
+     * A {@link RecyclerView.ViewHolder} that holds a nested {@link RecyclerView}
+     */
+    public static class NestedListViewHolder extends RecyclerView.ViewHolder {
+
+        @NonNull
+        public final RecyclerView recyclerView;
+
+        long boundItemId = RecyclerView.NO_ID;
+
+        /**
+         * @param recyclerView The nested RecyclerView which is also the itemView
+         */
+        public NestedListViewHolder(@NonNull RecyclerView recyclerView) {
+            this(recyclerView, recyclerView);
+        }
+
+        /**
+         * @param itemView     The itemView
+         * @param recyclerView The nested RecyclerView, a child of itemView
+         */
+        public NestedListViewHolder(@NonNull View itemView, @NonNull RecyclerView recyclerView) {
+            super(itemView);
+            if (recyclerView == null) {
+                throw new NullPointerException("RecyclerView is null");
+            }
+            this.recyclerView = recyclerView;
+        }
+    }
+
+    private final RecyclerView.RecycledViewPool viewPool;
+    private final LruCache<Long, Parcelable> layoutManagerStates;
+    private int initialPrefetchItemCount = DEFAULT_INITIAL_PREFETCH_ITEM_COUNT;
+
+    public AbsNestedListAdapterDelegate() {
+        this(new RecyclerView.RecycledViewPool(), DEFAULT_MAX_STATES);
+    }
+
+    /**
+     * @param viewPool  The pool shared by all nested RecyclerViews. Pass the same pool to
+     *                  different delegates if their nested lists display the same view types.
+     * @param maxStates The max number of nested LayoutManager states that are kept in memory
+     */
+    public AbsNestedListAdapterDelegate(@NonNull RecyclerView.RecycledViewPool viewPool, int maxStates) {
+        if (viewPool == null) {
+            throw new NullPointerException("RecycledViewPool is null");
+        }
+        if (maxStates < 1) {
+            throw new IllegalArgumentException("maxStates must be >= 1 but was " + maxStates);
+        }
+        this.viewPool = viewPool;
+        this.layoutManagerStates = new LruCache<>(maxStates);
+    }
+
+    /**
+     * Set the number of items a nested {@link LinearLayoutManager} prefetches when the nested
+     * RecyclerView is about to scroll into the viewport of the parent. Should be the number of
+     * items that are visible in a nested list. Applies to ViewHolders created afterwards.
+     *
+     * @param initialPrefetchItemCount The number of items
+     */
+    public void setInitialPrefetchItemCount(int initialPrefetchItemCount) {
+        if (initialPrefetchItemCount < 0) {
+            throw new IllegalArgumentException(
+                    "initialPrefetchItemCount must be >= 0 but was " + initialPrefetchItemCount);
+        }
+        this.initialPrefetchItemCount = initialPrefetchItemCount;
+    }
+
+    /**
+     * Get the pool that is shared by all nested RecyclerViews
+     *
+     * @return The pool
+     */
+    @NonNull
+    public RecyclerView.RecycledViewPool getRecycledViewPool() {
+        return viewPool;
+    }
+
+    /**
+     * Removes all cached nested LayoutManager states, i.e. if the items have been replaced
+     */
+    public void clearLayoutManagerStates() {
+        layoutManagerStates.evictAll();
+    }
+
+    /**
+     * Get a stable id of the given item that is used as key of the cached nested LayoutManager
+     * state. Return {@link RecyclerView#NO_ID} if the state shouldn't be cached.
+     *
+     * @param item The item
+     * @return The id
+     */
+    protected abstract long getItemId(@NonNull I item);
+
+    /**
+     * Creates the {@link NestedListViewHolder}. The nested RecyclerView must already have a {@link
+     * RecyclerView.LayoutManager}.
+     *
+     * @param parent The ViewGroup parent of the given datasource
+     * @return ViewHolder
+     */
+    @NonNull
+    protected abstract VH onCreateNestedListViewHolder(@NonNull ViewGroup parent);
+
+    /**
+     * Called to bind the {@link NestedListViewHolder} to the item of the dataset, i.e. to set the
+     * items of the nested adapter. The nested LayoutManager state is restored afterwards.
+     *
+     * @param item     The data item
+     * @param holder   The ViewHolder
+     * @param payloads The payloads
+     */
+    protected abstract void onBindNestedListViewHolder(@NonNull I item, @NonNull VH holder,
+                                                       @NonNull List<Object> payloads);
+
+    @NonNull
+    @Override
+    protected final VH onCreateViewHolder(@NonNull ViewGroup parent) {
+        VH holder = onCreateNestedListViewHolder(parent);
+        RecyclerView recyclerView = holder.recyclerView;
+        recyclerView.setRecycledViewPool(viewPool);
+        RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+        if (layoutManager instanceof LinearLayoutManager) {
+            LinearLayoutManager linearLayoutManager = (LinearLayoutManager) layoutManager;
+            linearLayoutManager.setInitialPrefetchItemCount(initialPrefetchItemCount);
+            // Otherwise the children of a recycled nested list never get back to the shared pool
+            linearLayoutManager.setRecycleChildrenOnDetach(true);
+        }
+        return holder;
+    }
+
+    @Override
+    protected final void onBindViewHolder(@NonNull I item, @NonNull VH holder,
+                                          @NonNull List<Object> payloads) {
+        long itemId = getItemId(item);
+        if (!payloads.isEmpty() && itemId == holder.boundItemId) {
+            // Partial update of the same item, keep the current scroll position
+            onBindNestedListViewHolder(item, holder, payloads);
+            return;
+        }
+
+        saveLayoutManagerState(holder);
+        onBindNestedListViewHolder(item, holder, payloads);
+        holder.boundItemId = itemId;
+
+        RecyclerView.LayoutManager layoutManager = holder.recyclerView.getLayoutManager();
+        if (layoutManager == null) {
+            return;
+        }
+        Parcelable state = itemId != RecyclerView.NO_ID ? layoutManagerStates.get(itemId) : null;
+        if (state != null) {
+            layoutManager.onRestoreInstanceState(state);
+        } else {
+            layoutManager.scrollToPosition(0);
+        }
+    }
+
+    @Override
+    protected void onViewAttachedToWindow(@NonNull RecyclerView.ViewHolder viewHolder) {
+        super.onViewAttachedToWindow(viewHolder);
+        // A nested LinearLayoutManager has recycled its children on detach, so a ViewHolder that
+        // gets attached again without being bound again would start at the first item
+        NestedListViewHolder holder = (NestedListViewHolder) viewHolder;
+        RecyclerView.LayoutManager layoutManager = holder.recyclerView.getLayoutManager();
+        Parcelable state = holder.boundItemId != RecyclerView.NO_ID
+                ? layoutManagerStates.get(holder.boundItemId) : null;
+        if (layoutManager != null && state != null) {
+            layoutManager.onRestoreInstanceState(state);
+        }
+    }
+
+    @Override
+    protected void onViewDetachedFromWindow(@NonNull RecyclerView.ViewHolder viewHolder) {
+        super.onViewDetachedFromWindow(viewHolder);
+        // Called before the nested RecyclerView is removed from the window, so the
+        // LayoutManager still has its children to save the scroll position from
+        saveLayoutManagerState((NestedListViewHolder) viewHolder);
+    }
+
+    @Override
+    protected void onViewRecycled(@NonNull RecyclerView.ViewHolder viewHolder) {
+        super.onViewRecycled(viewHolder);
+        // The state has been saved when the ViewHolder got detached
+        ((NestedListViewHolder) viewHolder).boundItemId = RecyclerView.NO_ID;
+    }
+
+    private void saveLayoutManagerState(@NonNull NestedListViewHolder holder) {
+        if (holder.boundItemId == RecyclerView.NO_ID) {
+            return;
+        }
+        RecyclerView.LayoutManager layoutManager = holder.recyclerView.getLayoutManager();
+        Parcelable state = layoutManager != null ? layoutManager.onSaveInstanceState() : null;
+        if (state != null) {
+            layoutManagerStates.put(holder.boundItemId, state);
+        }
+    }
+}
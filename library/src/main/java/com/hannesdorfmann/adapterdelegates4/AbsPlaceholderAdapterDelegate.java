@@ -0,0 +1,26 @@
+package com.hannesdorfmann.adapterdelegates4;
+
+
+import androidx.annotation.NonNull;
+
+/**
+ * This class can be used as base class for a placeholder delegate {@link
+ * AdapterDelegatesManager#setPlaceholderDelegate(AdapterDelegate)}.
+ *
+ * @author Hannes Dorfmann
+ * @since 4.3.3
+ */
+public abstract class AbsPlaceholderAdapterDelegate<T> extends AdapterDelegate<T> {
+
+    /**
+     * Not needed, because never called for placeholder adapter delegates.
+     *
+     * @param items    The data source of the Adapter
+     * @param position The position in the datasource
+     * @return true
+     */
+    @Override
+    final protected boolean isForViewType(@NonNull T items, int position) {
+        return true;
+    }
+}
@@ -20,6 +20,7 @@ import android.os.Bundle;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.recyclerview.widget.RecyclerView;
 
 import java.util.List;
@@ -50,6 +51,52 @@ public abstract class AdapterDelegate<T> {
         return -1;
     }
 
+    /**
+     * Get the class of the items this delegate is responsible for. Only return a class if {@link
+     * #isForViewType(Object, int)} returns true if and only if the (non null) item at the given
+     * position of a {@link List} datasource is an instance of that class. If all delegates of an
+     * {@link AdapterDelegatesManager} return a class, the manager looks up the view type by the
+     * class of the item instead of calling {@link #isForViewType(Object, int)} of each delegate.
+     *
+     * @return The class of the items or <code>null</code> (default) if {@link
+     * #isForViewType(Object, int)} checks something else
+     * @since 4.3.3
+     */
+    @Nullable
+    protected Class<?> getItemClass() {
+        return null;
+    }
+
+    /**
+     * Get the number of spans the item at the given position occupies in a {@link
+     * androidx.recyclerview.widget.GridLayoutManager}, see {@link DelegateSpanSizeLookup}. Only
+     * called for items this delegate is responsible for.
+     *
+     * @param items     The data source
+     * @param position  The position in the datasource
+     * @param spanCount The number of spans of the GridLayoutManager
+     * @return The span size in the range [1, spanCount], 1 (default) or i.e. spanCount for full
+     * width headers
+     * @since 4.3.3
+     */
+    protected int getSpanSize(@NonNull T items, int position, int spanCount) {
+        return 1;
+    }
+
+    /**
+     * Whether the item at the given position is a header that sticks to the top of the
+     * RecyclerView until the next header pushes it away, see {@link StickyHeaderItemDecoration}.
+     * Only called for items this delegate is responsible for.
+     *
+     * @param items    The data source
+     * @param position The position in the datasource
+     * @return true if the item is a sticky header, false (default) otherwise
+     * @since 4.3.3
+     */
+    protected boolean isStickyHeader(@NonNull T items, int position) {
+        return false;
+    }
+
     /**
      * Creates the  {@link RecyclerView.ViewHolder} for the given data source item
      *
@@ -16,6 +16,8 @@
 
 package com.hannesdorfmann.adapterdelegates4;
 
+import android.os.Bundle;
+import android.util.Log;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
@@ -23,8 +25,13 @@ import androidx.annotation.Nullable;
 import androidx.collection.SparseArrayCompat;
 import androidx.recyclerview.widget.RecyclerView;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This class is the element that ties {@link RecyclerView.Adapter} together with {@link
@@ -51,6 +58,12 @@ import java.util.List;
  * responsible to handle a certain view type. If no fallback is specified, an Exception will be
  * thrown if no {@link AdapterDelegate} is responsible to handle a certain view type
  * </p>
+ * <p>
+ * Similar to that you can set a placeholder {@link AdapterDelegate} by using {@link
+ * #setPlaceholderDelegate(AdapterDelegate)} that will be used for <code>null</code> items in a
+ * {@link List} datasource (i.e. placeholders of a paged list) without asking any other {@link
+ * AdapterDelegate}.
+ * </p>
  *
  * @param <T> The type of the datasource of the adapter
  * @author Hannes Dorfmann
@@ -62,17 +75,79 @@ public class AdapterDelegatesManager<T> {
      */
     public static final int FALLBACK_DELEGATE_VIEW_TYPE = Integer.MAX_VALUE - 1;
 
+    /**
+     * ViewType for the placeholder delegate
+     */
+    public static final int PLACEHOLDER_DELEGATE_VIEW_TYPE = Integer.MAX_VALUE - 2;
+
+    /**
+     * Default max number of bytes the saved state of a single delegate may take
+     *
+     * @see #setMaxDelegateStateSize(int)
+     */
+    public static final int DEFAULT_MAX_DELEGATE_STATE_SIZE = 128 * 1024;
+
+    /**
+     * Prefix of the keys of the delegates sub bundles, followed by the view type
+     */
+    static final String STATE_KEY_PREFIX = "adapterdelegates:viewType:";
+
+    /**
+     * Prefix of the keys of the paths to spilled delegate states, followed by the view type
+     */
+    static final String SPILLED_STATE_KEY_PREFIX = "adapterdelegates:spilled:";
+
+    private static final String TAG = "AdapterDelegatesManager";
+
     /**
      * Used internally for {@link #onBindViewHolder(Object, int, RecyclerView.ViewHolder)} as empty
      * payload parameter
      */
     private static final List<Object> PAYLOADS_EMPTY_LIST = Collections.emptyList();
 
+    private static final DelegateMetricsSink[] NO_METRICS_SINKS = new DelegateMetricsSink[0];
+
     /**
      * Map for ViewType to AdapterDelegate
      */
     protected SparseArrayCompat<AdapterDelegate<T>> delegates = new SparseArrayCompat();
     protected AdapterDelegate<T> fallbackDelegate;
+    protected AdapterDelegate<T> placeholderDelegate;
+
+    /**
+     * Maps the class of an item to its view type if all delegates publish their item class (see
+     * {@link AdapterDelegate#getItemClass()}). <code>null</code> if not (yet) known.
+     */
+    @Nullable
+    private Map<Class<?>, Integer> viewTypesByItemClass;
+    private boolean viewTypesByItemClassChecked;
+    private int viewTypesByItemClassDelegatesCount;
+
+    private int maxDelegateStateSize = DEFAULT_MAX_DELEGATE_STATE_SIZE;
+    @Nullable
+    private File stateSpillDirectory;
+
+    /**
+     * Spilled states that have been restored but not been passed to their delegate yet
+     */
+    private final SparseArrayCompat<File> pendingSpilledStates = new SparseArrayCompat<>();
+
+    /**
+     * Spilled states that are referenced by the last saved state
+     */
+    private SparseArrayCompat<File> savedSpilledStates = new SparseArrayCompat<>();
+
+    /**
+     * Copy on write, so that dispatching doesn't need to allocate an iterator
+     */
+    private DelegateMetricsSink[] metricsSinks = NO_METRICS_SINKS;
+
+    private boolean tracingEnabled;
+
+    /**
+     * Trace section names by view type, computed on first use
+     */
+    private final SparseArrayCompat<DelegateTraceSections> traceSections = new SparseArrayCompat<>();
 
     /**
      * Creates a AdapterDelegatesManager without any delegates.
@@ -111,7 +186,7 @@ public class AdapterDelegatesManager<T> {
             viewType = delegates.size();
             while (delegates.get(viewType) != null) {
                 viewType++;
-                if (viewType == FALLBACK_DELEGATE_VIEW_TYPE) {
+                if (viewType == PLACEHOLDER_DELEGATE_VIEW_TYPE) {
                     throw new IllegalArgumentException(
                             "Oops, we are very close to Integer.MAX_VALUE. It seems that there are no more free and unused view type integers left to add another AdapterDelegate.");
                 }
@@ -151,8 +226,8 @@ public class AdapterDelegatesManager<T> {
      * @throws IllegalArgumentException if <b>allowReplacingDelegate</b>  is false and an {@link
      *                                  AdapterDelegate} is already added (registered)
      *                                  with the same ViewType.
-     * @throws IllegalArgumentException if viewType is {@link #FALLBACK_DELEGATE_VIEW_TYPE} which is
-     *                                  reserved
+     * @throws IllegalArgumentException if viewType is {@link #FALLBACK_DELEGATE_VIEW_TYPE} or
+     *                                  {@link #PLACEHOLDER_DELEGATE_VIEW_TYPE} which are reserved
      * @see #addDelegate(AdapterDelegate)
      * @see #addDelegate(int, AdapterDelegate)
      * @see #setFallbackDelegate(AdapterDelegate)
@@ -170,6 +245,12 @@ public class AdapterDelegatesManager<T> {
                     + " is reserved for fallback adapter delegate (see setFallbackDelegate() ). Please use another view type.");
         }
 
+        if (viewType == PLACEHOLDER_DELEGATE_VIEW_TYPE) {
+            throw new IllegalArgumentException("The view type = "
+                    + PLACEHOLDER_DELEGATE_VIEW_TYPE
+                    + " is reserved for placeholder adapter delegate (see setPlaceholderDelegate() ). Please use another view type.");
+        }
+
         if (!allowReplacingDelegate && delegates.get(viewType) != null) {
             throw new IllegalArgumentException(
                     "An AdapterDelegate is already registered for the viewType = "
@@ -179,6 +260,7 @@ public class AdapterDelegatesManager<T> {
         }
 
         delegates.put(viewType, delegate);
+        invalidateItemClassIndex();
 
         return this;
     }
@@ -201,6 +283,7 @@ public class AdapterDelegatesManager<T> {
 
         if (indexToRemove >= 0) {
             delegates.removeAt(indexToRemove);
+            invalidateItemClassIndex();
         }
         return this;
     }
@@ -213,6 +296,7 @@ public class AdapterDelegatesManager<T> {
      */
     public AdapterDelegatesManager<T> removeDelegate(int viewType) {
         delegates.remove(viewType);
+        invalidateItemClassIndex();
         return this;
     }
 
@@ -223,26 +307,71 @@ public class AdapterDelegatesManager<T> {
      * @param items    Adapter's data source
      * @param position the position in adapters data source
      * @return the ViewType (integer). Returns {@link #FALLBACK_DELEGATE_VIEW_TYPE} in case that the
-     * fallback adapter delegate should be used
+     * fallback adapter delegate should be used and {@link #PLACEHOLDER_DELEGATE_VIEW_TYPE} in case
+     * that the placeholder adapter delegate should be used
      * @throws NullPointerException if no {@link AdapterDelegate} has been found that is
      *                              responsible for the given data element in data set (No {@link AdapterDelegate} for the given
      *                              ViewType)
      * @throws NullPointerException if items is null
      */
     public int getItemViewType(@NonNull T items, int position) {
+        if (!tracingEnabled) {
+            return findItemViewType(items, position);
+        }
+        DelegateTraceSections.beginSection(DelegateTraceSections.DISPATCH);
+        try {
+            return findItemViewType(items, position);
+        } finally {
+            DelegateTraceSections.endSection();
+        }
+    }
 
+    private int findItemViewType(@NonNull T items, int position) {
         if (items == null) {
             throw new NullPointerException("Items datasource is null!");
         }
 
-        int delegatesCount = delegates.size();
-        for (int i = 0; i < delegatesCount; i++) {
-            AdapterDelegate<T> delegate = delegates.valueAt(i);
-            if (delegate.isForViewType(items, position)) {
-                if (delegate.getItemType() != -1) {
-                    return delegate.getItemType();
+        if (placeholderDelegate != null && isPlaceholder(items, position)) {
+            return PLACEHOLDER_DELEGATE_VIEW_TYPE;
+        }
+
+        int resolvedViewType = resolveItemViewType(items, position);
+        if (resolvedViewType != -1) {
+            return resolvedViewType;
+        }
+
+        Map<Class<?>, Integer> itemClassIndex = getItemClassIndex();
+        Object item;
+        if (itemClassIndex != null && items instanceof List<?>
+                && (item = ((List<?>) items).get(position)) != null) {
+            Class<?> itemClass = item.getClass();
+            Integer viewType = itemClassIndex.get(itemClass);
+            if (viewType == null && !itemClassIndex.containsKey(itemClass)) {
+                viewType = findViewTypeForItemClass(itemClass);
+                itemClassIndex.put(itemClass, viewType);
+            }
+            if (viewType != null) {
+                return viewType;
+            }
+        } else {
+            DelegateMetricsSink[] sinks = metricsSinks;
+            int delegatesCount = delegates.size();
+            for (int i = 0; i < delegatesCount; i++) {
+                AdapterDelegate<T> delegate = delegates.valueAt(i);
+                boolean isForViewType;
+                if (sinks.length == 0) {
+                    isForViewType = delegate.isForViewType(items, position);
+                } else {
+                    long start = System.nanoTime();
+                    isForViewType = delegate.isForViewType(items, position);
+                    reportMetric(sinks, delegates.keyAt(i), DelegateMetricsSink.EVENT_IS_FOR_VIEW_TYPE, start);
+                }
+                if (isForViewType) {
+                    if (delegate.getItemType() != -1) {
+                        return delegate.getItemType();
+                    }
+                    return delegates.keyAt(i);
                 }
-                return delegates.keyAt(i);
             }
         }
 
@@ -253,7 +382,7 @@ public class AdapterDelegatesManager<T> {
         final String errorMessage;
 
         if (items instanceof List<?>) {
-            String itemString = ((List<?>) items).get(position).toString();
+            String itemString = String.valueOf(((List<?>) items).get(position));
             errorMessage = "No AdapterDelegate added that matches item=" + itemString + " at position=" + position + " in data source";
         } else {
             errorMessage = "No AdapterDelegate added for item at position=" + position + ". items=" + items;
@@ -262,6 +391,90 @@ public class AdapterDelegatesManager<T> {
         throw new NullPointerException(errorMessage);
     }
 
+    /**
+     * Get the index from item class to view type. It's only available if all delegates publish the
+     * class of their items.
+     *
+     * @return The index or <code>null</code> if at least one delegate doesn't publish its item class
+     */
+    @Nullable
+    private Map<Class<?>, Integer> getItemClassIndex() {
+        int delegatesCount = delegates.size();
+        // delegates is accessible by subclasses and adapters, so it may be changed directly
+        if (!viewTypesByItemClassChecked || delegatesCount != viewTypesByItemClassDelegatesCount) {
+            viewTypesByItemClassChecked = true;
+            viewTypesByItemClassDelegatesCount = delegatesCount;
+            viewTypesByItemClass = null;
+            if (delegatesCount == 0) {
+                return null;
+            }
+            for (int i = 0; i < delegatesCount; i++) {
+                if (delegates.valueAt(i).getItemClass() == null) {
+                    return null;
+                }
+            }
+            viewTypesByItemClass = new HashMap<>();
+        }
+        return viewTypesByItemClass;
+    }
+
+    /**
+     * Like iterating over the delegates and calling {@link AdapterDelegate#isForViewType(Object,
+     * int)} but for delegates that publish their item class.
+     *
+     * @return The view type or <code>null</code> if no delegate is responsible for items of the
+     * given class
+     */
+    @Nullable
+    private Integer findViewTypeForItemClass(@NonNull Class<?> itemClass) {
+        int delegatesCount = delegates.size();
+        for (int i = 0; i < delegatesCount; i++) {
+            AdapterDelegate<T> delegate = delegates.valueAt(i);
+            if (delegate.getItemClass().isAssignableFrom(itemClass)) {
+                if (delegate.getItemType() != -1) {
+                    return delegate.getItemType();
+                }
+                return delegates.keyAt(i);
+            }
+        }
+        return null;
+    }
+
+    private void invalidateItemClassIndex() {
+        viewTypesByItemClassChecked = false;
+        viewTypesByItemClass = null;
+    }
+
+    /**
+     * Checks whether the item at the given position is a placeholder. Only called if a placeholder
+     * delegate has been set. The default implementation treats <code>null</code> items of a {@link
+     * List} datasource as placeholders.
+     *
+     * @param items    Adapter's data source
+     * @param position the position in adapters data source
+     * @return true if the item at the given position is a placeholder
+     */
+    protected boolean isPlaceholder(@NonNull T items, int position) {
+        return items instanceof List<?> && ((List<?>) items).get(position) == null;
+    }
+
+    /**
+     * Resolves the view type of an item without asking the delegates, i.e. by the class of the
+     * item like the managers generated by the adapterdelegates4-processor. Called from {@link
+     * #getItemViewType(Object, int)} for items that are not placeholders, so that the lookup is
+     * still part of its trace section (see {@link #setTracingEnabled(boolean)}). No delegate is
+     * asked, so no {@link DelegateMetricsSink#EVENT_IS_FOR_VIEW_TYPE} events are reported for the
+     * resolved items. The default implementation resolves nothing.
+     *
+     * @param items    Adapter's data source
+     * @param position the position in adapters data source
+     * @return the view type or -1 to let the delegates decide
+     * @since 4.3.3
+     */
+    protected int resolveItemViewType(@NonNull T items, int position) {
+        return -1;
+    }
+
     /**
      * This method must be called in {@link RecyclerView.Adapter#onCreateViewHolder(ViewGroup, int)}
      *
@@ -277,8 +490,27 @@ public class AdapterDelegatesManager<T> {
         if (delegate == null) {
             throw new NullPointerException("No AdapterDelegate added for ViewType " + viewType);
         }
+        if (!pendingSpilledStates.isEmpty()) {
+            restoreSpilledState(viewType, delegate);
+        }
 
-        RecyclerView.ViewHolder vh = delegate.onCreateViewHolder(parent);
+        boolean tracing = tracingEnabled;
+        if (tracing) {
+            DelegateTraceSections.beginSection(getTraceSections(viewType, delegate).create);
+        }
+        DelegateMetricsSink[] sinks = metricsSinks;
+        long start = sinks.length != 0 ? System.nanoTime() : 0;
+        RecyclerView.ViewHolder vh;
+        try {
+            vh = delegate.onCreateViewHolder(parent);
+        } finally {
+            if (tracing) {
+                DelegateTraceSections.endSection();
+            }
+        }
+        if (sinks.length != 0) {
+            reportMetric(sinks, viewType, DelegateMetricsSink.EVENT_CREATE, start);
+        }
         if (vh == null) {
             throw new NullPointerException("ViewHolder returned from AdapterDelegate "
                     + delegate
@@ -310,8 +542,77 @@ public class AdapterDelegatesManager<T> {
                     + " for viewType = "
                     + holder.getItemViewType());
         }
-        delegate.onBindViewHolder(items, position, holder,
-                payloads != null ? payloads : PAYLOADS_EMPTY_LIST);
+        if (!pendingSpilledStates.isEmpty()) {
+            restoreSpilledState(holder.getItemViewType(), delegate);
+        }
+        boolean tracing = tracingEnabled;
+        if (tracing) {
+            DelegateTraceSections.beginSection(getTraceSections(holder.getItemViewType(), delegate).bind);
+        }
+        DelegateMetricsSink[] sinks = metricsSinks;
+        long start = sinks.length != 0 ? System.nanoTime() : 0;
+        try {
+            delegate.onBindViewHolder(items, position, holder,
+                    payloads != null ? payloads : PAYLOADS_EMPTY_LIST);
+        } finally {
+            if (tracing) {
+                DelegateTraceSections.endSection();
+            }
+        }
+        if (sinks.length != 0) {
+            reportMetric(sinks, holder.getItemViewType(), DelegateMetricsSink.EVENT_BIND, start);
+        }
+    }
+
+    /**
+     * Like {@link #onBindViewHolder(Object, int, RecyclerView.ViewHolder, List)} but for adapters
+     * that already resolved the item at the given position. Item level delegates ({@link
+     * AbsListItemAdapterDelegate}) get the item passed directly instead of looking it up in the
+     * data source again. All other delegates get the data source.
+     *
+     * @param items    Adapter's data source
+     * @param position the position in data source
+     * @param item     the item at the given position in the data source
+     * @param holder   the ViewHolder to bind
+     * @param payloads A non-null list of merged payloads. Can be empty list if requires full update.
+     * @throws NullPointerException if no AdapterDelegate has been registered for ViewHolders
+     *                              viewType
+     * @since 4.3.3
+     */
+    public void onBindViewHolder(@NonNull T items, int position, @Nullable Object item,
+                                 @NonNull RecyclerView.ViewHolder holder, List payloads) {
+
+        AdapterDelegate<T> delegate = getDelegateForViewType(holder.getItemViewType());
+        if (delegate == null) {
+            throw new NullPointerException("No delegate found for item at position = "
+                    + position
+                    + " for viewType = "
+                    + holder.getItemViewType());
+        }
+        if (!pendingSpilledStates.isEmpty()) {
+            restoreSpilledState(holder.getItemViewType(), delegate);
+        }
+        List<Object> nonNullPayloads = payloads != null ? payloads : PAYLOADS_EMPTY_LIST;
+        boolean tracing = tracingEnabled;
+        if (tracing) {
+            DelegateTraceSections.beginSection(getTraceSections(holder.getItemViewType(), delegate).bind);
+        }
+        DelegateMetricsSink[] sinks = metricsSinks;
+        long start = sinks.length != 0 ? System.nanoTime() : 0;
+        try {
+            if (delegate instanceof AbsListItemAdapterDelegate) {
+                ((AbsListItemAdapterDelegate) delegate).onBindViewHolder(item, holder, nonNullPayloads);
+            } else {
+                delegate.onBindViewHolder(items, position, holder, nonNullPayloads);
+            }
+        } finally {
+            if (tracing) {
+                DelegateTraceSections.endSection();
+            }
+        }
+        if (sinks.length != 0) {
+            reportMetric(sinks, holder.getItemViewType(), DelegateMetricsSink.EVENT_BIND, start);
+        }
     }
 
     /**
@@ -329,6 +630,66 @@ public class AdapterDelegatesManager<T> {
         onBindViewHolder(items, position, holder, PAYLOADS_EMPTY_LIST);
     }
 
+    /**
+     * Get the span size of the item at the given position from the delegate of the given view
+     * type, see {@link AdapterDelegate#getSpanSize(Object, int, int)}
+     *
+     * @param items     Adapter's data source
+     * @param position  the position in data source
+     * @param viewType  the view type of the item at the given position, see {@link
+     *                  #getItemViewType(Object, int)}
+     * @param spanCount the number of spans of the GridLayoutManager
+     * @return the span size
+     * @throws NullPointerException     if no AdapterDelegate has been registered for the viewType
+     * @throws IllegalArgumentException if the delegate returns a span size that is not in the
+     *                                  range [1, spanCount]
+     * @since 4.3.3
+     */
+    public int getSpanSize(@NonNull T items, int position, int viewType, int spanCount) {
+        AdapterDelegate<T> delegate = getDelegateForViewType(viewType);
+        if (delegate == null) {
+            throw new NullPointerException("No delegate found for item at position = "
+                    + position
+                    + " for viewType = "
+                    + viewType);
+        }
+        int spanSize = delegate.getSpanSize(items, position, spanCount);
+        if (spanSize < 1 || spanSize > spanCount) {
+            throw new IllegalArgumentException("span size of "
+                    + delegate
+                    + " for item at position = "
+                    + position
+                    + " must be in range [1, "
+                    + spanCount
+                    + "] but was "
+                    + spanSize);
+        }
+        return spanSize;
+    }
+
+    /**
+     * Whether the item at the given position is a sticky header according to the delegate of the
+     * given view type, see {@link AdapterDelegate#isStickyHeader(Object, int)}
+     *
+     * @param items    Adapter's data source
+     * @param position the position in data source
+     * @param viewType the view type of the item at the given position, see {@link
+     *                 #getItemViewType(Object, int)}
+     * @return true if the item is a sticky header
+     * @throws NullPointerException if no AdapterDelegate has been registered for the viewType
+     * @since 4.3.3
+     */
+    public boolean isStickyHeader(@NonNull T items, int position, int viewType) {
+        AdapterDelegate<T> delegate = getDelegateForViewType(viewType);
+        if (delegate == null) {
+            throw new NullPointerException("No delegate found for item at position = "
+                    + position
+                    + " for viewType = "
+                    + viewType);
+        }
+        return delegate.isStickyHeader(items, position);
+    }
+
     /**
      * Must be called from {@link RecyclerView.Adapter#onViewRecycled(RecyclerView.ViewHolder)}
      *
@@ -344,7 +705,24 @@ public class AdapterDelegatesManager<T> {
                     + " for viewType = "
                     + holder.getItemViewType());
         }
-        delegate.onViewRecycled(holder);
+        boolean tracing = tracingEnabled;
+        if (tracing) {
+            DelegateTraceSections.beginSection(getTraceSections(holder.getItemViewType(), delegate).recycle);
+        }
+        DelegateMetricsSink[] sinks = metricsSinks;
+        try {
+            if (sinks.length == 0) {
+                delegate.onViewRecycled(holder);
+            } else {
+                long start = System.nanoTime();
+                delegate.onViewRecycled(holder);
+                reportMetric(sinks, holder.getItemViewType(), DelegateMetricsSink.EVENT_RECYCLE, start);
+            }
+        } finally {
+            if (tracing) {
+                DelegateTraceSections.endSection();
+            }
+        }
     }
 
     /**
@@ -368,7 +746,14 @@ public class AdapterDelegatesManager<T> {
                     + " for viewType = "
                     + holder.getItemViewType());
         }
-        return delegate.onFailedToRecycleView(holder);
+        DelegateMetricsSink[] sinks = metricsSinks;
+        if (sinks.length == 0) {
+            return delegate.onFailedToRecycleView(holder);
+        }
+        long start = System.nanoTime();
+        boolean recycle = delegate.onFailedToRecycleView(holder);
+        reportMetric(sinks, holder.getItemViewType(), DelegateMetricsSink.EVENT_FAILED_TO_RECYCLE, start);
+        return recycle;
     }
 
     /**
@@ -386,7 +771,14 @@ public class AdapterDelegatesManager<T> {
                     + " for viewType = "
                     + holder.getItemViewType());
         }
-        delegate.onViewAttachedToWindow(holder);
+        DelegateMetricsSink[] sinks = metricsSinks;
+        if (sinks.length == 0) {
+            delegate.onViewAttachedToWindow(holder);
+        } else {
+            long start = System.nanoTime();
+            delegate.onViewAttachedToWindow(holder);
+            reportMetric(sinks, holder.getItemViewType(), DelegateMetricsSink.EVENT_ATTACH, start);
+        }
     }
 
     /**
@@ -404,7 +796,14 @@ public class AdapterDelegatesManager<T> {
                     + " for viewType = "
                     + holder.getItemViewType());
         }
-        delegate.onViewDetachedFromWindow(holder);
+        DelegateMetricsSink[] sinks = metricsSinks;
+        if (sinks.length == 0) {
+            delegate.onViewDetachedFromWindow(holder);
+        } else {
+            long start = System.nanoTime();
+            delegate.onViewDetachedFromWindow(holder);
+            reportMetric(sinks, holder.getItemViewType(), DelegateMetricsSink.EVENT_DETACH, start);
+        }
     }
 
     /**
@@ -422,6 +821,23 @@ public class AdapterDelegatesManager<T> {
         return this;
     }
 
+    /**
+     * Set a placeholder delegate that should be used for placeholder items (see {@link
+     * #isPlaceholder(Object, int)}). Placeholders are dispatched to this delegate without
+     * asking any other {@link AdapterDelegate}.
+     *
+     * @param placeholderDelegate The {@link AdapterDelegate} that should be used for placeholders.
+     *                            <code>null</code> you can set this to null if you want to remove a
+     *                            previously set placeholder AdapterDelegate
+     * @see AbsPlaceholderAdapterDelegate
+     * @since 4.3.3
+     */
+    public AdapterDelegatesManager<T> setPlaceholderDelegate(
+            @Nullable AdapterDelegate<T> placeholderDelegate) {
+        this.placeholderDelegate = placeholderDelegate;
+        return this;
+    }
+
     /**
      * Get the view type integer for the given {@link AdapterDelegate}
      *
@@ -447,12 +863,15 @@ public class AdapterDelegatesManager<T> {
      *
      * @param viewType The view type integer we want to retrieve the associated
      *                 delegate for.
-     * @return The {@link AdapterDelegate} associated with the view type param if it exists,
-     * the fallback delegate otherwise if it is set or returns <code>null</code> if no delegate is
+     * @return The {@link AdapterDelegate} associated with the view type param if it exists
+     * (including the placeholder delegate), the fallback delegate otherwise if it is set or returns <code>null</code> if no delegate is
      * associated to this viewType (and no fallback has been set).
      */
     @Nullable
     public AdapterDelegate<T> getDelegateForViewType(int viewType) {
+        if (viewType == PLACEHOLDER_DELEGATE_VIEW_TYPE && placeholderDelegate != null) {
+            return placeholderDelegate;
+        }
         return delegates.get(viewType, fallbackDelegate);
     }
 
@@ -466,4 +885,300 @@ public class AdapterDelegatesManager<T> {
     public AdapterDelegate<T> getFallbackDelegate() {
         return fallbackDelegate;
     }
+
+    /**
+     * Get the placeholder delegate
+     *
+     * @return The placeholder delegate or <code>null</code> if no placeholder delegate has been set
+     * @see #setPlaceholderDelegate(AdapterDelegate)
+     * @since 4.3.3
+     */
+    @Nullable
+    public AdapterDelegate<T> getPlaceholderDelegate() {
+        return placeholderDelegate;
+    }
+
+    /**
+     * Adds a sink that receives the time spent in each callback of the delegates. Without sinks the
+     * callbacks are not timed at all.
+     *
+     * @param sink The sink, i.e. {@link DelegateMetrics}
+     * @return self
+     * @see #removeMetricsSink(DelegateMetricsSink)
+     * @since 4.3.3
+     */
+    public AdapterDelegatesManager<T> addMetricsSink(@NonNull DelegateMetricsSink sink) {
+        if (sink == null) {
+            throw new NullPointerException("DelegateMetricsSink is null");
+        }
+        DelegateMetricsSink[] sinks = Arrays.copyOf(metricsSinks, metricsSinks.length + 1);
+        sinks[sinks.length - 1] = sink;
+        metricsSinks = sinks;
+        return this;
+    }
+
+    /**
+     * Removes a sink that has been added with {@link #addMetricsSink(DelegateMetricsSink)}
+     *
+     * @param sink The sink
+     * @return self
+     * @since 4.3.3
+     */
+    public AdapterDelegatesManager<T> removeMetricsSink(@NonNull DelegateMetricsSink sink) {
+        DelegateMetricsSink[] sinks = metricsSinks;
+        for (int i = 0; i < sinks.length; i++) {
+            if (sinks[i] == sink) {
+                DelegateMetricsSink[] newSinks = new DelegateMetricsSink[sinks.length - 1];
+                System.arraycopy(sinks, 0, newSinks, 0, i);
+                System.arraycopy(sinks, i + 1, newSinks, i, sinks.length - i - 1);
+                metricsSinks = newSinks.length == 0 ? NO_METRICS_SINKS : newSinks;
+                break;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Enables system trace sections (see {@link android.os.Trace}) around the create, bind and
+     * recycle callbacks of the delegates and around {@link #getItemViewType(Object, int)}, so that
+     * the time spent in each delegate can be seen in a system trace (i.e. Perfetto). The sections
+     * are named like "AD Bind CatAdapterDelegate [1]" (class name of the delegate and view type)
+     * and "AD Dispatch". The names are computed once per view type. Disabled by default.
+     *
+     * @param tracingEnabled true to enable tracing
+     * @return self
+     * @since 4.3.3
+     */
+    public AdapterDelegatesManager<T> setTracingEnabled(boolean tracingEnabled) {
+        this.tracingEnabled = tracingEnabled;
+        return this;
+    }
+
+    /**
+     * @return true if tracing is enabled
+     * @see #setTracingEnabled(boolean)
+     * @since 4.3.3
+     */
+    public boolean isTracingEnabled() {
+        return tracingEnabled;
+    }
+
+    @NonNull
+    private DelegateTraceSections getTraceSections(int viewType, @NonNull AdapterDelegate<T> delegate) {
+        DelegateTraceSections sections = traceSections.get(viewType);
+        // The delegate of a view type may have been replaced
+        if (sections == null || sections.delegate != delegate) {
+            sections = new DelegateTraceSections(viewType, delegate);
+            traceSections.put(viewType, sections);
+        }
+        return sections;
+    }
+
+    private static void reportMetric(@NonNull DelegateMetricsSink[] sinks, int viewType, int event,
+                                     long start) {
+        long duration = System.nanoTime() - start;
+        for (DelegateMetricsSink sink : sinks) {
+            sink.onEvent(viewType, event, duration);
+        }
+    }
+
+    /**
+     * Set the max number of bytes the saved state of a single {@link AdapterDelegate} may take in
+     * a {@link android.os.Parcel}. Larger states are spilled to disk if a directory has been set
+     * (see {@link #setStateSpillDirectory(File)}) or dropped otherwise, because all saved states
+     * share the 1 MB binder transaction limit.
+     *
+     * @param maxDelegateStateSize The max number of bytes. Defaults to {@link
+     *                             #DEFAULT_MAX_DELEGATE_STATE_SIZE}
+     * @return self
+     * @since 4.3.3
+     */
+    public AdapterDelegatesManager<T> setMaxDelegateStateSize(int maxDelegateStateSize) {
+        if (maxDelegateStateSize < 0) {
+            throw new IllegalArgumentException(
+                    "maxDelegateStateSize must be >= 0 but was " + maxDelegateStateSize);
+        }
+        this.maxDelegateStateSize = maxDelegateStateSize;
+        return this;
+    }
+
+    /**
+     * Get the max number of bytes the saved state of a single delegate may take
+     *
+     * @return The max number of bytes
+     * @see #setMaxDelegateStateSize(int)
+     * @since 4.3.3
+     */
+    public int getMaxDelegateStateSize() {
+        return maxDelegateStateSize;
+    }
+
+    /**
+     * Set a directory where states that exceed the max delegate state size (see {@link
+     * #setMaxDelegateStateSize(int)}) are written to instead of being dropped. Spilled states are
+     * read back when the corresponding delegate creates or binds a ViewHolder the next time.
+     * <p>
+     * Each view type is spilled to a file with a fixed name in this directory. Spilled states that
+     * are not referenced anymore, i.e. because the process has been killed or a view type hasn't
+     * been shown again, are deleted from this directory on the next save or restore. So use a
+     * fixed directory in {@link android.content.Context#getCacheDir()} that isn't shared with
+     * other {@link AdapterDelegatesManager}s, like <code>new File(context.getCacheDir(),
+     * "feed-states")</code>.
+     * </p>
+     *
+     * @param stateSpillDirectory The directory or <code>null</code> to drop oversized states
+     * @return self
+     * @since 4.3.3
+     */
+    public AdapterDelegatesManager<T> setStateSpillDirectory(@Nullable File stateSpillDirectory) {
+        this.stateSpillDirectory = stateSpillDirectory;
+        return this;
+    }
+
+    /**
+     * Must be called from the adapters onSaveInstanceState(). Each {@link AdapterDelegate}
+     * (including fallback and placeholder delegate) gets its own {@link Bundle} that is stored
+     * under a key containing its view type, so keys of different delegates can't collide.
+     *
+     * @param outState Bundle in which to place the saved states.
+     * @see #setMaxDelegateStateSize(int)
+     * @since 4.3.3
+     */
+    public void onSaveInstanceState(@NonNull Bundle outState) {
+        SparseArrayCompat<File> spilled = new SparseArrayCompat<>();
+        for (int i = 0; i < delegates.size(); i++) {
+            saveDelegateState(delegates.keyAt(i), delegates.valueAt(i), outState, spilled);
+        }
+        if (fallbackDelegate != null) {
+            saveDelegateState(FALLBACK_DELEGATE_VIEW_TYPE, fallbackDelegate, outState, spilled);
+        }
+        if (placeholderDelegate != null) {
+            saveDelegateState(PLACEHOLDER_DELEGATE_VIEW_TYPE, placeholderDelegate, outState, spilled);
+        }
+
+        // Spilled states of a previous save are not referenced anymore
+        for (int i = 0; i < savedSpilledStates.size(); i++) {
+            File file = savedSpilledStates.valueAt(i);
+            if (spilled.indexOfValue(file) < 0 && pendingSpilledStates.indexOfValue(file) < 0) {
+                file.delete();
+            }
+        }
+        savedSpilledStates = spilled;
+        if (stateSpillDirectory != null) {
+            SpilledStates.deleteStale(stateSpillDirectory, spilled, pendingSpilledStates);
+        }
+    }
+
+    /**
+     * Must be called from the adapters onRestoreInstanceState(). Passes each {@link
+     * AdapterDelegate} the {@link Bundle} it has filled in {@link #onSaveInstanceState(Bundle)}.
+     * Spilled states are restored lazily once the delegate is used again, spilled states that the
+     * given state doesn't reference are deleted.
+     *
+     * @param state the data most recently supplied in {@link #onSaveInstanceState}.
+     * @since 4.3.3
+     */
+    public void onRestoreInstanceState(@Nullable Bundle state) {
+        pendingSpilledStates.clear();
+        if (state != null) {
+            for (int i = 0; i < delegates.size(); i++) {
+                restoreDelegateState(delegates.keyAt(i), delegates.valueAt(i), state);
+            }
+            if (fallbackDelegate != null) {
+                restoreDelegateState(FALLBACK_DELEGATE_VIEW_TYPE, fallbackDelegate, state);
+            }
+            if (placeholderDelegate != null) {
+                restoreDelegateState(PLACEHOLDER_DELEGATE_VIEW_TYPE, placeholderDelegate, state);
+            }
+        }
+        if (stateSpillDirectory != null) {
+            SpilledStates.deleteStale(stateSpillDirectory, savedSpilledStates, pendingSpilledStates);
+        }
+    }
+
+    /**
+     * Measures the number of bytes the given state takes in a {@link android.os.Parcel}
+     *
+     * @param state The state of a single delegate
+     * @return The size in bytes
+     * @since 4.3.3
+     */
+    protected int getStateSize(@NonNull Bundle state) {
+        return SpilledStates.sizeOf(state);
+    }
+
+    private void saveDelegateState(int viewType, @NonNull AdapterDelegate<T> delegate,
+                                   @NonNull Bundle outState, @NonNull SparseArrayCompat<File> spilled) {
+        File pending = pendingSpilledStates.get(viewType);
+        if (pending != null) {
+            // Not used since it has been restored, so the delegate doesn't know its state yet
+            outState.putString(SPILLED_STATE_KEY_PREFIX + viewType, pending.getPath());
+            spilled.put(viewType, pending);
+            return;
+        }
+
+        Bundle state = new Bundle();
+        delegate.onSaveInstanceState(state);
+        if (state.isEmpty()) {
+            return;
+        }
+
+        int size = getStateSize(state);
+        if (size <= maxDelegateStateSize) {
+            outState.putBundle(STATE_KEY_PREFIX + viewType, state);
+            return;
+        }
+
+        if (stateSpillDirectory != null) {
+            try {
+                File file = SpilledStates.write(stateSpillDirectory, viewType, state);
+                outState.putString(SPILLED_STATE_KEY_PREFIX + viewType, file.getPath());
+                spilled.put(viewType, file);
+                return;
+            } catch (IOException | RuntimeException e) {
+                Log.w(TAG, "Could not spill state of " + delegate + " for viewType = " + viewType, e);
+            }
+        }
+        Log.w(TAG, "Dropped state of "
+                + delegate
+                + " for viewType = "
+                + viewType
+                + " because it takes "
+                + size
+                + " bytes but max delegate state size is "
+                + maxDelegateStateSize
+                + " bytes");
+    }
+
+    private void restoreDelegateState(int viewType, @NonNull AdapterDelegate<T> delegate,
+                                      @NonNull Bundle state) {
+        Bundle delegateState = state.getBundle(STATE_KEY_PREFIX + viewType);
+        if (delegateState != null) {
+            delegateState.setClassLoader(delegate.getClass().getClassLoader());
+            delegate.onRestoreInstanceState(delegateState);
+            return;
+        }
+        String spilledPath = state.getString(SPILLED_STATE_KEY_PREFIX + viewType);
+        if (spilledPath != null) {
+            pendingSpilledStates.put(viewType, new File(spilledPath));
+        }
+    }
+
+    private void restoreSpilledState(int viewType, @NonNull AdapterDelegate<T> delegate) {
+        File file = pendingSpilledStates.get(viewType);
+        if (file == null) {
+            return;
+        }
+        pendingSpilledStates.remove(viewType);
+        // Keep the file until the next save, the last saved state may still reference it
+        savedSpilledStates.put(viewType, file);
+        try {
+            Bundle state = SpilledStates.read(file, delegate.getClass().getClassLoader());
+            if (state != null) {
+                delegate.onRestoreInstanceState(state);
+            }
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "Could not restore spilled state of " + delegate + " for viewType = " + viewType, e);
+        }
+    }
 }
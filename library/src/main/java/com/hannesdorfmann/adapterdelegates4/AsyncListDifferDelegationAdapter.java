@@ -4,9 +4,11 @@ import android.os.Bundle;
 import android.view.ViewGroup;
 
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import androidx.annotation.CallSuper;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.collection.SparseArrayCompat;
 import androidx.recyclerview.widget.AdapterListUpdateCallback;
 import androidx.recyclerview.widget.AsyncDifferConfig;
@@ -41,7 +43,7 @@ import androidx.recyclerview.widget.RecyclerView;
  * @author Hannes Dorfmann
  */
 
-public class AsyncListDifferDelegationAdapter<T> extends RecyclerView.Adapter {
+public class AsyncListDifferDelegationAdapter<T> extends RecyclerView.Adapter implements DelegationAdapter<List<T>> {
 
     protected final AdapterDelegatesManager<List<T>> delegatesManager;
     protected final AsyncListDiffer<T> differ;
@@ -114,6 +116,36 @@ public class AsyncListDifferDelegationAdapter<T> extends RecyclerView.Adapter {
         this.delegatesManager = new AdapterDelegatesManager<List<T>>(delegates);
     }
 
+    /**
+     * Creates an adapter that calculates the diffs on the given executor instead of the default
+     * one of {@link AsyncDifferConfig}.
+     *
+     * @param diffCallback       The callback
+     * @param backgroundExecutor The executor to calculate the diffs on, see {@link DiffExecutors}
+     * @param delegatesManager   The delegates manager
+     * @since 4.3.3
+     */
+    public AsyncListDifferDelegationAdapter(@NonNull DiffUtil.ItemCallback<T> diffCallback,
+                                            @NonNull Executor backgroundExecutor,
+                                            @NonNull AdapterDelegatesManager<List<T>> delegatesManager) {
+        this(DiffExecutors.config(diffCallback, backgroundExecutor), delegatesManager);
+    }
+
+    /**
+     * Adds a list of {@link AdapterDelegate}s and calculates the diffs on the given executor
+     * instead of the default one of {@link AsyncDifferConfig}.
+     *
+     * @param diffCallback       The callback
+     * @param backgroundExecutor The executor to calculate the diffs on, see {@link DiffExecutors}
+     * @param delegates          The delegates
+     * @since 4.3.3
+     */
+    public AsyncListDifferDelegationAdapter(@NonNull DiffUtil.ItemCallback<T> diffCallback,
+                                            @NonNull Executor backgroundExecutor,
+                                            @NonNull AdapterDelegate<List<T>>... delegates) {
+        this(DiffExecutors.config(diffCallback, backgroundExecutor), delegates);
+    }
+
     @NonNull
     @Override
     public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -159,6 +191,18 @@ public class AsyncListDifferDelegationAdapter<T> extends RecyclerView.Adapter {
         return delegatesManager.delegates;
     }
 
+    /**
+     * Get the {@link AdapterDelegatesManager} this adapter dispatches to
+     *
+     * @return The manager
+     * @since 4.3.3
+     */
+    @NonNull
+    @Override
+    public AdapterDelegatesManager<List<T>> getDelegatesManager() {
+        return delegatesManager;
+    }
+
     /**
      * Get the items / data source of this adapter
      *
@@ -198,22 +242,13 @@ public class AsyncListDifferDelegationAdapter<T> extends RecyclerView.Adapter {
      * restarted.  If a new instance of the delegate later needs to be
      * created, the data you place in the Bundle here will be available
      * in the Bundle given to {@link #onRestoreInstanceState(Bundle)}.
+     * Each delegate gets its own Bundle (see {@link AdapterDelegatesManager#onSaveInstanceState(Bundle)}).
      *
      * @param outState Bundle in which to place your saved state.
      */
     @CallSuper
     public void onSaveInstanceState(@NonNull Bundle outState) {
-        SparseArrayCompat<AdapterDelegate<List<T>>> delegates = getDeletes();
-        if (delegates.isEmpty()) {
-            return;
-        }
-        for (int i = 0; i < delegates.size(); i++) {
-            int key = delegates.keyAt(i);
-            AdapterDelegate<List<T>> delegate = delegates.get(key);
-            if (delegate != null) {
-                delegate.onSaveInstanceState(outState);
-            }
-        }
+        delegatesManager.onSaveInstanceState(outState);
     }
 
     /**
@@ -224,17 +259,27 @@ public class AsyncListDifferDelegationAdapter<T> extends RecyclerView.Adapter {
      * @param state the data most recently supplied in {@link #onSaveInstanceState}.
      */
     @CallSuper
-    public void onRestoreInstanceState(Bundle state) {
-        SparseArrayCompat<AdapterDelegate<List<T>>> delegates = getDeletes();
-        if (delegates.isEmpty()) {
-            return;
-        }
-        for (int i = 0; i < delegates.size(); i++) {
-            int key = delegates.keyAt(i);
-            AdapterDelegate<List<T>> delegate = delegates.get(key);
-            if (delegate != null) {
-                delegate.onRestoreInstanceState(state);
-            }
-        }
+    public void onRestoreInstanceState(@Nullable Bundle state) {
+        delegatesManager.onRestoreInstanceState(state);
+    }
+
+    /**
+     * Adds a sink that receives the time spent in each callback of the delegates, i.e. {@link
+     * RecyclingStats} or {@link DelegateMetrics}
+     *
+     * @param sink The sink
+     * @see AdapterDelegatesManager#addMetricsSink(DelegateMetricsSink)
+     */
+    public void addMetricsSink(@NonNull DelegateMetricsSink sink) {
+        delegatesManager.addMetricsSink(sink);
+    }
+
+    /**
+     * Removes a sink that has been added with {@link #addMetricsSink(DelegateMetricsSink)}
+     *
+     * @param sink The sink
+     */
+    public void removeMetricsSink(@NonNull DelegateMetricsSink sink) {
+        delegatesManager.removeMetricsSink(sink);
     }
 }
@@ -0,0 +1,280 @@
+/*
+ * Copyright (c) 2015 Hannes Dorfmann.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.hannesdorfmann.adapterdelegates4;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.collection.SparseArrayCompat;
+
+/**
+ * A {@link DelegateMetricsSink} that records the count and the durations of each event per view
+ * type in a histogram with log-linear buckets (like HdrHistogram): Each power of two range is
+ * split into {@value #SUB_BUCKET_COUNT} linear buckets, so a percentile is at most ~6% above the
+ * real value. Recording doesn't allocate once the first event of a view type has been recorded.
+ * <pre>
+ * {@code
+ * DelegateMetrics metrics = new DelegateMetrics();
+ * delegatesManager.addMetricsSink(metrics);
+ * ...
+ * for (DelegateMetrics.Snapshot snapshot : metrics.getSnapshots()) {
+ *      telemetry.log(snapshot.getViewType(), snapshot.getEvent(), snapshot.getP50Nanos(), snapshot.getP99Nanos());
+ * }
+ * }
+ * </pre>
+ * This class is not thread safe, take snapshots on the main thread.
+ *
+ * @author Hannes Dorfmann
+ * @since 4.3.3
+ */
+@MainThread
+public class DelegateMetrics implements DelegateMetricsSink {
+
+    /**
+     * Number of linear buckets per power of two
+     */
+    static final int SUB_BUCKET_COUNT = 16;
+    private static final int SUB_BUCKET_BITS = 4;
+
+    /**
+     * Durations are clamped to 2^41 - 1 ns (~36 minutes)
+     */
+    private static final int MAX_EXPONENT = 40;
+    static final long MAX_TRACKABLE_NANOS = (1L << (MAX_EXPONENT + 1)) - 1;
+    static final int BUCKET_COUNT = bucketIndex(MAX_TRACKABLE_NANOS) + 1;
+
+    /**
+     * The histograms by view type, indexed by event
+     */
+    private final SparseArrayCompat<Histogram[]> histograms = new SparseArrayCompat<>();
+
+    @Override
+    public void onEvent(int viewType, int event, long durationNanos) {
+        Histogram[] byEvent = histograms.get(viewType);
+        if (byEvent == null) {
+            byEvent = new Histogram[EVENT_COUNT];
+            histograms.put(viewType, byEvent);
+        }
+        Histogram histogram = byEvent[event];
+        if (histogram == null) {
+            histogram = new Histogram();
+            byEvent[event] = histogram;
+        }
+        histogram.record(durationNanos);
+    }
+
+    /**
+     * Get a snapshot of the durations of the given event of the delegate with the given view type
+     *
+     * @param viewType The view type
+     * @param event    One of the <code>EVENT_</code> constants of {@link DelegateMetricsSink}
+     * @return The snapshot or <code>null</code> if no such event has been recorded
+     */
+    @Nullable
+    public Snapshot getSnapshot(int viewType, int event) {
+        Histogram[] byEvent = histograms.get(viewType);
+        if (byEvent == null || byEvent[event] == null) {
+            return null;
+        }
+        return new Snapshot(viewType, event, byEvent[event]);
+    }
+
+    /**
+     * Get snapshots of all recorded events, ordered by view type and event
+     *
+     * @return The snapshots
+     */
+    @NonNull
+    public List<Snapshot> getSnapshots() {
+        List<Snapshot> snapshots = new ArrayList<>();
+        for (int i = 0; i < histograms.size(); i++) {
+            Histogram[] byEvent = histograms.valueAt(i);
+            for (int event = 0; event < EVENT_COUNT; event++) {
+                if (byEvent[event] != null) {
+                    snapshots.add(new Snapshot(histograms.keyAt(i), event, byEvent[event]));
+                }
+            }
+        }
+        return snapshots;
+    }
+
+    /**
+     * Removes all recorded events, i.e. after they have been exported
+     */
+    public void reset() {
+        histograms.clear();
+    }
+
+    /**
+     * Values below {@link #SUB_BUCKET_COUNT} have a bucket each, above each power of two range
+     * [2^e, 2^(e+1)) is split into {@link #SUB_BUCKET_COUNT} buckets.
+     */
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return value < 0 ? 0 : (int) value;
+        }
+        if (value > MAX_TRACKABLE_NANOS) {
+            value = MAX_TRACKABLE_NANOS;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+        return SUB_BUCKET_COUNT + shift * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    /**
+     * @return The smallest value of the bucket with the given index
+     */
+    static long bucketLowerBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+        int subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+        return (long) (SUB_BUCKET_COUNT + subBucket) << shift;
+    }
+
+    /**
+     * @return The highest value of the bucket with the given index
+     */
+    static long bucketUpperBound(int index) {
+        return index == BUCKET_COUNT - 1 ? MAX_TRACKABLE_NANOS : bucketLowerBound(index + 1) - 1;
+    }
+
+    static final class Histogram {
+        final long[] counts = new long[BUCKET_COUNT];
+        long count;
+        long totalNanos;
+        long maxNanos;
+
+        void record(long nanos) {
+            counts[bucketIndex(nanos)]++;
+            count++;
+            totalNanos += nanos;
+            if (nanos > maxNanos) {
+                maxNanos = nanos;
+            }
+        }
+    }
+
+    /**
+     * The durations of one event of one delegate at the time the snapshot was taken
+     */
+    public static final class Snapshot {
+        private final int viewType;
+        private final int event;
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+        private final long[] counts;
+
+        Snapshot(int viewType, int event, @NonNull Histogram histogram) {
+            this.viewType = viewType;
+            this.event = event;
+            this.count = histogram.count;
+            this.totalNanos = histogram.totalNanos;
+            this.maxNanos = histogram.maxNanos;
+            this.counts = histogram.counts.clone();
+        }
+
+        /**
+         * @return The view type of the delegate
+         */
+        public int getViewType() {
+            return viewType;
+        }
+
+        /**
+         * @return One of the <code>EVENT_</code> constants of {@link DelegateMetricsSink}
+         */
+        public int getEvent() {
+            return event;
+        }
+
+        /**
+         * @return The number of recorded events
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return The sum of all durations
+         */
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        /**
+         * @return The longest duration
+         */
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        /**
+         * @return The median duration
+         */
+        public long getP50Nanos() {
+            return getValueAtPercentile(50);
+        }
+
+        /**
+         * @return The 99th percentile duration
+         */
+        public long getP99Nanos() {
+            return getValueAtPercentile(99);
+        }
+
+        /**
+         * Get the duration that the given percentage of events didn't exceed. Like HdrHistogram the
+         * highest value of the bucket is returned, but never more than {@link #getMaxNanos()}.
+         *
+         * @param percentile The percentile in the range [0, 100]
+         * @return The duration
+         */
+        public long getValueAtPercentile(double percentile) {
+            if (percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException(
+                        "percentile must be in the range [0, 100] but was " + percentile);
+            }
+            long countAtPercentile = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= countAtPercentile) {
+                    return Math.min(bucketUpperBound(i), maxNanos);
+                }
+            }
+            return maxNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "Snapshot{viewType=" + viewType
+                    + ", event=" + event
+                    + ", count=" + count
+                    + ", p50=" + getP50Nanos()
+                    + "ns, p99=" + getP99Nanos()
+                    + "ns, max=" + maxNanos
+                    + "ns}";
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2015 Hannes Dorfmann.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.hannesdorfmann.adapterdelegates4;
+
+import androidx.annotation.MainThread;
+
+/**
+ * Receives the time spent in the callbacks of each {@link AdapterDelegate} managed by an {@link
+ * AdapterDelegatesManager}, see {@link AdapterDelegatesManager#addMetricsSink(DelegateMetricsSink)}.
+ * <p>
+ * {@link #onEvent(int, int, long)} is called for each single callback on the main thread, so
+ * implementations must be fast and should not allocate. {@link DelegateMetrics} is an
+ * implementation that keeps a latency histogram per view type and event.
+ * </p>
+ *
+ * @author Hannes Dorfmann
+ * @since 4.3.3
+ */
+public interface DelegateMetricsSink {
+
+    /**
+     * {@link AdapterDelegate#isForViewType(Object, int)}
+     */
+    int EVENT_IS_FOR_VIEW_TYPE = 0;
+
+    /**
+     * {@link AdapterDelegate#onCreateViewHolder(android.view.ViewGroup)}
+     */
+    int EVENT_CREATE = 1;
+
+    /**
+     * {@link AdapterDelegate#onBindViewHolder(Object, int, androidx.recyclerview.widget.RecyclerView.ViewHolder,
+     * java.util.List)}
+     */
+    int EVENT_BIND = 2;
+
+    /**
+     * {@link AdapterDelegate#onViewRecycled(androidx.recyclerview.widget.RecyclerView.ViewHolder)}
+     */
+    int EVENT_RECYCLE = 3;
+
+    /**
+     * {@link AdapterDelegate#onFailedToRecycleView(androidx.recyclerview.widget.RecyclerView.ViewHolder)}
+     */
+    int EVENT_FAILED_TO_RECYCLE = 4;
+
+    /**
+     * {@link AdapterDelegate#onViewAttachedToWindow(androidx.recyclerview.widget.RecyclerView.ViewHolder)}
+     */
+    int EVENT_ATTACH = 5;
+
+    /**
+     * {@link AdapterDelegate#onViewDetachedFromWindow(androidx.recyclerview.widget.RecyclerView.ViewHolder)}
+     */
+    int EVENT_DETACH = 6;
+
+    /**
+     * The number of events, event constants are in the range [0, EVENT_COUNT)
+     */
+    int EVENT_COUNT = 7;
+
+    /**
+     * Called after an {@link AdapterDelegate} callback has returned
+     *
+     * @param viewType      The view type of the delegate, including {@link
+     *                      AdapterDelegatesManager#FALLBACK_DELEGATE_VIEW_TYPE} and {@link
+     *                      AdapterDelegatesManager#PLACEHOLDER_DELEGATE_VIEW_TYPE}
+     * @param event         One of the <code>EVENT_</code> constants
+     * @param durationNanos The time spent in the callback
+     */
+    @MainThread
+    void onEvent(int viewType, int event, long durationNanos);
+}
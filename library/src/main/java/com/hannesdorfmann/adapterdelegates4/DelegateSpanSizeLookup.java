@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2015 Hannes Dorfmann.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.hannesdorfmann.adapterdelegates4;
+
+import java.util.Arrays;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * A {@link GridLayoutManager.SpanSizeLookup} that asks the delegates of an adapter for the span
+ * size of each item (see {@link AdapterDelegate#getSpanSize(Object, int, int)}):
+ * <pre>
+ * {@code
+ *    GridLayoutManager layoutManager = new GridLayoutManager(context, 3);
+ *    DelegateSpanSizeLookup<List<Item>> lookup = new DelegateSpanSizeLookup<>(adapter);
+ *    lookup.attach(layoutManager);
+ * }
+ * </pre>
+ * The span size of a position is resolved once through the view type of the item and then cached,
+ * together with the span index and span group index caches of {@link
+ * GridLayoutManager.SpanSizeLookup}. All caches are invalidated from the notifications of the
+ * adapter, so the delegates must only return a different span size for an item after it has been
+ * notified as changed.
+ *
+ * @param <T> The type of the datasource / items of the adapter
+ * @author Hannes Dorfmann
+ * @since 4.3.3
+ */
+@MainThread
+public class DelegateSpanSizeLookup<T> extends GridLayoutManager.SpanSizeLookup {
+
+    private final RecyclerView.Adapter adapter;
+    private final DelegationAdapter<T> delegationAdapter;
+
+    /**
+     * The span sizes by position, 0 if not cached
+     */
+    private int[] spanSizes = new int[0];
+    private int cachedSpanCount;
+
+    @Nullable
+    private GridLayoutManager layoutManager;
+
+    final RecyclerView.AdapterDataObserver invalidatingObserver = new RecyclerView.AdapterDataObserver() {
+        @Override
+        public void onChanged() {
+            invalidateFrom(0);
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            invalidate(positionStart, itemCount);
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount, @Nullable Object payload) {
+            invalidate(positionStart, itemCount);
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            invalidateFrom(positionStart);
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            invalidateFrom(positionStart);
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            invalidateFrom(Math.min(fromPosition, toPosition));
+        }
+    };
+
+    /**
+     * @param adapter The adapter, i.e. a {@link ListDelegationAdapter}
+     * @param <A>     The type of the adapter
+     */
+    public <A extends RecyclerView.Adapter & DelegationAdapter<T>> DelegateSpanSizeLookup(@NonNull A adapter) {
+        if (adapter == null) {
+            throw new NullPointerException("Adapter is null");
+        }
+        this.adapter = adapter;
+        this.delegationAdapter = adapter;
+        setSpanIndexCacheEnabled(true);
+        setSpanGroupIndexCacheEnabled(true);
+    }
+
+    /**
+     * Sets this lookup as {@link GridLayoutManager.SpanSizeLookup} of the given layout manager and
+     * starts observing the adapter
+     *
+     * @param layoutManager The layout manager
+     */
+    public void attach(@NonNull GridLayoutManager layoutManager) {
+        if (layoutManager == null) {
+            throw new NullPointerException("GridLayoutManager is null");
+        }
+        if (this.layoutManager != null) {
+            throw new IllegalStateException("DelegateSpanSizeLookup is already attached to " + this.layoutManager);
+        }
+        this.layoutManager = layoutManager;
+        adapter.registerAdapterDataObserver(invalidatingObserver);
+        invalidateFrom(0);
+        layoutManager.setSpanSizeLookup(this);
+    }
+
+    /**
+     * Stops observing the adapter and resets the {@link GridLayoutManager.SpanSizeLookup} of the
+     * layout manager to the default one, if it's still this lookup
+     */
+    public void detach() {
+        GridLayoutManager lm = layoutManager;
+        if (lm == null) {
+            return;
+        }
+        layoutManager = null;
+        adapter.unregisterAdapterDataObserver(invalidatingObserver);
+        if (lm.getSpanSizeLookup() == this) {
+            lm.setSpanSizeLookup(new GridLayoutManager.DefaultSpanSizeLookup());
+        }
+    }
+
+    @Override
+    public int getSpanSize(int position) {
+        GridLayoutManager lm = layoutManager;
+        if (lm == null) {
+            throw new IllegalStateException("DelegateSpanSizeLookup is not attached to a GridLayoutManager");
+        }
+        return getSpanSize(position, lm.getSpanCount());
+    }
+
+    int getSpanSize(int position, int spanCount) {
+        if (spanCount != cachedSpanCount) {
+            cachedSpanCount = spanCount;
+            Arrays.fill(spanSizes, 0);
+        }
+        if (position < spanSizes.length && spanSizes[position] != 0) {
+            return spanSizes[position];
+        }
+        int viewType = adapter.getItemViewType(position);
+        int spanSize = delegationAdapter.getDelegatesManager()
+                .getSpanSize(delegationAdapter.getItems(), position, viewType, spanCount);
+        if (position >= spanSizes.length) {
+            spanSizes = Arrays.copyOf(spanSizes,
+                    Math.max(position + 1, Math.max(adapter.getItemCount(), spanSizes.length * 2)));
+        }
+        spanSizes[position] = spanSize;
+        return spanSize;
+    }
+
+    private void invalidate(int positionStart, int itemCount) {
+        int end = Math.min(positionStart + itemCount, spanSizes.length);
+        if (positionStart < end) {
+            Arrays.fill(spanSizes, positionStart, end, 0);
+        }
+        invalidateSpanIndexCache();
+        invalidateSpanGroupIndexCache();
+    }
+
+    private void invalidateFrom(int positionStart) {
+        invalidate(positionStart, Math.max(0, spanSizes.length - positionStart));
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2015 Hannes Dorfmann.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.hannesdorfmann.adapterdelegates4;
+
+import android.os.Build;
+import android.os.Trace;
+
+import androidx.annotation.NonNull;
+
+/**
+ * The system trace section names of one {@link AdapterDelegate}, computed once so that tracing
+ * doesn't concatenate strings for each callback.
+ *
+ * @author Hannes Dorfmann
+ * @see AdapterDelegatesManager#setTracingEnabled(boolean)
+ * @since 4.3.3
+ */
+final class DelegateTraceSections {
+
+    /**
+     * Section around {@link AdapterDelegatesManager#getItemViewType(Object, int)}
+     */
+    static final String DISPATCH = "AD Dispatch";
+
+    /**
+     * Max length of a section name, see {@link Trace#beginSection(String)}
+     */
+    static final int MAX_SECTION_NAME_LENGTH = 127;
+
+    /**
+     * The delegate the names have been computed for
+     */
+    @NonNull
+    final AdapterDelegate<?> delegate;
+    @NonNull
+    final String create;
+    @NonNull
+    final String bind;
+    @NonNull
+    final String recycle;
+
+    DelegateTraceSections(int viewType, @NonNull AdapterDelegate<?> delegate) {
+        this.delegate = delegate;
+        String name = delegateName(delegate) + " [" + viewType + "]";
+        this.create = sectionName("AD Create ", name);
+        this.bind = sectionName("AD Bind ", name);
+        this.recycle = sectionName("AD Recycle ", name);
+    }
+
+    /**
+     * The simple class name, anonymous classes have no simple name so their binary name (i.e.
+     * MainActivity$1) is used instead.
+     */
+    @NonNull
+    static String delegateName(@NonNull AdapterDelegate<?> delegate) {
+        Class<?> delegateClass = delegate.getClass();
+        String name = delegateClass.getSimpleName();
+        if (name.isEmpty()) {
+            name = delegateClass.getName();
+            name = name.substring(name.lastIndexOf('.') + 1);
+        }
+        return name;
+    }
+
+    @NonNull
+    static String sectionName(@NonNull String prefix, @NonNull String name) {
+        String sectionName = prefix + name;
+        return sectionName.length() > MAX_SECTION_NAME_LENGTH
+                ? sectionName.substring(0, MAX_SECTION_NAME_LENGTH)
+                : sectionName;
+    }
+
+    static void beginSection(@NonNull String sectionName) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            Trace.beginSection(sectionName);
+        }
+    }
+
+    static void endSection() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            Trace.endSection();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2015 Hannes Dorfmann.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.hannesdorfmann.adapterdelegates4;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * An adapter that dispatches to the {@link AdapterDelegate}s of an {@link
+ * AdapterDelegatesManager}. Helpers like {@link DelegateSpanSizeLookup} use it to ask the
+ * delegates of an adapter about the item at a given position.
+ *
+ * @param <T> The type of the datasource / items
+ * @author Hannes Dorfmann
+ * @since 4.3.3
+ */
+public interface DelegationAdapter<T> {
+
+    /**
+     * @return The manager the adapter dispatches to
+     */
+    @NonNull
+    AdapterDelegatesManager<T> getDelegatesManager();
+
+    /**
+     * @return The datasource the delegates get, at the adapter positions
+     */
+    @Nullable
+    T getItems();
+}
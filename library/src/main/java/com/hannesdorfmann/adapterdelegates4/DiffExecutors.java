@@ -0,0 +1,333 @@
+/*
+ * Copyright (c) 2015 Hannes Dorfmann.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.hannesdorfmann.adapterdelegates4;
+
+import android.os.Process;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.AsyncDifferConfig;
+import androidx.recyclerview.widget.DiffUtil;
+
+/**
+ * Factory for background {@link Executor}s that are used to calculate diffs in {@link
+ * AsyncListDifferDelegationAdapter} (and the paging adapters).
+ * <p>
+ * By default {@link AsyncDifferConfig} uses one executor that is shared with every other
+ * AsyncListDiffer of the app. With this class you can create a dedicated executor with its own
+ * thread priority, thread count and queue capacity and share it between adapters so that several
+ * visible lists don't oversubscribe the cpu cores:
+ * <pre>
+ * {@code
+ *    Executor diffExecutor = DiffExecutors.shared();
+ *    AsyncListDifferDelegationAdapter<Animal> adapter =
+ *        new AsyncListDifferDelegationAdapter<>(diffCallback, diffExecutor, catDelegate, dogDelegate);
+ * }
+ * </pre>
+ * </p>
+ *
+ * @author Hannes Dorfmann
+ * @since 4.3.3
+ */
+public final class DiffExecutors {
+
+    /**
+     * Get notified about the work that is scheduled on an executor created by {@link Builder}.
+     * All callbacks are invoked on the thread that triggers them, so implementations must be
+     * thread safe and should return quickly.
+     */
+    public interface Listener {
+
+        /**
+         * Called right before a diff task starts.
+         *
+         * @param queuedNanos The time in nanoseconds the task waited in the queue
+         */
+        void onTaskStarted(long queuedNanos);
+
+        /**
+         * Called right after a diff task has finished (also if it has thrown an exception).
+         *
+         * @param executionNanos The time in nanoseconds the task took to execute
+         */
+        void onTaskFinished(long executionNanos);
+
+        /**
+         * Called if a task couldn't be queued because the queue is full. The oldest waiting task
+         * is dropped to make room for it.
+         */
+        void onTaskRejected();
+    }
+
+    /**
+     * Sets the priority of the diff threads. Replaced in unit tests, where {@link Process} is a
+     * stub.
+     */
+    interface PrioritySetter {
+        void setThreadPriority(int priority);
+    }
+
+    private static final PrioritySetter PROCESS_PRIORITY_SETTER = new PrioritySetter() {
+        @Override
+        public void setThreadPriority(int priority) {
+            Process.setThreadPriority(priority);
+        }
+    };
+
+    private static volatile Executor sharedExecutor;
+
+    private DiffExecutors() {
+    }
+
+    /**
+     * Get an executor with the default configuration of {@link Builder} that is shared across
+     * all adapters that use it. The executor is created lazily.
+     *
+     * @return The shared executor
+     */
+    @NonNull
+    public static Executor shared() {
+        Executor executor = sharedExecutor;
+        if (executor == null) {
+            synchronized (DiffExecutors.class) {
+                executor = sharedExecutor;
+                if (executor == null) {
+                    executor = new Builder().build();
+                    sharedExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * Creates an {@link AsyncDifferConfig} that calculates diffs on the given executor
+     *
+     * @param diffCallback       The callback
+     * @param backgroundExecutor The executor to run the diff calculation on
+     * @param <T>                The type of the items
+     * @return The config
+     */
+    @NonNull
+    public static <T> AsyncDifferConfig<T> config(@NonNull DiffUtil.ItemCallback<T> diffCallback,
+                                                  @NonNull Executor backgroundExecutor) {
+        if (diffCallback == null) {
+            throw new NullPointerException("ItemCallback is null");
+        }
+        if (backgroundExecutor == null) {
+            throw new NullPointerException("Executor is null");
+        }
+        return new AsyncDifferConfig.Builder<T>(diffCallback)
+                .setBackgroundThreadExecutor(backgroundExecutor)
+                .build();
+    }
+
+    /**
+     * Builder to configure a diff executor.
+     */
+    public static final class Builder {
+
+        private int threadCount = Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() - 1));
+        private int threadPriority = Process.THREAD_PRIORITY_BACKGROUND;
+        private int queueCapacity = Integer.MAX_VALUE;
+        private long keepAliveMillis = 30_000;
+        private String threadName = "AdapterDelegates-Diff";
+        @Nullable
+        private Listener listener;
+        @NonNull
+        private PrioritySetter prioritySetter = PROCESS_PRIORITY_SETTER;
+
+        /**
+         * The max number of threads. Defaults to cpu cores - 1 but at most 2.
+         */
+        @NonNull
+        public Builder setThreadCount(int threadCount) {
+            if (threadCount < 1) {
+                throw new IllegalArgumentException("threadCount must be >= 1 but was " + threadCount);
+            }
+            this.threadCount = threadCount;
+            return this;
+        }
+
+        /**
+         * The linux thread priority, see {@link Process#setThreadPriority(int)}. Defaults to {@link
+         * Process#THREAD_PRIORITY_BACKGROUND}.
+         */
+        @NonNull
+        public Builder setThreadPriority(int threadPriority) {
+            this.threadPriority = threadPriority;
+            return this;
+        }
+
+        /**
+         * The max number of diff tasks that can wait for execution. If the queue is full the
+         * oldest waiting task is dropped and {@link Listener#onTaskRejected()} is called, so that
+         * diffs never run on the calling thread (usually the main thread). AsyncListDiffer
+         * ignores the result of a diff once a newer list has been submitted, so dropping it is
+         * fine for an executor that is used by a single adapter. Don't bound the queue of an
+         * executor that is shared between adapters: the dropped diff may be the latest one of
+         * another adapter, which then never gets updated. Defaults to an unbounded queue.
+         */
+        @NonNull
+        public Builder setQueueCapacity(int queueCapacity) {
+            if (queueCapacity < 1) {
+                throw new IllegalArgumentException("queueCapacity must be >= 1 but was " + queueCapacity);
+            }
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * The time idle threads are kept alive before they terminate. Defaults to 30 seconds.
+         */
+        @NonNull
+        public Builder setKeepAlive(long time, @NonNull TimeUnit unit) {
+            this.keepAliveMillis = unit.toMillis(time);
+            return this;
+        }
+
+        /**
+         * The name prefix of the threads. Useful to find them in traces.
+         */
+        @NonNull
+        public Builder setThreadName(@NonNull String threadName) {
+            if (threadName == null) {
+                throw new NullPointerException("threadName is null");
+            }
+            this.threadName = threadName;
+            return this;
+        }
+
+        /**
+         * A {@link Listener} for metrics or <code>null</code>
+         */
+        @NonNull
+        public Builder setListener(@Nullable Listener listener) {
+            this.listener = listener;
+            return this;
+        }
+
+        @NonNull
+        Builder setPrioritySetter(@NonNull PrioritySetter prioritySetter) {
+            if (prioritySetter == null) {
+                throw new NullPointerException("PrioritySetter is null");
+            }
+            this.prioritySetter = prioritySetter;
+            return this;
+        }
+
+        @NonNull
+        public Executor build() {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                    threadCount,
+                    threadCount,
+                    keepAliveMillis,
+                    TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<Runnable>(queueCapacity),
+                    new PriorityThreadFactory(threadName, threadPriority, prioritySetter),
+                    new DiscardOldestHandler(listener));
+            executor.allowCoreThreadTimeOut(true);
+            return listener == null ? executor : new MeasuringExecutor(executor, listener);
+        }
+    }
+
+    private static final class PriorityThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+        private final String name;
+        private final int priority;
+        private final PrioritySetter prioritySetter;
+
+        PriorityThreadFactory(String name, int priority, PrioritySetter prioritySetter) {
+            this.name = name;
+            this.priority = priority;
+            this.prioritySetter = prioritySetter;
+        }
+
+        @Override
+        public Thread newThread(@NonNull final Runnable r) {
+            return new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    prioritySetter.setThreadPriority(priority);
+                    r.run();
+                }
+            }, name + "-" + count.incrementAndGet());
+        }
+    }
+
+    /**
+     * Like {@link ThreadPoolExecutor.DiscardOldestPolicy} but notifies the {@link Listener}
+     */
+    private static final class DiscardOldestHandler implements RejectedExecutionHandler {
+
+        @Nullable
+        private final Listener listener;
+
+        DiscardOldestHandler(@Nullable Listener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                return;
+            }
+            if (listener != null) {
+                listener.onTaskRejected();
+            }
+            executor.getQueue().poll();
+            executor.execute(r);
+        }
+    }
+
+    private static final class MeasuringExecutor implements Executor {
+
+        private final Executor executor;
+        private final Listener listener;
+
+        MeasuringExecutor(Executor executor, Listener listener) {
+            this.executor = executor;
+            this.listener = listener;
+        }
+
+        @Override
+        public void execute(@NonNull final Runnable command) {
+            final long queuedAt = System.nanoTime();
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    long startedAt = System.nanoTime();
+                    listener.onTaskStarted(startedAt - queuedAt);
+                    try {
+                        command.run();
+                    } finally {
+                        listener.onTaskFinished(System.nanoTime() - startedAt);
+                    }
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,452 @@
+/*
+ * Copyright (c) 2015 Hannes Dorfmann.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.hannesdorfmann.adapterdelegates4;
+
+import android.os.Bundle;
+import android.view.ViewGroup;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+import androidx.annotation.CallSuper;
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.collection.SparseArrayCompat;
+import androidx.recyclerview.widget.AdapterListUpdateCallback;
+import androidx.recyclerview.widget.ListUpdateCallback;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * An adapter for a tree of items, i.e. groups with children, where each group can be expanded and
+ * collapsed:
+ * <pre>
+ * {@code
+ *    ExpandableDelegationAdapter<Object> adapter = new ExpandableDelegationAdapter<>(groupDelegate, childDelegate);
+ *    TreeNode<Object> group = adapter.add(null, new Group("Fruits"));
+ *    adapter.add(group, new Child("Apple"));
+ *    adapter.add(group, new Child("Banana"));
+ *    ...
+ *    // i.e. in the click listener of the group row
+ *    adapter.toggle(adapter.getNode(holder.getAdapterPosition()));
+ * }
+ * </pre>
+ * The delegates get the visible items as list (see {@link #getItems()}), so group and child rows
+ * are dispatched to their own delegates by the type of their items as usual. Use {@link
+ * #getNode(int)} to get the depth or the expanded state of a row.
+ * <p>
+ * The visible nodes are kept in an order statistic index, so expanding or collapsing a node costs
+ * O(log n + k) for k shown or hidden descendants, instead of flattening and diffing the whole
+ * tree, and notifies the RecyclerView with exactly one range insert or remove.
+ * </p>
+ *
+ * @param <T> The type of the items
+ * @author Hannes Dorfmann
+ * @since 4.3.3
+ */
+@MainThread
+public class ExpandableDelegationAdapter<T> extends RecyclerView.Adapter implements DelegationAdapter<List<T>> {
+
+    protected final AdapterDelegatesManager<List<T>> delegatesManager;
+
+    /**
+     * The invisible parent of the top level nodes, always expanded
+     */
+    private final TreeNode<T> root = new TreeNode<>(null, null);
+    private final VisibleNodeIndex index = new VisibleNodeIndex();
+    private final List<T> items = new VisibleItems();
+
+    /**
+     * Receives the notifications, replaced in tests
+     */
+    @NonNull
+    ListUpdateCallback updateCallback = new AdapterListUpdateCallback(this);
+
+    public ExpandableDelegationAdapter() {
+        this(new AdapterDelegatesManager<List<T>>());
+    }
+
+    public ExpandableDelegationAdapter(@NonNull AdapterDelegatesManager<List<T>> delegatesManager) {
+        if (delegatesManager == null) {
+            throw new NullPointerException("AdapterDelegatesManager is null");
+        }
+        this.delegatesManager = delegatesManager;
+        root.expanded = true;
+    }
+
+    /**
+     * Adds a list of {@link AdapterDelegate}s
+     *
+     * @param delegates The delegates
+     */
+    public ExpandableDelegationAdapter(@NonNull AdapterDelegate<List<T>>... delegates) {
+        this(new AdapterDelegatesManager<List<T>>(delegates));
+    }
+
+    @NonNull
+    @Override
+    public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        return delegatesManager.onCreateViewHolder(parent, viewType);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        onBindViewHolder(holder, position, null);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position, @Nullable List payloads) {
+        delegatesManager.onBindViewHolder(items, position, index.get(position).getItem(), holder, payloads);
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return delegatesManager.getItemViewType(items, position);
+    }
+
+    @Override
+    public int getItemCount() {
+        return index.size();
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull RecyclerView.ViewHolder holder) {
+        delegatesManager.onViewRecycled(holder);
+    }
+
+    @Override
+    public boolean onFailedToRecycleView(@NonNull RecyclerView.ViewHolder holder) {
+        return delegatesManager.onFailedToRecycleView(holder);
+    }
+
+    @Override
+    public void onViewAttachedToWindow(@NonNull RecyclerView.ViewHolder holder) {
+        delegatesManager.onViewAttachedToWindow(holder);
+    }
+
+    @Override
+    public void onViewDetachedFromWindow(@NonNull RecyclerView.ViewHolder holder) {
+        delegatesManager.onViewDetachedFromWindow(holder);
+    }
+
+    public SparseArrayCompat<AdapterDelegate<List<T>>> getDeletes() {
+        return delegatesManager.delegates;
+    }
+
+    /**
+     * Get the {@link AdapterDelegatesManager} this adapter dispatches to
+     *
+     * @return The manager
+     * @since 4.3.3
+     */
+    @NonNull
+    @Override
+    public AdapterDelegatesManager<List<T>> getDelegatesManager() {
+        return delegatesManager;
+    }
+
+    /**
+     * Get the visible items as read only list. This is the data source the delegates get.
+     *
+     * @return The visible items
+     */
+    @NonNull
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * @return The number of top level nodes
+     */
+    public int getTopLevelNodeCount() {
+        return root.getChildCount();
+    }
+
+    /**
+     * @param index The index of the top level node
+     * @return The top level node
+     */
+    @NonNull
+    public TreeNode<T> getTopLevelNode(int index) {
+        return root.getChild(index);
+    }
+
+    /**
+     * Get the node at the given adapter position in O(log n)
+     *
+     * @param position The adapter position
+     * @return The node
+     */
+    @NonNull
+    @SuppressWarnings("unchecked")
+    public TreeNode<T> getNode(int position) {
+        return (TreeNode<T>) index.get(position);
+    }
+
+    /**
+     * Get the adapter position of the given node in O(log n)
+     *
+     * @param node The node
+     * @return The adapter position or {@link RecyclerView#NO_POSITION} if the node is not visible
+     */
+    public int getPosition(@NonNull TreeNode<T> node) {
+        if (node == null) {
+            throw new NullPointerException("TreeNode is null");
+        }
+        int position = index.positionOf(node);
+        return position == -1 ? RecyclerView.NO_POSITION : position;
+    }
+
+    /**
+     * Adds a node as last child of the given parent node. If the new node is visible, it's
+     * notified as inserted.
+     *
+     * @param parent The parent node or <code>null</code> to add a top level node
+     * @param item   The item of the node
+     * @return The new node, collapsed
+     */
+    @NonNull
+    public TreeNode<T> add(@Nullable TreeNode<T> parent, T item) {
+        TreeNode<T> p = parent == null ? root : parent;
+        checkAttached(p);
+        TreeNode<T> node = new TreeNode<>(p, item);
+        if (p == root || p.visible && p.expanded) {
+            // After the last visible descendant of the parent
+            int position = positionAfterSubtree(p);
+            p.children.add(node);
+            List<TreeNode<T>> inserted = new ArrayList<>(1);
+            inserted.add(node);
+            index.insert(position, inserted);
+            updateCallback.onInserted(position, 1);
+        } else {
+            p.children.add(node);
+        }
+        return node;
+    }
+
+    /**
+     * Removes a node together with its descendants. If the node is visible, it and its visible
+     * descendants are notified as one removed range.
+     *
+     * @param node The node to remove
+     */
+    public void remove(@NonNull TreeNode<T> node) {
+        checkAttached(node);
+        if (node == root) {
+            throw new IllegalArgumentException("Root node can't be removed");
+        }
+        if (node.visible) {
+            int position = index.positionOf(node);
+            int count = 1 + countVisibleDescendants(node);
+            index.remove(position, count);
+            updateCallback.onRemoved(position, count);
+        }
+        node.parent.children.remove(node);
+        node.removed = true;
+    }
+
+    /**
+     * Removes all nodes
+     */
+    public void clear() {
+        int count = index.size();
+        index.clear();
+        for (int i = 0; i < root.children.size(); i++) {
+            root.children.get(i).removed = true;
+        }
+        root.children.clear();
+        if (count > 0) {
+            updateCallback.onRemoved(0, count);
+        }
+    }
+
+    /**
+     * Expands the given node. If the node is visible, its descendants that get visible are notified
+     * as one inserted range. Children that have been expanded before show their children again.
+     *
+     * @param node The node to expand
+     */
+    public void expand(@NonNull TreeNode<T> node) {
+        checkAttached(node);
+        if (node.expanded) {
+            return;
+        }
+        node.expanded = true;
+        if (!node.visible) {
+            return;
+        }
+        List<TreeNode<T>> descendants = new ArrayList<>();
+        collectVisibleDescendants(node, descendants);
+        if (!descendants.isEmpty()) {
+            int position = index.positionOf(node) + 1;
+            index.insert(position, descendants);
+            updateCallback.onInserted(position, descendants.size());
+        }
+    }
+
+    /**
+     * Collapses the given node. If the node is visible, its visible descendants are notified as
+     * one removed range. The expanded state of the descendants is kept.
+     *
+     * @param node The node to collapse
+     */
+    public void collapse(@NonNull TreeNode<T> node) {
+        checkAttached(node);
+        if (!node.expanded) {
+            return;
+        }
+        int count = node.visible ? countVisibleDescendants(node) : 0;
+        node.expanded = false;
+        if (count > 0) {
+            int position = index.positionOf(node) + 1;
+            index.remove(position, count);
+            updateCallback.onRemoved(position, count);
+        }
+    }
+
+    /**
+     * Expands a collapsed and collapses an expanded node
+     *
+     * @param node The node
+     */
+    public void toggle(@NonNull TreeNode<T> node) {
+        if (node == null) {
+            throw new NullPointerException("TreeNode is null");
+        }
+        if (node.expanded) {
+            collapse(node);
+        } else {
+            expand(node);
+        }
+    }
+
+    /**
+     * Called to ask the delegate to save its current dynamic state, so it
+     * can later be reconstructed in a new instance if its process is
+     * restarted.  If a new instance of the delegate later needs to be
+     * created, the data you place in the Bundle here will be available
+     * in the Bundle given to {@link #onRestoreInstanceState(Bundle)}.
+     * Each delegate gets its own Bundle (see {@link AdapterDelegatesManager#onSaveInstanceState(Bundle)}).
+     *
+     * @param outState Bundle in which to place your saved state.
+     */
+    @CallSuper
+    public void onSaveInstanceState(@NonNull Bundle outState) {
+        delegatesManager.onSaveInstanceState(outState);
+    }
+
+    /**
+     * The default
+     * implementation of this method performs a restore of any view state that
+     * had previously been frozen by {@link #onSaveInstanceState}.
+     *
+     * @param state the data most recently supplied in {@link #onSaveInstanceState}.
+     */
+    @CallSuper
+    public void onRestoreInstanceState(@Nullable Bundle state) {
+        delegatesManager.onRestoreInstanceState(state);
+    }
+
+    /**
+     * Adds a sink that receives the time spent in each callback of the delegates, i.e. {@link
+     * RecyclingStats} or {@link DelegateMetrics}
+     *
+     * @param sink The sink
+     * @see AdapterDelegatesManager#addMetricsSink(DelegateMetricsSink)
+     */
+    public void addMetricsSink(@NonNull DelegateMetricsSink sink) {
+        delegatesManager.addMetricsSink(sink);
+    }
+
+    /**
+     * Removes a sink that has been added with {@link #addMetricsSink(DelegateMetricsSink)}
+     *
+     * @param sink The sink
+     */
+    public void removeMetricsSink(@NonNull DelegateMetricsSink sink) {
+        delegatesManager.removeMetricsSink(sink);
+    }
+
+    /**
+     * The position after the last visible descendant of the given visible and expanded node, in
+     * O(depth + log n)
+     */
+    private int positionAfterSubtree(@NonNull TreeNode<T> node) {
+        TreeNode<T> last = node;
+        while (last.expanded && !last.children.isEmpty()) {
+            last = last.children.get(last.children.size() - 1);
+        }
+        return last == root ? 0 : index.positionOf(last) + 1;
+    }
+
+    private static <T> void collectVisibleDescendants(@NonNull TreeNode<T> node,
+                                                      @NonNull List<TreeNode<T>> out) {
+        for (int i = 0; i < node.children.size(); i++) {
+            TreeNode<T> child = node.children.get(i);
+            out.add(child);
+            if (child.expanded) {
+                collectVisibleDescendants(child, out);
+            }
+        }
+    }
+
+    private static int countVisibleDescendants(@NonNull TreeNode<?> node) {
+        if (!node.expanded) {
+            return 0;
+        }
+        int count = 0;
+        for (int i = 0; i < node.children.size(); i++) {
+            count += 1 + countVisibleDescendants(node.children.get(i));
+        }
+        return count;
+    }
+
+    /**
+     * Checks that the node belongs to this adapter and hasn't been removed
+     */
+    private void checkAttached(@NonNull TreeNode<T> node) {
+        if (node == null) {
+            throw new NullPointerException("TreeNode is null");
+        }
+        TreeNode<T> n = node;
+        while (n.parent != null) {
+            if (n.removed) {
+                throw new IllegalArgumentException(node + " has been removed");
+            }
+            n = n.parent;
+        }
+        if (n != root) {
+            throw new IllegalArgumentException(node + " doesn't belong to this adapter");
+        }
+    }
+
+    private final class VisibleItems extends AbstractList<T> implements RandomAccess {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int position) {
+            return ((TreeNode<T>) index.get(position)).getItem();
+        }
+
+        @Override
+        public int size() {
+            return index.size();
+        }
+    }
+}
@@ -0,0 +1,458 @@
+/*
+ * Copyright (c) 2015 Hannes Dorfmann.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.hannesdorfmann.adapterdelegates4;
+
+import android.os.Build;
+import android.view.Choreographer;
+import android.view.View;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Attributes janky frames of a {@link RecyclerView} to the {@link AdapterDelegate}s that created
+ * or bound ViewHolders during these frames.
+ * <p>
+ * The tracker is a {@link DelegateMetricsSink} that sums up the create and bind durations per
+ * view type of the current frame. A {@link Choreographer} frame callback measures the duration of
+ * each frame as the time between two consecutive frames. If a frame took longer than the jank
+ * threshold, the work of that frame is kept if it is one of the longest janky frames. Frame
+ * callbacks are only requested while the RecyclerView scrolls or while delegates do some work,
+ * so an idle list doesn't wake up for every frame.
+ * </p>
+ * <pre>
+ * {@code
+ * JankTracker jankTracker = new JankTracker();
+ * jankTracker.attach(recyclerView, delegatesManager);
+ * ...
+ * for (JankTracker.Frame frame : jankTracker.getWorstFrames()) {
+ *      Log.d("Jank", frame.toString());
+ * }
+ * }
+ * </pre>
+ * Requires API 16, on older versions no frames are tracked.
+ *
+ * @author Hannes Dorfmann
+ * @since 4.3.3
+ */
+@MainThread
+public class JankTracker implements DelegateMetricsSink {
+
+    /**
+     * Frames taking longer than 1.5 frames at 60 fps are janky by default
+     */
+    public static final long DEFAULT_JANK_THRESHOLD_NANOS = 25_000_000L;
+
+    /**
+     * Default number of longest janky frames that are kept
+     */
+    public static final int DEFAULT_MAX_FRAMES = 20;
+
+    /**
+     * Gets notified about each janky frame
+     */
+    public interface OnJankListener {
+
+        /**
+         * Called on the main thread after a janky frame
+         *
+         * @param frame The janky frame
+         */
+        void onJank(@NonNull Frame frame);
+    }
+
+    /**
+     * A janky frame and the delegates that did some work during that frame
+     */
+    public static final class Frame {
+        private final long frameTimeNanos;
+        private final long durationNanos;
+        private final int[] viewTypes;
+        private final int[] createCounts;
+        private final long[] createNanos;
+        private final int[] bindCounts;
+        private final long[] bindNanos;
+
+        Frame(long frameTimeNanos, long durationNanos, @NonNull FrameWork work) {
+            this.frameTimeNanos = frameTimeNanos;
+            this.durationNanos = durationNanos;
+            this.viewTypes = Arrays.copyOf(work.viewTypes, work.size);
+            this.createCounts = Arrays.copyOf(work.createCounts, work.size);
+            this.createNanos = Arrays.copyOf(work.createNanos, work.size);
+            this.bindCounts = Arrays.copyOf(work.bindCounts, work.size);
+            this.bindNanos = Arrays.copyOf(work.bindNanos, work.size);
+        }
+
+        /**
+         * @return The vsync time of the frame, see {@link Choreographer.FrameCallback#doFrame(long)}
+         */
+        public long getFrameTimeNanos() {
+            return frameTimeNanos;
+        }
+
+        /**
+         * @return The time until the next frame started
+         */
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+
+        /**
+         * @return The number of delegates (view types) that did some work during this frame
+         */
+        public int getDelegateCount() {
+            return viewTypes.length;
+        }
+
+        /**
+         * @param index The index in the range [0, {@link #getDelegateCount()})
+         * @return The view type of the delegate
+         */
+        public int getViewType(int index) {
+            return viewTypes[index];
+        }
+
+        /**
+         * @return The number of ViewHolders the delegate at the given index has created
+         */
+        public int getCreateCount(int index) {
+            return createCounts[index];
+        }
+
+        /**
+         * @return The time the delegate at the given index spent creating ViewHolders
+         */
+        public long getCreateNanos(int index) {
+            return createNanos[index];
+        }
+
+        /**
+         * @return The number of ViewHolders the delegate at the given index has bound
+         */
+        public int getBindCount(int index) {
+            return bindCounts[index];
+        }
+
+        /**
+         * @return The time the delegate at the given index spent binding ViewHolders
+         */
+        public long getBindNanos(int index) {
+            return bindNanos[index];
+        }
+
+        /**
+         * @return The time all delegates spent creating and binding ViewHolders during this frame
+         */
+        public long getWorkNanos() {
+            long work = 0;
+            for (int i = 0; i < viewTypes.length; i++) {
+                work += createNanos[i] + bindNanos[i];
+            }
+            return work;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder("Frame{duration=")
+                    .append(durationNanos / 1000)
+                    .append("us, work=")
+                    .append(getWorkNanos() / 1000)
+                    .append("us");
+            for (int i = 0; i < viewTypes.length; i++) {
+                builder.append(", viewType ").append(viewTypes[i])
+                        .append(": ").append(createCounts[i]).append(" created in ")
+                        .append(createNanos[i] / 1000).append("us, ")
+                        .append(bindCounts[i]).append(" bound in ")
+                        .append(bindNanos[i] / 1000).append("us");
+            }
+            return builder.append('}').toString();
+        }
+    }
+
+    /**
+     * The work of the current frame per view type. Reused for each frame.
+     */
+    static final class FrameWork {
+        int size;
+        int[] viewTypes = new int[8];
+        int[] createCounts = new int[8];
+        long[] createNanos = new long[8];
+        int[] bindCounts = new int[8];
+        long[] bindNanos = new long[8];
+
+        void add(int viewType, int event, long nanos) {
+            int index = indexOf(viewType);
+            if (event == EVENT_CREATE) {
+                createCounts[index]++;
+                createNanos[index] += nanos;
+            } else {
+                bindCounts[index]++;
+                bindNanos[index] += nanos;
+            }
+        }
+
+        private int indexOf(int viewType) {
+            for (int i = 0; i < size; i++) {
+                if (viewTypes[i] == viewType) {
+                    return i;
+                }
+            }
+            if (size == viewTypes.length) {
+                int capacity = size * 2;
+                viewTypes = Arrays.copyOf(viewTypes, capacity);
+                createCounts = Arrays.copyOf(createCounts, capacity);
+                createNanos = Arrays.copyOf(createNanos, capacity);
+                bindCounts = Arrays.copyOf(bindCounts, capacity);
+                bindNanos = Arrays.copyOf(bindNanos, capacity);
+            }
+            viewTypes[size] = viewType;
+            createCounts[size] = 0;
+            createNanos[size] = 0;
+            bindCounts[size] = 0;
+            bindNanos[size] = 0;
+            return size++;
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
+
+    private final long jankThresholdNanos;
+    private final int maxFrames;
+
+    /**
+     * The longest janky frames, the shortest of them first
+     */
+    private final PriorityQueue<Frame> frames;
+
+    private final FrameWork currentWork = new FrameWork();
+    private long lastFrameTimeNanos;
+
+    @Nullable
+    private OnJankListener onJankListener;
+
+    @Nullable
+    private RecyclerView recyclerView;
+    @Nullable
+    private AdapterDelegatesManager<?> delegatesManager;
+    @Nullable
+    private Object frameCallback;
+    private boolean frameCallbackPosted;
+    private boolean scrolling;
+
+    private final RecyclerView.OnScrollListener scrollListener = new RecyclerView.OnScrollListener() {
+        @Override
+        public void onScrollStateChanged(@NonNull RecyclerView recyclerView, int newState) {
+            scrolling = newState != RecyclerView.SCROLL_STATE_IDLE;
+            if (scrolling) {
+                postFrameCallback();
+            }
+        }
+    };
+
+    private final View.OnAttachStateChangeListener attachStateListener =
+            new View.OnAttachStateChangeListener() {
+                @Override
+                public void onViewAttachedToWindow(View v) {
+                    postFrameCallback();
+                }
+
+                @Override
+                public void onViewDetachedFromWindow(View v) {
+                    removeFrameCallback();
+                }
+            };
+
+    public JankTracker() {
+        this(DEFAULT_JANK_THRESHOLD_NANOS, DEFAULT_MAX_FRAMES);
+    }
+
+    /**
+     * @param jankThresholdNanos Frames that take at least this long are janky
+     * @param maxFrames          The number of longest janky frames that are kept
+     */
+    public JankTracker(long jankThresholdNanos, int maxFrames) {
+        if (jankThresholdNanos <= 0) {
+            throw new IllegalArgumentException("jankThresholdNanos must be > 0 but was " + jankThresholdNanos);
+        }
+        if (maxFrames < 1) {
+            throw new IllegalArgumentException("maxFrames must be >= 1 but was " + maxFrames);
+        }
+        this.jankThresholdNanos = jankThresholdNanos;
+        this.maxFrames = maxFrames;
+        this.frames = new PriorityQueue<>(maxFrames, new Comparator<Frame>() {
+            @Override
+            public int compare(Frame o1, Frame o2) {
+                return Long.compare(o1.durationNanos, o2.durationNanos);
+            }
+        });
+    }
+
+    /**
+     * Starts tracking the frames of the given RecyclerView and the work of the delegates of the
+     * given manager, which must be the manager of the RecyclerView's adapter.
+     *
+     * @param recyclerView     The RecyclerView
+     * @param delegatesManager The manager of the RecyclerView's adapter
+     */
+    public void attach(@NonNull RecyclerView recyclerView,
+                       @NonNull AdapterDelegatesManager<?> delegatesManager) {
+        if (recyclerView == null) {
+            throw new NullPointerException("RecyclerView is null");
+        }
+        if (delegatesManager == null) {
+            throw new NullPointerException("AdapterDelegatesManager is null");
+        }
+        if (this.recyclerView != null) {
+            throw new IllegalStateException("JankTracker is already attached to " + this.recyclerView);
+        }
+        this.recyclerView = recyclerView;
+        this.delegatesManager = delegatesManager;
+        delegatesManager.addMetricsSink(this);
+        recyclerView.addOnScrollListener(scrollListener);
+        recyclerView.addOnAttachStateChangeListener(attachStateListener);
+        if (recyclerView.getWindowToken() != null) {
+            postFrameCallback();
+        }
+    }
+
+    /**
+     * Stops tracking, the janky frames that have been recorded so far are kept
+     */
+    public void detach() {
+        if (recyclerView == null) {
+            return;
+        }
+        removeFrameCallback();
+        delegatesManager.removeMetricsSink(this);
+        recyclerView.removeOnScrollListener(scrollListener);
+        recyclerView.removeOnAttachStateChangeListener(attachStateListener);
+        recyclerView = null;
+        delegatesManager = null;
+        scrolling = false;
+    }
+
+    /**
+     * @param onJankListener Gets notified about each janky frame, <code>null</code> to remove
+     */
+    public void setOnJankListener(@Nullable OnJankListener onJankListener) {
+        this.onJankListener = onJankListener;
+    }
+
+    /**
+     * @return The longest janky frames since the tracker has been created or cleared, the longest
+     * frame first
+     */
+    @NonNull
+    public List<Frame> getWorstFrames() {
+        List<Frame> worstFrames = new ArrayList<>(frames);
+        Collections.sort(worstFrames, Collections.reverseOrder(frames.comparator()));
+        return worstFrames;
+    }
+
+    /**
+     * Removes all janky frames that have been recorded so far
+     */
+    public void clear() {
+        frames.clear();
+    }
+
+    @Override
+    public void onEvent(int viewType, int event, long durationNanos) {
+        if (event == EVENT_CREATE || event == EVENT_BIND) {
+            currentWork.add(viewType, event, durationNanos);
+            postFrameCallback();
+        }
+    }
+
+    /**
+     * Called at the start of each frame. The work that has been reported since the last frame
+     * belongs to the last frame.
+     *
+     * @param frameTimeNanos The vsync time of the frame that starts
+     */
+    void onFrame(long frameTimeNanos) {
+        if (lastFrameTimeNanos == 0) {
+            // First frame after being idle, the work that has been reported in between is done
+            // during this frame
+            lastFrameTimeNanos = frameTimeNanos;
+            postFrameCallback();
+            return;
+        }
+
+        long durationNanos = frameTimeNanos - lastFrameTimeNanos;
+        if (durationNanos >= jankThresholdNanos) {
+            Frame frame = new Frame(lastFrameTimeNanos, durationNanos, currentWork);
+            if (frames.size() < maxFrames) {
+                frames.add(frame);
+            } else if (durationNanos > frames.peek().durationNanos) {
+                frames.poll();
+                frames.add(frame);
+            }
+            if (onJankListener != null) {
+                onJankListener.onJank(frame);
+            }
+        }
+
+        boolean hadWork = currentWork.size > 0;
+        currentWork.clear();
+        if (hadWork || scrolling) {
+            lastFrameTimeNanos = frameTimeNanos;
+            postFrameCallback();
+        } else {
+            lastFrameTimeNanos = 0;
+        }
+    }
+
+    private void postFrameCallback() {
+        if (frameCallbackPosted || recyclerView == null
+                || Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN) {
+            return;
+        }
+        if (frameCallback == null) {
+            // Created lazily, FrameCallback doesn't exist before API 16
+            frameCallback = new Choreographer.FrameCallback() {
+                @Override
+                public void doFrame(long frameTimeNanos) {
+                    frameCallbackPosted = false;
+                    onFrame(frameTimeNanos);
+                }
+            };
+        }
+        Choreographer.getInstance().postFrameCallback((Choreographer.FrameCallback) frameCallback);
+        frameCallbackPosted = true;
+    }
+
+    private void removeFrameCallback() {
+        if (frameCallbackPosted) {
+            Choreographer.getInstance().removeFrameCallback((Choreographer.FrameCallback) frameCallback);
+            frameCallbackPosted = false;
+        }
+        lastFrameTimeNanos = 0;
+        currentWork.clear();
+    }
+}
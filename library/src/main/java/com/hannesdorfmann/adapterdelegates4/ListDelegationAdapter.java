@@ -109,6 +109,23 @@ public class ListDelegationAdapter<T extends List<?>> extends AbsDelegationAdapt
         delegatesManager.setFallbackDelegate(fallbackDelegate);
     }
 
+    public AdapterDelegate<T> getPlaceholderDelegate() {
+        return delegatesManager.getPlaceholderDelegate();
+    }
+
+    /**
+     * Set a placeholder delegate that should be used for <code>null</code> items.
+     *
+     * @param placeholderDelegate The {@link AdapterDelegate} that should be used for placeholders.
+     *                            <code>null</code> you can set this to null if you want to remove a
+     *                            previously set placeholder AdapterDelegate
+     * @since 4.3.3
+     */
+    public void setPlaceholderDelegate(
+            @Nullable AdapterDelegate<T> placeholderDelegate) {
+        delegatesManager.setPlaceholderDelegate(placeholderDelegate);
+    }
+
     /**
      * Removes a previously registered delegate if and only if the passed delegate is registered
      * (checks the reference of the object). This will not remove any other delegate for the same
@@ -0,0 +1,326 @@
+/*
+ * Copyright (c) 2015 Hannes Dorfmann.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.hannesdorfmann.adapterdelegates4;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.collection.SparseArrayCompat;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * A {@link DelegateMetricsSink} that counts per view type how often ViewHolders have been created,
+ * bound, recycled and failed to recycle, to find view types that are inflated again and again
+ * instead of being recycled.
+ * <p>
+ * A create is counted as pool miss if the {@link RecyclerView.RecycledViewPool} has dropped a
+ * recycled ViewHolder of that type before because it was full. The pool state is derived from the
+ * events: recycled ViewHolders are put into the pool, binds that don't follow a create take them
+ * out again, and the pool holds {@link #DEFAULT_MAX_RECYCLED_VIEWS} per view type or the size set
+ * by {@link #applyTo(RecyclerView.RecycledViewPool)}. Each dropped ViewHolder counts as at most one
+ * miss, and ViewHolders that failed to recycle don't count as they would be dropped by any pool.
+ * For view types with misses {@link #getRecommendedPoolSize(int)} recommends a pool that can hold
+ * all ViewHolders that have been attached at once, so that i.e.
+ * <code>notifyDataSetChanged()</code> doesn't inflate them again.
+ * </p>
+ * <pre>
+ * {@code
+ * RecyclingStats stats = new RecyclingStats();
+ * adapter.addMetricsSink(stats);
+ * ...
+ * stats.applyTo(recyclerView.getRecycledViewPool());
+ * }
+ * </pre>
+ *
+ * @author Hannes Dorfmann
+ * @since 4.3.3
+ */
+@MainThread
+public class RecyclingStats implements DelegateMetricsSink {
+
+    /**
+     * The max number of ViewHolders per view type a {@link RecyclerView.RecycledViewPool} holds by
+     * default
+     */
+    public static final int DEFAULT_MAX_RECYCLED_VIEWS = 5;
+
+    private final SparseArrayCompat<Counters> counters = new SparseArrayCompat<>();
+
+    @Override
+    public void onEvent(int viewType, int event, long durationNanos) {
+        if (event == EVENT_IS_FOR_VIEW_TYPE) {
+            return;
+        }
+        Counters c = counters.get(viewType);
+        if (c == null) {
+            c = new Counters();
+            counters.put(viewType, c);
+        }
+        switch (event) {
+            case EVENT_CREATE:
+                if (c.dropped > 0) {
+                    c.dropped--;
+                    c.poolMisses++;
+                }
+                // RecyclerView only creates a ViewHolder if the pool has none
+                c.pooled = 0;
+                c.unboundCreated++;
+                c.created++;
+                break;
+            case EVENT_BIND:
+                if (c.unboundCreated > 0) {
+                    c.unboundCreated--;
+                } else if (c.pooled > 0) {
+                    c.pooled--;
+                }
+                c.bound++;
+                break;
+            case EVENT_RECYCLE:
+                if (c.pooled < c.poolSize) {
+                    c.pooled++;
+                } else {
+                    c.dropped++;
+                }
+                c.recycled++;
+                break;
+            case EVENT_FAILED_TO_RECYCLE:
+                c.failedToRecycle++;
+                break;
+            case EVENT_ATTACH:
+                c.attached++;
+                if (c.attached > c.peakAttached) {
+                    c.peakAttached = c.attached;
+                }
+                break;
+            case EVENT_DETACH:
+                if (c.attached > 0) {
+                    c.attached--;
+                }
+                break;
+        }
+    }
+
+    /**
+     * Get the stats of the given view type
+     *
+     * @param viewType The view type
+     * @return The stats or <code>null</code> if nothing has been recorded for this view type
+     */
+    @Nullable
+    public ViewTypeStats getStats(int viewType) {
+        Counters c = counters.get(viewType);
+        return c == null ? null : new ViewTypeStats(viewType, c);
+    }
+
+    /**
+     * Get the stats of all view types, ordered by view type
+     *
+     * @return The stats
+     */
+    @NonNull
+    public List<ViewTypeStats> getStats() {
+        List<ViewTypeStats> stats = new ArrayList<>(counters.size());
+        for (int i = 0; i < counters.size(); i++) {
+            stats.add(new ViewTypeStats(counters.keyAt(i), counters.valueAt(i)));
+        }
+        return stats;
+    }
+
+    /**
+     * The recommended max number of recycled views of the given view type, see {@link
+     * RecyclerView.RecycledViewPool#setMaxRecycledViews(int, int)}. View types without pool misses
+     * keep {@link #DEFAULT_MAX_RECYCLED_VIEWS}.
+     *
+     * @param viewType The view type
+     * @return The recommended pool size
+     */
+    public int getRecommendedPoolSize(int viewType) {
+        Counters c = counters.get(viewType);
+        return c == null ? DEFAULT_MAX_RECYCLED_VIEWS : c.recommendedPoolSize();
+    }
+
+    /**
+     * Sets the recommended pool size of each view type that had pool misses. Pools are only
+     * enlarged, view types without pool misses keep their current size.
+     *
+     * @param pool The pool of the RecyclerView
+     */
+    public void applyTo(@NonNull RecyclerView.RecycledViewPool pool) {
+        if (pool == null) {
+            throw new NullPointerException("RecycledViewPool is null");
+        }
+        for (int i = 0; i < counters.size(); i++) {
+            Counters c = counters.valueAt(i);
+            if (c.poolMisses > 0) {
+                c.poolSize = c.recommendedPoolSize();
+                pool.setMaxRecycledViews(counters.keyAt(i), c.poolSize);
+            }
+        }
+    }
+
+    /**
+     * Resets all counters. The derived pool state and the number of attached ViewHolders are kept,
+     * so that pool misses are still detected right afterwards.
+     */
+    public void reset() {
+        for (int i = 0; i < counters.size(); i++) {
+            Counters c = counters.valueAt(i);
+            c.created = 0;
+            c.bound = 0;
+            c.recycled = 0;
+            c.failedToRecycle = 0;
+            c.poolMisses = 0;
+            c.peakAttached = c.attached;
+        }
+    }
+
+    static final class Counters {
+        /**
+         * The derived number of ViewHolders in the pool, not reset
+         */
+        int pooled;
+        int poolSize = DEFAULT_MAX_RECYCLED_VIEWS;
+        /**
+         * The number of ViewHolders the full pool has dropped that haven't been created again, not
+         * reset
+         */
+        int dropped;
+        /**
+         * The number of created ViewHolders that haven't been bound yet, not reset
+         */
+        int unboundCreated;
+        int created;
+        int bound;
+        int recycled;
+        int failedToRecycle;
+        int poolMisses;
+        int attached;
+        int peakAttached;
+
+        int recommendedPoolSize() {
+            return poolMisses > 0
+                    ? Math.max(DEFAULT_MAX_RECYCLED_VIEWS, peakAttached)
+                    : DEFAULT_MAX_RECYCLED_VIEWS;
+        }
+    }
+
+    /**
+     * The recycling stats of one view type at the time they have been taken
+     */
+    public static final class ViewTypeStats {
+        private final int viewType;
+        private final int createCount;
+        private final int bindCount;
+        private final int recycleCount;
+        private final int failedToRecycleCount;
+        private final int poolMissCount;
+        private final int peakAttachedCount;
+        private final int recommendedPoolSize;
+
+        ViewTypeStats(int viewType, @NonNull Counters counters) {
+            this.viewType = viewType;
+            this.createCount = counters.created;
+            this.bindCount = counters.bound;
+            this.recycleCount = counters.recycled;
+            this.failedToRecycleCount = counters.failedToRecycle;
+            this.poolMissCount = counters.poolMisses;
+            this.peakAttachedCount = counters.peakAttached;
+            this.recommendedPoolSize = counters.recommendedPoolSize();
+        }
+
+        /**
+         * @return The view type of the delegate
+         */
+        public int getViewType() {
+            return viewType;
+        }
+
+        /**
+         * @return The number of created ViewHolders
+         */
+        public int getCreateCount() {
+            return createCount;
+        }
+
+        /**
+         * @return The number of binds
+         */
+        public int getBindCount() {
+            return bindCount;
+        }
+
+        /**
+         * @return The number of recycled ViewHolders
+         */
+        public int getRecycleCount() {
+            return recycleCount;
+        }
+
+        /**
+         * @return How often {@link AdapterDelegate#onFailedToRecycleView(RecyclerView.ViewHolder)}
+         * has been called, i.e. because of transient state like running animations
+         */
+        public int getFailedToRecycleCount() {
+            return failedToRecycleCount;
+        }
+
+        /**
+         * @return The number of creates that replaced a ViewHolder the full pool has dropped
+         */
+        public int getPoolMissCount() {
+            return poolMissCount;
+        }
+
+        /**
+         * @return The max number of ViewHolders that have been attached at the same time
+         */
+        public int getPeakAttachedCount() {
+            return peakAttachedCount;
+        }
+
+        /**
+         * @return The share of binds that reused a ViewHolder instead of creating a new one, in
+         * the range [0, 1]
+         */
+        public float getReuseRatio() {
+            return bindCount == 0 ? 0f : Math.max(0, bindCount - createCount) / (float) bindCount;
+        }
+
+        /**
+         * @see RecyclingStats#getRecommendedPoolSize(int)
+         */
+        public int getRecommendedPoolSize() {
+            return recommendedPoolSize;
+        }
+
+        @Override
+        public String toString() {
+            return "ViewTypeStats{viewType=" + viewType
+                    + ", created=" + createCount
+                    + ", bound=" + bindCount
+                    + ", recycled=" + recycleCount
+                    + ", failedToRecycle=" + failedToRecycleCount
+                    + ", poolMisses=" + poolMissCount
+                    + ", peakAttached=" + peakAttachedCount
+                    + ", recommendedPoolSize=" + recommendedPoolSize
+                    + "}";
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2015 Hannes Dorfmann.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.hannesdorfmann.adapterdelegates4;
+
+import android.content.Context;
+import android.content.res.ColorStateList;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.util.SparseIntArray;
+
+import java.lang.ref.WeakReference;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.ColorRes;
+import androidx.annotation.DrawableRes;
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.StringRes;
+import androidx.collection.SparseArrayCompat;
+
+/**
+ * Caches resolved resources (strings, colors, color state lists and drawables) by resource id.
+ * One instance is meant to be shared by all ViewHolders of an {@link AdapterDelegate}, so that
+ * binding a ViewHolder doesn't resolve (and allocate) the same resources again and again.
+ * <p>
+ * The cache is cleared automatically if it is used with another {@link Context} (i.e. another
+ * theme) or if the {@link Configuration} has changed (i.e. night mode or locale), and manually by
+ * calling {@link #invalidate()}.
+ * </p>
+ * <p>
+ * Drawables are cached as {@link Drawable.ConstantState}, so each call to {@link
+ * #getDrawable(Context, int)} returns a new Drawable instance that shares its state with all the
+ * other instances. Call {@link Drawable#mutate()} before changing it (i.e. tinting).
+ * </p>
+ * This class is not thread safe and must only be used from the main thread.
+ *
+ * @author Hannes Dorfmann
+ * @since 4.3.3
+ */
+@MainThread
+public final class ResourceCache {
+
+    private final SparseIntArray colors = new SparseIntArray();
+    private final SparseArrayCompat<ColorStateList> colorStateLists = new SparseArrayCompat<>();
+    private final SparseArrayCompat<Drawable.ConstantState> drawables = new SparseArrayCompat<>();
+    private final SparseArrayCompat<String> strings = new SparseArrayCompat<>();
+
+    @Nullable
+    private WeakReference<Context> context;
+    @Nullable
+    private Configuration configuration;
+
+    /**
+     * Get the string for the given resource id
+     *
+     * @see Context#getString(int)
+     */
+    @NonNull
+    public String getString(@NonNull Context context, @StringRes int id) {
+        validate(context);
+        String string = strings.get(id);
+        if (string == null) {
+            string = context.getString(id);
+            strings.put(id, string);
+        }
+        return string;
+    }
+
+    /**
+     * Get the formatted string for the given resource id. The format string is cached, not the
+     * formatted result.
+     *
+     * @see Context#getString(int, Object...)
+     */
+    @NonNull
+    public String getString(@NonNull Context context, @StringRes int id, Object... formatArgs) {
+        String format = getString(context, id);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            return String.format(configuration.getLocales().get(0), format, formatArgs);
+        } else {
+            return String.format(configuration.locale, format, formatArgs);
+        }
+    }
+
+    /**
+     * Get the color for the given resource id styled for the theme of the given context
+     *
+     * @see Context#getColor(int)
+     */
+    @ColorInt
+    public int getColor(@NonNull Context context, @ColorRes int id) {
+        validate(context);
+        int index = colors.indexOfKey(id);
+        if (index >= 0) {
+            return colors.valueAt(index);
+        }
+        int color;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            color = context.getColor(id);
+        } else {
+            color = context.getResources().getColor(id);
+        }
+        colors.put(id, color);
+        return color;
+    }
+
+    /**
+     * Get the color state list for the given resource id styled for the theme of the given
+     * context. {@link ColorStateList}s are immutable, so the same instance is returned each time.
+     *
+     * @see Context#getColorStateList(int)
+     */
+    @Nullable
+    public ColorStateList getColorStateList(@NonNull Context context, @ColorRes int id) {
+        validate(context);
+        ColorStateList colorStateList = colorStateLists.get(id);
+        if (colorStateList == null) {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+                colorStateList = context.getColorStateList(id);
+            } else {
+                colorStateList = context.getResources().getColorStateList(id);
+            }
+            if (colorStateList != null) {
+                colorStateLists.put(id, colorStateList);
+            }
+        }
+        return colorStateList;
+    }
+
+    /**
+     * Get a new drawable for the given resource id styled for the theme of the given context. The
+     * drawable shares its state with other drawables of this id, so call {@link Drawable#mutate()}
+     * before changing it.
+     *
+     * @see Context#getDrawable(int)
+     */
+    @Nullable
+    public Drawable getDrawable(@NonNull Context context, @DrawableRes int id) {
+        validate(context);
+        Drawable.ConstantState state = drawables.get(id);
+        if (state != null) {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+                return state.newDrawable(context.getResources(), context.getTheme());
+            } else {
+                return state.newDrawable(context.getResources());
+            }
+        }
+
+        Drawable drawable;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            drawable = context.getDrawable(id);
+        } else {
+            drawable = context.getResources().getDrawable(id);
+        }
+        if (drawable != null) {
+            state = drawable.getConstantState();
+            if (state != null) {
+                drawables.put(id, state);
+            }
+        }
+        return drawable;
+    }
+
+    /**
+     * Removes all cached resources
+     */
+    public void invalidate() {
+        colors.clear();
+        colorStateLists.clear();
+        drawables.clear();
+        strings.clear();
+    }
+
+    private void validate(@NonNull Context context) {
+        Resources resources = context.getResources();
+        Configuration current = resources.getConfiguration();
+        if (this.context == null || this.context.get() != context || configuration.diff(current) != 0) {
+            invalidate();
+            // Weak, the delegate may outlive the Activity
+            this.context = new WeakReference<>(context);
+            // Resources update their Configuration in place, so we need a copy to detect changes
+            this.configuration = new Configuration(current);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2015 Hannes Dorfmann.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.hannesdorfmann.adapterdelegates4;
+
+import java.util.Arrays;
+
+/**
+ * The sizes of the sections of a {@link SectionedDelegationAdapter} in a Fenwick tree (binary
+ * indexed tree), so that the start position of a section and the section of a position are found
+ * in O(log n) and a section can change its size in O(log n) too. Adding a section at the end is
+ * O(log n), inserting or removing a section in between rebuilds the tree in O(n).
+ *
+ * @author Hannes Dorfmann
+ * @since 4.3.3
+ */
+final class SectionIndex {
+
+    private int[] sizes = new int[8];
+
+    /**
+     * 1-based, <code>tree[i]</code> is the sum of the sizes of the sections in the range
+     * <code>[i - lowestOneBit(i), i)</code>
+     */
+    private int[] tree = new int[9];
+    private int count;
+    private int totalSize;
+
+    /**
+     * @return The number of sections
+     */
+    int getSectionCount() {
+        return count;
+    }
+
+    /**
+     * @return The sum of all section sizes
+     */
+    int getTotalSize() {
+        return totalSize;
+    }
+
+    int getSize(int section) {
+        checkSection(section);
+        return sizes[section];
+    }
+
+    /**
+     * Adds a section at the end
+     */
+    void addSection(int size) {
+        checkSize(size);
+        ensureCapacity(count + 1);
+        sizes[count] = size;
+        count++;
+        // The new node covers the sections [count - lowestOneBit(count), count)
+        int i = count;
+        tree[i] = size + prefixSum(i - 1) - prefixSum(i - (i & -i));
+        totalSize += size;
+    }
+
+    /**
+     * Inserts a section at the given index
+     */
+    void insertSection(int section, int size) {
+        if (section < 0 || section > count) {
+            throw new IndexOutOfBoundsException("section = " + section + ", section count = " + count);
+        }
+        if (section == count) {
+            addSection(size);
+            return;
+        }
+        checkSize(size);
+        ensureCapacity(count + 1);
+        System.arraycopy(sizes, section, sizes, section + 1, count - section);
+        sizes[section] = size;
+        count++;
+        totalSize += size;
+        rebuild();
+    }
+
+    void removeSection(int section) {
+        checkSection(section);
+        totalSize -= sizes[section];
+        System.arraycopy(sizes, section + 1, sizes, section, count - section - 1);
+        count--;
+        sizes[count] = 0;
+        rebuild();
+    }
+
+    void removeAllSections() {
+        Arrays.fill(sizes, 0, count, 0);
+        Arrays.fill(tree, 0, count + 1, 0);
+        count = 0;
+        totalSize = 0;
+    }
+
+    /**
+     * Changes the size of the given section by delta
+     */
+    void add(int section, int delta) {
+        checkSection(section);
+        int size = sizes[section] + delta;
+        if (size < 0) {
+            throw new IllegalArgumentException("size of section " + section + " must be >= 0 but was " + size);
+        }
+        sizes[section] = size;
+        totalSize += delta;
+        for (int i = section + 1; i <= count; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    void setSize(int section, int size) {
+        checkSize(size);
+        add(section, size - getSize(section));
+    }
+
+    /**
+     * The global position of the first item of the given section
+     *
+     * @param section The section, {@link #getSectionCount()} returns the total size
+     */
+    int getStartPosition(int section) {
+        if (section < 0 || section > count) {
+            throw new IndexOutOfBoundsException("section = " + section + ", section count = " + count);
+        }
+        return prefixSum(section);
+    }
+
+    /**
+     * Finds the section that contains the given global position. Empty sections contain no
+     * position and are skipped.
+     */
+    int findSection(int position) {
+        if (position < 0 || position >= totalSize) {
+            throw new IndexOutOfBoundsException("position = " + position + ", size = " + totalSize);
+        }
+        // Descend to the last node whose prefix sum is <= position
+        int node = 0;
+        int remaining = position;
+        for (int step = Integer.highestOneBit(count); step != 0; step >>= 1) {
+            int next = node + step;
+            if (next <= count && tree[next] <= remaining) {
+                node = next;
+                remaining -= tree[next];
+            }
+        }
+        return node;
+    }
+
+    /**
+     * The sum of the sizes of the sections [0, section)
+     */
+    private int prefixSum(int section) {
+        int sum = 0;
+        for (int i = section; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    private void rebuild() {
+        for (int i = 1; i <= count; i++) {
+            tree[i] = sizes[i - 1];
+        }
+        Arrays.fill(tree, count + 1, tree.length, 0);
+        for (int i = 1; i <= count; i++) {
+            int parent = i + (i & -i);
+            if (parent <= count) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > sizes.length) {
+            int newCapacity = Math.max(capacity, sizes.length * 2);
+            sizes = Arrays.copyOf(sizes, newCapacity);
+            tree = Arrays.copyOf(tree, newCapacity + 1);
+        }
+    }
+
+    private void checkSection(int section) {
+        if (section < 0 || section >= count) {
+            throw new IndexOutOfBoundsException("section = " + section + ", section count = " + count);
+        }
+    }
+
+    private static void checkSize(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size must be >= 0 but was " + size);
+        }
+    }
+}
@@ -0,0 +1,516 @@
+/*
+ * Copyright (c) 2015 Hannes Dorfmann.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.hannesdorfmann.adapterdelegates4;
+
+import android.os.Bundle;
+import android.view.ViewGroup;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+import androidx.annotation.CallSuper;
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.collection.SparseArrayCompat;
+import androidx.recyclerview.widget.AdapterListUpdateCallback;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * An adapter that stitches multiple lists (sections), i.e. headers, content, ads and footers,
+ * together into one list. Unlike a <code>ConcatAdapter</code> of multiple adapters all sections
+ * share one {@link AdapterDelegatesManager}, so view types don't have to be translated and
+ * ViewHolders are shared across sections:
+ * <pre>
+ * {@code
+ *    SectionedDelegationAdapter<Item> adapter = new SectionedDelegationAdapter<>(headerDelegate, articleDelegate, adDelegate);
+ *    adapter.addSection(headerItems);
+ *    int articleSection = adapter.addSection(articles);
+ *    ...
+ *    int oldSize = articles.size();
+ *    articles.addAll(moreArticles);
+ *    adapter.notifySectionItemRangeInserted(articleSection, oldSize, moreArticles.size());
+ * }
+ * </pre>
+ * The delegates get all sections as one list (see {@link #getItems()}) together with the adapter
+ * position. The start positions of the sections are kept in a prefix sum index, so that the
+ * section of an adapter position is found in O(log n) for n sections.
+ * <p>
+ * Sections are identified by their index. Like for any other adapter, the data of a section must
+ * only be changed on the main thread followed by the corresponding
+ * <code>notifySection...()</code> call, which notifies the RecyclerView about the change at the
+ * adapter positions of the section.
+ * </p>
+ *
+ * @param <T> The type of the items
+ * @author Hannes Dorfmann
+ * @since 4.3.3
+ */
+@MainThread
+public class SectionedDelegationAdapter<T> extends RecyclerView.Adapter implements DelegationAdapter<List<T>> {
+
+    protected final AdapterDelegatesManager<List<T>> delegatesManager;
+
+    private final List<List<T>> sections = new ArrayList<>();
+    private final SectionIndex index = new SectionIndex();
+    private final List<T> items = new SectionedItems();
+
+    /**
+     * Receives the notifications at adapter positions, replaced in tests
+     */
+    @NonNull
+    ListUpdateCallback updateCallback = new AdapterListUpdateCallback(this);
+
+    public SectionedDelegationAdapter() {
+        this(new AdapterDelegatesManager<List<T>>());
+    }
+
+    public SectionedDelegationAdapter(@NonNull AdapterDelegatesManager<List<T>> delegatesManager) {
+        if (delegatesManager == null) {
+            throw new NullPointerException("AdapterDelegatesManager is null");
+        }
+        this.delegatesManager = delegatesManager;
+    }
+
+    /**
+     * Adds a list of {@link AdapterDelegate}s
+     *
+     * @param delegates The delegates
+     */
+    public SectionedDelegationAdapter(@NonNull AdapterDelegate<List<T>>... delegates) {
+        this(new AdapterDelegatesManager<List<T>>(delegates));
+    }
+
+    @NonNull
+    @Override
+    public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        return delegatesManager.onCreateViewHolder(parent, viewType);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        onBindViewHolder(holder, position, null);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position, @Nullable List payloads) {
+        int section = index.findSection(position);
+        T item = sections.get(section).get(position - index.getStartPosition(section));
+        delegatesManager.onBindViewHolder(items, position, item, holder, payloads);
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return delegatesManager.getItemViewType(items, position);
+    }
+
+    @Override
+    public int getItemCount() {
+        return index.getTotalSize();
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull RecyclerView.ViewHolder holder) {
+        delegatesManager.onViewRecycled(holder);
+    }
+
+    @Override
+    public boolean onFailedToRecycleView(@NonNull RecyclerView.ViewHolder holder) {
+        return delegatesManager.onFailedToRecycleView(holder);
+    }
+
+    @Override
+    public void onViewAttachedToWindow(@NonNull RecyclerView.ViewHolder holder) {
+        delegatesManager.onViewAttachedToWindow(holder);
+    }
+
+    @Override
+    public void onViewDetachedFromWindow(@NonNull RecyclerView.ViewHolder holder) {
+        delegatesManager.onViewDetachedFromWindow(holder);
+    }
+
+    public SparseArrayCompat<AdapterDelegate<List<T>>> getDeletes() {
+        return delegatesManager.delegates;
+    }
+
+    /**
+     * Get the {@link AdapterDelegatesManager} this adapter dispatches to
+     *
+     * @return The manager
+     * @since 4.3.3
+     */
+    @NonNull
+    @Override
+    public AdapterDelegatesManager<List<T>> getDelegatesManager() {
+        return delegatesManager;
+    }
+
+    /**
+     * Get all sections as one read only list. This is the data source the delegates get.
+     *
+     * @return The items of all sections
+     */
+    @NonNull
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * @return The number of sections
+     */
+    public int getSectionCount() {
+        return sections.size();
+    }
+
+    /**
+     * Get the items of a section
+     *
+     * @param section The index of the section
+     * @return The items of the section
+     */
+    @NonNull
+    public List<T> getSection(int section) {
+        return sections.get(section);
+    }
+
+    /**
+     * Get the section of the item at the given adapter position in O(log n)
+     *
+     * @param position The adapter position
+     * @return The index of the section
+     */
+    public int getSectionForPosition(int position) {
+        return index.findSection(position);
+    }
+
+    /**
+     * Get the position of the item at the given adapter position in its section in O(log n)
+     *
+     * @param position The adapter position
+     * @return The position in the section
+     */
+    public int getPositionInSection(int position) {
+        return position - index.getStartPosition(index.findSection(position));
+    }
+
+    /**
+     * Get the adapter position of the first item of a section in O(log n)
+     *
+     * @param section The index of the section
+     * @return The adapter position. If the section is empty it's the adapter position the first
+     * item would be inserted at.
+     */
+    public int getSectionStartPosition(int section) {
+        checkSection(section);
+        return index.getStartPosition(section);
+    }
+
+    /**
+     * Adds a section after the last section
+     *
+     * @param items The items of the section
+     * @return The index of the new section
+     */
+    public int addSection(@NonNull List<T> items) {
+        int section = sections.size();
+        addSection(section, items);
+        return section;
+    }
+
+    /**
+     * Inserts a section. The indexes of the following sections are increased by one.
+     *
+     * @param section The index of the new section
+     * @param items   The items of the section
+     */
+    public void addSection(int section, @NonNull List<T> items) {
+        if (items == null) {
+            throw new NullPointerException("Section items are null");
+        }
+        if (section < 0 || section > sections.size()) {
+            throw new IndexOutOfBoundsException("section = " + section + ", section count = " + sections.size());
+        }
+        sections.add(section, items);
+        index.insertSection(section, items.size());
+        if (!items.isEmpty()) {
+            updateCallback.onInserted(index.getStartPosition(section), items.size());
+        }
+    }
+
+    /**
+     * Removes a section. The indexes of the following sections are decreased by one.
+     *
+     * @param section The index of the section
+     */
+    public void removeSection(int section) {
+        checkSection(section);
+        int start = index.getStartPosition(section);
+        int size = index.getSize(section);
+        sections.remove(section);
+        index.removeSection(section);
+        if (size > 0) {
+            updateCallback.onRemoved(start, size);
+        }
+    }
+
+    /**
+     * Removes all sections
+     */
+    public void clearSections() {
+        int size = index.getTotalSize();
+        sections.clear();
+        index.removeAllSections();
+        if (size > 0) {
+            updateCallback.onRemoved(0, size);
+        }
+    }
+
+    /**
+     * Replaces the items of a section. The items of the section are notified as changed, the
+     * difference in size as inserted or removed at the end of the section. Use {@link
+     * #getSectionUpdateCallback(int)} to dispatch a {@link DiffUtil.DiffResult} instead.
+     *
+     * @param section The index of the section
+     * @param items   The new items of the section
+     */
+    public void setSection(int section, @NonNull List<T> items) {
+        if (items == null) {
+            throw new NullPointerException("Section items are null");
+        }
+        checkSection(section);
+        sections.set(section, items);
+        notifySectionChanged(section);
+    }
+
+    /**
+     * Like {@link #setSection(int, List)} for a section whose list has been changed in place
+     *
+     * @param section The index of the section
+     */
+    public void notifySectionChanged(int section) {
+        checkSection(section);
+        int oldSize = index.getSize(section);
+        int newSize = sections.get(section).size();
+        int start = index.getStartPosition(section);
+        index.setSize(section, newSize);
+        int changed = Math.min(oldSize, newSize);
+        if (changed > 0) {
+            updateCallback.onChanged(start, changed, null);
+        }
+        if (newSize > oldSize) {
+            updateCallback.onInserted(start + oldSize, newSize - oldSize);
+        } else if (newSize < oldSize) {
+            updateCallback.onRemoved(start + newSize, oldSize - newSize);
+        }
+    }
+
+    /**
+     * Must be called after items have been inserted into a section
+     *
+     * @param section       The index of the section
+     * @param positionStart The position of the first inserted item in the section
+     * @param itemCount     The number of inserted items
+     */
+    public void notifySectionItemRangeInserted(int section, int positionStart, int itemCount) {
+        getSectionUpdateCallback(section).onInserted(positionStart, itemCount);
+    }
+
+    /**
+     * Must be called after items have been removed from a section
+     *
+     * @param section       The index of the section
+     * @param positionStart The position of the first removed item in the section
+     * @param itemCount     The number of removed items
+     */
+    public void notifySectionItemRangeRemoved(int section, int positionStart, int itemCount) {
+        getSectionUpdateCallback(section).onRemoved(positionStart, itemCount);
+    }
+
+    /**
+     * Must be called after items of a section have changed
+     *
+     * @param section       The index of the section
+     * @param positionStart The position of the first changed item in the section
+     * @param itemCount     The number of changed items
+     * @param payload       Optional payload, see {@link RecyclerView.Adapter#notifyItemRangeChanged(int, int, Object)}
+     */
+    public void notifySectionItemRangeChanged(int section, int positionStart, int itemCount,
+                                              @Nullable Object payload) {
+        getSectionUpdateCallback(section).onChanged(positionStart, itemCount, payload);
+    }
+
+    /**
+     * Must be called after an item of a section has been moved within the section
+     *
+     * @param section      The index of the section
+     * @param fromPosition The previous position of the item in the section
+     * @param toPosition   The new position of the item in the section
+     */
+    public void notifySectionItemMoved(int section, int fromPosition, int toPosition) {
+        getSectionUpdateCallback(section).onMoved(fromPosition, toPosition);
+    }
+
+    /**
+     * Get a callback that translates updates of a section to adapter positions, i.e. to dispatch
+     * a {@link DiffUtil.DiffResult} of the old and new items of a section:
+     * <pre>
+     * {@code
+     *    DiffUtil.DiffResult result = DiffUtil.calculateDiff(new MyCallback(adapter.getSection(section), newItems));
+     *    adapter.getSection(section).clear();
+     *    adapter.getSection(section).addAll(newItems);
+     *    result.dispatchUpdatesTo(adapter.getSectionUpdateCallback(section));
+     * }
+     * </pre>
+     * The callback keeps the index of the section, so it must be used right away and not after
+     * sections before it have been added or removed.
+     *
+     * @param section The index of the section
+     * @return The callback
+     */
+    @NonNull
+    public ListUpdateCallback getSectionUpdateCallback(int section) {
+        checkSection(section);
+        return new SectionUpdateCallback(section);
+    }
+
+    /**
+     * Called to ask the delegate to save its current dynamic state, so it
+     * can later be reconstructed in a new instance if its process is
+     * restarted.  If a new instance of the delegate later needs to be
+     * created, the data you place in the Bundle here will be available
+     * in the Bundle given to {@link #onRestoreInstanceState(Bundle)}.
+     * Each delegate gets its own Bundle (see {@link AdapterDelegatesManager#onSaveInstanceState(Bundle)}).
+     *
+     * @param outState Bundle in which to place your saved state.
+     */
+    @CallSuper
+    public void onSaveInstanceState(@NonNull Bundle outState) {
+        delegatesManager.onSaveInstanceState(outState);
+    }
+
+    /**
+     * The default
+     * implementation of this method performs a restore of any view state that
+     * had previously been frozen by {@link #onSaveInstanceState}.
+     *
+     * @param state the data most recently supplied in {@link #onSaveInstanceState}.
+     */
+    @CallSuper
+    public void onRestoreInstanceState(@Nullable Bundle state) {
+        delegatesManager.onRestoreInstanceState(state);
+    }
+
+    /**
+     * Adds a sink that receives the time spent in each callback of the delegates, i.e. {@link
+     * RecyclingStats} or {@link DelegateMetrics}
+     *
+     * @param sink The sink
+     * @see AdapterDelegatesManager#addMetricsSink(DelegateMetricsSink)
+     */
+    public void addMetricsSink(@NonNull DelegateMetricsSink sink) {
+        delegatesManager.addMetricsSink(sink);
+    }
+
+    /**
+     * Removes a sink that has been added with {@link #addMetricsSink(DelegateMetricsSink)}
+     *
+     * @param sink The sink
+     */
+    public void removeMetricsSink(@NonNull DelegateMetricsSink sink) {
+        delegatesManager.removeMetricsSink(sink);
+    }
+
+    private void checkSection(int section) {
+        if (section < 0 || section >= sections.size()) {
+            throw new IndexOutOfBoundsException("section = " + section + ", section count = " + sections.size());
+        }
+    }
+
+    /**
+     * The items of all sections. The size is the one the RecyclerView has been notified about,
+     * not necessarily the sum of the current section sizes.
+     */
+    private final class SectionedItems extends AbstractList<T> implements RandomAccess {
+
+        @Override
+        public T get(int position) {
+            int section = index.findSection(position);
+            return sections.get(section).get(position - index.getStartPosition(section));
+        }
+
+        @Override
+        public int size() {
+            return index.getTotalSize();
+        }
+    }
+
+    private final class SectionUpdateCallback implements ListUpdateCallback {
+
+        private final int section;
+
+        SectionUpdateCallback(int section) {
+            this.section = section;
+        }
+
+        @Override
+        public void onInserted(int position, int count) {
+            checkRange(position, count, index.getSize(section));
+            index.add(section, count);
+            updateCallback.onInserted(index.getStartPosition(section) + position, count);
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            checkRange(position, count, index.getSize(section) - count);
+            index.add(section, -count);
+            updateCallback.onRemoved(index.getStartPosition(section) + position, count);
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            int size = index.getSize(section);
+            checkRange(fromPosition, 1, size - 1);
+            checkRange(toPosition, 1, size - 1);
+            int start = index.getStartPosition(section);
+            updateCallback.onMoved(start + fromPosition, start + toPosition);
+        }
+
+        @Override
+        public void onChanged(int position, int count, @Nullable Object payload) {
+            checkRange(position, count, index.getSize(section) - count);
+            updateCallback.onChanged(index.getStartPosition(section) + position, count, payload);
+        }
+
+        /**
+         * Checks that count >= 0 and position is in the range [0, maxPosition]
+         */
+        private void checkRange(int position, int count, int maxPosition) {
+            if (count < 0) {
+                throw new IllegalArgumentException("count must be >= 0 but was " + count);
+            }
+            if (position < 0 || position > maxPosition) {
+                throw new IndexOutOfBoundsException("position = " + position
+                        + " out of range for section " + section
+                        + " with " + index.getSize(section) + " items");
+            }
+        }
+    }
+}
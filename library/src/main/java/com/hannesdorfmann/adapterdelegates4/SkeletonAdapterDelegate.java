@@ -0,0 +1,71 @@
+package com.hannesdorfmann.adapterdelegates4;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.List;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * A lightweight placeholder delegate (see {@link AdapterDelegatesManager#setPlaceholderDelegate(AdapterDelegate)})
+ * that displays a plain colored skeleton row. No layout gets inflated and binding is a no-op.
+ *
+ * @param <T> The type of the data source
+ * @author Hannes Dorfmann
+ * @since 4.3.3
+ */
+public class SkeletonAdapterDelegate<T> extends AbsPlaceholderAdapterDelegate<T> {
+
+    /**
+     * The height of a skeleton row in pixel or 0 for the dimen resource
+     */
+    private final int height;
+    @ColorInt
+    private final int color;
+
+    /**
+     * Creates an invisible skeleton row with the height of the dimen resource
+     * <code>adapterdelegates_skeleton_height</code> (48dp), which can be overridden by the app.
+     * Skeleton rows must have a height, otherwise the LayoutManager would fill the viewport with
+     * an unbounded number of placeholders.
+     */
+    public SkeletonAdapterDelegate() {
+        this.height = 0;
+        this.color = 0;
+    }
+
+    /**
+     * @param height The height of a skeleton row in pixel, must be &gt; 0
+     * @param color  The color of a skeleton row
+     */
+    public SkeletonAdapterDelegate(int height, @ColorInt int color) {
+        if (height <= 0) {
+            throw new IllegalArgumentException("height must be > 0 but was " + height);
+        }
+        this.height = height;
+        this.color = color;
+    }
+
+    @NonNull
+    @Override
+    protected RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent) {
+        View view = new View(parent.getContext());
+        int rowHeight = height != 0
+                ? height
+                : parent.getResources().getDimensionPixelSize(R.dimen.adapterdelegates_skeleton_height);
+        view.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, rowHeight));
+        if (color != 0) {
+            view.setBackgroundColor(color);
+        }
+        return new RecyclerView.ViewHolder(view) {
+        };
+    }
+
+    @Override
+    protected void onBindViewHolder(@NonNull T items, int position,
+                                    @NonNull RecyclerView.ViewHolder holder, @NonNull List<Object> payloads) {
+    }
+}
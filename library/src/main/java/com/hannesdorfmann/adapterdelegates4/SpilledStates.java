@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2015 Hannes Dorfmann.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.hannesdorfmann.adapterdelegates4;
+
+import android.os.Bundle;
+import android.os.Parcel;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.collection.SparseArrayCompat;
+
+/**
+ * Measures the parcel size of delegate states and writes / reads oversized states to / from disk.
+ *
+ * @author Hannes Dorfmann
+ * @see AdapterDelegatesManager#setStateSpillDirectory(File)
+ * @since 4.3.3
+ */
+final class SpilledStates {
+
+    private static final String FILE_PREFIX = "adapterdelegates-";
+    private static final String FILE_SUFFIX = ".state";
+
+    private SpilledStates() {
+    }
+
+    /**
+     * @return The number of bytes the given state takes in a {@link Parcel}
+     */
+    static int sizeOf(@NonNull Bundle state) {
+        Parcel parcel = Parcel.obtain();
+        try {
+            parcel.writeBundle(state);
+            return parcel.dataSize();
+        } finally {
+            parcel.recycle();
+        }
+    }
+
+    /**
+     * @return The file in the given directory the state of the given view type is spilled to
+     */
+    @NonNull
+    static File fileOf(@NonNull File directory, int viewType) {
+        return new File(directory, FILE_PREFIX + viewType + FILE_SUFFIX);
+    }
+
+    /**
+     * Writes the given state to the file of its view type in the given directory (see {@link
+     * #fileOf(File, int)}). The file is replaced at once, so that it is never half written.
+     *
+     * @throws IOException      if the file couldn't be written
+     * @throws RuntimeException if the state can't be marshalled, i.e. because it contains binders
+     */
+    @NonNull
+    static File write(@NonNull File directory, int viewType, @NonNull Bundle state) throws IOException {
+        byte[] bytes;
+        Parcel parcel = Parcel.obtain();
+        try {
+            parcel.writeBundle(state);
+            bytes = parcel.marshall();
+        } finally {
+            parcel.recycle();
+        }
+
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create directory " + directory);
+        }
+        File file = fileOf(directory, viewType);
+        File tmp = new File(directory, file.getName() + ".tmp");
+        FileOutputStream out = null;
+        try {
+            out = new FileOutputStream(tmp);
+            out.write(bytes);
+        } catch (IOException e) {
+            closeQuietly(out);
+            out = null;
+            tmp.delete();
+            throw e;
+        } finally {
+            closeQuietly(out);
+        }
+        if (!tmp.renameTo(file)) {
+            tmp.delete();
+            throw new IOException("Could not rename " + tmp + " to " + file);
+        }
+        return file;
+    }
+
+    /**
+     * Deletes the spilled states in the given directory that are neither referenced nor pending,
+     * i.e. states that have been saved by an earlier process and were never restored.
+     */
+    static void deleteStale(@NonNull File directory, @NonNull SparseArrayCompat<File> referenced,
+                            @NonNull SparseArrayCompat<File> pending) {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (file.getName().startsWith(FILE_PREFIX) && !contains(referenced, file)
+                    && !contains(pending, file)) {
+                file.delete();
+            }
+        }
+    }
+
+    /**
+     * Unlike {@link SparseArrayCompat#indexOfValue(Object)} compares the files with equals()
+     */
+    private static boolean contains(@NonNull SparseArrayCompat<File> files, @NonNull File file) {
+        for (int i = 0; i < files.size(); i++) {
+            if (file.equals(files.valueAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads a state that has been written by {@link #write(File, int, Bundle)}
+     *
+     * @return The state or <code>null</code> if the file doesn't exist (anymore)
+     * @throws IOException if the file couldn't be read
+     */
+    @Nullable
+    static Bundle read(@NonNull File file, @Nullable ClassLoader classLoader) throws IOException {
+        if (!file.isFile()) {
+            return null;
+        }
+        byte[] bytes = new byte[(int) file.length()];
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new FileInputStream(file));
+            in.readFully(bytes);
+        } finally {
+            closeQuietly(in);
+        }
+
+        Parcel parcel = Parcel.obtain();
+        try {
+            parcel.unmarshall(bytes, 0, bytes.length);
+            parcel.setDataPosition(0);
+            return parcel.readBundle(classLoader);
+        } finally {
+            parcel.recycle();
+        }
+    }
+
+    private static void closeQuietly(@Nullable Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+}
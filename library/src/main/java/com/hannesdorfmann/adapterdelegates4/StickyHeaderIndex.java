@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2015 Hannes Dorfmann.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.hannesdorfmann.adapterdelegates4;
+
+import java.util.Arrays;
+
+/**
+ * The adapter positions of the sticky headers of a {@link StickyHeaderItemDecoration} in a sorted
+ * int array. The header of a position is found by binary search in O(log h), where h is the
+ * number of headers. Inserting or removing items only shifts the header positions behind them, so
+ * the index follows adapter notifications without asking the delegates about other items again.
+ *
+ * @author Hannes Dorfmann
+ * @since 4.3.3
+ */
+final class StickyHeaderIndex {
+
+    private int[] positions = new int[8];
+    private int size;
+
+    /**
+     * @return The number of headers
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return The position of the header at the given index
+     */
+    int get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index = " + index + ", size = " + size);
+        }
+        return positions[index];
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * Get the header of the given position in O(log h)
+     *
+     * @return The position of the last header at or before the given position or -1 if there is
+     * none
+     */
+    int findHeaderPosition(int position) {
+        int index = lowerBound(position + 1) - 1;
+        return index < 0 ? -1 : positions[index];
+    }
+
+    /**
+     * Get the next header after the given position in O(log h)
+     *
+     * @return The position of the first header after the given position or -1 if there is none
+     */
+    int findNextHeaderPosition(int position) {
+        int index = lowerBound(position + 1);
+        return index == size ? -1 : positions[index];
+    }
+
+    /**
+     * Marks the given position as header or not in O(log h), plus O(h) to insert or remove it
+     */
+    void setHeader(int position, boolean header) {
+        if (position < 0) {
+            throw new IllegalArgumentException("position must be >= 0 but was " + position);
+        }
+        int index = lowerBound(position);
+        boolean contained = index < size && positions[index] == position;
+        if (header && !contained) {
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * 2);
+            }
+            System.arraycopy(positions, index, positions, index + 1, size - index);
+            positions[index] = position;
+            size++;
+        } else if (!header && contained) {
+            System.arraycopy(positions, index + 1, positions, index, size - index - 1);
+            size--;
+        }
+    }
+
+    /**
+     * Shifts the headers at or after positionStart by itemCount. The inserted positions are no
+     * headers until they are marked with {@link #setHeader(int, boolean)}.
+     */
+    void insertRange(int positionStart, int itemCount) {
+        checkRange(positionStart, itemCount);
+        for (int i = lowerBound(positionStart); i < size; i++) {
+            positions[i] += itemCount;
+        }
+    }
+
+    /**
+     * Removes the headers in the given range and shifts the headers after it
+     */
+    void removeRange(int positionStart, int itemCount) {
+        checkRange(positionStart, itemCount);
+        int from = lowerBound(positionStart);
+        int to = lowerBound(positionStart + itemCount);
+        System.arraycopy(positions, to, positions, from, size - to);
+        size -= to - from;
+        for (int i = from; i < size; i++) {
+            positions[i] -= itemCount;
+        }
+    }
+
+    /**
+     * Moves the item at fromPosition to toPosition, like {@link
+     * androidx.recyclerview.widget.RecyclerView.AdapterDataObserver#onItemRangeMoved(int, int,
+     * int)} with an item count of 1
+     */
+    void move(int fromPosition, int toPosition) {
+        if (fromPosition == toPosition) {
+            return;
+        }
+        int index = lowerBound(fromPosition);
+        boolean header = index < size && positions[index] == fromPosition;
+        removeRange(fromPosition, 1);
+        insertRange(toPosition, 1);
+        setHeader(toPosition, header);
+    }
+
+    /**
+     * @return The index of the first header at or after the given position
+     */
+    private int lowerBound(int position) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (positions[mid] < position) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static void checkRange(int positionStart, int itemCount) {
+        if (positionStart < 0) {
+            throw new IllegalArgumentException("positionStart must be >= 0 but was " + positionStart);
+        }
+        if (itemCount < 0) {
+            throw new IllegalArgumentException("itemCount must be >= 0 but was " + itemCount);
+        }
+    }
+}
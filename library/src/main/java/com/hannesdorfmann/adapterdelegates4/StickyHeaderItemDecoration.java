@@ -0,0 +1,327 @@
+/*
+ * Copyright (c) 2015 Hannes Dorfmann.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.hannesdorfmann.adapterdelegates4;
+
+import android.graphics.Canvas;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.Collections;
+import java.util.List;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.collection.SparseArrayCompat;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * A {@link RecyclerView.ItemDecoration} that draws the header of the first visible item at the top
+ * of a vertical RecyclerView, until the next header pushes it away. The delegates flag their items
+ * as headers (see {@link AdapterDelegate#isStickyHeader(Object, int)}):
+ * <pre>
+ * {@code
+ *    StickyHeaderItemDecoration<List<Item>> decoration = new StickyHeaderItemDecoration<>(adapter);
+ *    decoration.attach(recyclerView);
+ * }
+ * </pre>
+ * The header positions are kept in a sorted index that is updated from the notifications of the
+ * adapter, so the header of the first visible item is found by binary search on every frame.
+ * Inserted and changed positions are only checked for headers on the next frame: adapters backed
+ * by an {@link androidx.recyclerview.widget.AsyncListDiffer} already hold the new list while
+ * DiffUtil dispatches its updates, so the positions of a single notification don't match it. The
+ * sticky header is drawn from one {@link RecyclerView.ViewHolder} per header view type that is
+ * created once and only bound again when another header gets sticky. It's only drawn, so it
+ * doesn't receive touch events.
+ * <p>
+ * The sticky header ViewHolders are created and bound by their {@link AdapterDelegate} directly,
+ * not by the adapter. So they are not reported to the {@link DelegateMetricsSink}s (i.e. not
+ * counted as pool misses by {@link RecyclingStats}) and their {@link
+ * RecyclerView.ViewHolder#getItemViewType()} is {@link RecyclerView#INVALID_TYPE}.
+ * </p>
+ *
+ * @param <T> The type of the datasource / items of the adapter
+ * @author Hannes Dorfmann
+ * @since 4.3.3
+ */
+@MainThread
+public class StickyHeaderItemDecoration<T> extends RecyclerView.ItemDecoration {
+
+    private static final List<Object> NO_PAYLOADS = Collections.emptyList();
+
+    private final RecyclerView.Adapter adapter;
+    private final DelegationAdapter<T> delegationAdapter;
+    private final StickyHeaderIndex index = new StickyHeaderIndex();
+    /**
+     * The inserted and changed positions that haven't been checked for headers yet. Shifted like
+     * the index by the following notifications, so they match the adapter once all notifications
+     * have been dispatched.
+     */
+    private final StickyHeaderIndex dirtyPositions = new StickyHeaderIndex();
+    private boolean indexValid;
+
+    /**
+     * The ViewHolders of the sticky header by view type
+     */
+    private final SparseArrayCompat<RecyclerView.ViewHolder> headerViewHolders = new SparseArrayCompat<>();
+    @Nullable
+    private RecyclerView.ViewHolder boundViewHolder;
+    private int boundPosition = RecyclerView.NO_POSITION;
+    private int boundWidth;
+
+    @Nullable
+    private RecyclerView recyclerView;
+
+    final RecyclerView.AdapterDataObserver indexUpdatingObserver = new RecyclerView.AdapterDataObserver() {
+        @Override
+        public void onChanged() {
+            indexValid = false;
+            invalidateHeader();
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            markDirty(positionStart, itemCount);
+            invalidateHeader();
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount, @Nullable Object payload) {
+            markDirty(positionStart, itemCount);
+            invalidateHeader();
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            if (indexValid) {
+                index.insertRange(positionStart, itemCount);
+                dirtyPositions.insertRange(positionStart, itemCount);
+                markDirty(positionStart, itemCount);
+            }
+            invalidateHeader();
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            if (indexValid) {
+                index.removeRange(positionStart, itemCount);
+                dirtyPositions.removeRange(positionStart, itemCount);
+            }
+            invalidateHeader();
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            if (itemCount == 1) {
+                if (indexValid) {
+                    index.move(fromPosition, toPosition);
+                    dirtyPositions.move(fromPosition, toPosition);
+                }
+            } else {
+                indexValid = false;
+            }
+            invalidateHeader();
+        }
+    };
+
+    /**
+     * @param adapter The adapter, i.e. a {@link ListDelegationAdapter}
+     * @param <A>     The type of the adapter
+     */
+    public <A extends RecyclerView.Adapter & DelegationAdapter<T>> StickyHeaderItemDecoration(@NonNull A adapter) {
+        if (adapter == null) {
+            throw new NullPointerException("Adapter is null");
+        }
+        this.adapter = adapter;
+        this.delegationAdapter = adapter;
+    }
+
+    /**
+     * Adds this decoration to the given RecyclerView and starts observing the adapter
+     *
+     * @param recyclerView The RecyclerView that displays the adapter
+     */
+    public void attach(@NonNull RecyclerView recyclerView) {
+        if (recyclerView == null) {
+            throw new NullPointerException("RecyclerView is null");
+        }
+        if (this.recyclerView != null) {
+            throw new IllegalStateException("StickyHeaderItemDecoration is already attached to " + this.recyclerView);
+        }
+        this.recyclerView = recyclerView;
+        adapter.registerAdapterDataObserver(indexUpdatingObserver);
+        indexValid = false;
+        invalidateHeader();
+        recyclerView.addItemDecoration(this);
+    }
+
+    /**
+     * Removes this decoration from the RecyclerView, stops observing the adapter and recycles the
+     * ViewHolders of the sticky headers
+     */
+    public void detach() {
+        RecyclerView rv = recyclerView;
+        if (rv == null) {
+            return;
+        }
+        recyclerView = null;
+        rv.removeItemDecoration(this);
+        adapter.unregisterAdapterDataObserver(indexUpdatingObserver);
+        AdapterDelegatesManager<T> manager = delegationAdapter.getDelegatesManager();
+        for (int i = 0; i < headerViewHolders.size(); i++) {
+            AdapterDelegate<T> delegate = manager.getDelegateForViewType(headerViewHolders.keyAt(i));
+            if (delegate != null) {
+                delegate.onViewRecycled(headerViewHolders.valueAt(i));
+            }
+        }
+        headerViewHolders.clear();
+        invalidateHeader();
+        index.clear();
+        dirtyPositions.clear();
+        indexValid = false;
+    }
+
+    /**
+     * Get the header of the given position
+     *
+     * @param position The adapter position
+     * @return The adapter position of the last header at or before the given position or {@link
+     * RecyclerView#NO_POSITION} if there is none
+     */
+    public int getHeaderPosition(int position) {
+        ensureIndex();
+        int headerPosition = index.findHeaderPosition(position);
+        return headerPosition == -1 ? RecyclerView.NO_POSITION : headerPosition;
+    }
+
+    @Override
+    public void onDrawOver(@NonNull Canvas c, @NonNull RecyclerView parent, @NonNull RecyclerView.State state) {
+        int top = parent.getPaddingTop();
+        int topPosition = RecyclerView.NO_POSITION;
+        for (int i = 0, count = parent.getChildCount(); i < count && topPosition == RecyclerView.NO_POSITION; i++) {
+            View child = parent.getChildAt(i);
+            if (child.getBottom() > top) {
+                topPosition = parent.getChildAdapterPosition(child);
+            }
+        }
+        if (topPosition == RecyclerView.NO_POSITION) {
+            return;
+        }
+        int headerPosition = getHeaderPosition(topPosition);
+        if (headerPosition == RecyclerView.NO_POSITION) {
+            return;
+        }
+
+        View header = getHeaderView(parent, headerPosition);
+        int headerTop = top;
+        int nextHeaderPosition = index.findNextHeaderPosition(headerPosition);
+        if (nextHeaderPosition != -1) {
+            RecyclerView.ViewHolder next = parent.findViewHolderForAdapterPosition(nextHeaderPosition);
+            if (next != null) {
+                headerTop = Math.min(top, next.itemView.getTop() - header.getHeight());
+            }
+        }
+
+        int saveCount = c.save();
+        c.translate(parent.getPaddingLeft(), headerTop);
+        header.draw(c);
+        c.restoreToCount(saveCount);
+    }
+
+    /**
+     * Get the view of the sticky header at the given position. The ViewHolder of its view type is
+     * only created the first time and only bound if another header has been bound in the meantime.
+     */
+    @NonNull
+    private View getHeaderView(@NonNull RecyclerView parent, int position) {
+        int width = parent.getWidth() - parent.getPaddingLeft() - parent.getPaddingRight();
+        RecyclerView.ViewHolder holder = boundViewHolder;
+        if (holder != null && boundPosition == position && boundWidth == width) {
+            return holder.itemView;
+        }
+
+        int viewType = adapter.getItemViewType(position);
+        AdapterDelegate<T> delegate = delegationAdapter.getDelegatesManager().getDelegateForViewType(viewType);
+        if (delegate == null) {
+            throw new NullPointerException("No AdapterDelegate added for ViewType " + viewType);
+        }
+        holder = headerViewHolders.get(viewType);
+        if (holder == null) {
+            holder = delegate.onCreateViewHolder(parent);
+            headerViewHolders.put(viewType, holder);
+        }
+        delegate.onBindViewHolder(delegationAdapter.getItems(), position, holder, NO_PAYLOADS);
+
+        View view = holder.itemView;
+        ViewGroup.LayoutParams lp = view.getLayoutParams();
+        int heightSpec = lp != null && lp.height >= 0
+                ? View.MeasureSpec.makeMeasureSpec(lp.height, View.MeasureSpec.EXACTLY)
+                : View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED);
+        view.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY), heightSpec);
+        view.layout(0, 0, view.getMeasuredWidth(), view.getMeasuredHeight());
+
+        boundViewHolder = holder;
+        boundPosition = position;
+        boundWidth = width;
+        return view;
+    }
+
+    private void invalidateHeader() {
+        boundViewHolder = null;
+        boundPosition = RecyclerView.NO_POSITION;
+    }
+
+    /**
+     * Checks the dirty positions for headers, or rebuilds the index in O(n) after it has been
+     * invalidated, i.e. by {@link RecyclerView.Adapter#notifyDataSetChanged()}
+     */
+    private void ensureIndex() {
+        int count = adapter.getItemCount();
+        if (indexValid) {
+            for (int i = 0; i < dirtyPositions.size(); i++) {
+                int position = dirtyPositions.get(i);
+                if (position < count) {
+                    index.setHeader(position, isStickyHeader(position));
+                }
+            }
+            dirtyPositions.clear();
+            return;
+        }
+        index.clear();
+        dirtyPositions.clear();
+        for (int position = 0; position < count; position++) {
+            if (isStickyHeader(position)) {
+                index.setHeader(position, true);
+            }
+        }
+        indexValid = true;
+    }
+
+    private void markDirty(int positionStart, int itemCount) {
+        if (!indexValid) {
+            return;
+        }
+        for (int position = positionStart, end = positionStart + itemCount; position < end; position++) {
+            dirtyPositions.setHeader(position, true);
+        }
+    }
+
+    private boolean isStickyHeader(int position) {
+        return delegationAdapter.getDelegatesManager().isStickyHeader(delegationAdapter.getItems(),
+                position, adapter.getItemViewType(position));
+    }
+}
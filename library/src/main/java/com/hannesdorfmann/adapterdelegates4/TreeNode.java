@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2015 Hannes Dorfmann.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.hannesdorfmann.adapterdelegates4;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * A node in the tree of an {@link ExpandableDelegationAdapter}. Nodes are created by {@link
+ * ExpandableDelegationAdapter#add(TreeNode, Object)}.
+ *
+ * @param <T> The type of the items
+ * @author Hannes Dorfmann
+ * @since 4.3.3
+ */
+public final class TreeNode<T> {
+
+    private final T item;
+    @Nullable
+    final TreeNode<T> parent;
+    final List<TreeNode<T>> children = new ArrayList<>();
+    final int depth;
+    boolean expanded;
+    boolean removed;
+
+    // Fields of the VisibleNodeIndex, only set while the node is visible
+    boolean visible;
+    int priority;
+    int size;
+    @Nullable
+    TreeNode<?> left;
+    @Nullable
+    TreeNode<?> right;
+    @Nullable
+    TreeNode<?> indexParent;
+
+    TreeNode(@Nullable TreeNode<T> parent, T item) {
+        this.parent = parent;
+        this.item = item;
+        this.depth = parent == null ? -1 : parent.depth + 1;
+    }
+
+    /**
+     * @return The item of this node
+     */
+    public T getItem() {
+        return item;
+    }
+
+    /**
+     * @return The parent node or <code>null</code> for top level nodes
+     */
+    @Nullable
+    public TreeNode<T> getParent() {
+        return parent == null || parent.parent == null ? null : parent;
+    }
+
+    /**
+     * @return The number of children
+     */
+    public int getChildCount() {
+        return children.size();
+    }
+
+    /**
+     * @param index The index of the child
+     * @return The child at the given index
+     */
+    @NonNull
+    public TreeNode<T> getChild(int index) {
+        return children.get(index);
+    }
+
+    /**
+     * @return The depth of this node, 0 for top level nodes
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * @return true if the children of this node are shown once this node is visible
+     */
+    public boolean isExpanded() {
+        return expanded;
+    }
+
+    /**
+     * @return true if this node is shown in the adapter, that is all its ancestors are expanded
+     */
+    public boolean isVisible() {
+        return visible;
+    }
+
+    @Override
+    public String toString() {
+        return "TreeNode{item=" + item + ", depth=" + depth + ", expanded=" + expanded + "}";
+    }
+}
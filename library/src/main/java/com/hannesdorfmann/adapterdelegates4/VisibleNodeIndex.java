@@ -0,0 +1,275 @@
+/*
+ * Copyright (c) 2015 Hannes Dorfmann.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.hannesdorfmann.adapterdelegates4;
+
+import java.util.List;
+import java.util.Random;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * The visible {@link TreeNode}s of an {@link ExpandableDelegationAdapter} in adapter order, kept
+ * in an implicit treap: a randomized balanced binary tree ordered by position, where each node
+ * knows the size of its subtree. The node at a position and the position of a node are found in
+ * expected O(log n). A range of k nodes is inserted or removed in expected O(log n + k), without
+ * touching the other nodes.
+ * <p>
+ * The treap links are stored in the {@link TreeNode}s themselves, so the index doesn't allocate
+ * per node.
+ * </p>
+ *
+ * @author Hannes Dorfmann
+ * @since 4.3.3
+ */
+final class VisibleNodeIndex {
+
+    private final Random random = new Random(0x5eed);
+
+    @Nullable
+    private TreeNode<?> root;
+
+    // The results of split(), main thread only
+    @Nullable
+    private TreeNode<?> splitLeft;
+    @Nullable
+    private TreeNode<?> splitRight;
+
+    /**
+     * @return The number of visible nodes
+     */
+    int size() {
+        return size(root);
+    }
+
+    /**
+     * Get the node at the given position in expected O(log n)
+     */
+    @NonNull
+    TreeNode<?> get(int position) {
+        if (position < 0 || position >= size()) {
+            throw new IndexOutOfBoundsException("position = " + position + ", size = " + size());
+        }
+        TreeNode<?> node = root;
+        int remaining = position;
+        while (true) {
+            int leftSize = size(node.left);
+            if (remaining < leftSize) {
+                node = node.left;
+            } else if (remaining == leftSize) {
+                return node;
+            } else {
+                remaining -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Get the position of the given node in expected O(log n)
+     *
+     * @return The position or -1 if the node is not visible
+     */
+    int positionOf(@NonNull TreeNode<?> node) {
+        if (!node.visible) {
+            return -1;
+        }
+        int position = size(node.left);
+        TreeNode<?> child = node;
+        TreeNode<?> parent = node.indexParent;
+        while (parent != null) {
+            if (parent.right == child) {
+                position += size(parent.left) + 1;
+            }
+            child = parent;
+            parent = parent.indexParent;
+        }
+        return position;
+    }
+
+    /**
+     * Inserts the given nodes at the given position in expected O(log n + k)
+     */
+    void insert(int position, @NonNull List<? extends TreeNode<?>> nodes) {
+        if (position < 0 || position > size()) {
+            throw new IndexOutOfBoundsException("position = " + position + ", size = " + size());
+        }
+        if (nodes.isEmpty()) {
+            return;
+        }
+        TreeNode<?> inserted = build(nodes);
+        split(root, position);
+        TreeNode<?> left = splitLeft;
+        TreeNode<?> right = splitRight;
+        splitLeft = null;
+        splitRight = null;
+        root = merge(merge(left, inserted), right);
+        root.indexParent = null;
+    }
+
+    /**
+     * Removes count nodes starting at the given position in expected O(log n + k)
+     */
+    void remove(int position, int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count must be >= 0 but was " + count);
+        }
+        if (position < 0 || position + count > size()) {
+            throw new IndexOutOfBoundsException("position = " + position + ", count = " + count
+                    + ", size = " + size());
+        }
+        if (count == 0) {
+            return;
+        }
+        split(root, position);
+        TreeNode<?> left = splitLeft;
+        split(splitRight, count);
+        TreeNode<?> removed = splitLeft;
+        TreeNode<?> right = splitRight;
+        splitLeft = null;
+        splitRight = null;
+        clear(removed);
+        root = merge(left, right);
+        if (root != null) {
+            root.indexParent = null;
+        }
+    }
+
+    /**
+     * Removes all nodes in O(n)
+     */
+    void clear() {
+        clear(root);
+        root = null;
+    }
+
+    private static int size(@Nullable TreeNode<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static void update(@NonNull TreeNode<?> node) {
+        node.size = size(node.left) + size(node.right) + 1;
+        if (node.left != null) {
+            node.left.indexParent = node;
+        }
+        if (node.right != null) {
+            node.right.indexParent = node;
+        }
+    }
+
+    /**
+     * Splits the given treap into {@link #splitLeft} with the first count nodes and {@link
+     * #splitRight} with the remaining nodes
+     */
+    private void split(@Nullable TreeNode<?> node, int count) {
+        if (node == null) {
+            splitLeft = null;
+            splitRight = null;
+            return;
+        }
+        int leftSize = size(node.left);
+        if (count <= leftSize) {
+            split(node.left, count);
+            node.left = splitRight;
+            update(node);
+            splitRight = node;
+        } else {
+            split(node.right, count - leftSize - 1);
+            node.right = splitLeft;
+            update(node);
+            splitLeft = node;
+        }
+        if (splitLeft != null) {
+            splitLeft.indexParent = null;
+        }
+        if (splitRight != null) {
+            splitRight.indexParent = null;
+        }
+    }
+
+    @Nullable
+    private static TreeNode<?> merge(@Nullable TreeNode<?> left, @Nullable TreeNode<?> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        } else {
+            right.left = merge(left, right.left);
+            update(right);
+            return right;
+        }
+    }
+
+    /**
+     * Builds a treap of the given nodes in O(k), like a Cartesian tree of their random priorities
+     */
+    @NonNull
+    private TreeNode<?> build(@NonNull List<? extends TreeNode<?>> nodes) {
+        TreeNode<?>[] stack = new TreeNode<?>[nodes.size()];
+        int top = 0;
+        for (int i = 0; i < nodes.size(); i++) {
+            TreeNode<?> node = nodes.get(i);
+            if (node.visible) {
+                throw new IllegalArgumentException(node + " is already visible");
+            }
+            node.visible = true;
+            node.priority = random.nextInt();
+            node.right = null;
+            TreeNode<?> last = null;
+            while (top > 0 && stack[top - 1].priority < node.priority) {
+                last = stack[--top];
+            }
+            node.left = last;
+            if (top > 0) {
+                stack[top - 1].right = node;
+            }
+            stack[top++] = node;
+        }
+        TreeNode<?> built = stack[0];
+        updateSizes(built);
+        built.indexParent = null;
+        return built;
+    }
+
+    private static void updateSizes(@Nullable TreeNode<?> node) {
+        if (node == null) {
+            return;
+        }
+        updateSizes(node.left);
+        updateSizes(node.right);
+        update(node);
+    }
+
+    private static void clear(@Nullable TreeNode<?> node) {
+        if (node == null) {
+            return;
+        }
+        clear(node.left);
+        clear(node.right);
+        node.visible = false;
+        node.size = 0;
+        node.left = null;
+        node.right = null;
+        node.indexParent = null;
+    }
+}
@@ -0,0 +1,353 @@
+/*
+ * Copyright (c) 2015 Hannes Dorfmann.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.hannesdorfmann.adapterdelegates4;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.collection.SparseArrayCompat;
+
+/**
+ * A read only {@link List} with a virtual size that keeps only a window of pages in memory.
+ * Pages are loaded on demand from a {@link PageSource} the first time an item of that page is
+ * accessed and the least recently used pages are evicted once more than <code>maxPages</code>
+ * pages are loaded. Items of pages that are not loaded yet are <code>null</code> so use it
+ * together with a placeholder delegate (see {@link AdapterDelegatesManager#setPlaceholderDelegate(AdapterDelegate)}).
+ * <p>
+ * This class is not thread safe and must only be used from the main thread.
+ * </p>
+ *
+ * @param <T> The type of the items
+ * @author Hannes Dorfmann
+ * @see WindowedListDelegationAdapter
+ * @since 4.3.3
+ */
+public class WindowedList<T> extends AbstractList<T> implements RandomAccess {
+
+    /**
+     * Loads the pages of a {@link WindowedList}
+     *
+     * @param <T> The type of the items
+     */
+    public interface PageSource<T> {
+
+        /**
+         * Load the items in the range [startPosition, startPosition + loadSize). This can be done
+         * synchronously or asynchronously but {@link LoadCallback#onResult(List)} must be invoked
+         * on the main thread.
+         *
+         * @param startPosition The position of the first item to load
+         * @param loadSize      The number of items to load. Less items are only expected at the end
+         *                      of the list.
+         * @param callback      The callback to deliver the loaded items
+         */
+        void loadRange(int startPosition, int loadSize, @NonNull LoadCallback<T> callback);
+    }
+
+    /**
+     * Callback to deliver a loaded page
+     *
+     * @param <T> The type of the items
+     */
+    public interface LoadCallback<T> {
+
+        /**
+         * Must be called on the main thread
+         *
+         * @param items The loaded items
+         */
+        @MainThread
+        void onResult(@NonNull List<T> items);
+    }
+
+    /**
+     * Get notified once a page has been loaded
+     */
+    public interface Listener {
+
+        /**
+         * Called once items have been loaded
+         *
+         * @param startPosition The position of the first loaded item
+         * @param count         The number of loaded items
+         */
+        void onRangeLoaded(int startPosition, int count);
+    }
+
+    private static final class Page {
+        final int index;
+        final Object[] items;
+        Page previous;
+        Page next;
+
+        Page(int index, Object[] items) {
+            this.index = index;
+            this.items = items;
+        }
+    }
+
+    private final PageSource<T> source;
+    private final int pageSize;
+    private final int maxPages;
+    private int size;
+
+    private final SparseArrayCompat<Page> pages = new SparseArrayCompat<>();
+    private final SparseArrayCompat<LoadCallback<T>> pendingLoads = new SparseArrayCompat<>();
+
+    /**
+     * Most recently used page
+     */
+    @Nullable
+    private Page head;
+
+    /**
+     * Least recently used page
+     */
+    @Nullable
+    private Page tail;
+
+    @Nullable
+    private Listener listener;
+
+    /**
+     * @param source   The source to load the pages from
+     * @param size     The virtual size of the list (total number of items)
+     * @param pageSize The number of items per page
+     * @param maxPages The max number of pages that are kept in memory. Must be large enough to
+     *                 cover the visible items plus prefetching, otherwise visible pages get evicted
+     *                 and loaded again.
+     */
+    public WindowedList(@NonNull PageSource<T> source, int size, int pageSize, int maxPages) {
+        if (source == null) {
+            throw new NullPointerException("PageSource is null");
+        }
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("pageSize must be >= 1 but was " + pageSize);
+        }
+        if (maxPages < 1) {
+            throw new IllegalArgumentException("maxPages must be >= 1 but was " + maxPages);
+        }
+        if (size < 0) {
+            throw new IllegalArgumentException("size must be >= 0 but was " + size);
+        }
+        this.source = source;
+        this.size = size;
+        this.pageSize = pageSize;
+        this.maxPages = maxPages;
+    }
+
+    /**
+     * Get the item at the given position. If the page of the item is not loaded yet, loading the
+     * page is triggered and <code>null</code> is returned.
+     */
+    @Nullable
+    @Override
+    public T get(int index) {
+        Page page = getPage(index);
+        if (page == null) {
+            return null;
+        }
+        return item(page, index);
+    }
+
+    /**
+     * Get the item at the given position without triggering loading the page if it is not loaded
+     * yet and without changing the least recently used order of the pages.
+     */
+    @Nullable
+    public T peek(int index) {
+        checkIndex(index);
+        Page page = pages.get(index / pageSize);
+        if (page == null) {
+            return null;
+        }
+        return item(page, index);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The number of items per page
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * @return The number of pages that are currently in memory
+     */
+    public int getLoadedPageCount() {
+        return pages.size();
+    }
+
+    /**
+     * @param index The position of an item
+     * @return true if the page of the item at the given position is in memory
+     */
+    public boolean isLoaded(int index) {
+        checkIndex(index);
+        return pages.containsKey(index / pageSize);
+    }
+
+    /**
+     * Triggers loading of the pages of the items in the range [position - distance, position + distance]
+     * if they are not loaded yet.
+     *
+     * @param position The position
+     * @param distance The number of items before and after position that should be loaded
+     */
+    public void loadAround(int position, int distance) {
+        checkIndex(position);
+        int firstPage = Math.max(0, position - distance) / pageSize;
+        int lastPage = Math.min(size - 1, position + distance) / pageSize;
+        for (int pageIndex = firstPage; pageIndex <= lastPage; pageIndex++) {
+            if (!pages.containsKey(pageIndex)) {
+                loadPage(pageIndex);
+            }
+        }
+    }
+
+    /**
+     * Removes all pages from memory, ignores the results of running loads and sets a new virtual
+     * size. Pages are loaded again on demand.
+     *
+     * @param size The new virtual size
+     */
+    public void invalidate(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size must be >= 0 but was " + size);
+        }
+        this.size = size;
+        pages.clear();
+        pendingLoads.clear();
+        head = null;
+        tail = null;
+    }
+
+    /**
+     * @param listener Gets notified once a page has been loaded or <code>null</code>
+     */
+    public void setListener(@Nullable Listener listener) {
+        this.listener = listener;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T item(Page page, int index) {
+        int offset = index - page.index * pageSize;
+        return offset < page.items.length ? (T) page.items[offset] : null;
+    }
+
+    @Nullable
+    private Page getPage(int index) {
+        checkIndex(index);
+        int pageIndex = index / pageSize;
+        Page page = head;
+        if (page != null && page.index == pageIndex) {
+            return page; // Fast path: consecutive reads from the same page
+        }
+        page = pages.get(pageIndex);
+        if (page == null) {
+            loadPage(pageIndex);
+            return pages.get(pageIndex); // PageSource may have delivered the result synchronously
+        }
+        moveToHead(page);
+        return page;
+    }
+
+    private void loadPage(final int pageIndex) {
+        if (pendingLoads.containsKey(pageIndex)) {
+            return;
+        }
+        final int startPosition = pageIndex * pageSize;
+        final int loadSize = Math.min(pageSize, size - startPosition);
+        LoadCallback<T> callback = new LoadCallback<T>() {
+            @Override
+            public void onResult(@NonNull List<T> items) {
+                if (pendingLoads.get(pageIndex) != this) {
+                    return; // invalidated in the meantime
+                }
+                pendingLoads.remove(pageIndex);
+                onPageLoaded(pageIndex, items);
+            }
+        };
+        pendingLoads.put(pageIndex, callback);
+        source.loadRange(startPosition, loadSize, callback);
+    }
+
+    private void onPageLoaded(int pageIndex, List<T> items) {
+        Page page = new Page(pageIndex, items.toArray());
+        Page old = pages.get(pageIndex);
+        if (old != null) {
+            unlink(old);
+        }
+        pages.put(pageIndex, page);
+        linkAsHead(page);
+        while (pages.size() > maxPages && tail != null) {
+            Page eldest = tail;
+            unlink(eldest);
+            pages.remove(eldest.index);
+        }
+        if (listener != null && !items.isEmpty()) {
+            listener.onRangeLoaded(pageIndex * pageSize, items.size());
+        }
+    }
+
+    private void moveToHead(Page page) {
+        unlink(page);
+        linkAsHead(page);
+    }
+
+    private void linkAsHead(Page page) {
+        page.previous = null;
+        page.next = head;
+        if (head != null) {
+            head.previous = page;
+        }
+        head = page;
+        if (tail == null) {
+            tail = page;
+        }
+    }
+
+    private void unlink(Page page) {
+        if (page.previous != null) {
+            page.previous.next = page.next;
+        } else if (head == page) {
+            head = page.next;
+        }
+        if (page.next != null) {
+            page.next.previous = page.previous;
+        } else if (tail == page) {
+            tail = page.previous;
+        }
+        page.previous = null;
+        page.next = null;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
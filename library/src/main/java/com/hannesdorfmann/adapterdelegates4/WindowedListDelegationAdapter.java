@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2015 Hannes Dorfmann.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.hannesdorfmann.adapterdelegates4;
+
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * An adapter for a {@link WindowedList}, i.e. to display millions of items where only the pages
+ * around the visible items are kept in memory:
+ * <pre>
+ * {@code
+ *    WindowedList<LogEntry> items = new WindowedList<>(pageSource, totalCount, 100, 10);
+ *    WindowedListDelegationAdapter<LogEntry> adapter = new WindowedListDelegationAdapter<>(logEntryDelegate);
+ *    adapter.setItems(items);
+ * }
+ * </pre>
+ * Items that are not loaded yet are dispatched to the placeholder delegate (see {@link
+ * #setPlaceholderDelegate(AdapterDelegate)}). If the adapter creates the {@link
+ * AdapterDelegatesManager}, a {@link SkeletonAdapterDelegate} is used as placeholder delegate. A
+ * manager that is passed in is used as is. Once a page has been loaded the corresponding items are
+ * notified as changed.
+ *
+ * @param <T> The type of the items
+ * @author Hannes Dorfmann
+ * @since 4.3.3
+ */
+public class WindowedListDelegationAdapter<T> extends AbsDelegationAdapter<List<T>> {
+
+    private final WindowedList.Listener rangeLoadedListener = new WindowedList.Listener() {
+        @Override
+        public void onRangeLoaded(final int startPosition, final int count) {
+            RecyclerView rv = recyclerView;
+            if (rv != null && rv.isComputingLayout()) {
+                // The PageSource has delivered synchronously while RecyclerView asked for an item
+                rv.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        notifyItemRangeChanged(startPosition, count);
+                    }
+                });
+            } else {
+                notifyItemRangeChanged(startPosition, count);
+            }
+        }
+    };
+
+    @Nullable
+    private RecyclerView recyclerView;
+    private int prefetchDistance;
+
+    public WindowedListDelegationAdapter() {
+        this(new AdapterDelegatesManager<List<T>>()
+                .setPlaceholderDelegate(new SkeletonAdapterDelegate<List<T>>()));
+    }
+
+    /**
+     * @param delegatesManager The {@link AdapterDelegatesManager}. It's not modified, so set a
+     *                         placeholder delegate on it for the items that are not loaded yet.
+     */
+    public WindowedListDelegationAdapter(@NonNull AdapterDelegatesManager<List<T>> delegatesManager) {
+        super(delegatesManager);
+    }
+
+    /**
+     * Adds a list of {@link AdapterDelegate}s and uses a {@link SkeletonAdapterDelegate} as
+     * placeholder delegate
+     *
+     * @param delegates The delegates
+     */
+    public WindowedListDelegationAdapter(@NonNull AdapterDelegate<List<T>>... delegates) {
+        this(new AdapterDelegatesManager<List<T>>(delegates)
+                .setPlaceholderDelegate(new SkeletonAdapterDelegate<List<T>>()));
+    }
+
+    /**
+     * Set the number of items before and after a bound item whose pages should be loaded.
+     * Defaults to 0, which means only the page of the bound item gets loaded.
+     *
+     * @param prefetchDistance The number of items
+     */
+    public void setPrefetchDistance(int prefetchDistance) {
+        if (prefetchDistance < 0) {
+            throw new IllegalArgumentException("prefetchDistance must be >= 0 but was " + prefetchDistance);
+        }
+        this.prefetchDistance = prefetchDistance;
+    }
+
+    /**
+     * Set a placeholder delegate that should be used for items that are not loaded yet. The
+     * delegate is set on the {@link AdapterDelegatesManager} of this adapter.
+     *
+     * @param placeholderDelegate The {@link AdapterDelegate}, i.e. a {@link SkeletonAdapterDelegate}
+     */
+    public void setPlaceholderDelegate(@NonNull AdapterDelegate<List<T>> placeholderDelegate) {
+        if (placeholderDelegate == null) {
+            throw new NullPointerException("Placeholder AdapterDelegate is null");
+        }
+        delegatesManager.setPlaceholderDelegate(placeholderDelegate);
+    }
+
+    /**
+     * Set the items. If the given list is a {@link WindowedList}, loaded pages are notified as
+     * changed.
+     *
+     * @param items The items / data source
+     */
+    @Override
+    public void setItems(@Nullable List<T> items) {
+        if (this.items instanceof WindowedList) {
+            ((WindowedList<T>) this.items).setListener(null);
+        }
+        super.setItems(items);
+        if (items instanceof WindowedList) {
+            ((WindowedList<T>) items).setListener(rangeLoadedListener);
+        }
+        notifyDataSetChanged();
+    }
+
+    @Override
+    public int getItemCount() {
+        return items == null ? 0 : items.size();
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        onBindViewHolder(holder, position, null);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position, @Nullable List payloads) {
+        delegatesManager.onBindViewHolder(items, position, holder, payloads);
+        // After binding, loaded pages may evict the page of the bound position
+        if (prefetchDistance > 0 && items instanceof WindowedList) {
+            ((WindowedList<T>) items).loadAround(position, prefetchDistance);
+        }
+    }
+
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        this.recyclerView = recyclerView;
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        this.recyclerView = null;
+    }
+}
@@ -8,6 +8,7 @@ import junit.framework.Assert;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -40,6 +41,26 @@ public class AbsListItemAdapterDelegateTest {
 
     }
 
+    @Test
+    public void bindResolvedItemThroughManager() throws Exception {
+        List<Animal> items = new ArrayList<>();
+        items.add(new Cat());
+        Cat resolvedCat = new Cat();
+
+        CatAbsListItemAdapterDelegate delegate = new CatAbsListItemAdapterDelegate();
+        AdapterDelegatesManager<List<Animal>> manager = new AdapterDelegatesManager<>();
+        manager.addDelegate(0, delegate);
+
+        CatViewHolder vh = delegate.onCreateViewHolder(Mockito.mock(ViewGroup.class));
+        Field viewTypeField = RecyclerView.ViewHolder.class.getDeclaredField("mItemViewType");
+        viewTypeField.setAccessible(true);
+        viewTypeField.set(vh, 0);
+
+        manager.onBindViewHolder(items, 0, resolvedCat, vh, null);
+        Assert.assertTrue(delegate.onBindViewHolderCalled);
+        Assert.assertSame(resolvedCat, delegate.boundItem);
+    }
+
     interface Animal {
     }
 
@@ -58,6 +79,7 @@ public class AbsListItemAdapterDelegateTest {
         public boolean onCreateViewHolderCalled = false;
         public boolean onBindViewHolderCalled = false;
         public boolean onViewDetachedFromWindow = false;
+        public Cat boundItem;
 
 
         @Override
@@ -76,6 +98,7 @@ public class AbsListItemAdapterDelegateTest {
         @Override
         protected void onBindViewHolder(@NonNull Cat item, @NonNull CatViewHolder holder, @NonNull List payloads) {
             onBindViewHolderCalled = true;
+            boundItem = item;
         }
 
         @Override
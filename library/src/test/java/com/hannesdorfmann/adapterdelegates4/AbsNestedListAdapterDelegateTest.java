@@ -0,0 +1,172 @@
+package com.hannesdorfmann.adapterdelegates4;
+
+import android.os.Parcelable;
+import android.view.ViewGroup;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+public class AbsNestedListAdapterDelegateTest {
+
+    static class Carousel {
+        final long id;
+
+        Carousel(long id) {
+            this.id = id;
+        }
+    }
+
+    static class CarouselAdapterDelegate extends AbsNestedListAdapterDelegate<Carousel, Object,
+            AbsNestedListAdapterDelegate.NestedListViewHolder> {
+
+        final List<Carousel> boundItems = new ArrayList<>();
+
+        @Override
+        protected boolean isForViewType(@NonNull Object item, @NonNull List<Object> items, int position) {
+            return item instanceof Carousel;
+        }
+
+        @Override
+        protected long getItemId(@NonNull Carousel item) {
+            return item.id;
+        }
+
+        @NonNull
+        @Override
+        protected NestedListViewHolder onCreateNestedListViewHolder(@NonNull ViewGroup parent) {
+            RecyclerView recyclerView = Mockito.mock(RecyclerView.class);
+            Mockito.when(recyclerView.getLayoutManager()).thenReturn(Mockito.mock(LinearLayoutManager.class));
+            return new NestedListViewHolder(recyclerView);
+        }
+
+        @Override
+        protected void onBindNestedListViewHolder(@NonNull Carousel item, @NonNull NestedListViewHolder holder,
+                                                  @NonNull List<Object> payloads) {
+            boundItems.add(item);
+        }
+    }
+
+    private final List<Object> noPayloads = Collections.emptyList();
+
+    @Test
+    public void sharesPoolAndConfiguresPrefetch() {
+        CarouselAdapterDelegate delegate = new CarouselAdapterDelegate();
+        delegate.setInitialPrefetchItemCount(6);
+
+        AbsNestedListAdapterDelegate.NestedListViewHolder holder1 =
+                delegate.onCreateViewHolder(Mockito.mock(ViewGroup.class));
+        AbsNestedListAdapterDelegate.NestedListViewHolder holder2 =
+                delegate.onCreateViewHolder(Mockito.mock(ViewGroup.class));
+
+        Mockito.verify(holder1.recyclerView).setRecycledViewPool(delegate.getRecycledViewPool());
+        Mockito.verify(holder2.recyclerView).setRecycledViewPool(delegate.getRecycledViewPool());
+
+        LinearLayoutManager layoutManager = (LinearLayoutManager) holder1.recyclerView.getLayoutManager();
+        Mockito.verify(layoutManager).setInitialPrefetchItemCount(6);
+        Mockito.verify(layoutManager).setRecycleChildrenOnDetach(true);
+    }
+
+    @Test
+    public void restoresLayoutManagerStateByItemId() {
+        CarouselAdapterDelegate delegate = new CarouselAdapterDelegate();
+        AbsNestedListAdapterDelegate.NestedListViewHolder holder =
+                delegate.onCreateViewHolder(Mockito.mock(ViewGroup.class));
+        RecyclerView.LayoutManager layoutManager = holder.recyclerView.getLayoutManager();
+        Parcelable state = Mockito.mock(Parcelable.class);
+        Mockito.when(layoutManager.onSaveInstanceState()).thenReturn(state);
+
+        Carousel carousel1 = new Carousel(1);
+        delegate.onBindViewHolder(carousel1, holder, noPayloads);
+        Mockito.verify(layoutManager).scrollToPosition(0);
+
+        delegate.onViewDetachedFromWindow(holder);
+        Mockito.verify(layoutManager).onSaveInstanceState();
+        delegate.onViewRecycled(holder);
+        Mockito.verify(layoutManager).onSaveInstanceState();
+
+        delegate.onBindViewHolder(new Carousel(2), holder, noPayloads);
+        Mockito.verify(layoutManager, Mockito.times(2)).scrollToPosition(0);
+        Mockito.verify(layoutManager, Mockito.never()).onRestoreInstanceState(state);
+
+        delegate.onViewRecycled(holder);
+        delegate.onBindViewHolder(carousel1, holder, noPayloads);
+        Mockito.verify(layoutManager).onRestoreInstanceState(state);
+        Assert.assertEquals(3, delegate.boundItems.size());
+    }
+
+    @Test
+    public void restoresLayoutManagerStateWhenAttachedWithoutBind() {
+        CarouselAdapterDelegate delegate = new CarouselAdapterDelegate();
+        AbsNestedListAdapterDelegate.NestedListViewHolder holder =
+                delegate.onCreateViewHolder(Mockito.mock(ViewGroup.class));
+        RecyclerView.LayoutManager layoutManager = holder.recyclerView.getLayoutManager();
+        Parcelable state = Mockito.mock(Parcelable.class);
+        Mockito.when(layoutManager.onSaveInstanceState()).thenReturn(state);
+
+        delegate.onBindViewHolder(new Carousel(1), holder, noPayloads);
+        delegate.onViewAttachedToWindow(holder);
+        Mockito.verify(layoutManager, Mockito.never()).onRestoreInstanceState(state);
+
+        // i.e. from the cached views of the parent RecyclerView
+        delegate.onViewDetachedFromWindow(holder);
+        delegate.onViewAttachedToWindow(holder);
+        Mockito.verify(layoutManager).onRestoreInstanceState(state);
+    }
+
+    @Test
+    public void partialUpdateKeepsScrollPosition() {
+        CarouselAdapterDelegate delegate = new CarouselAdapterDelegate();
+        AbsNestedListAdapterDelegate.NestedListViewHolder holder =
+                delegate.onCreateViewHolder(Mockito.mock(ViewGroup.class));
+        RecyclerView.LayoutManager layoutManager = holder.recyclerView.getLayoutManager();
+
+        Carousel carousel = new Carousel(1);
+        delegate.onBindViewHolder(carousel, holder, noPayloads);
+        delegate.onBindViewHolder(carousel, holder, Collections.<Object>singletonList("payload"));
+
+        Mockito.verify(layoutManager, Mockito.times(1)).scrollToPosition(0);
+        Mockito.verify(layoutManager, Mockito.never()).onSaveInstanceState();
+        Assert.assertEquals(2, delegate.boundItems.size());
+    }
+
+    @Test
+    public void invalidMaxStates() {
+        try {
+            new AbsNestedListAdapterDelegate<Carousel, Object, AbsNestedListAdapterDelegate.NestedListViewHolder>(
+                    new RecyclerView.RecycledViewPool(), 0) {
+                @Override
+                protected boolean isForViewType(@NonNull Object item, @NonNull List<Object> items, int position) {
+                    return false;
+                }
+
+                @Override
+                protected long getItemId(@NonNull Carousel item) {
+                    return 0;
+                }
+
+                @NonNull
+                @Override
+                protected NestedListViewHolder onCreateNestedListViewHolder(@NonNull ViewGroup parent) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                protected void onBindNestedListViewHolder(@NonNull Carousel item, @NonNull NestedListViewHolder holder,
+                                                          @NonNull List<Object> payloads) {
+                }
+            };
+            Assert.fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals("maxStates must be >= 1 but was 0", e.getMessage());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.hannesdorfmann.adapterdelegates4;
 
+import android.os.Bundle;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
@@ -8,8 +9,13 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import junit.framework.Assert;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -19,6 +25,9 @@ import java.util.List;
  */
 public class AdapterDelegatesManagerTest {
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Test
     public void addRemove() {
 
@@ -546,6 +555,67 @@ public class AdapterDelegatesManagerTest {
         }
     }
 
+    @Test
+    public void placeholderDelegate() {
+        List<Object> items = new ArrayList<>();
+        items.add(null);
+        items.add(new Object());
+
+        AdapterDelegatesManager<List<Object>> delegatesManager = new AdapterDelegatesManager<>();
+        SpyableAdapterDelegate<List<Object>> placeholderDelegate =
+                new SpyableAdapterDelegate<>(AdapterDelegatesManager.PLACEHOLDER_DELEGATE_VIEW_TYPE);
+        SpyableAdapterDelegate<List<Object>> otherDelegate = new SpyableAdapterDelegate<>(0);
+        delegatesManager.addDelegate(otherDelegate);
+        delegatesManager.setPlaceholderDelegate(placeholderDelegate);
+        Assert.assertSame(placeholderDelegate, delegatesManager.getPlaceholderDelegate());
+
+        Assert.assertEquals(AdapterDelegatesManager.PLACEHOLDER_DELEGATE_VIEW_TYPE,
+                delegatesManager.getItemViewType(items, 0));
+        Assert.assertFalse(otherDelegate.isForViewTypeReturnedYes);
+        Assert.assertFalse(placeholderDelegate.isForViewTypeReturnedYes);
+
+        RecyclerView.ViewHolder vh = delegatesManager.onCreateViewHolder(null,
+                AdapterDelegatesManager.PLACEHOLDER_DELEGATE_VIEW_TYPE);
+        Assert.assertSame(vh, placeholderDelegate.viewHolder);
+        Assert.assertFalse(otherDelegate.onCreateViewHolderCalled);
+
+        delegatesManager.onBindViewHolder(items, 0, vh);
+        Assert.assertTrue(placeholderDelegate.onBindViewHolderCalled);
+        Assert.assertFalse(otherDelegate.onBindViewHolderCalled);
+    }
+
+    @Test
+    public void placeholderWithoutPlaceholderDelegate() {
+        List<Object> items = new ArrayList<>();
+        items.add(null);
+
+        AdapterDelegatesManager<List<Object>> delegatesManager = new AdapterDelegatesManager<>();
+        delegatesManager.addDelegate(new SpyableAdapterDelegate<List<Object>>(1));
+        try {
+            delegatesManager.getItemViewType(items, 0);
+            Assert.fail("Exception expected because no delegate is responsible for null items");
+        } catch (NullPointerException e) {
+            Assert.assertEquals("No AdapterDelegate added that matches item=null at position=0 in data source",
+                    e.getMessage());
+        }
+    }
+
+    @Test
+    public void viewTypeInConflictWithPlaceholderDelegate() {
+        try {
+            AdapterDelegatesManager<List> manager = new AdapterDelegatesManager<>();
+            manager.addDelegate(AdapterDelegatesManager.PLACEHOLDER_DELEGATE_VIEW_TYPE,
+                    new SpyableAdapterDelegate<List>(0));
+            Assert.fail(
+                    "An exception should be thrown because view type integer is already reserved for placeholder delegate");
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals("The view type = "
+                            + AdapterDelegatesManager.PLACEHOLDER_DELEGATE_VIEW_TYPE
+                            + " is reserved for placeholder adapter delegate (see setPlaceholderDelegate() ). Please use another view type.",
+                    e.getMessage());
+        }
+    }
+
     @Test
     public void getViewType() {
         AdapterDelegatesManager<List> manager = new AdapterDelegatesManager<>();
@@ -623,4 +693,295 @@ public class AdapterDelegatesManagerTest {
         manager.setFallbackDelegate(fallbackDelegate);
         Assert.assertEquals(fallbackDelegate, manager.getFallbackDelegate());
     }
+
+    @Test
+    public void restoreInstanceStatePerViewType() {
+        AdapterDelegatesManager<List> manager = new AdapterDelegatesManager<>();
+        SpyableAdapterDelegate<List> delegate1 = new SpyableAdapterDelegate<>(0);
+        SpyableAdapterDelegate<List> delegate2 = new SpyableAdapterDelegate<>(1);
+        SpyableAdapterDelegate<List> fallbackDelegate = new SpyableAdapterDelegate<>(2);
+        manager.addDelegate(delegate1);
+        manager.addDelegate(delegate2);
+        manager.setFallbackDelegate(fallbackDelegate);
+
+        Bundle state = Mockito.mock(Bundle.class);
+        Bundle delegate1State = Mockito.mock(Bundle.class);
+        Bundle fallbackState = Mockito.mock(Bundle.class);
+        Mockito.when(state.getBundle(AdapterDelegatesManager.STATE_KEY_PREFIX + 0))
+                .thenReturn(delegate1State);
+        Mockito.when(state.getBundle(AdapterDelegatesManager.STATE_KEY_PREFIX
+                + AdapterDelegatesManager.FALLBACK_DELEGATE_VIEW_TYPE))
+                .thenReturn(fallbackState);
+
+        manager.onRestoreInstanceState(state);
+        Assert.assertSame(delegate1State, delegate1.restoredState);
+        Assert.assertNull(delegate2.restoredState);
+        Assert.assertSame(fallbackState, fallbackDelegate.restoredState);
+    }
+
+    @Test
+    public void spilledStateIsRestoredLazily() {
+        AdapterDelegatesManager<List> manager = new AdapterDelegatesManager<>();
+        SpyableAdapterDelegate<List> delegate1 = new SpyableAdapterDelegate<>(0);
+        manager.addDelegate(delegate1);
+
+        Bundle state = Mockito.mock(Bundle.class);
+        Mockito.when(state.getString(AdapterDelegatesManager.SPILLED_STATE_KEY_PREFIX + 0))
+                .thenReturn("does/not/exist.state");
+
+        manager.onRestoreInstanceState(state);
+        Assert.assertNull(delegate1.restoredState);
+
+        // Spilled state doesn't exist anymore, so there is nothing to restore
+        manager.onCreateViewHolder(Mockito.mock(ViewGroup.class), 0);
+        Assert.assertTrue(delegate1.onCreateViewHolderCalled);
+        Assert.assertNull(delegate1.restoredState);
+    }
+
+    @Test
+    public void unreferencedSpilledStatesAreDeletedOnRestore() throws IOException {
+        File directory = temporaryFolder.newFolder();
+        File referenced = SpilledStates.fileOf(directory, 0);
+        File stale = SpilledStates.fileOf(directory, 1);
+        File other = new File(directory, "other.txt");
+        Assert.assertTrue(referenced.createNewFile());
+        Assert.assertTrue(stale.createNewFile());
+        Assert.assertTrue(other.createNewFile());
+
+        AdapterDelegatesManager<List> manager = new AdapterDelegatesManager<>();
+        manager.addDelegate(new SpyableAdapterDelegate<List>(0));
+        manager.addDelegate(new SpyableAdapterDelegate<List>(1));
+        manager.setStateSpillDirectory(directory);
+
+        Bundle state = Mockito.mock(Bundle.class);
+        Mockito.when(state.getString(AdapterDelegatesManager.SPILLED_STATE_KEY_PREFIX + 0))
+                .thenReturn(referenced.getPath());
+        manager.onRestoreInstanceState(state);
+
+        Assert.assertTrue(referenced.exists());
+        Assert.assertFalse(stale.exists());
+        Assert.assertTrue(other.exists());
+    }
+
+    @Test
+    public void spilledStatesAreDeletedWithoutState() throws IOException {
+        File directory = temporaryFolder.newFolder();
+        File stale = SpilledStates.fileOf(directory, 0);
+        File staleTmp = new File(directory, stale.getName() + ".tmp");
+        Assert.assertTrue(stale.createNewFile());
+        Assert.assertTrue(staleTmp.createNewFile());
+
+        AdapterDelegatesManager<List> manager = new AdapterDelegatesManager<>();
+        manager.addDelegate(new SpyableAdapterDelegate<List>(0));
+        manager.setStateSpillDirectory(directory);
+        manager.onRestoreInstanceState(null);
+
+        Assert.assertFalse(stale.exists());
+        Assert.assertFalse(staleTmp.exists());
+    }
+
+    @Test
+    public void maxDelegateStateSize() {
+        AdapterDelegatesManager<List> manager = new AdapterDelegatesManager<>();
+        Assert.assertEquals(AdapterDelegatesManager.DEFAULT_MAX_DELEGATE_STATE_SIZE,
+                manager.getMaxDelegateStateSize());
+        manager.setMaxDelegateStateSize(1024);
+        Assert.assertEquals(1024, manager.getMaxDelegateStateSize());
+
+        try {
+            manager.setMaxDelegateStateSize(-1);
+            Assert.fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    static class ItemClassAdapterDelegate extends SpyableAdapterDelegate<List<Object>> {
+        final Class<?> itemClass;
+        int isForViewTypeCalls = 0;
+
+        ItemClassAdapterDelegate(int viewType, Class<?> itemClass) {
+            super(viewType);
+            this.itemClass = itemClass;
+        }
+
+        @Override
+        public boolean isForViewType(@NonNull List<Object> items, int position) {
+            isForViewTypeCalls++;
+            Object item = items.get(position);
+            return itemClass.isInstance(item);
+        }
+
+        @Nullable
+        @Override
+        protected Class<?> getItemClass() {
+            return itemClass;
+        }
+    }
+
+    @Test
+    public void viewTypeByItemClass() {
+        ItemClassAdapterDelegate stringDelegate = new ItemClassAdapterDelegate(0, String.class);
+        ItemClassAdapterDelegate numberDelegate = new ItemClassAdapterDelegate(1, Number.class);
+        AdapterDelegatesManager<List<Object>> manager = new AdapterDelegatesManager<>();
+        manager.addDelegate(stringDelegate);
+        manager.addDelegate(numberDelegate);
+
+        List<Object> items = Arrays.<Object>asList("a", 1, 2L, "b");
+        Assert.assertEquals(0, manager.getItemViewType(items, 0));
+        Assert.assertEquals(1, manager.getItemViewType(items, 1));
+        Assert.assertEquals(1, manager.getItemViewType(items, 2));
+        Assert.assertEquals(0, manager.getItemViewType(items, 3));
+
+        Assert.assertEquals(0, stringDelegate.isForViewTypeCalls);
+        Assert.assertEquals(0, numberDelegate.isForViewTypeCalls);
+    }
+
+    @Test
+    public void viewTypeByItemClassFallback() {
+        AdapterDelegatesManager<List<Object>> manager = new AdapterDelegatesManager<>();
+        manager.addDelegate(new ItemClassAdapterDelegate(0, String.class));
+        SpyableAdapterDelegate<List<Object>> fallbackDelegate = new SpyableAdapterDelegate<>(3);
+        manager.setFallbackDelegate(fallbackDelegate);
+
+        List<Object> items = Arrays.<Object>asList("a", 1, 2);
+        Assert.assertEquals(AdapterDelegatesManager.FALLBACK_DELEGATE_VIEW_TYPE,
+                manager.getItemViewType(items, 1));
+        // Cached negative lookup
+        Assert.assertEquals(AdapterDelegatesManager.FALLBACK_DELEGATE_VIEW_TYPE,
+                manager.getItemViewType(items, 2));
+    }
+
+    @Test
+    public void viewTypeByItemClassNotAllDelegatesPublishClass() {
+        ItemClassAdapterDelegate stringDelegate = new ItemClassAdapterDelegate(0, String.class);
+        ItemClassAdapterDelegate numberDelegate = new ItemClassAdapterDelegate(1, Number.class) {
+            @Nullable
+            @Override
+            protected Class<?> getItemClass() {
+                return null;
+            }
+        };
+        AdapterDelegatesManager<List<Object>> manager = new AdapterDelegatesManager<>();
+        manager.addDelegate(stringDelegate);
+        manager.addDelegate(numberDelegate);
+
+        List<Object> items = Arrays.<Object>asList("a", 1);
+        Assert.assertEquals(0, manager.getItemViewType(items, 0));
+        Assert.assertEquals(1, manager.getItemViewType(items, 1));
+        Assert.assertEquals(2, stringDelegate.isForViewTypeCalls);
+        Assert.assertEquals(1, numberDelegate.isForViewTypeCalls);
+
+        // Index is rebuilt once the delegates change
+        manager.removeDelegate(numberDelegate);
+        manager.addDelegate(new ItemClassAdapterDelegate(1, Number.class));
+        Assert.assertEquals(1, manager.getItemViewType(items, 1));
+        Assert.assertEquals(2, stringDelegate.isForViewTypeCalls);
+    }
+
+    @Test
+    public void viewTypeByItemClassNullItem() {
+        ItemClassAdapterDelegate stringDelegate = new ItemClassAdapterDelegate(0, String.class);
+        SpyableAdapterDelegate<List<Object>> nullDelegate = new ItemClassAdapterDelegate(1, String.class) {
+            @Override
+            public boolean isForViewType(@NonNull List<Object> items, int position) {
+                return items.get(position) == null;
+            }
+        };
+        AdapterDelegatesManager<List<Object>> manager = new AdapterDelegatesManager<>();
+        manager.addDelegate(stringDelegate);
+        manager.addDelegate(nullDelegate);
+
+        List<Object> items = Arrays.<Object>asList("a", null);
+        Assert.assertEquals(1, manager.getItemViewType(items, 1));
+    }
+
+    @Test
+    public void resolveItemViewType() {
+        SpyableAdapterDelegate<List<Object>> stringDelegate = new SpyableAdapterDelegate<>(0);
+        SpyableAdapterDelegate<List<Object>> placeholderDelegate =
+                new SpyableAdapterDelegate<>(AdapterDelegatesManager.PLACEHOLDER_DELEGATE_VIEW_TYPE);
+        AdapterDelegatesManager<List<Object>> manager = new AdapterDelegatesManager<List<Object>>() {
+            @Override
+            protected int resolveItemViewType(@NonNull List<Object> items, int position) {
+                return items.get(position) instanceof String ? 0 : -1;
+            }
+        };
+        manager.addDelegate(stringDelegate);
+        manager.setPlaceholderDelegate(placeholderDelegate);
+
+        List<Object> items = Arrays.<Object>asList(1, null, "a");
+        Assert.assertEquals(0, manager.getItemViewType(items, 2));
+        Assert.assertFalse(stringDelegate.isForViewTypeReturnedYes);
+        Assert.assertEquals(AdapterDelegatesManager.PLACEHOLDER_DELEGATE_VIEW_TYPE,
+                manager.getItemViewType(items, 1));
+
+        // Not resolved, so the delegates are asked
+        Assert.assertEquals(0, manager.getItemViewType(items, 0));
+        Assert.assertTrue(stringDelegate.isForViewTypeReturnedYes);
+    }
+
+    /**
+     * Records the events in the order they were reported
+     */
+    static class RecordingMetricsSink implements DelegateMetricsSink {
+        final List<String> events = new ArrayList<>();
+
+        @Override
+        public void onEvent(int viewType, int event, long durationNanos) {
+            Assert.assertTrue(durationNanos >= 0);
+            events.add(viewType + ":" + event);
+        }
+    }
+
+    @Test
+    public void metricsSink() {
+        SpyableAdapterDelegate<List> delegate0 = new SpyableAdapterDelegate<>(0);
+        SpyableAdapterDelegate<List> delegate1 = new SpyableAdapterDelegate<>(1);
+        AdapterDelegatesManager<List> manager = new AdapterDelegatesManager<>(delegate0, delegate1);
+        RecordingMetricsSink sink = new RecordingMetricsSink();
+        manager.addMetricsSink(sink);
+
+        List<Object> items = Arrays.<Object>asList("a", "b");
+        Assert.assertEquals(1, manager.getItemViewType(items, 1));
+        RecyclerView.ViewHolder holder = manager.onCreateViewHolder(Mockito.mock(ViewGroup.class), 1);
+        manager.onBindViewHolder(items, 1, holder);
+        manager.onViewAttachedToWindow(holder);
+        manager.onViewDetachedFromWindow(holder);
+        manager.onFailedToRecycleView(holder);
+        manager.onViewRecycled(holder);
+
+        Assert.assertEquals(Arrays.asList(
+                "0:" + DelegateMetricsSink.EVENT_IS_FOR_VIEW_TYPE,
+                "1:" + DelegateMetricsSink.EVENT_IS_FOR_VIEW_TYPE,
+                "1:" + DelegateMetricsSink.EVENT_CREATE,
+                "1:" + DelegateMetricsSink.EVENT_BIND,
+                "1:" + DelegateMetricsSink.EVENT_ATTACH,
+                "1:" + DelegateMetricsSink.EVENT_DETACH,
+                "1:" + DelegateMetricsSink.EVENT_FAILED_TO_RECYCLE,
+                "1:" + DelegateMetricsSink.EVENT_RECYCLE), sink.events);
+
+        manager.removeMetricsSink(sink);
+        manager.onBindViewHolder(items, 1, holder);
+        Assert.assertEquals(8, sink.events.size());
+    }
+
+    @Test
+    public void tracing() {
+        SpyableAdapterDelegate<List> delegate0 = new SpyableAdapterDelegate<>(0);
+        SpyableAdapterDelegate<List> delegate1 = new SpyableAdapterDelegate<>(1);
+        AdapterDelegatesManager<List> manager = new AdapterDelegatesManager<>(delegate0, delegate1);
+        Assert.assertFalse(manager.isTracingEnabled());
+        manager.setTracingEnabled(true);
+        Assert.assertTrue(manager.isTracingEnabled());
+
+        List<Object> items = Arrays.<Object>asList("a", "b");
+        Assert.assertEquals(1, manager.getItemViewType(items, 1));
+        RecyclerView.ViewHolder holder = manager.onCreateViewHolder(Mockito.mock(ViewGroup.class), 1);
+        manager.onBindViewHolder(items, 1, holder);
+        manager.onViewRecycled(holder);
+        Assert.assertTrue(delegate1.onCreateViewHolderCalled);
+        Assert.assertTrue(delegate1.onBindViewHolderCalled);
+        Assert.assertTrue(delegate1.onViewRecycledCalled);
+    }
 }
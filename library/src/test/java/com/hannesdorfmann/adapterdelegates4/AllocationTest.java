@@ -0,0 +1,330 @@
+package com.hannesdorfmann.adapterdelegates4;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.google.monitoring.runtime.instrumentation.AllocationRecorder;
+import com.google.monitoring.runtime.instrumentation.Sampler;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Asserts that the steady state of the hot paths that RecyclerView calls while scrolling doesn't
+ * allocate. Allocations are recorded with the java-allocation-instrumenter agent, which the
+ * allocationTest task of the library build.gradle adds to the test JVM. Unlike measuring allocated
+ * bytes the agent also reports allocations the JIT would remove by escape analysis, which ART
+ * doesn't do.
+ */
+public class AllocationTest {
+
+    private static final int ITEM_COUNT = 1000;
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int ROUNDS = 5;
+
+    private final AllocationCounter counter = new AllocationCounter();
+
+    private List<Object> items;
+    private final List<Object> payloads = Collections.<Object>singletonList("payload");
+
+    @Before
+    public void setUp() {
+        items = new ArrayList<>(ITEM_COUNT);
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            switch (i % 4) {
+                case 0:
+                    items.add(new Cat());
+                    break;
+                case 1:
+                    items.add(new Dog());
+                    break;
+                case 2:
+                    items.add(new Bird());
+                    break;
+                default:
+                    // No delegate, handled by the fallback delegate
+                    items.add(new Fish());
+                    break;
+            }
+        }
+        AllocationRecorder.addSampler(counter);
+        assertRecording();
+    }
+
+    @After
+    public void tearDown() {
+        AllocationRecorder.removeSampler(counter);
+    }
+
+    @Test
+    public void getItemViewTypeScanningDelegates() {
+        final AdapterDelegatesManager<List<Object>> manager = manager(false);
+        measure("getItemViewType", new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < ITEM_COUNT; i++) {
+                    manager.getItemViewType(items, i);
+                }
+            }
+        });
+    }
+
+    @Test
+    public void getItemViewTypeWithItemClassIndex() {
+        final AdapterDelegatesManager<List<Object>> manager = manager(true);
+        measure("getItemViewType", new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < ITEM_COUNT; i++) {
+                    manager.getItemViewType(items, i);
+                }
+            }
+        });
+    }
+
+    @Test
+    public void bindAndRecycle() {
+        AdapterDelegatesManager<List<Object>> manager = manager(false);
+        measureBindAndRecycle(manager, viewHolders(manager));
+    }
+
+    @Test
+    public void bindAndRecycleWithMetricsSinks() {
+        AdapterDelegatesManager<List<Object>> manager = manager(true);
+        manager.addMetricsSink(new DelegateMetrics());
+        manager.addMetricsSink(new RecyclingStats());
+        measureBindAndRecycle(manager, viewHolders(manager));
+
+        final AdapterDelegatesManager<List<Object>> m = manager;
+        measure("getItemViewType with metrics sinks", new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < ITEM_COUNT; i++) {
+                    m.getItemViewType(items, i);
+                }
+            }
+        });
+    }
+
+    @Test
+    public void listDelegationAdapter() {
+        AdapterDelegatesManager<List<Object>> manager = manager(true);
+        final ListDelegationAdapter<List<Object>> adapter = new ListDelegationAdapter<>(manager);
+        adapter.setItems(items);
+        final RecyclerView.ViewHolder[] holders = viewHolders(manager);
+
+        measure("ListDelegationAdapter", new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < ITEM_COUNT; i++) {
+                    RecyclerView.ViewHolder holder = holders[i % holders.length];
+                    adapter.getItemViewType(i);
+                    adapter.onBindViewHolder(holder, i);
+                    adapter.onBindViewHolder(holder, i, payloads);
+                    adapter.onViewRecycled(holder);
+                }
+            }
+        });
+    }
+
+    private void measureBindAndRecycle(final AdapterDelegatesManager<List<Object>> manager,
+                                       final RecyclerView.ViewHolder[] holders) {
+        measure("onBindViewHolder", new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < ITEM_COUNT; i++) {
+                    RecyclerView.ViewHolder holder = holders[i % holders.length];
+                    manager.onBindViewHolder(items, i, holder);
+                    manager.onBindViewHolder(items, i, holder, null);
+                    manager.onBindViewHolder(items, i, holder, payloads);
+                }
+            }
+        });
+        measure("onBindViewHolder with resolved item", new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < ITEM_COUNT; i++) {
+                    manager.onBindViewHolder(items, i, items.get(i), holders[i % holders.length],
+                            payloads);
+                }
+            }
+        });
+        measure("onViewRecycled", new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < ITEM_COUNT; i++) {
+                    manager.onViewRecycled(holders[i % holders.length]);
+                }
+            }
+        });
+    }
+
+    /**
+     * Runs the calls until the steady state is reached and asserts that running them again doesn't
+     * allocate
+     */
+    private void measure(String name, Runnable calls) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            calls.run();
+        }
+        counter.start();
+        for (int i = 0; i < ROUNDS; i++) {
+            calls.run();
+        }
+        counter.stop();
+        if (counter.count != 0) {
+            Assert.fail(name + " allocated " + counter.count + " objects, first one: "
+                    + counter.firstClass.getName() + " (" + counter.firstDescription + ")");
+        }
+    }
+
+    private void assertRecording() {
+        counter.start();
+        Object probe = new Object();
+        counter.stop();
+        Assert.assertNotNull(probe);
+        Assert.assertEquals("Allocations are not recorded. The unit test JVM must be started with "
+                + "-javaagent:java-allocation-instrumenter.jar", 1, counter.count);
+    }
+
+    private static AdapterDelegatesManager<List<Object>> manager(boolean itemClasses) {
+        AdapterDelegatesManager<List<Object>> manager = new AdapterDelegatesManager<>();
+        // View types above the Integer cache, boxing them would allocate
+        manager.addDelegate(1000, new AnimalDelegate(Cat.class, itemClasses));
+        manager.addDelegate(1001, new AnimalDelegate(Dog.class, itemClasses));
+        manager.addDelegate(1002, new AnimalDelegate(Bird.class, itemClasses));
+        manager.setFallbackDelegate(new AnimalDelegate(Animal.class, itemClasses));
+        return manager;
+    }
+
+    /**
+     * One ViewHolder per item at the positions 0 to 3
+     */
+    private RecyclerView.ViewHolder[] viewHolders(AdapterDelegatesManager<List<Object>> manager) {
+        RecyclerView.ViewHolder[] holders = new RecyclerView.ViewHolder[4];
+        for (int i = 0; i < holders.length; i++) {
+            int viewType = manager.getItemViewType(items, i);
+            holders[i] = manager.onCreateViewHolder(null, viewType);
+            setItemViewType(holders[i], viewType);
+        }
+        return holders;
+    }
+
+    private static void setItemViewType(RecyclerView.ViewHolder holder, int viewType) {
+        try {
+            Field viewTypeField = RecyclerView.ViewHolder.class.getDeclaredField("mItemViewType");
+            viewTypeField.setAccessible(true);
+            viewTypeField.set(holder, viewType);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Counts the allocations of the test thread between {@link #start()} and {@link #stop()}. It
+     * must not allocate itself, the first allocation is kept for the failure message.
+     */
+    static class AllocationCounter implements Sampler {
+        private volatile Thread thread;
+        int count;
+        Class<?> firstClass;
+        String firstDescription;
+
+        void start() {
+            count = 0;
+            firstClass = null;
+            firstDescription = null;
+            thread = Thread.currentThread();
+        }
+
+        void stop() {
+            thread = null;
+        }
+
+        @Override
+        public void sampleAllocation(int arrayCount, String description, Object newObject,
+                                     long size) {
+            if (thread != Thread.currentThread()) {
+                return;
+            }
+            if (count++ == 0) {
+                firstClass = newObject.getClass();
+                firstDescription = description;
+            }
+        }
+    }
+
+    interface Animal {
+    }
+
+    static class Cat implements Animal {
+    }
+
+    static class Dog implements Animal {
+    }
+
+    static class Bird implements Animal {
+    }
+
+    static class Fish implements Animal {
+    }
+
+    static class AnimalViewHolder extends RecyclerView.ViewHolder {
+        int bindCount;
+        int recycleCount;
+
+        AnimalViewHolder() {
+            super(new View(null));
+        }
+    }
+
+    static class AnimalDelegate
+            extends AbsListItemAdapterDelegate<Animal, Object, AnimalViewHolder> {
+
+        private final Class<?> itemClass;
+        private final boolean publishItemClass;
+
+        AnimalDelegate(Class<?> itemClass, boolean publishItemClass) {
+            this.itemClass = itemClass;
+            this.publishItemClass = publishItemClass;
+        }
+
+        @Override
+        protected boolean isForViewType(@NonNull Object item, @NonNull List<Object> items,
+                                        int position) {
+            return itemClass.isInstance(item);
+        }
+
+        @Override
+        protected Class<?> getItemClass() {
+            return publishItemClass ? itemClass : null;
+        }
+
+        @NonNull
+        @Override
+        protected AnimalViewHolder onCreateViewHolder(@NonNull ViewGroup parent) {
+            return new AnimalViewHolder();
+        }
+
+        @Override
+        protected void onBindViewHolder(@NonNull Animal item, @NonNull AnimalViewHolder holder,
+                                        @NonNull List<Object> payloads) {
+            holder.bindCount++;
+        }
+
+        @Override
+        protected void onViewRecycled(@NonNull RecyclerView.ViewHolder holder) {
+            ((AnimalViewHolder) holder).recycleCount++;
+        }
+    }
+}
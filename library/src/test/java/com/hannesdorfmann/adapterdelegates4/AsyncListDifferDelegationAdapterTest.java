@@ -9,6 +9,7 @@ import org.mockito.Mockito;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import androidx.recyclerview.widget.AsyncDifferConfig;
 import androidx.recyclerview.widget.DiffUtil;
@@ -45,6 +46,16 @@ public class AsyncListDifferDelegationAdapterTest {
         }
     }
 
+    @Test
+    public void backgroundExecutorIsNull() {
+        try {
+            new AsyncListDifferDelegationAdapter<Object>(callback, (Executor) null, new AdapterDelegatesManager<List<Object>>());
+            Assert.fail("Expected NullPointerException");
+        } catch (NullPointerException e) {
+            Assert.assertEquals("Executor is null", e.getMessage());
+        }
+    }
+
     @Test
     public void adapterDelegateManagerIsNull() {
         try {
@@ -0,0 +1,52 @@
+package com.hannesdorfmann.adapterdelegates4;
+
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.ListUpdateCallback;
+
+/**
+ * Counts the notifications an adapter would receive
+ *
+ * @author Hannes Dorfmann
+ */
+class CountingListUpdateCallback implements ListUpdateCallback {
+
+    /**
+     * The number of calls of any kind
+     */
+    int notifications;
+    int insertedItems;
+    int removedItems;
+    int movedItems;
+    int changedItems;
+
+    @Override
+    public void onInserted(int position, int count) {
+        notifications++;
+        insertedItems += count;
+    }
+
+    @Override
+    public void onRemoved(int position, int count) {
+        notifications++;
+        removedItems += count;
+    }
+
+    @Override
+    public void onMoved(int fromPosition, int toPosition) {
+        notifications++;
+        movedItems++;
+    }
+
+    @Override
+    public void onChanged(int position, int count, @Nullable Object payload) {
+        notifications++;
+        changedItems += count;
+    }
+
+    /**
+     * The number of items the adapter has to bind
+     */
+    int reboundItems() {
+        return insertedItems + changedItems;
+    }
+}
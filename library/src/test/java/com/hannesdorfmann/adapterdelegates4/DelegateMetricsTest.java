@@ -0,0 +1,86 @@
+package com.hannesdorfmann.adapterdelegates4;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class DelegateMetricsTest {
+
+    @Test
+    public void bucketsAreContinuous() {
+        Assert.assertEquals(0, DelegateMetrics.bucketIndex(0));
+        Assert.assertEquals(15, DelegateMetrics.bucketIndex(15));
+        Assert.assertEquals(16, DelegateMetrics.bucketIndex(16));
+        Assert.assertEquals(31, DelegateMetrics.bucketIndex(31));
+        Assert.assertEquals(32, DelegateMetrics.bucketIndex(32));
+        Assert.assertEquals(32, DelegateMetrics.bucketIndex(33));
+        Assert.assertEquals(DelegateMetrics.BUCKET_COUNT - 1, DelegateMetrics.bucketIndex(Long.MAX_VALUE));
+
+        for (int i = 0; i < DelegateMetrics.BUCKET_COUNT; i++) {
+            long lower = DelegateMetrics.bucketLowerBound(i);
+            long upper = DelegateMetrics.bucketUpperBound(i);
+            Assert.assertEquals(i, DelegateMetrics.bucketIndex(lower));
+            Assert.assertEquals(i, DelegateMetrics.bucketIndex(upper));
+            if (i > 0) {
+                Assert.assertEquals(DelegateMetrics.bucketUpperBound(i - 1) + 1, lower);
+            }
+            // Relative error of a bucket
+            Assert.assertTrue(upper - lower <= Math.max(0, lower / DelegateMetrics.SUB_BUCKET_COUNT));
+        }
+    }
+
+    @Test
+    public void percentiles() {
+        DelegateMetrics metrics = new DelegateMetrics();
+        for (int i = 1; i <= 1000; i++) {
+            metrics.onEvent(1, DelegateMetricsSink.EVENT_BIND, i * 1000L);
+        }
+
+        DelegateMetrics.Snapshot snapshot = metrics.getSnapshot(1, DelegateMetricsSink.EVENT_BIND);
+        Assert.assertEquals(1000, snapshot.getCount());
+        Assert.assertEquals(1000000, snapshot.getMaxNanos());
+        Assert.assertEquals(500500000, snapshot.getTotalNanos());
+        assertWithin(500000, snapshot.getP50Nanos());
+        assertWithin(990000, snapshot.getP99Nanos());
+        Assert.assertEquals(1000000, snapshot.getValueAtPercentile(100));
+        assertWithin(1000, snapshot.getValueAtPercentile(0));
+
+        Assert.assertNull(metrics.getSnapshot(1, DelegateMetricsSink.EVENT_CREATE));
+        Assert.assertNull(metrics.getSnapshot(2, DelegateMetricsSink.EVENT_BIND));
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        Assert.assertTrue("expected " + expected + " but was " + actual,
+                actual >= expected && actual <= expected + expected / DelegateMetrics.SUB_BUCKET_COUNT);
+    }
+
+    @Test
+    public void snapshotsAreCopies() {
+        DelegateMetrics metrics = new DelegateMetrics();
+        metrics.onEvent(2, DelegateMetricsSink.EVENT_CREATE, 100);
+        metrics.onEvent(1, DelegateMetricsSink.EVENT_BIND, 100);
+        metrics.onEvent(1, DelegateMetricsSink.EVENT_CREATE, 100);
+
+        List<DelegateMetrics.Snapshot> snapshots = metrics.getSnapshots();
+        Assert.assertEquals(3, snapshots.size());
+        Assert.assertEquals(1, snapshots.get(0).getViewType());
+        Assert.assertEquals(DelegateMetricsSink.EVENT_CREATE, snapshots.get(0).getEvent());
+        Assert.assertEquals(1, snapshots.get(1).getViewType());
+        Assert.assertEquals(DelegateMetricsSink.EVENT_BIND, snapshots.get(1).getEvent());
+        Assert.assertEquals(2, snapshots.get(2).getViewType());
+
+        metrics.onEvent(1, DelegateMetricsSink.EVENT_CREATE, 100);
+        Assert.assertEquals(1, snapshots.get(0).getCount());
+
+        metrics.reset();
+        Assert.assertTrue(metrics.getSnapshots().isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidPercentile() {
+        DelegateMetrics metrics = new DelegateMetrics();
+        metrics.onEvent(1, DelegateMetricsSink.EVENT_BIND, 100);
+        metrics.getSnapshot(1, DelegateMetricsSink.EVENT_BIND).getValueAtPercentile(101);
+    }
+}
@@ -0,0 +1,132 @@
+package com.hannesdorfmann.adapterdelegates4;
+
+import android.view.ViewGroup;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+public class DelegateSpanSizeLookupTest {
+
+    private static final int SPAN_COUNT = 3;
+
+    private final List<Object> items = new ArrayList<>();
+    private SpanDelegate headerDelegate;
+    private SpanDelegate itemDelegate;
+    private DelegateSpanSizeLookup<List<Object>> lookup;
+
+    @Before
+    public void setUp() {
+        items.add("header");
+        items.add(1);
+        items.add(2);
+        items.add("header");
+        items.add(3);
+
+        headerDelegate = new SpanDelegate(String.class, -1);
+        itemDelegate = new SpanDelegate(Integer.class, 1);
+        ListDelegationAdapter<List<Object>> adapter = new ListDelegationAdapter<>(headerDelegate, itemDelegate);
+        adapter.setItems(items);
+        lookup = new DelegateSpanSizeLookup<>(adapter);
+    }
+
+    @Test
+    public void spanSizesOfDelegates() {
+        Assert.assertEquals(SPAN_COUNT, lookup.getSpanSize(0, SPAN_COUNT));
+        Assert.assertEquals(1, lookup.getSpanSize(1, SPAN_COUNT));
+        Assert.assertEquals(1, lookup.getSpanSize(2, SPAN_COUNT));
+        Assert.assertEquals(SPAN_COUNT, lookup.getSpanSize(3, SPAN_COUNT));
+        Assert.assertEquals(1, lookup.getSpanSize(4, SPAN_COUNT));
+        Assert.assertEquals(2, headerDelegate.calls);
+        Assert.assertEquals(3, itemDelegate.calls);
+    }
+
+    @Test
+    public void cachesUntilNotified() {
+        for (int i = 0; i < items.size(); i++) {
+            lookup.getSpanSize(i, SPAN_COUNT);
+        }
+        for (int i = 0; i < items.size(); i++) {
+            lookup.getSpanSize(i, SPAN_COUNT);
+        }
+        Assert.assertEquals(2, headerDelegate.calls);
+        Assert.assertEquals(3, itemDelegate.calls);
+
+        // Only the changed item is resolved again
+        itemDelegate.spanSize = 2;
+        lookup.invalidatingObserver.onItemRangeChanged(2, 1, null);
+        Assert.assertEquals(1, lookup.getSpanSize(1, SPAN_COUNT));
+        Assert.assertEquals(2, lookup.getSpanSize(2, SPAN_COUNT));
+        Assert.assertEquals(4, itemDelegate.calls);
+
+        // Positions after an insert are resolved again
+        items.add(0, 4);
+        lookup.invalidatingObserver.onItemRangeInserted(0, 1);
+        Assert.assertEquals(2, lookup.getSpanSize(0, SPAN_COUNT));
+        Assert.assertEquals(SPAN_COUNT, lookup.getSpanSize(1, SPAN_COUNT));
+        Assert.assertEquals(2, lookup.getSpanSize(5, SPAN_COUNT));
+        Assert.assertEquals(3, headerDelegate.calls);
+        Assert.assertEquals(6, itemDelegate.calls);
+
+        // A new span count resolves everything again
+        Assert.assertEquals(4, lookup.getSpanSize(1, 4));
+        Assert.assertEquals(4, headerDelegate.calls);
+    }
+
+    @Test
+    public void invalidSpanSize() {
+        itemDelegate.spanSize = SPAN_COUNT + 1;
+        try {
+            lookup.getSpanSize(1, SPAN_COUNT);
+            Assert.fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void notAttached() {
+        lookup.getSpanSize(0);
+    }
+
+    static class SpanDelegate extends AdapterDelegate<List<Object>> {
+        private final Class<?> itemClass;
+        /**
+         * -1 for full span
+         */
+        int spanSize;
+        int calls;
+
+        SpanDelegate(Class<?> itemClass, int spanSize) {
+            this.itemClass = itemClass;
+            this.spanSize = spanSize;
+        }
+
+        @Override
+        protected boolean isForViewType(@NonNull List<Object> items, int position) {
+            return itemClass.isInstance(items.get(position));
+        }
+
+        @Override
+        protected int getSpanSize(@NonNull List<Object> items, int position, int spanCount) {
+            calls++;
+            return spanSize == -1 ? spanCount : spanSize;
+        }
+
+        @NonNull
+        @Override
+        protected RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected void onBindViewHolder(@NonNull List<Object> items, int position,
+                                        @NonNull RecyclerView.ViewHolder holder, @NonNull List<Object> payloads) {
+        }
+    }
+}
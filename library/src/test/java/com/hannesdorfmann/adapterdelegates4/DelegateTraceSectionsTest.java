@@ -0,0 +1,42 @@
+package com.hannesdorfmann.adapterdelegates4;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class DelegateTraceSectionsTest {
+
+    static class ALongNameForAnAdapterDelegateThatDisplaysTheDetailsOfACatInALongListOfAnimalsInTheFeedOfTheMainScreenOfTheApp
+            extends SpyableAdapterDelegate<List<Object>> {
+        ALongNameForAnAdapterDelegateThatDisplaysTheDetailsOfACatInALongListOfAnimalsInTheFeedOfTheMainScreenOfTheApp() {
+            super(0);
+        }
+    }
+
+    @Test
+    public void sectionNames() {
+        SpyableAdapterDelegate<List<Object>> delegate = new SpyableAdapterDelegate<>(3);
+        DelegateTraceSections sections = new DelegateTraceSections(3, delegate);
+        Assert.assertEquals("AD Create SpyableAdapterDelegate [3]", sections.create);
+        Assert.assertEquals("AD Bind SpyableAdapterDelegate [3]", sections.bind);
+        Assert.assertEquals("AD Recycle SpyableAdapterDelegate [3]", sections.recycle);
+        Assert.assertSame(delegate, sections.delegate);
+    }
+
+    @Test
+    public void anonymousDelegate() {
+        SpyableAdapterDelegate<List<Object>> delegate = new SpyableAdapterDelegate<List<Object>>(1) {
+        };
+        DelegateTraceSections sections = new DelegateTraceSections(1, delegate);
+        Assert.assertEquals("AD Bind DelegateTraceSectionsTest$1 [1]", sections.bind);
+    }
+
+    @Test
+    public void sectionNamesAreTruncated() {
+        DelegateTraceSections sections = new DelegateTraceSections(Integer.MAX_VALUE - 1,
+                new ALongNameForAnAdapterDelegateThatDisplaysTheDetailsOfACatInALongListOfAnimalsInTheFeedOfTheMainScreenOfTheApp());
+        Assert.assertEquals(DelegateTraceSections.MAX_SECTION_NAME_LENGTH, sections.recycle.length());
+        Assert.assertTrue(sections.recycle.startsWith("AD Recycle ALongName"));
+    }
+}
@@ -0,0 +1,198 @@
+package com.hannesdorfmann.adapterdelegates4;
+
+import org.junit.Assume;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.Executor;
+
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.AsyncDifferConfig;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Measures the latency, allocations and notifications of each {@link DiffStrategy} for each
+ * {@link DiffScenario} with 100 to 1M items. The "ADAPTER" rows measure {@link
+ * AsyncListDifferDelegationAdapter#setItems(List)} with direct executors, so the diff and the
+ * notifications of the adapter (counted by an {@link RecyclerView.AdapterDataObserver}) happen
+ * on the calling thread. {@link DiffStrategy#TRIMMED} is a candidate the library doesn't use, the
+ * other strategies and the adapter rows show what it would be compared to. Takes minutes, so it
+ * only runs with
+ * <code>./gradlew :library:testDebugUnitTest --tests '*DiffBenchmarkTest' -PdiffBenchmark -i</code>
+ * <p>
+ * Runs with Robolectric because AsyncListDiffer needs the main Looper.
+ * </p>
+ *
+ * @author Hannes Dorfmann
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class DiffBenchmarkTest {
+
+    private static final int[] SIZES = {100, 1_000, 10_000, 100_000, 1_000_000};
+    private static final int WARMUP_RUNS = 3;
+    private static final int RUNS = 5;
+
+    private static final Executor DIRECT_EXECUTOR = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    @Test
+    public void benchmark() {
+        Assume.assumeTrue("Run with -PdiffBenchmark", Boolean.getBoolean("adapterdelegates.diffBenchmark"));
+
+        System.out.println(String.format(Locale.US, "%-24s %-14s %9s %12s %12s %14s %10s",
+                "strategy", "scenario", "size", "median ms", "max ms", "allocated KB", "rebinds"));
+        for (DiffScenario scenario : DiffScenario.values()) {
+            for (int size : SIZES) {
+                if (size > scenario.maxSize) {
+                    continue;
+                }
+                DiffScenario.IdSource ids = new DiffScenario.IdSource();
+                List<DiffScenario.Item> oldList = scenario.initialItems(size, ids);
+                List<DiffScenario.Item> newList = scenario.update(oldList, new Random(42), ids);
+                for (DiffStrategy strategy : DiffStrategy.values()) {
+                    System.out.println(measure(strategy, scenario, size, oldList, newList));
+                }
+                System.out.println(measureAdapter(scenario, size, oldList, newList));
+            }
+        }
+    }
+
+    private static String measure(DiffStrategy strategy, DiffScenario scenario, int size,
+                                  List<DiffScenario.Item> oldList, List<DiffScenario.Item> newList) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            strategy.dispatchDiff(oldList, newList, DiffScenario.ITEM_CALLBACK, new CountingListUpdateCallback());
+        }
+
+        long[] nanos = new long[RUNS];
+        long allocated = 0;
+        CountingListUpdateCallback counts = null;
+        for (int i = 0; i < RUNS; i++) {
+            counts = new CountingListUpdateCallback();
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            strategy.dispatchDiff(oldList, newList, DiffScenario.ITEM_CALLBACK, counts);
+            nanos[i] = System.nanoTime() - start;
+            allocated = addAllocated(allocated, allocatedBefore, allocatedBytes());
+        }
+        return format(strategy.toString(), scenario, size, nanos, allocated, counts);
+    }
+
+    private static String measureAdapter(DiffScenario scenario, int size,
+                                         List<DiffScenario.Item> oldList, List<DiffScenario.Item> newList) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            newAdapter(oldList, new CountingListUpdateCallback()).setItems(newList);
+        }
+
+        long[] nanos = new long[RUNS];
+        long allocated = 0;
+        CountingListUpdateCallback counts = null;
+        for (int i = 0; i < RUNS; i++) {
+            counts = new CountingListUpdateCallback();
+            AsyncListDifferDelegationAdapter<DiffScenario.Item> adapter = newAdapter(oldList, counts);
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            adapter.setItems(newList);
+            nanos[i] = System.nanoTime() - start;
+            allocated = addAllocated(allocated, allocatedBefore, allocatedBytes());
+        }
+        return format("ADAPTER", scenario, size, nanos, allocated, counts);
+    }
+
+    /**
+     * @return An adapter showing the given list that counts its notifications from now on
+     */
+    private static AsyncListDifferDelegationAdapter<DiffScenario.Item> newAdapter(
+            List<DiffScenario.Item> items, CountingListUpdateCallback counts) {
+        AsyncDifferConfig<DiffScenario.Item> config =
+                new AsyncDifferConfig.Builder<>(DiffScenario.ITEM_CALLBACK)
+                        .setBackgroundThreadExecutor(DIRECT_EXECUTOR)
+                        .setMainThreadExecutor(DIRECT_EXECUTOR)
+                        .build();
+        AsyncListDifferDelegationAdapter<DiffScenario.Item> adapter = new AsyncListDifferDelegationAdapter<>(
+                config, new AdapterDelegatesManager<List<DiffScenario.Item>>());
+        adapter.setItems(items);
+        adapter.registerAdapterDataObserver(new CountingObserver(counts));
+        return adapter;
+    }
+
+    private static String format(String name, DiffScenario scenario, int size, long[] nanos,
+                                 long allocated, CountingListUpdateCallback counts) {
+        Arrays.sort(nanos);
+        return String.format(Locale.US, "%-24s %-14s %9d %12.3f %12.3f %14d %10d",
+                name, scenario, size, nanos[RUNS / 2] / 1e6, nanos[RUNS - 1] / 1e6,
+                allocated < 0 ? -1 : allocated / RUNS / 1024, counts.reboundItems());
+    }
+
+    /**
+     * @return The sum of allocated bytes or -1 if the JVM doesn't support measuring them
+     */
+    private static long addAllocated(long allocated, long before, long after) {
+        if (allocated < 0 || before < 0 || after < 0) {
+            return -1;
+        }
+        return allocated + after - before;
+    }
+
+    /**
+     * @return The bytes allocated by the current thread or -1 if the JVM doesn't support it
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+            if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()) {
+                return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Forwards the notifications of an adapter to a {@link CountingListUpdateCallback}
+     */
+    private static final class CountingObserver extends RecyclerView.AdapterDataObserver {
+        private final CountingListUpdateCallback counts;
+
+        CountingObserver(CountingListUpdateCallback counts) {
+            this.counts = counts;
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            counts.onChanged(positionStart, itemCount, null);
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount, @Nullable Object payload) {
+            counts.onChanged(positionStart, itemCount, payload);
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            counts.onInserted(positionStart, itemCount);
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            counts.onRemoved(positionStart, itemCount);
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            counts.onMoved(fromPosition, toPosition);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.hannesdorfmann.adapterdelegates4;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks that each {@link DiffStrategy} produces updates that turn the old list into the new one,
+ * like {@link DiffStrategy#DIFF_UTIL} does.
+ *
+ * @author Hannes Dorfmann
+ */
+public class DiffCorrectnessTest {
+
+    private static final int[] SIZES = {0, 1, 2, 100, 1000};
+    private static final int SEEDS = 5;
+
+    @Test
+    public void allStrategiesAreEquivalentToDiffUtil() {
+        for (DiffScenario scenario : DiffScenario.values()) {
+            for (int size : SIZES) {
+                for (int seed = 0; seed < SEEDS; seed++) {
+                    DiffScenario.IdSource ids = new DiffScenario.IdSource();
+                    List<DiffScenario.Item> oldList = scenario.initialItems(size, ids);
+                    List<DiffScenario.Item> newList = scenario.update(oldList, new Random(seed), ids);
+
+                    for (DiffStrategy strategy : DiffStrategy.values()) {
+                        ModelListUpdateCallback<DiffScenario.Item> model = new ModelListUpdateCallback<>(oldList);
+                        strategy.dispatchDiff(oldList, newList, DiffScenario.ITEM_CALLBACK, model);
+                        try {
+                            model.assertEquivalentTo(newList, DiffScenario.ITEM_CALLBACK);
+                        } catch (AssertionError e) {
+                            throw new AssertionError(strategy + " " + scenario + " size=" + size
+                                    + " seed=" + seed + ": " + e.getMessage(), e);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void trimmedSkipsUnchangedItems() {
+        DiffScenario.IdSource ids = new DiffScenario.IdSource();
+        List<DiffScenario.Item> oldList = DiffScenario.APPEND.initialItems(1000, ids);
+        List<DiffScenario.Item> newList = DiffScenario.APPEND.update(oldList, new Random(0), ids);
+
+        CountingListUpdateCallback counts = new CountingListUpdateCallback();
+        DiffStrategy.TRIMMED.dispatchDiff(oldList, newList, DiffScenario.ITEM_CALLBACK, counts);
+
+        Assert.assertEquals(1, counts.notifications);
+        Assert.assertEquals(100, counts.insertedItems);
+        Assert.assertEquals(100, counts.reboundItems());
+    }
+}
@@ -0,0 +1,223 @@
+package com.hannesdorfmann.adapterdelegates4;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class DiffExecutorsTest {
+
+    /**
+     * Records the priorities instead of calling the android.os.Process stub
+     */
+    private final List<Integer> priorities = Collections.synchronizedList(new ArrayList<Integer>());
+
+    private DiffExecutors.Builder builder() {
+        return new DiffExecutors.Builder().setPrioritySetter(new DiffExecutors.PrioritySetter() {
+            @Override
+            public void setThreadPriority(int priority) {
+                priorities.add(priority);
+            }
+        });
+    }
+
+    @Test
+    public void threadCountAndNaming() throws InterruptedException {
+        Executor executor = builder()
+                .setThreadCount(2)
+                .setThreadName("Test-Diff")
+                .setThreadPriority(10)
+                .setKeepAlive(100, TimeUnit.MILLISECONDS)
+                .build();
+        final Set<String> threadNames = Collections.synchronizedSet(new HashSet<String>());
+        final CountDownLatch started = new CountDownLatch(2);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch finished = new CountDownLatch(4);
+        for (int i = 0; i < 4; i++) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    threadNames.add(Thread.currentThread().getName());
+                    started.countDown();
+                    await(release);
+                    finished.countDown();
+                }
+            });
+        }
+
+        Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+        // Both threads are blocked, so the other two tasks wait in the queue
+        Assert.assertEquals(2, ((ThreadPoolExecutor) executor).getQueue().size());
+        release.countDown();
+        Assert.assertTrue(finished.await(5, TimeUnit.SECONDS));
+
+        Set<String> expected = new HashSet<>();
+        expected.add("Test-Diff-1");
+        expected.add("Test-Diff-2");
+        Assert.assertEquals(expected, threadNames);
+        Assert.assertEquals(Collections.nCopies(2, 10), priorities);
+        ((ThreadPoolExecutor) executor).shutdown();
+    }
+
+    @Test
+    public void discardsOldestWhenQueueIsFull() throws InterruptedException {
+        CountingListener listener = new CountingListener();
+        Executor executor = builder()
+                .setThreadCount(1)
+                .setQueueCapacity(1)
+                .setKeepAlive(100, TimeUnit.MILLISECONDS)
+                .setListener(listener)
+                .build();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch finished = new CountDownLatch(2);
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                await(release);
+                finished.countDown();
+            }
+        });
+        Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+        final AtomicInteger droppedTaskRuns = new AtomicInteger();
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                droppedTaskRuns.incrementAndGet();
+            }
+        });
+
+        // The thread is busy and the queue is full, so the waiting task is dropped
+        final AtomicReference<Thread> newestTaskThread = new AtomicReference<>();
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                newestTaskThread.set(Thread.currentThread());
+                finished.countDown();
+            }
+        });
+        Assert.assertNull(newestTaskThread.get());
+        Assert.assertEquals(1, listener.rejected.get());
+
+        release.countDown();
+        Assert.assertTrue(finished.await(5, TimeUnit.SECONDS));
+        Assert.assertNotSame(Thread.currentThread(), newestTaskThread.get());
+        Assert.assertEquals(0, droppedTaskRuns.get());
+    }
+
+    @Test
+    public void listenerGetsQueueAndExecutionTimes() throws InterruptedException {
+        CountingListener listener = new CountingListener();
+        Executor executor = builder()
+                .setThreadCount(1)
+                .setKeepAlive(100, TimeUnit.MILLISECONDS)
+                .setListener(listener)
+                .build();
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch finished = new CountDownLatch(2);
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                await(release);
+                sleep(20);
+                finished.countDown();
+            }
+        });
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                finished.countDown();
+            }
+        });
+
+        // The second task waits in the queue while the first one is blocked
+        sleep(20);
+        release.countDown();
+        Assert.assertTrue(finished.await(5, TimeUnit.SECONDS));
+        listener.awaitFinished(2);
+
+        Assert.assertEquals(2, listener.started.get());
+        Assert.assertEquals(0, listener.rejected.get());
+        Assert.assertTrue("queued " + listener.maxQueuedNanos.get(),
+                listener.maxQueuedNanos.get() >= TimeUnit.MILLISECONDS.toNanos(40));
+        Assert.assertTrue("executed " + listener.maxExecutionNanos.get(),
+                listener.maxExecutionNanos.get() >= TimeUnit.MILLISECONDS.toNanos(20));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidThreadCount() {
+        new DiffExecutors.Builder().setThreadCount(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidQueueCapacity() {
+        new DiffExecutors.Builder().setQueueCapacity(0);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    static class CountingListener implements DiffExecutors.Listener {
+        final AtomicInteger started = new AtomicInteger();
+        final AtomicInteger rejected = new AtomicInteger();
+        final AtomicLong maxQueuedNanos = new AtomicLong();
+        final AtomicLong maxExecutionNanos = new AtomicLong();
+        private final Object lock = new Object();
+        private int finished;
+
+        @Override
+        public void onTaskStarted(long queuedNanos) {
+            started.incrementAndGet();
+            maxQueuedNanos.set(Math.max(maxQueuedNanos.get(), queuedNanos));
+        }
+
+        @Override
+        public void onTaskFinished(long executionNanos) {
+            maxExecutionNanos.set(Math.max(maxExecutionNanos.get(), executionNanos));
+            synchronized (lock) {
+                finished++;
+                lock.notifyAll();
+            }
+        }
+
+        @Override
+        public void onTaskRejected() {
+            rejected.incrementAndGet();
+        }
+
+        void awaitFinished(int count) throws InterruptedException {
+            synchronized (lock) {
+                long deadline = System.currentTimeMillis() + 5000;
+                while (finished < count && System.currentTimeMillis() < deadline) {
+                    lock.wait(100);
+                }
+                Assert.assertEquals(count, finished);
+            }
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.hannesdorfmann.adapterdelegates4;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+
+/**
+ * List updates that are diffed by {@link DiffCorrectnessTest} and {@link DiffBenchmarkTest}
+ *
+ * @author Hannes Dorfmann
+ */
+enum DiffScenario {
+
+    /**
+     * 10% new items at the end, like loading the next page
+     */
+    APPEND(1_000_000) {
+        @Override
+        List<Item> update(List<Item> items, Random random, IdSource ids) {
+            List<Item> updated = new ArrayList<>(items);
+            updated.addAll(newItems(Math.max(1, items.size() / 10), ids));
+            return updated;
+        }
+    },
+
+    /**
+     * 10% new items at the start, like pull to refresh
+     */
+    PREPEND(1_000_000) {
+        @Override
+        List<Item> update(List<Item> items, Random random, IdSource ids) {
+            List<Item> updated = newItems(Math.max(1, items.size() / 10), ids);
+            updated.addAll(items);
+            return updated;
+        }
+    },
+
+    /**
+     * 1% (but at most 100) random inserts, removes and changes
+     */
+    RANDOM_EDITS(1_000_000) {
+        @Override
+        List<Item> update(List<Item> items, Random random, IdSource ids) {
+            List<Item> updated = new ArrayList<>(items);
+            int edits = Math.max(1, Math.min(100, items.size() / 100));
+            for (int i = 0; i < edits; i++) {
+                switch (random.nextInt(3)) {
+                    case 0:
+                        updated.add(random.nextInt(updated.size() + 1), new Item(ids.next(), 0));
+                        break;
+                    case 1:
+                        if (!updated.isEmpty()) {
+                            updated.remove(random.nextInt(updated.size()));
+                        }
+                        break;
+                    default:
+                        if (!updated.isEmpty()) {
+                            int position = random.nextInt(updated.size());
+                            Item item = updated.get(position);
+                            updated.set(position, new Item(item.id, item.version + 1));
+                        }
+                        break;
+                }
+            }
+            return updated;
+        }
+    },
+
+    /**
+     * All items in random order, like changing the sort order. DiffUtil needs O(N^2) for that.
+     */
+    SHUFFLE(10_000) {
+        @Override
+        List<Item> update(List<Item> items, Random random, IdSource ids) {
+            List<Item> updated = new ArrayList<>(items);
+            Collections.shuffle(updated, random);
+            return updated;
+        }
+    },
+
+    /**
+     * Every second item is filtered out. DiffUtil needs O(N^2) for that.
+     */
+    FILTER_ON(10_000) {
+        @Override
+        List<Item> update(List<Item> items, Random random, IdSource ids) {
+            List<Item> updated = new ArrayList<>(items.size() / 2 + 1);
+            for (int i = 0; i < items.size(); i += 2) {
+                updated.add(items.get(i));
+            }
+            return updated;
+        }
+    },
+
+    /**
+     * The items filtered out by {@link #FILTER_ON} are shown again
+     */
+    FILTER_OFF(10_000) {
+        @Override
+        List<Item> initialItems(int size, IdSource ids) {
+            return FILTER_ON.update(super.initialItems(size, ids), null, ids);
+        }
+
+        @Override
+        List<Item> update(List<Item> items, Random random, IdSource ids) {
+            // The ids of the initial items are 0..size-1, the filtered ones are the odd ones
+            List<Item> updated = new ArrayList<>(items.size() * 2);
+            for (Item item : items) {
+                updated.add(item);
+                updated.add(new Item(item.id + 1, 0));
+            }
+            return updated;
+        }
+    };
+
+    static final DiffUtil.ItemCallback<Item> ITEM_CALLBACK = new DiffUtil.ItemCallback<Item>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Item oldItem, @NonNull Item newItem) {
+            return oldItem.id == newItem.id;
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Item oldItem, @NonNull Item newItem) {
+            return oldItem.version == newItem.version;
+        }
+    };
+
+    /**
+     * The largest list size the scenario is run with, DiffUtil needs O((N + M) * D) with D being
+     * the number of inserted and removed items
+     */
+    final int maxSize;
+
+    DiffScenario(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * The list before the update
+     */
+    List<Item> initialItems(int size, IdSource ids) {
+        return newItems(size, ids);
+    }
+
+    /**
+     * The list after the update
+     */
+    abstract List<Item> update(List<Item> items, Random random, IdSource ids);
+
+    private static List<Item> newItems(int count, IdSource ids) {
+        List<Item> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(new Item(ids.next(), 0));
+        }
+        return items;
+    }
+
+    static final class Item {
+        final long id;
+        final int version;
+
+        Item(long id, int version) {
+            this.id = id;
+            this.version = version;
+        }
+
+        @Override
+        public String toString() {
+            return id + "v" + version;
+        }
+    }
+
+    static final class IdSource {
+        private long next;
+
+        long next() {
+            return next++;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.hannesdorfmann.adapterdelegates4;
+
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
+
+/**
+ * The diff algorithms that are benchmarked and checked by {@link DiffCorrectnessTest}. Each one
+ * must produce an update stream that turns the old list into the new one, like {@link #DIFF_UTIL}
+ * which is what {@link AsyncListDifferDelegationAdapter} uses.
+ *
+ * @author Hannes Dorfmann
+ */
+enum DiffStrategy {
+
+    /**
+     * {@link DiffUtil} with move detection, like {@link androidx.recyclerview.widget.AsyncListDiffer}
+     */
+    DIFF_UTIL {
+        @Override
+        <T> void dispatchDiff(@NonNull List<T> oldList, @NonNull List<T> newList,
+                              @NonNull DiffUtil.ItemCallback<T> itemCallback,
+                              @NonNull ListUpdateCallback updateCallback) {
+            DiffUtil.calculateDiff(new ListCallback<>(oldList, newList, itemCallback), true)
+                    .dispatchUpdatesTo(updateCallback);
+        }
+    },
+
+    /**
+     * {@link DiffUtil} without move detection, moves are dispatched as remove and insert
+     */
+    DIFF_UTIL_WITHOUT_MOVES {
+        @Override
+        <T> void dispatchDiff(@NonNull List<T> oldList, @NonNull List<T> newList,
+                              @NonNull DiffUtil.ItemCallback<T> itemCallback,
+                              @NonNull ListUpdateCallback updateCallback) {
+            DiffUtil.calculateDiff(new ListCallback<>(oldList, newList, itemCallback), false)
+                    .dispatchUpdatesTo(updateCallback);
+        }
+    },
+
+    /**
+     * Skips the unchanged items at the start and the end of both lists in linear time and diffs
+     * only the rest with {@link DiffUtil}, so appending and prepending don't depend on the size of
+     * the list. Moves into or out of the skipped items are dispatched as remove and insert.
+     */
+    TRIMMED {
+        @Override
+        <T> void dispatchDiff(@NonNull List<T> oldList, @NonNull List<T> newList,
+                              @NonNull DiffUtil.ItemCallback<T> itemCallback,
+                              @NonNull ListUpdateCallback updateCallback) {
+            int oldSize = oldList.size();
+            int newSize = newList.size();
+            int start = 0;
+            while (start < oldSize && start < newSize
+                    && isUnchanged(oldList.get(start), newList.get(start), itemCallback)) {
+                start++;
+            }
+            int oldEnd = oldSize;
+            int newEnd = newSize;
+            while (oldEnd > start && newEnd > start
+                    && isUnchanged(oldList.get(oldEnd - 1), newList.get(newEnd - 1), itemCallback)) {
+                oldEnd--;
+                newEnd--;
+            }
+            List<T> oldMiddle = oldList.subList(start, oldEnd);
+            List<T> newMiddle = newList.subList(start, newEnd);
+            if (oldMiddle.isEmpty() && newMiddle.isEmpty()) {
+                return;
+            }
+            ListUpdateCallback offsetCallback = new OffsetListUpdateCallback(start, updateCallback);
+            if (oldMiddle.isEmpty()) {
+                offsetCallback.onInserted(0, newMiddle.size());
+            } else if (newMiddle.isEmpty()) {
+                offsetCallback.onRemoved(0, oldMiddle.size());
+            } else {
+                DiffUtil.calculateDiff(new ListCallback<>(oldMiddle, newMiddle, itemCallback), true)
+                        .dispatchUpdatesTo(offsetCallback);
+            }
+        }
+    };
+
+    /**
+     * Dispatches the updates that turn the old list into the new list
+     */
+    abstract <T> void dispatchDiff(@NonNull List<T> oldList, @NonNull List<T> newList,
+                                   @NonNull DiffUtil.ItemCallback<T> itemCallback,
+                                   @NonNull ListUpdateCallback updateCallback);
+
+    private static <T> boolean isUnchanged(T oldItem, T newItem, DiffUtil.ItemCallback<T> itemCallback) {
+        if (oldItem == null || newItem == null) {
+            return oldItem == newItem;
+        }
+        return itemCallback.areItemsTheSame(oldItem, newItem)
+                && itemCallback.areContentsTheSame(oldItem, newItem);
+    }
+
+    /**
+     * Same as the callback {@link androidx.recyclerview.widget.AsyncListDiffer} passes to {@link
+     * DiffUtil}
+     */
+    private static final class ListCallback<T> extends DiffUtil.Callback {
+        private final List<T> oldList;
+        private final List<T> newList;
+        private final DiffUtil.ItemCallback<T> itemCallback;
+
+        ListCallback(List<T> oldList, List<T> newList, DiffUtil.ItemCallback<T> itemCallback) {
+            this.oldList = oldList;
+            this.newList = newList;
+            this.itemCallback = itemCallback;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return oldList.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return newList.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+            T oldItem = oldList.get(oldItemPosition);
+            T newItem = newList.get(newItemPosition);
+            if (oldItem != null && newItem != null) {
+                return itemCallback.areItemsTheSame(oldItem, newItem);
+            }
+            return oldItem == null && newItem == null;
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+            T oldItem = oldList.get(oldItemPosition);
+            T newItem = newList.get(newItemPosition);
+            if (oldItem != null && newItem != null) {
+                return itemCallback.areContentsTheSame(oldItem, newItem);
+            }
+            if (oldItem == null && newItem == null) {
+                return true;
+            }
+            throw new AssertionError();
+        }
+
+        @Nullable
+        @Override
+        public Object getChangePayload(int oldItemPosition, int newItemPosition) {
+            T oldItem = oldList.get(oldItemPosition);
+            T newItem = newList.get(newItemPosition);
+            if (oldItem != null && newItem != null) {
+                return itemCallback.getChangePayload(oldItem, newItem);
+            }
+            throw new AssertionError();
+        }
+    }
+
+    private static final class OffsetListUpdateCallback implements ListUpdateCallback {
+        private final int offset;
+        private final ListUpdateCallback callback;
+
+        OffsetListUpdateCallback(int offset, ListUpdateCallback callback) {
+            this.offset = offset;
+            this.callback = callback;
+        }
+
+        @Override
+        public void onInserted(int position, int count) {
+            callback.onInserted(position + offset, count);
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            callback.onRemoved(position + offset, count);
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            callback.onMoved(fromPosition + offset, toPosition + offset);
+        }
+
+        @Override
+        public void onChanged(int position, int count, @Nullable Object payload) {
+            callback.onChanged(position + offset, count, payload);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.hannesdorfmann.adapterdelegates4;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.ListUpdateCallback;
+import androidx.recyclerview.widget.RecyclerView;
+
+public class ExpandableDelegationAdapterTest {
+
+    private ExpandableDelegationAdapter<String> adapter;
+    private final List<String> notifications = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        adapter = new ExpandableDelegationAdapter<>();
+        adapter.updateCallback = new ListUpdateCallback() {
+            @Override
+            public void onInserted(int position, int count) {
+                notifications.add("inserted " + position + " " + count);
+            }
+
+            @Override
+            public void onRemoved(int position, int count) {
+                notifications.add("removed " + position + " " + count);
+            }
+
+            @Override
+            public void onMoved(int fromPosition, int toPosition) {
+                notifications.add("moved " + fromPosition + " " + toPosition);
+            }
+
+            @Override
+            public void onChanged(int position, int count, @Nullable Object payload) {
+                notifications.add("changed " + position + " " + count);
+            }
+        };
+    }
+
+    @Test
+    public void expandAndCollapse() {
+        TreeNode<String> fruits = adapter.add(null, "fruits");
+        TreeNode<String> vegetables = adapter.add(null, "vegetables");
+        TreeNode<String> apple = adapter.add(fruits, "apple");
+        adapter.add(apple, "boskoop");
+        adapter.add(apple, "gala");
+        adapter.add(fruits, "banana");
+        adapter.add(vegetables, "carrot");
+        Assert.assertEquals(Arrays.asList("fruits", "vegetables"), adapter.getItems());
+        Assert.assertEquals(Arrays.asList("inserted 0 1", "inserted 1 1"), notifications);
+        notifications.clear();
+
+        adapter.expand(apple);
+        // apple is not visible yet
+        Assert.assertTrue(notifications.isEmpty());
+
+        adapter.expand(fruits);
+        Assert.assertEquals(Arrays.asList("fruits", "apple", "boskoop", "gala", "banana", "vegetables"),
+                adapter.getItems());
+        Assert.assertEquals(2, adapter.getNode(2).getDepth());
+        Assert.assertSame(apple, adapter.getNode(2).getParent());
+        Assert.assertEquals(5, adapter.getPosition(vegetables));
+
+        adapter.toggle(apple);
+        adapter.expand(vegetables);
+        adapter.collapse(fruits);
+        Assert.assertEquals(Arrays.asList("fruits", "vegetables", "carrot"), adapter.getItems());
+        Assert.assertEquals(Arrays.asList(
+                "inserted 1 4",
+                "removed 2 2",
+                "inserted 4 1",
+                "removed 1 2"), notifications);
+        Assert.assertEquals(RecyclerView.NO_POSITION, adapter.getPosition(apple));
+        Assert.assertFalse(apple.isExpanded());
+    }
+
+    @Test
+    public void addAndRemove() {
+        TreeNode<String> group = adapter.add(null, "group");
+        adapter.add(null, "other");
+        adapter.expand(group);
+        TreeNode<String> child = adapter.add(group, "child");
+        adapter.add(child, "hidden");
+        adapter.expand(child);
+        notifications.clear();
+
+        adapter.remove(group);
+        Assert.assertEquals(Arrays.asList("other"), adapter.getItems());
+        Assert.assertEquals(Arrays.asList("removed 0 3"), notifications);
+        Assert.assertEquals(1, adapter.getTopLevelNodeCount());
+
+        try {
+            adapter.expand(child);
+            Assert.fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+        }
+
+        adapter.clear();
+        Assert.assertEquals(0, adapter.getItemCount());
+    }
+
+    @Test
+    public void nodeOfOtherAdapter() {
+        TreeNode<String> node = new ExpandableDelegationAdapter<String>().add(null, "a");
+        try {
+            adapter.add(node, "b");
+            Assert.fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void matchesFlattenedTree() {
+        Random random = new Random(7);
+        List<TreeNode<String>> nodes = new ArrayList<>();
+        for (int op = 0; op < 3000; op++) {
+            int choice = random.nextInt(10);
+            if (nodes.isEmpty() || choice < 4) {
+                TreeNode<String> parent = nodes.isEmpty() || random.nextInt(5) == 0
+                        ? null : nodes.get(random.nextInt(nodes.size()));
+                nodes.add(adapter.add(parent, "n" + op));
+            } else if (choice < 9) {
+                adapter.toggle(nodes.get(random.nextInt(nodes.size())));
+            } else {
+                TreeNode<String> node = nodes.get(random.nextInt(nodes.size()));
+                adapter.remove(node);
+                removeSubtree(nodes, node);
+            }
+
+            List<TreeNode<String>> expected = new ArrayList<>();
+            for (int i = 0; i < adapter.getTopLevelNodeCount(); i++) {
+                flatten(adapter.getTopLevelNode(i), expected);
+            }
+            Assert.assertEquals(expected.size(), adapter.getItemCount());
+            for (int i = 0; i < expected.size(); i++) {
+                Assert.assertSame(expected.get(i), adapter.getNode(i));
+            }
+        }
+    }
+
+    private static void flatten(TreeNode<String> node, List<TreeNode<String>> out) {
+        out.add(node);
+        if (node.isExpanded()) {
+            for (int i = 0; i < node.getChildCount(); i++) {
+                flatten(node.getChild(i), out);
+            }
+        }
+    }
+
+    private static void removeSubtree(List<TreeNode<String>> nodes, TreeNode<String> node) {
+        nodes.remove(node);
+        for (int i = 0; i < node.getChildCount(); i++) {
+            removeSubtree(nodes, node.getChild(i));
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.hannesdorfmann.adapterdelegates4;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class JankTrackerTest {
+
+    private static final long FRAME = 16_000_000L;
+
+    @Test
+    public void attributesWorkToJankyFrame() {
+        JankTracker tracker = new JankTracker();
+        final List<JankTracker.Frame> reported = new ArrayList<>();
+        tracker.setOnJankListener(new JankTracker.OnJankListener() {
+            @Override
+            public void onJank(JankTracker.Frame frame) {
+                reported.add(frame);
+            }
+        });
+
+        tracker.onFrame(FRAME);
+        tracker.onEvent(1, DelegateMetricsSink.EVENT_CREATE, 1000);
+        tracker.onFrame(2 * FRAME);
+        Assert.assertTrue(tracker.getWorstFrames().isEmpty());
+
+        tracker.onEvent(1, DelegateMetricsSink.EVENT_CREATE, 10_000_000);
+        tracker.onEvent(1, DelegateMetricsSink.EVENT_BIND, 2_000_000);
+        tracker.onEvent(2, DelegateMetricsSink.EVENT_BIND, 3_000_000);
+        tracker.onEvent(2, DelegateMetricsSink.EVENT_BIND, 4_000_000);
+        // Other events are not frame work
+        tracker.onEvent(3, DelegateMetricsSink.EVENT_ATTACH, 5_000_000);
+        tracker.onFrame(4 * FRAME);
+
+        List<JankTracker.Frame> frames = tracker.getWorstFrames();
+        Assert.assertEquals(1, frames.size());
+        Assert.assertEquals(reported, frames);
+
+        JankTracker.Frame frame = frames.get(0);
+        Assert.assertEquals(2 * FRAME, frame.getFrameTimeNanos());
+        Assert.assertEquals(2 * FRAME, frame.getDurationNanos());
+        Assert.assertEquals(19_000_000, frame.getWorkNanos());
+        Assert.assertEquals(2, frame.getDelegateCount());
+
+        Assert.assertEquals(1, frame.getViewType(0));
+        Assert.assertEquals(1, frame.getCreateCount(0));
+        Assert.assertEquals(10_000_000, frame.getCreateNanos(0));
+        Assert.assertEquals(1, frame.getBindCount(0));
+        Assert.assertEquals(2_000_000, frame.getBindNanos(0));
+
+        Assert.assertEquals(2, frame.getViewType(1));
+        Assert.assertEquals(0, frame.getCreateCount(1));
+        Assert.assertEquals(2, frame.getBindCount(1));
+        Assert.assertEquals(7_000_000, frame.getBindNanos(1));
+    }
+
+    @Test
+    public void idleGapIsNotJank() {
+        JankTracker tracker = new JankTracker();
+
+        tracker.onFrame(FRAME);
+        // No work and not scrolling, so the tracker stops until the next event
+        tracker.onFrame(2 * FRAME);
+
+        tracker.onEvent(1, DelegateMetricsSink.EVENT_BIND, 1000);
+        tracker.onFrame(100 * FRAME);
+        tracker.onFrame(101 * FRAME);
+
+        Assert.assertTrue(tracker.getWorstFrames().isEmpty());
+    }
+
+    @Test
+    public void keepsWorstJankyFramesSortedByDuration() {
+        JankTracker tracker = new JankTracker(FRAME, 3);
+
+        long frameTime = FRAME;
+        tracker.onFrame(frameTime);
+        // The last three frames are not the worst three
+        long[] durations = {5, 2, 3, 4, 2};
+        for (long duration : durations) {
+            tracker.onEvent(1, DelegateMetricsSink.EVENT_BIND, 1000);
+            frameTime += duration * FRAME;
+            tracker.onFrame(frameTime);
+        }
+
+        List<JankTracker.Frame> frames = tracker.getWorstFrames();
+        Assert.assertEquals(3, frames.size());
+        Assert.assertEquals(5 * FRAME, frames.get(0).getDurationNanos());
+        Assert.assertEquals(4 * FRAME, frames.get(1).getDurationNanos());
+        Assert.assertEquals(3 * FRAME, frames.get(2).getDurationNanos());
+
+        tracker.clear();
+        Assert.assertTrue(tracker.getWorstFrames().isEmpty());
+    }
+
+    @Test
+    public void manyViewTypes() {
+        JankTracker tracker = new JankTracker(FRAME, 1);
+
+        tracker.onFrame(FRAME);
+        for (int viewType = 0; viewType < 20; viewType++) {
+            tracker.onEvent(viewType, DelegateMetricsSink.EVENT_CREATE, viewType);
+        }
+        tracker.onFrame(3 * FRAME);
+
+        JankTracker.Frame frame = tracker.getWorstFrames().get(0);
+        Assert.assertEquals(20, frame.getDelegateCount());
+        Assert.assertEquals(19, frame.getViewType(19));
+        Assert.assertEquals(19, frame.getCreateNanos(19));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidMaxFrames() {
+        new JankTracker(FRAME, 0);
+    }
+}
@@ -0,0 +1,100 @@
+package com.hannesdorfmann.adapterdelegates4;
+
+import org.junit.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+
+/**
+ * Applies the notifications to a model of the adapter's items, like RecyclerView does with its
+ * ViewHolders, to check that they turn the old list into the new one.
+ *
+ * @author Hannes Dorfmann
+ */
+class ModelListUpdateCallback<T> extends CountingListUpdateCallback {
+
+    private static final class Entry<T> {
+        /**
+         * The old item or <code>null</code> for inserted items, which are bound with the new item
+         */
+        @Nullable
+        final T oldItem;
+        boolean changed;
+
+        Entry(@Nullable T oldItem) {
+            this.oldItem = oldItem;
+        }
+    }
+
+    private final List<Entry<T>> model;
+
+    ModelListUpdateCallback(List<T> oldList) {
+        model = new ArrayList<>(oldList.size());
+        for (T item : oldList) {
+            model.add(new Entry<>(item));
+        }
+    }
+
+    @Override
+    public void onInserted(int position, int count) {
+        super.onInserted(position, count);
+        assertPosition(position, model.size());
+        for (int i = 0; i < count; i++) {
+            model.add(position, new Entry<T>(null));
+        }
+    }
+
+    @Override
+    public void onRemoved(int position, int count) {
+        super.onRemoved(position, count);
+        assertPosition(position + count, model.size());
+        model.subList(position, position + count).clear();
+    }
+
+    @Override
+    public void onMoved(int fromPosition, int toPosition) {
+        super.onMoved(fromPosition, toPosition);
+        assertPosition(fromPosition, model.size() - 1);
+        assertPosition(toPosition, model.size() - 1);
+        model.add(toPosition, model.remove(fromPosition));
+    }
+
+    @Override
+    public void onChanged(int position, int count, @Nullable Object payload) {
+        super.onChanged(position, count, payload);
+        assertPosition(position + count, model.size());
+        for (int i = position; i < position + count; i++) {
+            model.get(i).changed = true;
+        }
+    }
+
+    private static void assertPosition(int position, int max) {
+        if (position < 0 || position > max) {
+            Assert.fail("Position " + position + " is not in the range [0, " + max + "]");
+        }
+    }
+
+    /**
+     * Asserts that each item that hasn't been inserted is the same as the new item at its position
+     * and has been notified as changed if its contents differ
+     */
+    void assertEquivalentTo(List<T> newList, DiffUtil.ItemCallback<T> itemCallback) {
+        Assert.assertEquals("size", newList.size(), model.size());
+        for (int i = 0; i < newList.size(); i++) {
+            Entry<T> entry = model.get(i);
+            T newItem = newList.get(i);
+            if (entry.oldItem == null) {
+                continue;
+            }
+            Assert.assertTrue("Item at position " + i + " is " + entry.oldItem + " but should be " + newItem,
+                    itemCallback.areItemsTheSame(entry.oldItem, newItem));
+            if (!itemCallback.areContentsTheSame(entry.oldItem, newItem)) {
+                Assert.assertTrue("Item at position " + i + " has changed to " + newItem + " without notification",
+                        entry.changed);
+            }
+        }
+    }
+}
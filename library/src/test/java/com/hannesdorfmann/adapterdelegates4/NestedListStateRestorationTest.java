@@ -0,0 +1,169 @@
+package com.hannesdorfmann.adapterdelegates4;
+
+import android.app.Activity;
+import android.os.Looper;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.LooperMode;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Scrolls nested lists of {@link AbsNestedListAdapterDelegate} in a real RecyclerView with real
+ * {@link LinearLayoutManager}s, which recycle their children when the nested list gets detached.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28, qualifiers = "w360dp-h640dp-mdpi")
+@LooperMode(LooperMode.Mode.PAUSED)
+public class NestedListStateRestorationTest {
+
+    private static final Duration FRAME = Duration.ofMillis(16);
+    private static final int ROW_HEIGHT = 100;
+    private static final int CHILD_WIDTH = 100;
+    private static final int CHILD_COUNT = 20;
+    private static final int CAROUSEL_COUNT = 30;
+
+    static class Carousel {
+        final long id;
+
+        Carousel(long id) {
+            this.id = id;
+        }
+    }
+
+    static class CarouselAdapterDelegate extends AbsNestedListAdapterDelegate<Carousel, Object,
+            AbsNestedListAdapterDelegate.NestedListViewHolder> {
+
+        @Override
+        protected boolean isForViewType(@NonNull Object item, @NonNull List<Object> items, int position) {
+            return item instanceof Carousel;
+        }
+
+        @Override
+        protected long getItemId(@NonNull Carousel item) {
+            return item.id;
+        }
+
+        @NonNull
+        @Override
+        protected NestedListViewHolder onCreateNestedListViewHolder(@NonNull ViewGroup parent) {
+            RecyclerView recyclerView = new RecyclerView(parent.getContext());
+            recyclerView.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ROW_HEIGHT));
+            recyclerView.setLayoutManager(
+                    new LinearLayoutManager(parent.getContext(), LinearLayoutManager.HORIZONTAL, false));
+            recyclerView.setAdapter(new ChildAdapter());
+            return new NestedListViewHolder(recyclerView);
+        }
+
+        @Override
+        protected void onBindNestedListViewHolder(@NonNull Carousel item, @NonNull NestedListViewHolder holder,
+                                                  @NonNull List<Object> payloads) {
+        }
+    }
+
+    static class ChildAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+
+        @NonNull
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            View view = new View(parent.getContext());
+            view.setLayoutParams(new RecyclerView.LayoutParams(CHILD_WIDTH, ViewGroup.LayoutParams.MATCH_PARENT));
+            return new RecyclerView.ViewHolder(view) {
+            };
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        }
+
+        @Override
+        public int getItemCount() {
+            return CHILD_COUNT;
+        }
+    }
+
+    private RecyclerView recyclerView;
+
+    @Before
+    public void setUp() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        List<Object> items = new ArrayList<>();
+        for (int i = 0; i < CAROUSEL_COUNT; i++) {
+            items.add(new Carousel(i));
+        }
+        ListDelegationAdapter<List<Object>> adapter = new ListDelegationAdapter<>(new CarouselAdapterDelegate());
+        adapter.setItems(items);
+
+        recyclerView = new RecyclerView(activity);
+        recyclerView.setLayoutManager(new LinearLayoutManager(activity));
+        recyclerView.setAdapter(adapter);
+        activity.setContentView(recyclerView);
+        frame();
+    }
+
+    @Test
+    public void restoresScrollPositionAfterRecycling() {
+        scrollCarousel(0, 5);
+        Assert.assertEquals(5, firstVisibleChild(0));
+
+        recyclerView.scrollToPosition(CAROUSEL_COUNT - 1);
+        frame();
+        Assert.assertNull(recyclerView.findViewHolderForAdapterPosition(0));
+
+        recyclerView.scrollToPosition(0);
+        frame();
+        Assert.assertEquals(5, firstVisibleChild(0));
+        Assert.assertEquals(0, firstVisibleChild(1));
+    }
+
+    @Test
+    public void restoresScrollPositionWhenAttachedAgain() {
+        scrollCarousel(0, 5);
+
+        // The row is detached and kept in the cached views of the parent, so it isn't bound again
+        recyclerView.scrollBy(0, 2 * ROW_HEIGHT);
+        frame();
+        Assert.assertNull(recyclerView.findViewHolderForAdapterPosition(0));
+
+        recyclerView.scrollBy(0, -2 * ROW_HEIGHT);
+        frame();
+        Assert.assertEquals(5, firstVisibleChild(0));
+    }
+
+    private void scrollCarousel(int position, int childPosition) {
+        LinearLayoutManager layoutManager = nestedLayoutManager(position);
+        layoutManager.scrollToPositionWithOffset(childPosition, 0);
+        frame();
+    }
+
+    private int firstVisibleChild(int position) {
+        return nestedLayoutManager(position).findFirstVisibleItemPosition();
+    }
+
+    private LinearLayoutManager nestedLayoutManager(int position) {
+        AbsNestedListAdapterDelegate.NestedListViewHolder holder =
+                (AbsNestedListAdapterDelegate.NestedListViewHolder) recyclerView.findViewHolderForAdapterPosition(position);
+        Assert.assertNotNull("No ViewHolder at position " + position, holder);
+        return (LinearLayoutManager) holder.recyclerView.getLayoutManager();
+    }
+
+    private void frame() {
+        shadowOf(Looper.getMainLooper()).idleFor(FRAME);
+    }
+}
@@ -0,0 +1,153 @@
+package com.hannesdorfmann.adapterdelegates4;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+public class RecyclingStatsTest {
+
+    @Test
+    public void countsPoolMisses() {
+        RecyclingStats stats = new RecyclingStats();
+
+        // Initial layout, 3 holders on screen
+        for (int i = 0; i < 3; i++) {
+            stats.onEvent(1, DelegateMetricsSink.EVENT_CREATE, 0);
+            stats.onEvent(1, DelegateMetricsSink.EVENT_BIND, 0);
+            stats.onEvent(1, DelegateMetricsSink.EVENT_ATTACH, 0);
+        }
+
+        // Scrolling, one holder leaves the screen and is reused
+        stats.onEvent(1, DelegateMetricsSink.EVENT_DETACH, 0);
+        stats.onEvent(1, DelegateMetricsSink.EVENT_RECYCLE, 0);
+        stats.onEvent(1, DelegateMetricsSink.EVENT_BIND, 0);
+        stats.onEvent(1, DelegateMetricsSink.EVENT_ATTACH, 0);
+
+        RecyclingStats.ViewTypeStats viewTypeStats = stats.getStats(1);
+        Assert.assertEquals(3, viewTypeStats.getCreateCount());
+        Assert.assertEquals(4, viewTypeStats.getBindCount());
+        Assert.assertEquals(1, viewTypeStats.getRecycleCount());
+        Assert.assertEquals(0, viewTypeStats.getPoolMissCount());
+        Assert.assertEquals(3, viewTypeStats.getPeakAttachedCount());
+        Assert.assertEquals(0.25f, viewTypeStats.getReuseRatio(), 0f);
+        Assert.assertEquals(RecyclingStats.DEFAULT_MAX_RECYCLED_VIEWS, stats.getRecommendedPoolSize(1));
+
+        // Detached holder failed to recycle, a bigger pool wouldn't have kept it
+        stats.onEvent(1, DelegateMetricsSink.EVENT_DETACH, 0);
+        stats.onEvent(1, DelegateMetricsSink.EVENT_FAILED_TO_RECYCLE, 0);
+        stats.onEvent(1, DelegateMetricsSink.EVENT_CREATE, 0);
+
+        viewTypeStats = stats.getStats(1);
+        Assert.assertEquals(0, viewTypeStats.getPoolMissCount());
+        Assert.assertEquals(1, viewTypeStats.getFailedToRecycleCount());
+        Assert.assertNull(stats.getStats(2));
+    }
+
+    @Test
+    public void droppedHolderCountsOnce() {
+        RecyclingStats stats = new RecyclingStats();
+        int holders = RecyclingStats.DEFAULT_MAX_RECYCLED_VIEWS + 1;
+        for (int i = 0; i < holders; i++) {
+            create(stats, 1);
+        }
+        // The full pool drops the last one
+        for (int i = 0; i < holders; i++) {
+            recycle(stats, 1);
+        }
+        for (int i = 0; i < RecyclingStats.DEFAULT_MAX_RECYCLED_VIEWS; i++) {
+            reuse(stats, 1);
+        }
+        create(stats, 1);
+        Assert.assertEquals(1, stats.getStats(1).getPoolMissCount());
+
+        // More holders on screen than ever before, the pool hasn't dropped them
+        create(stats, 1);
+        create(stats, 1);
+        Assert.assertEquals(1, stats.getStats(1).getPoolMissCount());
+        Assert.assertEquals(holders + 3, stats.getStats(1).getCreateCount());
+    }
+
+    @Test
+    public void recommendsPeakAttached() {
+        RecyclingStats stats = new RecyclingStats();
+        for (int i = 0; i < 8; i++) {
+            create(stats, 1);
+            create(stats, 2);
+        }
+        // notifyDataSetChanged() with a too small pool: 5 holders are reused, 3 created again
+        notifyDataSetChanged(stats, 8, RecyclingStats.DEFAULT_MAX_RECYCLED_VIEWS);
+
+        Assert.assertEquals(8, stats.getRecommendedPoolSize(1));
+        Assert.assertEquals(RecyclingStats.DEFAULT_MAX_RECYCLED_VIEWS, stats.getRecommendedPoolSize(2));
+
+        List<RecyclingStats.ViewTypeStats> all = stats.getStats();
+        Assert.assertEquals(2, all.size());
+        Assert.assertEquals(1, all.get(0).getViewType());
+        Assert.assertEquals(3, all.get(0).getPoolMissCount());
+        Assert.assertEquals(2, all.get(1).getViewType());
+
+        RecordingPool pool = new RecordingPool();
+        stats.applyTo(pool);
+        Assert.assertEquals(1, pool.viewType);
+        Assert.assertEquals(8, pool.max);
+        Assert.assertEquals(1, pool.calls);
+
+        stats.reset();
+        Assert.assertEquals(0, stats.getStats(1).getPoolMissCount());
+        Assert.assertEquals(RecyclingStats.DEFAULT_MAX_RECYCLED_VIEWS, stats.getRecommendedPoolSize(1));
+
+        // The enlarged pool keeps all holders
+        notifyDataSetChanged(stats, 8, 8);
+        Assert.assertEquals(0, stats.getStats(1).getPoolMissCount());
+        Assert.assertEquals(0, stats.getStats(1).getCreateCount());
+    }
+
+    /**
+     * Recycles the given number of attached holders of view type 1 and lays them out again. The
+     * holders that didn't fit into the pool are created again.
+     */
+    private static void notifyDataSetChanged(RecyclingStats stats, int count, int poolSize) {
+        for (int i = 0; i < count; i++) {
+            recycle(stats, 1);
+        }
+        for (int i = 0; i < count; i++) {
+            if (i < poolSize) {
+                reuse(stats, 1);
+            } else {
+                create(stats, 1);
+            }
+        }
+    }
+
+    private static void create(RecyclingStats stats, int viewType) {
+        stats.onEvent(viewType, DelegateMetricsSink.EVENT_CREATE, 0);
+        stats.onEvent(viewType, DelegateMetricsSink.EVENT_BIND, 0);
+        stats.onEvent(viewType, DelegateMetricsSink.EVENT_ATTACH, 0);
+    }
+
+    private static void recycle(RecyclingStats stats, int viewType) {
+        stats.onEvent(viewType, DelegateMetricsSink.EVENT_DETACH, 0);
+        stats.onEvent(viewType, DelegateMetricsSink.EVENT_RECYCLE, 0);
+    }
+
+    private static void reuse(RecyclingStats stats, int viewType) {
+        stats.onEvent(viewType, DelegateMetricsSink.EVENT_BIND, 0);
+        stats.onEvent(viewType, DelegateMetricsSink.EVENT_ATTACH, 0);
+    }
+
+    private static class RecordingPool extends RecyclerView.RecycledViewPool {
+        int viewType;
+        int max;
+        int calls;
+
+        @Override
+        public void setMaxRecycledViews(int viewType, int max) {
+            this.viewType = viewType;
+            this.max = max;
+            calls++;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.hannesdorfmann.adapterdelegates4;
+
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.graphics.drawable.Drawable;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class ResourceCacheTest {
+
+    /**
+     * Counts the lookups that {@link ResourceCache} should avoid
+     */
+    static class CountingResources extends Resources {
+        int strings;
+        int colors;
+        int drawables;
+
+        CountingResources(Resources base) {
+            super(base.getAssets(), base.getDisplayMetrics(), new Configuration(base.getConfiguration()));
+        }
+
+        @NonNull
+        @Override
+        public String getString(int id) {
+            strings++;
+            return super.getString(id);
+        }
+
+        @Override
+        public int getColor(int id, @Nullable Theme theme) {
+            colors++;
+            return super.getColor(id, theme);
+        }
+
+        @Override
+        public Drawable getDrawable(int id, @Nullable Theme theme) {
+            drawables++;
+            return super.getDrawable(id, theme);
+        }
+    }
+
+    static class CountingContext extends ContextWrapper {
+        final CountingResources resources;
+
+        CountingContext(Context base) {
+            super(base);
+            resources = new CountingResources(base.getResources());
+        }
+
+        @Override
+        public Resources getResources() {
+            return resources;
+        }
+    }
+
+    private final ResourceCache cache = new ResourceCache();
+    private CountingContext context;
+
+    @Before
+    public void setUp() {
+        context = new CountingContext(RuntimeEnvironment.getApplication());
+    }
+
+    @Test
+    public void cacheHits() {
+        String string = cache.getString(context, android.R.string.ok);
+        Assert.assertEquals(context.getString(android.R.string.ok), string);
+        Assert.assertSame(string, cache.getString(context, android.R.string.ok));
+
+        int color = cache.getColor(context, android.R.color.black);
+        Assert.assertEquals(color, cache.getColor(context, android.R.color.black));
+
+        Drawable drawable1 = cache.getDrawable(context, android.R.drawable.ic_delete);
+        Drawable drawable2 = cache.getDrawable(context, android.R.drawable.ic_delete);
+        Assert.assertNotNull(drawable1);
+        Assert.assertNotNull(drawable2);
+        // A new Drawable that shares the state of the cached one
+        Assert.assertNotSame(drawable1, drawable2);
+
+        // The context.getString() above counts once
+        Assert.assertEquals(2, context.resources.strings);
+        Assert.assertEquals(1, context.resources.colors);
+        Assert.assertEquals(1, context.resources.drawables);
+    }
+
+    @Test
+    public void invalidatedWhenConfigurationChanges() {
+        cache.getString(context, android.R.string.ok);
+        cache.getColor(context, android.R.color.black);
+        Assert.assertEquals(1, context.resources.strings);
+        Assert.assertEquals(1, context.resources.colors);
+
+        // Resources update their Configuration in place, i.e. on a night mode change
+        Configuration configuration = new Configuration(context.resources.getConfiguration());
+        configuration.uiMode = configuration.uiMode == Configuration.UI_MODE_NIGHT_YES
+                ? Configuration.UI_MODE_NIGHT_NO : Configuration.UI_MODE_NIGHT_YES;
+        context.resources.updateConfiguration(configuration, context.resources.getDisplayMetrics());
+
+        cache.getString(context, android.R.string.ok);
+        cache.getColor(context, android.R.color.black);
+        Assert.assertEquals(2, context.resources.strings);
+        Assert.assertEquals(2, context.resources.colors);
+
+        // Cached again for the new configuration
+        cache.getString(context, android.R.string.ok);
+        Assert.assertEquals(2, context.resources.strings);
+    }
+
+    @Test
+    public void invalidatedWhenContextChanges() {
+        CountingContext otherContext = new CountingContext(RuntimeEnvironment.getApplication());
+
+        cache.getString(context, android.R.string.ok);
+        cache.getString(otherContext, android.R.string.ok);
+        cache.getString(otherContext, android.R.string.ok);
+        Assert.assertEquals(1, context.resources.strings);
+        Assert.assertEquals(1, otherContext.resources.strings);
+
+        cache.getString(context, android.R.string.ok);
+        Assert.assertEquals(2, context.resources.strings);
+    }
+
+    @Test
+    public void invalidate() {
+        cache.getDrawable(context, android.R.drawable.ic_delete);
+        cache.invalidate();
+        cache.getDrawable(context, android.R.drawable.ic_delete);
+        Assert.assertEquals(2, context.resources.drawables);
+    }
+}
@@ -0,0 +1,100 @@
+package com.hannesdorfmann.adapterdelegates4;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class SectionIndexTest {
+
+    @Test
+    public void findSection() {
+        SectionIndex index = new SectionIndex();
+        index.addSection(2);
+        index.addSection(0);
+        index.addSection(3);
+
+        Assert.assertEquals(5, index.getTotalSize());
+        Assert.assertEquals(0, index.findSection(0));
+        Assert.assertEquals(0, index.findSection(1));
+        // Empty section 1 is skipped
+        Assert.assertEquals(2, index.findSection(2));
+        Assert.assertEquals(2, index.findSection(4));
+        Assert.assertEquals(2, index.getStartPosition(1));
+        Assert.assertEquals(2, index.getStartPosition(2));
+        Assert.assertEquals(5, index.getStartPosition(3));
+    }
+
+    @Test
+    public void matchesLinearScan() {
+        Random random = new Random(42);
+        SectionIndex index = new SectionIndex();
+        List<Integer> sizes = new ArrayList<>();
+
+        for (int op = 0; op < 5000; op++) {
+            int choice = random.nextInt(10);
+            if (sizes.isEmpty() || choice < 3) {
+                int size = random.nextInt(5);
+                int section = random.nextInt(sizes.size() + 1);
+                sizes.add(section, size);
+                index.insertSection(section, size);
+            } else if (choice < 4) {
+                int section = random.nextInt(sizes.size());
+                sizes.remove(section);
+                index.removeSection(section);
+            } else {
+                int section = random.nextInt(sizes.size());
+                int size = random.nextInt(10);
+                sizes.set(section, size);
+                index.setSize(section, size);
+            }
+            assertSameAsLinearScan(sizes, index);
+        }
+    }
+
+    @Test
+    public void removeAllSections() {
+        SectionIndex index = new SectionIndex();
+        for (int i = 0; i < 20; i++) {
+            index.addSection(i);
+        }
+        index.removeAllSections();
+        Assert.assertEquals(0, index.getSectionCount());
+        Assert.assertEquals(0, index.getTotalSize());
+
+        index.addSection(3);
+        Assert.assertEquals(0, index.findSection(2));
+        Assert.assertEquals(3, index.getStartPosition(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeSize() {
+        SectionIndex index = new SectionIndex();
+        index.addSection(1);
+        index.add(0, -2);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void positionOutOfRange() {
+        SectionIndex index = new SectionIndex();
+        index.addSection(1);
+        index.findSection(1);
+    }
+
+    private static void assertSameAsLinearScan(List<Integer> sizes, SectionIndex index) {
+        Assert.assertEquals(sizes.size(), index.getSectionCount());
+        int start = 0;
+        for (int section = 0; section < sizes.size(); section++) {
+            Assert.assertEquals(start, index.getStartPosition(section));
+            Assert.assertEquals((int) sizes.get(section), index.getSize(section));
+            for (int i = 0; i < sizes.get(section); i++) {
+                Assert.assertEquals(section, index.findSection(start + i));
+            }
+            start += sizes.get(section);
+        }
+        Assert.assertEquals(start, index.getTotalSize());
+        Assert.assertEquals(start, index.getStartPosition(sizes.size()));
+    }
+}
@@ -0,0 +1,126 @@
+package com.hannesdorfmann.adapterdelegates4;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.ListUpdateCallback;
+
+public class SectionedDelegationAdapterTest {
+
+    private SectionedDelegationAdapter<String> adapter;
+    private final List<String> notifications = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        adapter = new SectionedDelegationAdapter<>();
+        adapter.updateCallback = new ListUpdateCallback() {
+            @Override
+            public void onInserted(int position, int count) {
+                notifications.add("inserted " + position + " " + count);
+            }
+
+            @Override
+            public void onRemoved(int position, int count) {
+                notifications.add("removed " + position + " " + count);
+            }
+
+            @Override
+            public void onMoved(int fromPosition, int toPosition) {
+                notifications.add("moved " + fromPosition + " " + toPosition);
+            }
+
+            @Override
+            public void onChanged(int position, int count, @Nullable Object payload) {
+                notifications.add("changed " + position + " " + count + " " + payload);
+            }
+        };
+    }
+
+    @Test
+    public void positionMapping() {
+        adapter.addSection(list("header"));
+        adapter.addSection(list());
+        adapter.addSection(list("a", "b", "c"));
+        adapter.addSection(1, list("ad"));
+
+        Assert.assertEquals(5, adapter.getItemCount());
+        Assert.assertEquals(Arrays.asList("header", "ad", "a", "b", "c"), adapter.getItems());
+        Assert.assertEquals(3, adapter.getSectionForPosition(3));
+        Assert.assertEquals(1, adapter.getPositionInSection(3));
+        Assert.assertEquals(2, adapter.getSectionStartPosition(2));
+        Assert.assertEquals(2, adapter.getSectionStartPosition(3));
+        Assert.assertEquals(Arrays.asList("inserted 0 1", "inserted 1 3", "inserted 1 1"), notifications);
+    }
+
+    @Test
+    public void offsetsSectionNotifications() {
+        adapter.addSection(list("header"));
+        int section = adapter.addSection(list("a", "b"));
+        adapter.addSection(list("footer"));
+        notifications.clear();
+
+        adapter.getSection(section).add(1, "x");
+        adapter.notifySectionItemRangeInserted(section, 1, 1);
+        adapter.notifySectionItemRangeChanged(section, 0, 2, "payload");
+        adapter.notifySectionItemMoved(section, 0, 2);
+        adapter.getSection(section).remove(0);
+        adapter.notifySectionItemRangeRemoved(section, 0, 1);
+
+        Assert.assertEquals(Arrays.asList(
+                "inserted 2 1",
+                "changed 1 2 payload",
+                "moved 1 3",
+                "removed 1 1"), notifications);
+        Assert.assertEquals(Arrays.asList("header", "x", "b", "footer"), adapter.getItems());
+        Assert.assertEquals(3, adapter.getSectionStartPosition(2));
+    }
+
+    @Test
+    public void setSection() {
+        adapter.addSection(list("header"));
+        adapter.addSection(list("a", "b"));
+        adapter.addSection(list("footer"));
+        notifications.clear();
+
+        adapter.setSection(1, list("c", "d", "e"));
+        adapter.setSection(1, list("f"));
+        adapter.removeSection(0);
+        adapter.clearSections();
+
+        Assert.assertEquals(Arrays.asList(
+                "changed 1 2 null",
+                "inserted 3 1",
+                "changed 1 1 null",
+                "removed 2 2",
+                "removed 0 1",
+                "removed 0 2"), notifications);
+        Assert.assertEquals(0, adapter.getItemCount());
+    }
+
+    @Test
+    public void notificationOutOfSection() {
+        adapter.addSection(list("a"));
+        adapter.addSection(list("b"));
+        try {
+            adapter.notifySectionItemRangeRemoved(0, 0, 2);
+            Assert.fail("Expected IndexOutOfBoundsException");
+        } catch (IndexOutOfBoundsException expected) {
+        }
+        try {
+            adapter.notifySectionItemMoved(0, 0, 1);
+            Assert.fail("Expected IndexOutOfBoundsException");
+        } catch (IndexOutOfBoundsException expected) {
+        }
+        Assert.assertEquals(2, adapter.getItemCount());
+    }
+
+    private static List<String> list(String... items) {
+        return new ArrayList<>(Arrays.asList(items));
+    }
+}
@@ -0,0 +1,55 @@
+package com.hannesdorfmann.adapterdelegates4;
+
+import android.graphics.Color;
+import android.graphics.drawable.ColorDrawable;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28, qualifiers = "mdpi")
+public class SkeletonAdapterDelegateTest {
+
+    private final ViewGroup parent = new FrameLayout(RuntimeEnvironment.getApplication());
+
+    @Test
+    public void heightMustBePositive() {
+        int[] heights = {0, -1, -2};
+        for (int height : heights) {
+            try {
+                new SkeletonAdapterDelegate<List<Object>>(height, 0);
+                Assert.fail("Expected IllegalArgumentException for height " + height);
+            } catch (IllegalArgumentException e) {
+                Assert.assertEquals("height must be > 0 but was " + height, e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void explicitHeight() {
+        View view = new SkeletonAdapterDelegate<List<Object>>(42, Color.RED)
+                .onCreateViewHolder(parent).itemView;
+
+        Assert.assertEquals(ViewGroup.LayoutParams.MATCH_PARENT, view.getLayoutParams().width);
+        Assert.assertEquals(42, view.getLayoutParams().height);
+        Assert.assertEquals(Color.RED, ((ColorDrawable) view.getBackground()).getColor());
+    }
+
+    @Test
+    public void defaultHeight() {
+        View view = new SkeletonAdapterDelegate<List<Object>>().onCreateViewHolder(parent).itemView;
+
+        // adapterdelegates_skeleton_height is 48dp
+        Assert.assertEquals(48, view.getLayoutParams().height);
+        Assert.assertNull(view.getBackground());
+    }
+}
@@ -1,5 +1,6 @@
 package com.hannesdorfmann.adapterdelegates4;
 
+import android.os.Bundle;
 import android.view.View;
 import android.view.ViewGroup;
 
@@ -24,6 +25,7 @@ public class SpyableAdapterDelegate<T> extends AdapterDelegate<T> {
     public boolean onFailedToRecycleViewCalled = false;
 
     public int onBindViewHolderPosition = -1;
+    public Bundle restoredState;
     public RecyclerView.ViewHolder viewHolder;
     public int viewType;
 
@@ -52,6 +54,7 @@ public class SpyableAdapterDelegate<T> extends AdapterDelegate<T> {
         onViewRecycledCalled = false;
         onFailedToRecycleViewCalled = false;
         onBindViewHolderPosition = -1;
+        restoredState = null;
     }
 
     @Override
@@ -102,4 +105,10 @@ public class SpyableAdapterDelegate<T> extends AdapterDelegate<T> {
         onFailedToRecycleViewCalled = true;
         return super.onFailedToRecycleView(holder);
     }
+
+    @Override
+    public void onRestoreInstanceState(Bundle state) {
+        super.onRestoreInstanceState(state);
+        restoredState = state;
+    }
 }
@@ -0,0 +1,206 @@
+package com.hannesdorfmann.adapterdelegates4;
+
+import android.app.Activity;
+import android.graphics.Canvas;
+import android.os.Looper;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.LooperMode;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Draws the sticky header of {@link StickyHeaderItemDecoration} over a real RecyclerView
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28, qualifiers = "w360dp-h640dp-mdpi")
+@LooperMode(LooperMode.Mode.PAUSED)
+public class StickyHeaderDrawingTest {
+
+    private static final Duration FRAME = Duration.ofMillis(16);
+    private static final int ROW_HEIGHT = 100;
+    private static final int ITEMS_PER_HEADER = 10;
+
+    static class RowDelegate extends AdapterDelegate<List<Object>> {
+        private final Class<?> itemClass;
+        private final boolean header;
+        int creates;
+        int binds;
+
+        RowDelegate(Class<?> itemClass, boolean header) {
+            this.itemClass = itemClass;
+            this.header = header;
+        }
+
+        @Override
+        protected boolean isForViewType(@NonNull List<Object> items, int position) {
+            return itemClass.isInstance(items.get(position));
+        }
+
+        @Override
+        protected boolean isStickyHeader(@NonNull List<Object> items, int position) {
+            return header;
+        }
+
+        @NonNull
+        @Override
+        protected RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent) {
+            creates++;
+            View view = new View(parent.getContext());
+            view.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ROW_HEIGHT));
+            return new RecyclerView.ViewHolder(view) {
+            };
+        }
+
+        @Override
+        protected void onBindViewHolder(@NonNull List<Object> items, int position,
+                                        @NonNull RecyclerView.ViewHolder holder, @NonNull List<Object> payloads) {
+            binds++;
+        }
+    }
+
+    /**
+     * Counts the creates and binds of the header view type reported by the adapter
+     */
+    static class CountingSink implements DelegateMetricsSink {
+        private final int viewType;
+        int creates;
+        int binds;
+
+        CountingSink(int viewType) {
+            this.viewType = viewType;
+        }
+
+        @Override
+        public void onEvent(int viewType, int event, long durationNanos) {
+            if (viewType != this.viewType) {
+                return;
+            }
+            if (event == EVENT_CREATE) {
+                creates++;
+            } else if (event == EVENT_BIND) {
+                binds++;
+            }
+        }
+    }
+
+    static class TranslationRecordingCanvas extends Canvas {
+        final List<Float> translationsY = new ArrayList<>();
+
+        @Override
+        public void translate(float dx, float dy) {
+            translationsY.add(dy);
+            super.translate(dx, dy);
+        }
+    }
+
+    private final RowDelegate headerDelegate = new RowDelegate(String.class, true);
+    private CountingSink sink;
+    private RecyclerView recyclerView;
+    private int scrollY;
+    private StickyHeaderItemDecoration<List<Object>> decoration;
+
+    @Before
+    public void setUp() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        List<Object> items = new ArrayList<>();
+        for (int header = 0; header < 5; header++) {
+            items.add("header " + header);
+            for (int i = 0; i < ITEMS_PER_HEADER; i++) {
+                items.add(i);
+            }
+        }
+        ListDelegationAdapter<List<Object>> adapter =
+                new ListDelegationAdapter<>(headerDelegate, new RowDelegate(Integer.class, false));
+        adapter.setItems(items);
+        sink = new CountingSink(adapter.getDelegatesManager().getViewType(headerDelegate));
+        adapter.getDelegatesManager().addMetricsSink(sink);
+        decoration = new StickyHeaderItemDecoration<>(adapter);
+
+        recyclerView = new RecyclerView(activity);
+        recyclerView.setLayoutManager(new LinearLayoutManager(activity));
+        recyclerView.setAdapter(adapter);
+        activity.setContentView(recyclerView);
+        frame();
+    }
+
+    @Test
+    public void headerIsPushedUpByNextHeader() {
+        Assert.assertEquals(0f, drawHeader(), 0f);
+
+        // The last item of the first section is at -50, the next header at 50
+        scrollTo(ITEMS_PER_HEADER * ROW_HEIGHT + ROW_HEIGHT / 2);
+        Assert.assertEquals(-ROW_HEIGHT / 2f, drawHeader(), 0f);
+
+        // The next header is sticky now
+        scrollTo((ITEMS_PER_HEADER + 1) * ROW_HEIGHT + ROW_HEIGHT / 2);
+        Assert.assertEquals(0f, drawHeader(), 0f);
+    }
+
+    @Test
+    public void headerViewHolderIsReused() {
+        drawHeader();
+        Assert.assertEquals(1, decorationCreates());
+        Assert.assertEquals(1, decorationBinds());
+
+        // Same header, nothing is created or bound
+        drawHeader();
+        scrollTo(ROW_HEIGHT / 2);
+        drawHeader();
+        Assert.assertEquals(1, decorationCreates());
+        Assert.assertEquals(1, decorationBinds());
+
+        // Another header, the ViewHolder of its view type is bound again
+        scrollTo((ITEMS_PER_HEADER + 1) * ROW_HEIGHT + ROW_HEIGHT / 2);
+        drawHeader();
+        Assert.assertEquals(1, decorationCreates());
+        Assert.assertEquals(2, decorationBinds());
+    }
+
+    /**
+     * The creates and binds of the decoration, which are not reported to the metrics sinks
+     */
+    private int decorationCreates() {
+        return headerDelegate.creates - sink.creates;
+    }
+
+    private int decorationBinds() {
+        return headerDelegate.binds - sink.binds;
+    }
+
+    /**
+     * @return The y translation of the sticky header
+     */
+    private float drawHeader() {
+        TranslationRecordingCanvas canvas = new TranslationRecordingCanvas();
+        decoration.onDrawOver(canvas, recyclerView, new RecyclerView.State());
+        Assert.assertFalse("No header drawn", canvas.translationsY.isEmpty());
+        return canvas.translationsY.get(0);
+    }
+
+    private void scrollTo(int y) {
+        recyclerView.scrollBy(0, y - scrollY);
+        scrollY = y;
+        frame();
+    }
+
+    private void frame() {
+        shadowOf(Looper.getMainLooper()).idleFor(FRAME);
+    }
+}
@@ -0,0 +1,117 @@
+package com.hannesdorfmann.adapterdelegates4;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class StickyHeaderIndexTest {
+
+    @Test
+    public void findHeaderPosition() {
+        StickyHeaderIndex index = new StickyHeaderIndex();
+        index.setHeader(2, true);
+        index.setHeader(5, true);
+        index.setHeader(0, true);
+
+        Assert.assertEquals(3, index.size());
+        Assert.assertEquals(0, index.findHeaderPosition(0));
+        Assert.assertEquals(0, index.findHeaderPosition(1));
+        Assert.assertEquals(2, index.findHeaderPosition(2));
+        Assert.assertEquals(2, index.findHeaderPosition(4));
+        Assert.assertEquals(5, index.findHeaderPosition(100));
+        Assert.assertEquals(2, index.findNextHeaderPosition(0));
+        Assert.assertEquals(5, index.findNextHeaderPosition(2));
+        Assert.assertEquals(-1, index.findNextHeaderPosition(5));
+
+        index.setHeader(0, false);
+        Assert.assertEquals(-1, index.findHeaderPosition(1));
+    }
+
+    @Test
+    public void insertAndRemoveRanges() {
+        StickyHeaderIndex index = new StickyHeaderIndex();
+        index.setHeader(0, true);
+        index.setHeader(3, true);
+        index.setHeader(6, true);
+
+        index.insertRange(3, 2);
+        assertPositions(index, 0, 5, 8);
+
+        index.removeRange(1, 5);
+        assertPositions(index, 0, 3);
+
+        index.move(0, 2);
+        assertPositions(index, 2, 3);
+    }
+
+    @Test
+    public void randomOperationsMatchModel() {
+        Random random = new Random(42);
+        StickyHeaderIndex index = new StickyHeaderIndex();
+        List<Boolean> model = new ArrayList<>();
+
+        for (int op = 0; op < 5000; op++) {
+            int size = model.size();
+            switch (random.nextInt(4)) {
+                case 0: {
+                    int start = random.nextInt(size + 1);
+                    int count = random.nextInt(5);
+                    index.insertRange(start, count);
+                    for (int i = 0; i < count; i++) {
+                        boolean header = random.nextInt(3) == 0;
+                        model.add(start + i, header);
+                        index.setHeader(start + i, header);
+                    }
+                    break;
+                }
+                case 1: {
+                    int start = random.nextInt(size + 1);
+                    int count = random.nextInt(size - start + 1);
+                    index.removeRange(start, count);
+                    model.subList(start, start + count).clear();
+                    break;
+                }
+                case 2:
+                    if (size > 0) {
+                        int from = random.nextInt(size);
+                        int to = random.nextInt(size);
+                        index.move(from, to);
+                        model.add(to, model.remove(from));
+                    }
+                    break;
+                default:
+                    if (size > 0) {
+                        int position = random.nextInt(size);
+                        boolean header = random.nextBoolean();
+                        index.setHeader(position, header);
+                        model.set(position, header);
+                    }
+                    break;
+            }
+
+            int header = -1;
+            for (int position = 0; position < model.size(); position++) {
+                if (model.get(position)) {
+                    header = position;
+                }
+                Assert.assertEquals("op " + op + ", position " + position, header,
+                        index.findHeaderPosition(position));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeItemCount() {
+        new StickyHeaderIndex().removeRange(0, -1);
+    }
+
+    private static void assertPositions(StickyHeaderIndex index, int... positions) {
+        Assert.assertEquals(positions.length, index.size());
+        for (int i = 0; i < positions.length; i++) {
+            Assert.assertEquals(positions[i], index.get(i));
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.hannesdorfmann.adapterdelegates4;
+
+import android.view.ViewGroup;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
+import androidx.recyclerview.widget.RecyclerView;
+
+public class StickyHeaderItemDecorationTest {
+
+    private final List<Object> items = new ArrayList<>();
+    private HeaderDelegate headerDelegate;
+    private StickyHeaderItemDecoration<List<Object>> decoration;
+
+    @Before
+    public void setUp() {
+        items.add("a");
+        items.add(1);
+        items.add(2);
+        items.add("b");
+        items.add(3);
+
+        headerDelegate = new HeaderDelegate(String.class, true);
+        ListDelegationAdapter<List<Object>> adapter =
+                new ListDelegationAdapter<>(headerDelegate, new HeaderDelegate(Integer.class, false));
+        adapter.setItems(items);
+        decoration = new StickyHeaderItemDecoration<>(adapter);
+    }
+
+    @Test
+    public void headerPositions() {
+        Assert.assertEquals(0, decoration.getHeaderPosition(0));
+        Assert.assertEquals(0, decoration.getHeaderPosition(2));
+        Assert.assertEquals(3, decoration.getHeaderPosition(3));
+        Assert.assertEquals(3, decoration.getHeaderPosition(4));
+        Assert.assertEquals(2, headerDelegate.calls);
+    }
+
+    @Test
+    public void noHeader() {
+        items.add(0, 0);
+        decoration.indexUpdatingObserver.onItemRangeInserted(0, 1);
+        Assert.assertEquals(RecyclerView.NO_POSITION, decoration.getHeaderPosition(0));
+        Assert.assertEquals(1, decoration.getHeaderPosition(1));
+    }
+
+    @Test
+    public void updatesIncrementally() {
+        decoration.getHeaderPosition(0);
+        Assert.assertEquals(2, headerDelegate.calls);
+
+        // Only the inserted items are checked
+        items.add(2, "c");
+        items.add(3, 4);
+        decoration.indexUpdatingObserver.onItemRangeInserted(2, 2);
+        Assert.assertEquals(0, decoration.getHeaderPosition(1));
+        Assert.assertEquals(2, decoration.getHeaderPosition(4));
+        Assert.assertEquals(5, decoration.getHeaderPosition(6));
+        Assert.assertEquals(3, headerDelegate.calls);
+
+        items.subList(0, 3).clear();
+        decoration.indexUpdatingObserver.onItemRangeRemoved(0, 3);
+        Assert.assertEquals(RecyclerView.NO_POSITION, decoration.getHeaderPosition(1));
+        Assert.assertEquals(2, decoration.getHeaderPosition(3));
+
+        // [4, 2, "b", 3] -> [4, "b", 2, 3]
+        Collections.swap(items, 1, 2);
+        decoration.indexUpdatingObserver.onItemRangeMoved(2, 1, 1);
+        Assert.assertEquals(1, decoration.getHeaderPosition(3));
+
+        items.set(0, "d");
+        decoration.indexUpdatingObserver.onItemRangeChanged(0, 1, null);
+        Assert.assertEquals(0, decoration.getHeaderPosition(0));
+        Assert.assertEquals(4, headerDelegate.calls);
+
+        // Everything is checked again after notifyDataSetChanged()
+        decoration.indexUpdatingObserver.onChanged();
+        Assert.assertEquals(1, decoration.getHeaderPosition(2));
+        Assert.assertEquals(6, headerDelegate.calls);
+    }
+
+    @Test
+    public void updatesAfterListHasBeenReplaced() {
+        items.clear();
+        items.add("a");
+        items.add(1);
+        items.add(2);
+        Assert.assertEquals(0, decoration.getHeaderPosition(2));
+
+        // Like an AsyncListDiffer the adapter holds the new list [0, "a", 1, 2, "b"] already while
+        // [0, "a", 1, 2] -> [0, "a", 1, 2, "b"] is dispatched from the end of the list
+        items.add(0, 0);
+        items.add("b");
+        decoration.indexUpdatingObserver.onItemRangeInserted(3, 1);
+        decoration.indexUpdatingObserver.onItemRangeInserted(0, 1);
+        Assert.assertEquals(RecyclerView.NO_POSITION, decoration.getHeaderPosition(0));
+        Assert.assertEquals(1, decoration.getHeaderPosition(3));
+        Assert.assertEquals(4, decoration.getHeaderPosition(4));
+    }
+
+    @Test
+    public void updatesFromDiffResult() {
+        List<Object> oldItems = new ArrayList<>(items);
+        Assert.assertEquals(3, decoration.getHeaderPosition(4));
+
+        items.clear();
+        Collections.addAll(items, 0, "a", 4, 1, "c", 2, "b", 3, 5, "d");
+        DiffUtil.calculateDiff(new ItemsCallback(oldItems, items)).dispatchUpdatesTo(new ListUpdateCallback() {
+            @Override
+            public void onInserted(int position, int count) {
+                decoration.indexUpdatingObserver.onItemRangeInserted(position, count);
+            }
+
+            @Override
+            public void onRemoved(int position, int count) {
+                decoration.indexUpdatingObserver.onItemRangeRemoved(position, count);
+            }
+
+            @Override
+            public void onMoved(int fromPosition, int toPosition) {
+                decoration.indexUpdatingObserver.onItemRangeMoved(fromPosition, toPosition, 1);
+            }
+
+            @Override
+            public void onChanged(int position, int count, @Nullable Object payload) {
+                decoration.indexUpdatingObserver.onItemRangeChanged(position, count, payload);
+            }
+        });
+
+        for (int position = 0; position < items.size(); position++) {
+            int expected = RecyclerView.NO_POSITION;
+            for (int i = position; i >= 0; i--) {
+                if (items.get(i) instanceof String) {
+                    expected = i;
+                    break;
+                }
+            }
+            Assert.assertEquals("position " + position, expected, decoration.getHeaderPosition(position));
+        }
+    }
+
+    static class ItemsCallback extends DiffUtil.Callback {
+        private final List<Object> oldItems;
+        private final List<Object> newItems;
+
+        ItemsCallback(List<Object> oldItems, List<Object> newItems) {
+            this.oldItems = oldItems;
+            this.newItems = newItems;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return oldItems.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return newItems.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+            return oldItems.get(oldItemPosition).equals(newItems.get(newItemPosition));
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+            return true;
+        }
+    }
+
+    static class HeaderDelegate extends AdapterDelegate<List<Object>> {
+        private final Class<?> itemClass;
+        private final boolean header;
+        int calls;
+
+        HeaderDelegate(Class<?> itemClass, boolean header) {
+            this.itemClass = itemClass;
+            this.header = header;
+        }
+
+        @Override
+        protected boolean isForViewType(@NonNull List<Object> items, int position) {
+            return itemClass.isInstance(items.get(position));
+        }
+
+        @Override
+        protected boolean isStickyHeader(@NonNull List<Object> items, int position) {
+            calls++;
+            return header;
+        }
+
+        @NonNull
+        @Override
+        protected RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected void onBindViewHolder(@NonNull List<Object> items, int position,
+                                        @NonNull RecyclerView.ViewHolder holder, @NonNull List<Object> payloads) {
+        }
+    }
+}
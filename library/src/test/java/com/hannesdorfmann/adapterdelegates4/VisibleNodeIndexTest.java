@@ -0,0 +1,73 @@
+package com.hannesdorfmann.adapterdelegates4;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class VisibleNodeIndexTest {
+
+    @Test
+    public void matchesList() {
+        Random random = new Random(42);
+        VisibleNodeIndex index = new VisibleNodeIndex();
+        List<TreeNode<Integer>> expected = new ArrayList<>();
+        int nextItem = 0;
+
+        for (int op = 0; op < 2000; op++) {
+            if (expected.isEmpty() || random.nextInt(3) != 0) {
+                List<TreeNode<Integer>> nodes = new ArrayList<>();
+                int count = 1 + random.nextInt(20);
+                for (int i = 0; i < count; i++) {
+                    nodes.add(new TreeNode<>(null, nextItem++));
+                }
+                int position = random.nextInt(expected.size() + 1);
+                expected.addAll(position, nodes);
+                index.insert(position, nodes);
+            } else {
+                int position = random.nextInt(expected.size());
+                int count = random.nextInt(Math.min(30, expected.size() - position) + 1);
+                List<TreeNode<Integer>> removed = expected.subList(position, position + count);
+                List<TreeNode<Integer>> removedCopy = new ArrayList<>(removed);
+                removed.clear();
+                index.remove(position, count);
+                for (TreeNode<Integer> node : removedCopy) {
+                    Assert.assertFalse(node.isVisible());
+                    Assert.assertEquals(-1, index.positionOf(node));
+                }
+            }
+
+            Assert.assertEquals(expected.size(), index.size());
+            if (op % 50 == 0) {
+                for (int i = 0; i < expected.size(); i++) {
+                    Assert.assertSame(expected.get(i), index.get(i));
+                    Assert.assertEquals(i, index.positionOf(expected.get(i)));
+                }
+            }
+        }
+
+        index.clear();
+        Assert.assertEquals(0, index.size());
+        Assert.assertFalse(expected.get(0).isVisible());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void insertVisibleNode() {
+        VisibleNodeIndex index = new VisibleNodeIndex();
+        List<TreeNode<String>> nodes = new ArrayList<>();
+        nodes.add(new TreeNode<>(null, "a"));
+        index.insert(0, nodes);
+        index.insert(1, nodes);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void removeOutOfRange() {
+        VisibleNodeIndex index = new VisibleNodeIndex();
+        List<TreeNode<String>> nodes = new ArrayList<>();
+        nodes.add(new TreeNode<>(null, "a"));
+        index.insert(0, nodes);
+        index.remove(0, 2);
+    }
+}
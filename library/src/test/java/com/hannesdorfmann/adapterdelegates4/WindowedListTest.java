@@ -0,0 +1,221 @@
+package com.hannesdorfmann.adapterdelegates4;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+public class WindowedListTest {
+
+    /**
+     * Keeps the callbacks so that the test decides when a page is delivered
+     */
+    static class RecordingSource implements WindowedList.PageSource<Integer> {
+        final List<Integer> requestedStarts = new ArrayList<>();
+        final List<WindowedList.LoadCallback<Integer>> callbacks = new ArrayList<>();
+        final List<Integer> loadSizes = new ArrayList<>();
+
+        @Override
+        public void loadRange(int startPosition, int loadSize, @NonNull WindowedList.LoadCallback<Integer> callback) {
+            requestedStarts.add(startPosition);
+            loadSizes.add(loadSize);
+            callbacks.add(callback);
+        }
+
+        void deliver(int request) {
+            int start = requestedStarts.get(request);
+            List<Integer> page = new ArrayList<>();
+            for (int i = 0; i < loadSizes.get(request); i++) {
+                page.add(start + i);
+            }
+            callbacks.get(request).onResult(page);
+        }
+    }
+
+    @Test
+    public void loadsPageOnDemand() {
+        RecordingSource source = new RecordingSource();
+        WindowedList<Integer> list = new WindowedList<>(source, 1_000_000, 10, 3);
+
+        Assert.assertEquals(1_000_000, list.size());
+        Assert.assertNull(list.get(25));
+        Assert.assertNull(list.get(26)); // Same page, no second request
+        Assert.assertEquals(1, source.requestedStarts.size());
+        Assert.assertEquals(20, (int) source.requestedStarts.get(0));
+
+        source.deliver(0);
+        Assert.assertEquals(25, (int) list.get(25));
+        Assert.assertEquals(29, (int) list.get(29));
+        Assert.assertTrue(list.isLoaded(20));
+        Assert.assertFalse(list.isLoaded(30));
+    }
+
+    @Test
+    public void lastPageIsSmaller() {
+        RecordingSource source = new RecordingSource();
+        WindowedList<Integer> list = new WindowedList<>(source, 25, 10, 3);
+        list.get(24);
+        Assert.assertEquals(5, (int) source.loadSizes.get(0));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedPage() {
+        RecordingSource source = new RecordingSource();
+        WindowedList<Integer> list = new WindowedList<>(source, 100, 10, 2);
+
+        list.get(0);
+        source.deliver(0);
+        list.get(10);
+        source.deliver(1);
+        list.get(0); // page 0 is now most recently used
+        list.get(20);
+        source.deliver(2);
+
+        Assert.assertEquals(2, list.getLoadedPageCount());
+        Assert.assertTrue(list.isLoaded(0));
+        Assert.assertFalse(list.isLoaded(10));
+        Assert.assertTrue(list.isLoaded(20));
+        Assert.assertNull(list.peek(10));
+    }
+
+    @Test
+    public void notifiesListener() {
+        RecordingSource source = new RecordingSource();
+        WindowedList<Integer> list = new WindowedList<>(source, 100, 10, 2);
+        final int[] range = new int[]{-1, -1};
+        list.setListener(new WindowedList.Listener() {
+            @Override
+            public void onRangeLoaded(int startPosition, int count) {
+                range[0] = startPosition;
+                range[1] = count;
+            }
+        });
+
+        list.get(42);
+        source.deliver(0);
+        Assert.assertEquals(40, range[0]);
+        Assert.assertEquals(10, range[1]);
+    }
+
+    @Test
+    public void ignoresResultsAfterInvalidate() {
+        RecordingSource source = new RecordingSource();
+        WindowedList<Integer> list = new WindowedList<>(source, 100, 10, 2);
+
+        list.get(0);
+        list.invalidate(50);
+        source.deliver(0);
+
+        Assert.assertEquals(50, list.size());
+        Assert.assertFalse(list.isLoaded(0));
+        Assert.assertEquals(0, list.getLoadedPageCount());
+    }
+
+    @Test
+    public void loadAround() {
+        RecordingSource source = new RecordingSource();
+        WindowedList<Integer> list = new WindowedList<>(source, 100, 10, 5);
+
+        list.loadAround(15, 10);
+        Assert.assertEquals(3, source.requestedStarts.size());
+        Assert.assertEquals(0, (int) source.requestedStarts.get(0));
+        Assert.assertEquals(10, (int) source.requestedStarts.get(1));
+        Assert.assertEquals(20, (int) source.requestedStarts.get(2));
+    }
+
+    @Test
+    public void synchronousSource() {
+        WindowedList<Integer> list = new WindowedList<>(new WindowedList.PageSource<Integer>() {
+            @Override
+            public void loadRange(int startPosition, int loadSize, @NonNull WindowedList.LoadCallback<Integer> callback) {
+                List<Integer> page = new ArrayList<>();
+                for (int i = 0; i < loadSize; i++) {
+                    page.add(startPosition + i);
+                }
+                callback.onResult(page);
+            }
+        }, 100, 10, 2);
+
+        Assert.assertEquals(42, (int) list.get(42));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void indexOutOfBounds() {
+        new WindowedList<>(new RecordingSource(), 10, 10, 2).get(10);
+    }
+
+    @Test
+    public void adapterBindsBeforePrefetching() {
+        // Delivers each page synchronously the first time, loading it again doesn't complete
+        final RecordingSource reloads = new RecordingSource();
+        WindowedList<Integer> list = new WindowedList<>(new WindowedList.PageSource<Integer>() {
+            private final List<Integer> loadedStarts = new ArrayList<>();
+
+            @Override
+            public void loadRange(int startPosition, int loadSize, @NonNull WindowedList.LoadCallback<Integer> callback) {
+                if (loadedStarts.contains(startPosition)) {
+                    reloads.loadRange(startPosition, loadSize, callback);
+                    return;
+                }
+                loadedStarts.add(startPosition);
+                List<Integer> page = new ArrayList<>();
+                for (int i = 0; i < loadSize; i++) {
+                    page.add(startPosition + i);
+                }
+                callback.onResult(page);
+            }
+        }, 100, 10, 2);
+        final List<Integer> boundItems = new ArrayList<>();
+        AdapterDelegatesManager<List<Integer>> manager = new AdapterDelegatesManager<>();
+        manager.setFallbackDelegate(new AdapterDelegate<List<Integer>>() {
+            @Override
+            protected boolean isForViewType(@NonNull List<Integer> items, int position) {
+                return true;
+            }
+
+            @NonNull
+            @Override
+            protected RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            protected void onBindViewHolder(@NonNull List<Integer> items, int position,
+                                            @NonNull RecyclerView.ViewHolder holder, @NonNull List<Object> payloads) {
+                boundItems.add(items.get(position));
+            }
+        });
+        WindowedListDelegationAdapter<Integer> adapter = new WindowedListDelegationAdapter<>(manager);
+        adapter.setPrefetchDistance(15);
+        adapter.setItems(list);
+        list.get(25);
+
+        // Prefetching pages 1, 3 and 4 evicts page 2
+        adapter.onBindViewHolder(new RecyclerView.ViewHolder(Mockito.mock(View.class)) {
+        }, 25);
+        Assert.assertEquals(25, (int) boundItems.get(0));
+        Assert.assertFalse(list.isLoaded(25));
+    }
+
+    @Test
+    public void adapterDoesNotModifyGivenManager() {
+        AdapterDelegatesManager<List<Integer>> manager = new AdapterDelegatesManager<>();
+        WindowedListDelegationAdapter<Integer> adapter = new WindowedListDelegationAdapter<>(manager);
+        Assert.assertSame(manager, adapter.getDelegatesManager());
+        Assert.assertNull(manager.getPlaceholderDelegate());
+    }
+
+    @Test
+    public void adapterCreatesManagerWithSkeletonPlaceholder() {
+        WindowedListDelegationAdapter<Integer> adapter = new WindowedListDelegationAdapter<>();
+        Assert.assertTrue(adapter.getDelegatesManager().getPlaceholderDelegate() instanceof SkeletonAdapterDelegate);
+    }
+}
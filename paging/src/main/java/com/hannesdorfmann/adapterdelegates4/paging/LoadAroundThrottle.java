@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2015 Hannes Dorfmann.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.hannesdorfmann.adapterdelegates4.paging;
+
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Decides whether binding an item of a {@link androidx.paging.PagedList} should trigger loading
+ * items around it (<code>PagedList.loadAround()</code>). That is the case for placeholders, for
+ * the first bind of a newly submitted list, if an item within the prefetch distance is not loaded
+ * yet and once the bound position moved at least one page away from the position that has
+ * triggered loading the last time (so that PagedList's last key is kept up to date).
+ *
+ * @author Hannes Dorfmann
+ * @since 4.3.3
+ */
+final class LoadAroundThrottle {
+
+    /**
+     * The list and position that have triggered loading the last time
+     */
+    @Nullable
+    private Object lastLoadList;
+    private int lastLoadPosition;
+
+    /**
+     * Called for each bind. Remembers the list and position if loading should be triggered.
+     *
+     * @param list             The current list, {@link List#get(int)} must not trigger loading
+     * @param position         The bound position
+     * @param placeholder      true if the item at the given position is not loaded yet
+     * @param prefetchDistance The prefetch distance of the list
+     * @param pageSize         The page size of the list
+     * @return true if loading should be triggered
+     */
+    boolean onBind(@NonNull List<?> list, int position, boolean placeholder, int prefetchDistance,
+                   int pageSize) {
+        boolean load = placeholder
+                || list != lastLoadList
+                || Math.abs(position - lastLoadPosition) >= pageSize
+                || !isLoadedAround(list, position, prefetchDistance, pageSize);
+        if (load) {
+            lastLoadList = list;
+            lastLoadPosition = position;
+        }
+        return load;
+    }
+
+    /**
+     * The loaded items don't need to be one range, i.e. a tiled list with placeholders may have
+     * holes. A hole is at least one page, so checking both ends of the prefetch distance and one
+     * position per page in between finds every hole.
+     *
+     * @return true if all items within the prefetch distance of the given position are loaded.
+     * Positions outside of the list are not loaded, more items may be appended or prepended.
+     */
+    private static boolean isLoadedAround(@NonNull List<?> list, int position, int prefetchDistance,
+                                          int pageSize) {
+        int end = position + prefetchDistance;
+        int size = list.size();
+        for (int i = position - prefetchDistance; ; i += pageSize) {
+            int checked = Math.min(i, end);
+            if (checked < 0 || checked >= size || list.get(checked) == null) {
+                return false;
+            }
+            if (checked == end) {
+                return true;
+            }
+        }
+    }
+}
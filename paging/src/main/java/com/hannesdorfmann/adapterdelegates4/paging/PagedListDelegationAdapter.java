@@ -4,10 +4,14 @@ import android.view.ViewGroup;
 
 import com.hannesdorfmann.adapterdelegates4.AdapterDelegate;
 import com.hannesdorfmann.adapterdelegates4.AdapterDelegatesManager;
+import com.hannesdorfmann.adapterdelegates4.DelegationAdapter;
+import com.hannesdorfmann.adapterdelegates4.DiffExecutors;
 
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.paging.PagedList;
 import androidx.paging.PagedListAdapter;
 import androidx.recyclerview.widget.AsyncDifferConfig;
@@ -18,12 +22,22 @@ import androidx.recyclerview.widget.RecyclerView;
  * A {@link PagedListAdapter} that uses {@link AdapterDelegatesManager}
  * and {@link com.hannesdorfmann.adapterdelegates4.AdapterDelegate}
  *
+ * <p>
+ * If placeholders are enabled in {@link PagedList.Config} set a placeholder delegate with
+ * {@link #setPlaceholderDelegate(AdapterDelegate)} (i.e. a
+ * {@link com.hannesdorfmann.adapterdelegates4.SkeletonAdapterDelegate}). Placeholders are then
+ * dispatched to it without calling the predicates of the other delegates.
+ * </p>
+ *
  * @param <T> The type of {@link PagedList}
  */
-public class PagedListDelegationAdapter<T> extends PagedListAdapter<T, RecyclerView.ViewHolder> {
+public class PagedListDelegationAdapter<T> extends PagedListAdapter<T, RecyclerView.ViewHolder>
+        implements DelegationAdapter<List<T>> {
 
     protected final AdapterDelegatesManager<List<T>> delegatesManager;
 
+    private final LoadAroundThrottle loadAroundThrottle = new LoadAroundThrottle();
+
     /**
      * @param diffCallback The Callback
      * @param delegates    The {@link AdapterDelegate}s that should be added
@@ -53,6 +67,30 @@ public class PagedListDelegationAdapter<T> extends PagedListAdapter<T, RecyclerV
         this.delegatesManager = delegatesManager;
     }
 
+    /**
+     * @param diffCallback       The Callback
+     * @param backgroundExecutor The executor to calculate the diffs on, see {@link DiffExecutors}
+     * @param delegates          The {@link AdapterDelegate}s that should be added
+     * @since 4.3.3
+     */
+    public PagedListDelegationAdapter(@NonNull DiffUtil.ItemCallback<T> diffCallback,
+                                      @NonNull Executor backgroundExecutor,
+                                      AdapterDelegate<List<T>>... delegates) {
+        this(new AdapterDelegatesManager<List<T>>(delegates), DiffExecutors.config(diffCallback, backgroundExecutor));
+    }
+
+    /**
+     * @param delegatesManager   The {@link AdapterDelegatesManager}
+     * @param diffCallback       The Callback
+     * @param backgroundExecutor The executor to calculate the diffs on, see {@link DiffExecutors}
+     * @since 4.3.3
+     */
+    public PagedListDelegationAdapter(@NonNull AdapterDelegatesManager<List<T>> delegatesManager,
+                                      @NonNull DiffUtil.ItemCallback<T> diffCallback,
+                                      @NonNull Executor backgroundExecutor) {
+        this(delegatesManager, DiffExecutors.config(diffCallback, backgroundExecutor));
+    }
+
     public PagedListDelegationAdapter(@NonNull AsyncDifferConfig<T> config) {
         this(new AdapterDelegatesManager<List<T>>(), config);
     }
@@ -69,6 +107,42 @@ public class PagedListDelegationAdapter<T> extends PagedListAdapter<T, RecyclerV
         this.delegatesManager = delegatesManager;
     }
 
+    /**
+     * Get the {@link AdapterDelegatesManager} this adapter dispatches to
+     *
+     * @return The manager
+     * @since 4.3.3
+     */
+    @NonNull
+    @Override
+    public AdapterDelegatesManager<List<T>> getDelegatesManager() {
+        return delegatesManager;
+    }
+
+    /**
+     * Get the current {@link PagedList}. Accessing items doesn't trigger loading of pages.
+     *
+     * @return The items or <code>null</code> if no list has been submitted yet
+     * @see #getCurrentList()
+     * @since 4.3.3
+     */
+    @Nullable
+    @Override
+    public List<T> getItems() {
+        return getCurrentList();
+    }
+
+    /**
+     * Set a placeholder delegate that should be used for placeholder (<code>null</code>) items.
+     *
+     * @param placeholderDelegate The {@link AdapterDelegate} or <code>null</code> to remove a
+     *                            previously set placeholder AdapterDelegate
+     * @since 4.3.3
+     */
+    public void setPlaceholderDelegate(@Nullable AdapterDelegate<List<T>> placeholderDelegate) {
+        delegatesManager.setPlaceholderDelegate(placeholderDelegate);
+    }
+
     @NonNull
     @Override
     public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -77,15 +151,20 @@ public class PagedListDelegationAdapter<T> extends PagedListAdapter<T, RecyclerV
 
     @Override
     public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
-        getItem(position); // Internally triggers loading items around items around the given position
-        delegatesManager.onBindViewHolder(getCurrentList(), position, holder, null);
+        onBindViewHolder(holder, position, null);
     }
 
     @Override
     public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position,
-                                 @NonNull List payloads) {
-        getItem(position); // Internally triggers loading items around items around the given position
-        delegatesManager.onBindViewHolder(getCurrentList(), position, holder, payloads);
+                                 @Nullable List payloads) {
+        PagedList<T> items = getCurrentList();
+        T item = items.get(position); // Doesn't trigger loading
+        PagedList.Config config = items.getConfig();
+        if (loadAroundThrottle.onBind(items, position, item == null, config.prefetchDistance,
+                config.pageSize)) {
+            getItem(position); // Internally triggers loading items around the given position
+        }
+        delegatesManager.onBindViewHolder(items, position, item, holder, payloads);
     }
 
     @Override
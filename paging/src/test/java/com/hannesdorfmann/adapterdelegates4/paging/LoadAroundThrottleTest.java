@@ -0,0 +1,95 @@
+package com.hannesdorfmann.adapterdelegates4.paging;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class LoadAroundThrottleTest {
+
+    private static final int PREFETCH_DISTANCE = 5;
+    private static final int PAGE_SIZE = 20;
+
+    /**
+     * 100 items loaded at positions [0, 100)
+     */
+    private static final int LOADED_COUNT = 100;
+
+    private final List<Object> list = new ArrayList<Object>(Collections.nCopies(LOADED_COUNT, "item"));
+    private LoadAroundThrottle throttle;
+
+    @Before
+    public void setUp() {
+        throttle = new LoadAroundThrottle();
+        Assert.assertTrue(bind(list, 40, false));
+    }
+
+    @Test
+    public void samePageDoesNotLoad() {
+        Assert.assertFalse(bind(list, 41, false));
+        Assert.assertFalse(bind(list, 40 + PAGE_SIZE - 1, false));
+        Assert.assertFalse(bind(list, 40 - PAGE_SIZE + 1, false));
+    }
+
+    @Test
+    public void movingOnePageAwayLoads() {
+        Assert.assertTrue(bind(list, 40 + PAGE_SIZE, false));
+        // The position of the last load is the new reference
+        Assert.assertFalse(bind(list, 40 + PAGE_SIZE + 1, false));
+        Assert.assertTrue(bind(list, 40, false));
+    }
+
+    @Test
+    public void prefetchDistanceLoads() {
+        // Start of the loaded items
+        Assert.assertTrue(bind(list, 10, false));
+        Assert.assertFalse(bind(list, PREFETCH_DISTANCE, false));
+        Assert.assertTrue(bind(list, PREFETCH_DISTANCE - 1, false));
+
+        // End of the loaded items
+        Assert.assertTrue(bind(list, 90, false));
+        Assert.assertFalse(bind(list, LOADED_COUNT - 1 - PREFETCH_DISTANCE, false));
+        Assert.assertTrue(bind(list, LOADED_COUNT - PREFETCH_DISTANCE, false));
+    }
+
+    @Test
+    public void placeholderLoads() {
+        Assert.assertTrue(bind(list, 41, true));
+        Assert.assertTrue(bind(list, 41, true));
+    }
+
+    @Test
+    public void newListLoads() {
+        List<Object> newList = new ArrayList<>(list);
+        Assert.assertTrue(bind(newList, 41, false));
+        Assert.assertFalse(bind(newList, 42, false));
+        // Going back to the previous list is a new list too
+        Assert.assertTrue(bind(list, 42, false));
+    }
+
+    @Test
+    public void holeWithinPrefetchDistanceLoads() {
+        // A tiled list with placeholders for the page at [60, 80)
+        for (int i = 60; i < 80; i++) {
+            list.set(i, null);
+        }
+        Assert.assertFalse(bind(list, 50, false));
+        Assert.assertTrue(bind(list, 56, false));
+    }
+
+    @Test
+    public void holeBetweenEndsOfPrefetchDistanceLoads() {
+        for (int i = 60; i < 80; i++) {
+            list.set(i, null);
+        }
+        // Both ends of [5, 95] are loaded, but the page in between isn't
+        Assert.assertTrue(throttle.onBind(list, 50, false, 45, PAGE_SIZE));
+    }
+
+    private boolean bind(List<Object> list, int position, boolean placeholder) {
+        return throttle.onBind(list, position, placeholder, PREFETCH_DISTANCE, PAGE_SIZE);
+    }
+}
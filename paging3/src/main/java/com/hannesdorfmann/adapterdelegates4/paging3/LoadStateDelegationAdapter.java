@@ -0,0 +1,84 @@
+package com.hannesdorfmann.adapterdelegates4.paging3;
+
+import android.view.ViewGroup;
+
+import com.hannesdorfmann.adapterdelegates4.AdapterDelegate;
+import com.hannesdorfmann.adapterdelegates4.AdapterDelegatesManager;
+
+import androidx.annotation.NonNull;
+import androidx.paging.LoadState;
+import androidx.paging.LoadStateAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * A {@link LoadStateAdapter} that uses {@link AdapterDelegatesManager} and {@link AdapterDelegate}
+ * to display the {@link LoadState} of a {@link PagingDataDelegationAdapter} as header or footer:
+ * <pre>
+ * {@code
+ *    LoadStateDelegationAdapter footer = new LoadStateDelegationAdapter(
+ *        new LoadingAdapterDelegate(), new ErrorAdapterDelegate());
+ *    recyclerView.setAdapter(pagingAdapter.withLoadStateFooter(footer));
+ * }
+ * </pre>
+ * The delegates get the current {@link LoadState} as data source and 0 as position.
+ * By default {@link LoadState.Loading} and {@link LoadState.Error} are displayed,
+ * override {@link #displayLoadStateAsItem(LoadState)} to change that.
+ *
+ * @since 4.3.3
+ */
+public class LoadStateDelegationAdapter extends LoadStateAdapter<RecyclerView.ViewHolder> {
+
+    protected final AdapterDelegatesManager<LoadState> delegatesManager;
+
+    /**
+     * @param delegates The {@link AdapterDelegate}s that should be added
+     */
+    public LoadStateDelegationAdapter(@NonNull AdapterDelegate<LoadState>... delegates) {
+        this(new AdapterDelegatesManager<LoadState>(delegates));
+    }
+
+    public LoadStateDelegationAdapter(@NonNull AdapterDelegatesManager<LoadState> delegatesManager) {
+        if (delegatesManager == null) {
+            throw new NullPointerException("AdapterDelegatesManager is null");
+        }
+        this.delegatesManager = delegatesManager;
+    }
+
+    @Override
+    public int getStateViewType(@NonNull LoadState loadState) {
+        return delegatesManager.getItemViewType(loadState, 0);
+    }
+
+    @NonNull
+    @Override
+    public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent,
+                                                      @NonNull LoadState loadState) {
+        return delegatesManager.onCreateViewHolder(parent, getStateViewType(loadState));
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder,
+                                 @NonNull LoadState loadState) {
+        delegatesManager.onBindViewHolder(loadState, 0, holder);
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull RecyclerView.ViewHolder holder) {
+        delegatesManager.onViewRecycled(holder);
+    }
+
+    @Override
+    public boolean onFailedToRecycleView(@NonNull RecyclerView.ViewHolder holder) {
+        return delegatesManager.onFailedToRecycleView(holder);
+    }
+
+    @Override
+    public void onViewAttachedToWindow(@NonNull RecyclerView.ViewHolder holder) {
+        delegatesManager.onViewAttachedToWindow(holder);
+    }
+
+    @Override
+    public void onViewDetachedFromWindow(@NonNull RecyclerView.ViewHolder holder) {
+        delegatesManager.onViewDetachedFromWindow(holder);
+    }
+}
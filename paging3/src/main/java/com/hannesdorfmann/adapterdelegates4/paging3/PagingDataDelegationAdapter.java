@@ -0,0 +1,213 @@
+package com.hannesdorfmann.adapterdelegates4.paging3;
+
+import android.view.ViewGroup;
+
+import com.hannesdorfmann.adapterdelegates4.AdapterDelegate;
+import com.hannesdorfmann.adapterdelegates4.AdapterDelegatesManager;
+import com.hannesdorfmann.adapterdelegates4.DelegationAdapter;
+import com.hannesdorfmann.adapterdelegates4.SkeletonAdapterDelegate;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.paging.PagingData;
+import androidx.paging.PagingDataAdapter;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+import kotlinx.coroutines.CoroutineDispatcher;
+import kotlinx.coroutines.Dispatchers;
+import kotlinx.coroutines.ExecutorsKt;
+
+/**
+ * A {@link PagingDataAdapter} (Paging 3) that uses {@link AdapterDelegatesManager}
+ * and {@link AdapterDelegate}.
+ * <p>
+ * The delegates get a {@link List} view of the currently loaded items. Reading items from that
+ * list doesn't trigger page loads, only binding an item does (as required by Paging 3).
+ * Placeholders (<code>null</code> items) are dispatched to the placeholder delegate of the
+ * {@link AdapterDelegatesManager} (see {@link #setPlaceholderDelegate(AdapterDelegate)}) and never
+ * reach the predicates of the other delegates. If the adapter creates the manager from the given
+ * delegates, a {@link SkeletonAdapterDelegate} is used as placeholder delegate. A manager that is
+ * passed in is used as is, so without a placeholder delegate the other delegates get the
+ * placeholders.
+ * </p>
+ * <p>
+ * Use {@link #withLoadStateHeaderAndFooter(androidx.paging.LoadStateAdapter, androidx.paging.LoadStateAdapter)}
+ * in combination with {@link LoadStateDelegationAdapter} to display the load state as header
+ * and footer.
+ * </p>
+ *
+ * @param <T> The type of the items in {@link PagingData}
+ * @since 4.3.3
+ */
+public class PagingDataDelegationAdapter<T> extends PagingDataAdapter<T, RecyclerView.ViewHolder>
+        implements DelegationAdapter<List<T>> {
+
+    protected final AdapterDelegatesManager<List<T>> delegatesManager;
+
+    /**
+     * A read only view of the loaded items that is passed to the delegates
+     */
+    private final List<T> items = new AbstractList<T>() {
+        @Override
+        public T get(int index) {
+            return peek(index);
+        }
+
+        @Override
+        public int size() {
+            return getItemCount();
+        }
+    };
+
+    /**
+     * The dispatcher the diffs are calculated on
+     */
+    final CoroutineDispatcher workerDispatcher;
+
+    /**
+     * Creates the {@link AdapterDelegatesManager} with the given delegates and a {@link
+     * SkeletonAdapterDelegate} as placeholder delegate
+     *
+     * @param diffCallback The Callback
+     * @param delegates    The {@link AdapterDelegate}s that should be added
+     */
+    public PagingDataDelegationAdapter(@NonNull DiffUtil.ItemCallback<T> diffCallback,
+                                       AdapterDelegate<List<T>>... delegates) {
+        this(new AdapterDelegatesManager<List<T>>(delegates)
+                .setPlaceholderDelegate(new SkeletonAdapterDelegate<List<T>>()), diffCallback);
+    }
+
+    /**
+     * @param delegatesManager The {@link AdapterDelegatesManager}. It's not modified, so set a
+     *                         placeholder delegate on it if the {@link PagingData} has
+     *                         placeholders.
+     * @param diffCallback     The Callback
+     */
+    public PagingDataDelegationAdapter(@NonNull AdapterDelegatesManager<List<T>> delegatesManager,
+                                       @NonNull DiffUtil.ItemCallback<T> diffCallback) {
+        this(delegatesManager, diffCallback, Dispatchers.getDefault());
+    }
+
+    /**
+     * @param delegatesManager   The {@link AdapterDelegatesManager}. It's not modified, so set a
+     *                           placeholder delegate on it if the {@link PagingData} has
+     *                           placeholders.
+     * @param diffCallback       The Callback
+     * @param backgroundExecutor The executor to calculate the diffs on, see
+     *                           {@link com.hannesdorfmann.adapterdelegates4.DiffExecutors}
+     */
+    public PagingDataDelegationAdapter(@NonNull AdapterDelegatesManager<List<T>> delegatesManager,
+                                       @NonNull DiffUtil.ItemCallback<T> diffCallback,
+                                       @NonNull Executor backgroundExecutor) {
+        this(delegatesManager, diffCallback, ExecutorsKt.from(checkNotNull(backgroundExecutor)));
+    }
+
+    private PagingDataDelegationAdapter(@NonNull AdapterDelegatesManager<List<T>> delegatesManager,
+                                        @NonNull DiffUtil.ItemCallback<T> diffCallback,
+                                        @NonNull CoroutineDispatcher workerDispatcher) {
+        super(checkNotNull(diffCallback), Dispatchers.getMain(), workerDispatcher);
+        if (delegatesManager == null) {
+            throw new NullPointerException("AdapterDelegatesManager is null");
+        }
+        this.delegatesManager = delegatesManager;
+        this.workerDispatcher = workerDispatcher;
+    }
+
+    private static <T> DiffUtil.ItemCallback<T> checkNotNull(DiffUtil.ItemCallback<T> diffCallback) {
+        if (diffCallback == null) {
+            throw new NullPointerException("ItemCallback is null");
+        }
+        return diffCallback;
+    }
+
+    private static Executor checkNotNull(Executor executor) {
+        if (executor == null) {
+            throw new NullPointerException("Executor is null");
+        }
+        return executor;
+    }
+
+    /**
+     * Get the {@link AdapterDelegatesManager} this adapter dispatches to
+     *
+     * @return The manager
+     * @since 4.3.3
+     */
+    @NonNull
+    @Override
+    public AdapterDelegatesManager<List<T>> getDelegatesManager() {
+        return delegatesManager;
+    }
+
+    /**
+     * Get a read only view of the loaded items. Placeholders are <code>null</code>.
+     * Accessing items doesn't trigger loading of pages.
+     *
+     * @return The items
+     */
+    @NonNull
+    @Override
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Set the delegate that should be used for placeholder (<code>null</code>) items. The delegate
+     * is set on the {@link AdapterDelegatesManager} of this adapter.
+     *
+     * @param placeholderDelegate The {@link AdapterDelegate}, i.e. a {@link SkeletonAdapterDelegate}
+     */
+    public void setPlaceholderDelegate(@NonNull AdapterDelegate<List<T>> placeholderDelegate) {
+        if (placeholderDelegate == null) {
+            throw new NullPointerException("Placeholder AdapterDelegate is null");
+        }
+        delegatesManager.setPlaceholderDelegate(placeholderDelegate);
+    }
+
+    @NonNull
+    @Override
+    public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        return delegatesManager.onCreateViewHolder(parent, viewType);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        onBindViewHolder(holder, position, null);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position,
+                                 @Nullable List payloads) {
+        T item = getItem(position); // Internally triggers loading items around the given position
+        delegatesManager.onBindViewHolder(items, position, item, holder, payloads);
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return delegatesManager.getItemViewType(items, position);
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull RecyclerView.ViewHolder holder) {
+        delegatesManager.onViewRecycled(holder);
+    }
+
+    @Override
+    public boolean onFailedToRecycleView(@NonNull RecyclerView.ViewHolder holder) {
+        return delegatesManager.onFailedToRecycleView(holder);
+    }
+
+    @Override
+    public void onViewAttachedToWindow(@NonNull RecyclerView.ViewHolder holder) {
+        delegatesManager.onViewAttachedToWindow(holder);
+    }
+
+    @Override
+    public void onViewDetachedFromWindow(@NonNull RecyclerView.ViewHolder holder) {
+        delegatesManager.onViewDetachedFromWindow(holder);
+    }
+}
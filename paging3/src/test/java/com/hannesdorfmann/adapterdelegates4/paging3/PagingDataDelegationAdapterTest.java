@@ -0,0 +1,122 @@
+package com.hannesdorfmann.adapterdelegates4.paging3;
+
+import com.hannesdorfmann.adapterdelegates4.AdapterDelegatesManager;
+import com.hannesdorfmann.adapterdelegates4.SkeletonAdapterDelegate;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import androidx.annotation.NonNull;
+import androidx.paging.LoadState;
+import androidx.recyclerview.widget.DiffUtil;
+import kotlin.coroutines.EmptyCoroutineContext;
+import kotlinx.coroutines.Dispatchers;
+
+public class PagingDataDelegationAdapterTest {
+
+    private final DiffUtil.ItemCallback<Object> callback = new DiffUtil.ItemCallback<Object>() {
+        @Override
+        public boolean areItemsTheSame(Object oldItem, Object newItem) {
+            return false;
+        }
+
+        @Override
+        public boolean areContentsTheSame(Object oldItem, Object newItem) {
+            return false;
+        }
+    };
+
+    @Test
+    public void itemCallbackIsNull() {
+        try {
+            new PagingDataDelegationAdapter<Object>(new AdapterDelegatesManager<List<Object>>(), null);
+            Assert.fail("Expected NullPointerException");
+        } catch (NullPointerException e) {
+            Assert.assertEquals("ItemCallback is null", e.getMessage());
+        }
+    }
+
+    @Test
+    public void adapterDelegateManagerIsNull() {
+        try {
+            new PagingDataDelegationAdapter<Object>(null, callback);
+            Assert.fail("Expected NullPointerException");
+        } catch (NullPointerException e) {
+            Assert.assertEquals("AdapterDelegatesManager is null", e.getMessage());
+        }
+    }
+
+    @Test
+    public void backgroundExecutorIsNull() {
+        try {
+            new PagingDataDelegationAdapter<Object>(new AdapterDelegatesManager<List<Object>>(), callback, (Executor) null);
+            Assert.fail("Expected NullPointerException");
+        } catch (NullPointerException e) {
+            Assert.assertEquals("Executor is null", e.getMessage());
+        }
+    }
+
+    @Test
+    public void loadStateAdapterDelegateManagerIsNull() {
+        try {
+            new LoadStateDelegationAdapter((AdapterDelegatesManager<LoadState>) null);
+            Assert.fail("Expected NullPointerException");
+        } catch (NullPointerException e) {
+            Assert.assertEquals("AdapterDelegatesManager is null", e.getMessage());
+        }
+    }
+
+    @Test
+    public void diffsOnDefaultDispatcher() {
+        PagingDataDelegationAdapter<Object> adapter =
+                new PagingDataDelegationAdapter<>(new AdapterDelegatesManager<List<Object>>(), callback);
+        Assert.assertSame(Dispatchers.getDefault(), adapter.workerDispatcher);
+    }
+
+    @Test
+    public void diffsOnBackgroundExecutor() {
+        RecordingExecutor executor = new RecordingExecutor();
+        PagingDataDelegationAdapter<Object> adapter =
+                new PagingDataDelegationAdapter<>(new AdapterDelegatesManager<List<Object>>(), callback, executor);
+
+        final boolean[] ran = new boolean[1];
+        adapter.workerDispatcher.dispatch(EmptyCoroutineContext.INSTANCE, new Runnable() {
+            @Override
+            public void run() {
+                ran[0] = true;
+            }
+        });
+        Assert.assertEquals(1, executor.commands.size());
+        Assert.assertFalse(ran[0]);
+
+        executor.commands.get(0).run();
+        Assert.assertTrue(ran[0]);
+    }
+
+    @Test
+    public void givenManagerIsNotModified() {
+        AdapterDelegatesManager<List<Object>> manager = new AdapterDelegatesManager<>();
+        PagingDataDelegationAdapter<Object> adapter = new PagingDataDelegationAdapter<>(manager, callback);
+        Assert.assertSame(manager, adapter.getDelegatesManager());
+        Assert.assertNull(manager.getPlaceholderDelegate());
+    }
+
+    @Test
+    public void createdManagerHasSkeletonPlaceholder() {
+        PagingDataDelegationAdapter<Object> adapter = new PagingDataDelegationAdapter<>(callback);
+        Assert.assertTrue(adapter.getDelegatesManager().getPlaceholderDelegate() instanceof SkeletonAdapterDelegate);
+    }
+
+    static class RecordingExecutor implements Executor {
+        final List<Runnable> commands = new ArrayList<>();
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            commands.add(command);
+        }
+    }
+}
@@ -0,0 +1,441 @@
+/*
+ * Copyright (c) 2015 Hannes Dorfmann.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.hannesdorfmann.adapterdelegates4.processor;
+
+import com.hannesdorfmann.adapterdelegates4.annotations.DelegateFor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Generates an AdapterDelegatesManager subclass for each manager name used in {@link
+ * DelegateFor}. The generated resolveItemViewType() checks the class of the item with a chain of
+ * <code>instanceof</code> checks, ordered so that subtypes are checked before their supertypes,
+ * and falls back to the regular lookup of AdapterDelegatesManager (i.e. for the fallback
+ * delegate) if no check matches. As soon as delegates are added or removed after the
+ * construction the generated checks are not used anymore, since they may be stale.
+ * <p>
+ * View type collisions, reserved view types and delegates that are not AdapterDelegates for the
+ * same data source type are reported as compile errors.
+ * </p>
+ *
+ * @author Hannes Dorfmann
+ * @since 4.3.3
+ */
+@SupportedAnnotationTypes("com.hannesdorfmann.adapterdelegates4.annotations.DelegateFor")
+public class DelegateForProcessor extends AbstractProcessor {
+
+    static final String ADAPTER_DELEGATE = "com.hannesdorfmann.adapterdelegates4.AdapterDelegate";
+    static final String ADAPTER_DELEGATES_MANAGER =
+            "com.hannesdorfmann.adapterdelegates4.AdapterDelegatesManager";
+
+    /**
+     * Same as AdapterDelegatesManager.FALLBACK_DELEGATE_VIEW_TYPE
+     */
+    static final int FALLBACK_DELEGATE_VIEW_TYPE = Integer.MAX_VALUE - 1;
+
+    /**
+     * Same as AdapterDelegatesManager.PLACEHOLDER_DELEGATE_VIEW_TYPE
+     */
+    static final int PLACEHOLDER_DELEGATE_VIEW_TYPE = Integer.MAX_VALUE - 2;
+
+    /**
+     * An annotated delegate
+     */
+    private static class Entry {
+        final TypeElement delegate;
+        final TypeMirror item;
+        final int viewType;
+        final TypeMirror itemsType;
+        int depth;
+
+        Entry(TypeElement delegate, TypeMirror item, int viewType, TypeMirror itemsType) {
+            this.delegate = delegate;
+            this.item = item;
+            this.viewType = viewType;
+            this.itemsType = itemsType;
+        }
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Map<String, List<Entry>> entriesByManager = new LinkedHashMap<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(DelegateFor.class)) {
+            String manager = getManagerName(element);
+            Entry entry = createEntry(element);
+            if (manager == null || entry == null) {
+                continue;
+            }
+            String packageName =
+                    processingEnv.getElementUtils().getPackageOf(element).getQualifiedName().toString();
+            String qualifiedManager = packageName.isEmpty() ? manager : packageName + "." + manager;
+            List<Entry> entries = entriesByManager.get(qualifiedManager);
+            if (entries == null) {
+                entries = new ArrayList<>();
+                entriesByManager.put(qualifiedManager, entries);
+            }
+            entries.add(entry);
+        }
+
+        for (Map.Entry<String, List<Entry>> manager : entriesByManager.entrySet()) {
+            if (validate(manager.getKey(), manager.getValue())) {
+                generate(manager.getKey(), manager.getValue());
+            }
+        }
+        return true;
+    }
+
+    private String getManagerName(Element element) {
+        String manager = element.getAnnotation(DelegateFor.class).manager();
+        if (!SourceVersion.isIdentifier(manager) || SourceVersion.isKeyword(manager)) {
+            error(element, "manager must be a valid Java class name but was \"" + manager + "\"");
+            return null;
+        }
+        return manager;
+    }
+
+    private Entry createEntry(Element element) {
+        if (element.getKind() != ElementKind.CLASS) {
+            error(element, "@DelegateFor can only be applied to classes");
+            return null;
+        }
+        TypeElement delegate = (TypeElement) element;
+        if (delegate.getModifiers().contains(Modifier.PRIVATE)) {
+            error(element, "An AdapterDelegate annotated with @DelegateFor must not be private");
+            return null;
+        }
+
+        int viewType = element.getAnnotation(DelegateFor.class).viewType();
+        if (viewType < 0) {
+            error(element, "viewType must be >= 0 but was " + viewType);
+            return null;
+        }
+        if (viewType == FALLBACK_DELEGATE_VIEW_TYPE || viewType == PLACEHOLDER_DELEGATE_VIEW_TYPE) {
+            error(element, "The view type = " + viewType
+                    + " is reserved for the fallback and placeholder adapter delegate. Please use another view type.");
+            return null;
+        }
+
+        TypeMirror item = getItemClass(element);
+        if (item == null || item.getKind() != TypeKind.DECLARED) {
+            error(element, "item must be a class or an interface");
+            return null;
+        }
+
+        TypeMirror itemsType = findItemsType(delegate.asType());
+        if (itemsType == null) {
+            error(element, "An AdapterDelegate annotated with @DelegateFor must extend " + ADAPTER_DELEGATE);
+            return null;
+        }
+        return new Entry(delegate, item, viewType, itemsType);
+    }
+
+    /**
+     * Class values can't be read from the annotation directly at compile time
+     */
+    private TypeMirror getItemClass(Element element) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement annotation = (TypeElement) mirror.getAnnotationType().asElement();
+            if (!annotation.getQualifiedName().contentEquals(DelegateFor.class.getCanonicalName())) {
+                continue;
+            }
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value
+                    : mirror.getElementValues().entrySet()) {
+                if (value.getKey().getSimpleName().contentEquals("item")) {
+                    Object type = value.getValue().getValue();
+                    return type instanceof TypeMirror ? (TypeMirror) type : null;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return The type argument of AdapterDelegate in the hierarchy of the given type, or
+     * <code>null</code> if the given type is not an AdapterDelegate
+     */
+    private TypeMirror findItemsType(TypeMirror type) {
+        Types types = processingEnv.getTypeUtils();
+        for (TypeMirror supertype : types.directSupertypes(type)) {
+            if (supertype.getKind() != TypeKind.DECLARED) {
+                continue;
+            }
+            DeclaredType declared = (DeclaredType) supertype;
+            TypeElement element = (TypeElement) declared.asElement();
+            if (element.getQualifiedName().contentEquals(ADAPTER_DELEGATE)) {
+                List<? extends TypeMirror> arguments = declared.getTypeArguments();
+                return arguments.size() == 1 ? arguments.get(0) : null;
+            }
+            TypeMirror itemsType = findItemsType(supertype);
+            if (itemsType != null) {
+                return itemsType;
+            }
+        }
+        return null;
+    }
+
+    private boolean validate(String manager, List<Entry> entries) {
+        Types types = processingEnv.getTypeUtils();
+        boolean valid = true;
+        TypeMirror itemsType = entries.get(0).itemsType;
+        TypeMirror list = types.erasure(
+                processingEnv.getElementUtils().getTypeElement("java.util.List").asType());
+        if (!types.isAssignable(types.erasure(itemsType), list)) {
+            error(entries.get(0).delegate, "The generated " + manager
+                    + " only supports AdapterDelegates for a java.util.List data source but was " + itemsType);
+            valid = false;
+        }
+
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            if (!types.isSameType(itemsType, entry.itemsType)) {
+                error(entry.delegate, "All AdapterDelegates of " + manager
+                        + " must have the same data source type. Expected " + itemsType
+                        + " but was " + entry.itemsType);
+                valid = false;
+            }
+            for (int j = 0; j < i; j++) {
+                Entry other = entries.get(j);
+                if (other.viewType == entry.viewType) {
+                    error(entry.delegate, "The view type = " + entry.viewType + " of "
+                            + entry.delegate.getQualifiedName() + " is already used by "
+                            + other.delegate.getQualifiedName() + " in " + manager);
+                    valid = false;
+                }
+                if (types.isSameType(types.erasure(other.item), types.erasure(entry.item))) {
+                    error(entry.delegate, "The item " + entry.item + " of "
+                            + entry.delegate.getQualifiedName() + " is already handled by "
+                            + other.delegate.getQualifiedName() + " in " + manager);
+                    valid = false;
+                }
+            }
+        }
+        return valid;
+    }
+
+    private void generate(String manager, List<Entry> entries) {
+        Types types = processingEnv.getTypeUtils();
+        int lastDot = manager.lastIndexOf('.');
+        String packageName = lastDot == -1 ? "" : manager.substring(0, lastDot);
+        String simpleName = manager.substring(lastDot + 1);
+        String itemsType = entries.get(0).itemsType.toString();
+
+        // Constructor parameters in view type order
+        List<Entry> byViewType = new ArrayList<>(entries);
+        Collections.sort(byViewType, new Comparator<Entry>() {
+            @Override
+            public int compare(Entry o1, Entry o2) {
+                return Integer.compare(o1.viewType, o2.viewType);
+            }
+        });
+
+        // instanceof checks, a subtype has more supertypes than each of its supertypes
+        List<Entry> bySpecificity = new ArrayList<>(entries);
+        for (Entry entry : bySpecificity) {
+            entry.depth = countSupertypes(types.erasure(entry.item), new HashSet<String>());
+        }
+        Collections.sort(bySpecificity, new Comparator<Entry>() {
+            @Override
+            public int compare(Entry o1, Entry o2) {
+                int result = Integer.compare(o2.depth, o1.depth);
+                return result != 0 ? result : Integer.compare(o1.viewType, o2.viewType);
+            }
+        });
+
+        Map<Entry, String> names = new LinkedHashMap<>();
+        Set<String> usedNames = new HashSet<>();
+        for (Entry entry : byViewType) {
+            String name = lowerCamelCase(entry.delegate.getSimpleName().toString());
+            String unique = name;
+            for (int i = 2; !usedNames.add(unique); i++) {
+                unique = name + i;
+            }
+            names.put(entry, unique);
+        }
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("/**\n")
+                .append(" * Generated from the AdapterDelegates annotated with @DelegateFor(manager = \"")
+                .append(simpleName).append("\"). Don't edit.\n")
+                .append(" * The view types are resolved by the class of the item as long as no delegates\n")
+                .append(" * are added or removed afterwards.\n")
+                .append(" */\n")
+                .append("public class ").append(simpleName).append(" extends ")
+                .append(ADAPTER_DELEGATES_MANAGER).append('<').append(itemsType).append("> {\n\n");
+
+        for (Entry entry : byViewType) {
+            source.append("    public static final int ").append(constantName(names.get(entry)))
+                    .append(" = ").append(entry.viewType).append(";\n");
+        }
+        source.append("\n    private boolean delegatesChanged;\n");
+
+        source.append("\n    public ").append(simpleName).append('(');
+        boolean first = true;
+        for (Entry entry : byViewType) {
+            if (!first) {
+                source.append(", ");
+            }
+            first = false;
+            source.append(wildcardType(entry.delegate.asType())).append(' ').append(names.get(entry));
+        }
+        source.append(") {\n");
+        for (Entry entry : byViewType) {
+            source.append("        addDelegate(").append(constantName(names.get(entry))).append(", ")
+                    .append(names.get(entry)).append(");\n");
+        }
+        source.append("        delegatesChanged = false;\n")
+                .append("    }\n\n");
+
+        String delegateType = ADAPTER_DELEGATE + '<' + itemsType + '>';
+        String managerType = ADAPTER_DELEGATES_MANAGER + '<' + itemsType + '>';
+        source.append("    @Override\n")
+                .append("    public ").append(managerType).append(" addDelegate(int viewType, ")
+                .append("boolean allowReplacingDelegate, ").append(delegateType).append(" delegate) {\n")
+                .append("        delegatesChanged = true;\n")
+                .append("        return super.addDelegate(viewType, allowReplacingDelegate, delegate);\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    public ").append(managerType).append(" removeDelegate(")
+                .append(delegateType).append(" delegate) {\n")
+                .append("        delegatesChanged = true;\n")
+                .append("        return super.removeDelegate(delegate);\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    public ").append(managerType).append(" removeDelegate(int viewType) {\n")
+                .append("        delegatesChanged = true;\n")
+                .append("        return super.removeDelegate(viewType);\n")
+                .append("    }\n\n");
+
+        source.append("    @Override\n")
+                .append("    protected int resolveItemViewType(").append(itemsType).append(" items, int position) {\n")
+                .append("        // delegates may also be changed directly\n")
+                .append("        if (delegatesChanged || delegates.size() != ").append(entries.size()).append(") {\n")
+                .append("            return -1;\n")
+                .append("        }\n")
+                .append("        Object item = items.get(position);\n");
+        for (Entry entry : bySpecificity) {
+            source.append("        if (item instanceof ").append(wildcardType(entry.item)).append(") {\n")
+                    .append("            return ").append(constantName(names.get(entry))).append(";\n")
+                    .append("        }\n");
+        }
+        source.append("        return -1;\n")
+                .append("    }\n")
+                .append("}\n");
+
+        Element[] originatingElements = new Element[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            originatingElements[i] = entries.get(i).delegate;
+        }
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(manager, originatingElements);
+            Writer writer = file.openWriter();
+            try {
+                writer.write(source.toString());
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            error(entries.get(0).delegate, "Could not generate " + manager + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Lion -> Lion, Box&lt;T&gt; -> Box&lt;?&gt;, so that the generated code doesn't use raw types
+     */
+    private String wildcardType(TypeMirror type) {
+        TypeElement element = (TypeElement) processingEnv.getTypeUtils().asElement(type);
+        StringBuilder name = new StringBuilder(element.getQualifiedName());
+        int typeParameters = element.getTypeParameters().size();
+        if (typeParameters > 0) {
+            name.append('<');
+            for (int i = 0; i < typeParameters; i++) {
+                name.append(i == 0 ? "?" : ", ?");
+            }
+            name.append('>');
+        }
+        return name.toString();
+    }
+
+    private int countSupertypes(TypeMirror type, Set<String> visited) {
+        Types types = processingEnv.getTypeUtils();
+        for (TypeMirror supertype : types.directSupertypes(type)) {
+            if (visited.add(types.erasure(supertype).toString())) {
+                countSupertypes(supertype, visited);
+            }
+        }
+        return visited.size();
+    }
+
+    private static String lowerCamelCase(String name) {
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    /**
+     * catAdapterDelegate -> VIEW_TYPE_CAT_ADAPTER_DELEGATE
+     */
+    private static String constantName(String name) {
+        StringBuilder constant = new StringBuilder("VIEW_TYPE_");
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isUpperCase(c) && i > 0) {
+                constant.append('_');
+            }
+            constant.append(Character.toUpperCase(c));
+        }
+        return constant.toString();
+    }
+
+    private void error(Element element, String message) {
+        Messager messager = processingEnv.getMessager();
+        messager.printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
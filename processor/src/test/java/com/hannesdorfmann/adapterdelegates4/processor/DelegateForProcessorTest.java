@@ -0,0 +1,286 @@
+package com.hannesdorfmann.adapterdelegates4.processor;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+public class DelegateForProcessorTest {
+
+    /**
+     * Minimal versions of the library classes, the library itself is an Android library
+     */
+    private static final String ADAPTER_DELEGATE = "package com.hannesdorfmann.adapterdelegates4;\n"
+            + "public abstract class AdapterDelegate<T> {\n"
+            + "    protected abstract boolean isForViewType(T items, int position);\n"
+            + "}\n";
+
+    private static final String ADAPTER_DELEGATES_MANAGER = "package com.hannesdorfmann.adapterdelegates4;\n"
+            + "public class AdapterDelegatesManager<T> {\n"
+            + "    public static final int FALLBACK_DELEGATE_VIEW_TYPE = Integer.MAX_VALUE - 1;\n"
+            + "    public static final int PLACEHOLDER_DELEGATE_VIEW_TYPE = Integer.MAX_VALUE - 2;\n"
+            + "    protected AdapterDelegate<T> placeholderDelegate;\n"
+            + "    public final java.util.Map<Integer, AdapterDelegate<T>> delegates = new java.util.HashMap<>();\n"
+            + "    public AdapterDelegatesManager<T> addDelegate(int viewType, AdapterDelegate<T> delegate) {\n"
+            + "        return addDelegate(viewType, false, delegate);\n"
+            + "    }\n"
+            + "    public AdapterDelegatesManager<T> addDelegate(int viewType, boolean allowReplacingDelegate,\n"
+            + "                                                  AdapterDelegate<T> delegate) {\n"
+            + "        delegates.put(viewType, delegate);\n"
+            + "        return this;\n"
+            + "    }\n"
+            + "    public AdapterDelegatesManager<T> removeDelegate(AdapterDelegate<T> delegate) {\n"
+            + "        delegates.values().remove(delegate);\n"
+            + "        return this;\n"
+            + "    }\n"
+            + "    public AdapterDelegatesManager<T> removeDelegate(int viewType) {\n"
+            + "        delegates.remove(viewType);\n"
+            + "        return this;\n"
+            + "    }\n"
+            + "    protected boolean isPlaceholder(T items, int position) {\n"
+            + "        return false;\n"
+            + "    }\n"
+            + "    protected int resolveItemViewType(T items, int position) {\n"
+            + "        return -1;\n"
+            + "    }\n"
+            + "    public int getItemViewType(T items, int position) {\n"
+            + "        if (placeholderDelegate != null && isPlaceholder(items, position)) {\n"
+            + "            return PLACEHOLDER_DELEGATE_VIEW_TYPE;\n"
+            + "        }\n"
+            + "        int viewType = resolveItemViewType(items, position);\n"
+            + "        return viewType != -1 ? viewType : FALLBACK_DELEGATE_VIEW_TYPE;\n"
+            + "    }\n"
+            + "}\n";
+
+    private static final String ANIMALS = "package com.example;\n"
+            + "public class Animal {}\n"
+            + "class Cat extends Animal {}\n"
+            + "class Lion extends Cat {}\n"
+            + "class Dog extends Animal {}\n";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static String delegate(String name, String item, int viewType, String manager) {
+        return "package com.example;\n"
+                + "@com.hannesdorfmann.adapterdelegates4.annotations.DelegateFor(item = " + item
+                + ".class, viewType = " + viewType + ", manager = \"" + manager + "\")\n"
+                + "public class " + name
+                + " extends com.hannesdorfmann.adapterdelegates4.AdapterDelegate<java.util.List<Animal>> {\n"
+                + "    @Override protected boolean isForViewType(java.util.List<Animal> items, int position) {\n"
+                + "        throw new UnsupportedOperationException(\"Must not be called\");\n"
+                + "    }\n"
+                + "}\n";
+    }
+
+    private static JavaFileObject source(final String className, final String source) {
+        return new SimpleJavaFileObject(URI.create("string:///" + className.replace('.', '/') + ".java"),
+                JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return source;
+            }
+        };
+    }
+
+    private static class Result {
+        final boolean success;
+        final List<String> errors = new ArrayList<>();
+        final File output;
+
+        Result(boolean success, File output) {
+            this.success = success;
+            this.output = output;
+        }
+    }
+
+    private Result compile(JavaFileObject... delegates) throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        File output = temporaryFolder.newFolder();
+        StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null);
+
+        List<JavaFileObject> sources = new ArrayList<>();
+        sources.add(source("com.hannesdorfmann.adapterdelegates4.AdapterDelegate", ADAPTER_DELEGATE));
+        sources.add(source("com.hannesdorfmann.adapterdelegates4.AdapterDelegatesManager",
+                ADAPTER_DELEGATES_MANAGER));
+        sources.add(source("com.example.Animal", ANIMALS));
+        sources.addAll(Arrays.asList(delegates));
+
+        JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics,
+                Arrays.asList("-d", output.getAbsolutePath(), "-classpath", System.getProperty("java.class.path"),
+                        "-Xlint:rawtypes,unchecked", "-Werror"),
+                null, sources);
+        task.setProcessors(Collections.singletonList(new DelegateForProcessor()));
+        Result result = new Result(task.call(), output);
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                result.errors.add(diagnostic.getMessage(null));
+            }
+        }
+        fileManager.close();
+        return result;
+    }
+
+    @Test
+    public void generatesInstanceofDispatch() throws Exception {
+        Result result = compileAnimalDelegates();
+        ClassLoader classLoader = new URLClassLoader(new URL[]{result.output.toURI().toURL()},
+                getClass().getClassLoader());
+        Class<?> managerClass = classLoader.loadClass("com.example.AnimalDelegatesManager");
+        Object manager = newAnimalDelegatesManager(classLoader);
+
+        Assert.assertEquals(1, managerClass.getField("VIEW_TYPE_CAT_DELEGATE").getInt(null));
+
+        List<Object> items = newAnimals(classLoader);
+        Method getItemViewType = managerClass.getMethod("getItemViewType", Object.class, int.class);
+        Assert.assertEquals(0, getItemViewType.invoke(manager, items, 0));
+        Assert.assertEquals(1, getItemViewType.invoke(manager, items, 1));
+        Assert.assertEquals(2, getItemViewType.invoke(manager, items, 2));
+        Assert.assertEquals(0, getItemViewType.invoke(manager, items, 3)); // Dog is an Animal
+        Assert.assertEquals(Integer.MAX_VALUE - 1, getItemViewType.invoke(manager, items, 4));
+    }
+
+    @Test
+    public void removedDelegateIsNotResolvedAnymore() throws Exception {
+        Result result = compileAnimalDelegates();
+        ClassLoader classLoader = new URLClassLoader(new URL[]{result.output.toURI().toURL()},
+                getClass().getClassLoader());
+        Class<?> managerClass = classLoader.loadClass("com.example.AnimalDelegatesManager");
+        Object manager = newAnimalDelegatesManager(classLoader);
+
+        managerClass.getMethod("removeDelegate", int.class).invoke(manager, 2);
+
+        // The stand-in AdapterDelegatesManager always resolves to the fallback delegate
+        List<Object> items = newAnimals(classLoader);
+        Method getItemViewType = managerClass.getMethod("getItemViewType", Object.class, int.class);
+        Assert.assertEquals(Integer.MAX_VALUE - 1, getItemViewType.invoke(manager, items, 1));
+        Assert.assertEquals(Integer.MAX_VALUE - 1, getItemViewType.invoke(manager, items, 2));
+    }
+
+    @Test
+    public void genericDelegate() throws Exception {
+        Result result = compile(source("com.example.BoxDelegate", "package com.example;\n"
+                + "@com.hannesdorfmann.adapterdelegates4.annotations.DelegateFor(item = Box.class, viewType = 1, "
+                + "manager = \"AnimalDelegatesManager\")\n"
+                + "public class BoxDelegate<V>"
+                + " extends com.hannesdorfmann.adapterdelegates4.AdapterDelegate<java.util.List<Animal>> {\n"
+                + "    @Override protected boolean isForViewType(java.util.List<Animal> items, int position) {\n"
+                + "        throw new UnsupportedOperationException(\"Must not be called\");\n"
+                + "    }\n"
+                + "}\n"
+                + "class Box<A extends Animal> extends Animal {}\n"));
+        // Raw types in the generated code would be reported as errors
+        Assert.assertEquals(Collections.emptyList(), result.errors);
+        Assert.assertTrue(result.success);
+    }
+
+    private Result compileAnimalDelegates() throws Exception {
+        Result result = compile(
+                source("com.example.AnimalDelegate", delegate("AnimalDelegate", "Animal", 0, "AnimalDelegatesManager")),
+                source("com.example.CatDelegate", delegate("CatDelegate", "Cat", 1, "AnimalDelegatesManager")),
+                source("com.example.LionDelegate", delegate("LionDelegate", "Lion", 2, "AnimalDelegatesManager")));
+        Assert.assertEquals(Collections.emptyList(), result.errors);
+        Assert.assertTrue(result.success);
+        return result;
+    }
+
+    private static Object newAnimalDelegatesManager(ClassLoader classLoader) throws Exception {
+        Constructor<?> constructor = classLoader.loadClass("com.example.AnimalDelegatesManager").getConstructors()[0];
+        return constructor.newInstance(
+                classLoader.loadClass("com.example.AnimalDelegate").getDeclaredConstructor().newInstance(),
+                classLoader.loadClass("com.example.CatDelegate").getDeclaredConstructor().newInstance(),
+                classLoader.loadClass("com.example.LionDelegate").getDeclaredConstructor().newInstance());
+    }
+
+    /**
+     * Animal, Cat, Lion, Dog and null
+     */
+    private static List<Object> newAnimals(ClassLoader classLoader) throws Exception {
+        List<Object> items = new ArrayList<>();
+        for (String item : Arrays.asList("Animal", "Cat", "Lion", "Dog")) {
+            Constructor<?> itemConstructor = classLoader.loadClass("com.example." + item).getDeclaredConstructor();
+            itemConstructor.setAccessible(true);
+            items.add(itemConstructor.newInstance());
+        }
+        items.add(null);
+        return items;
+    }
+
+    @Test
+    public void viewTypeCollision() throws Exception {
+        Result result = compile(
+                source("com.example.CatDelegate", delegate("CatDelegate", "Cat", 1, "AnimalDelegatesManager")),
+                source("com.example.DogDelegate", delegate("DogDelegate", "Dog", 1, "AnimalDelegatesManager")));
+        Assert.assertFalse(result.success);
+        Assert.assertEquals(1, result.errors.size());
+        Assert.assertTrue(result.errors.get(0), result.errors.get(0).startsWith("The view type = 1 of "));
+    }
+
+    @Test
+    public void sameViewTypeInDifferentManagers() throws Exception {
+        Result result = compile(
+                source("com.example.CatDelegate", delegate("CatDelegate", "Cat", 1, "CatDelegatesManager")),
+                source("com.example.DogDelegate", delegate("DogDelegate", "Dog", 1, "DogDelegatesManager")));
+        Assert.assertEquals(Collections.emptyList(), result.errors);
+        Assert.assertTrue(result.success);
+    }
+
+    @Test
+    public void itemCollision() throws Exception {
+        Result result = compile(
+                source("com.example.CatDelegate", delegate("CatDelegate", "Cat", 1, "AnimalDelegatesManager")),
+                source("com.example.OtherCatDelegate", delegate("OtherCatDelegate", "Cat", 2, "AnimalDelegatesManager")));
+        Assert.assertFalse(result.success);
+        Assert.assertEquals(1, result.errors.size());
+        Assert.assertTrue(result.errors.get(0), result.errors.get(0).startsWith("The item com.example.Cat of "));
+    }
+
+    @Test
+    public void reservedViewType() throws Exception {
+        Result result = compile(source("com.example.CatDelegate",
+                delegate("CatDelegate", "Cat", Integer.MAX_VALUE - 1, "AnimalDelegatesManager")));
+        Assert.assertFalse(result.success);
+        Assert.assertEquals(Collections.singletonList("The view type = " + (Integer.MAX_VALUE - 1)
+                + " is reserved for the fallback and placeholder adapter delegate. Please use another view type."),
+                result.errors);
+    }
+
+    @Test
+    public void negativeViewType() throws Exception {
+        Result result = compile(source("com.example.CatDelegate",
+                delegate("CatDelegate", "Cat", -1, "AnimalDelegatesManager")));
+        Assert.assertFalse(result.success);
+        Assert.assertEquals(Collections.singletonList("viewType must be >= 0 but was -1"), result.errors);
+    }
+
+    @Test
+    public void notAnAdapterDelegate() throws Exception {
+        Result result = compile(source("com.example.CatDelegate", "package com.example;\n"
+                + "@com.hannesdorfmann.adapterdelegates4.annotations.DelegateFor(item = Cat.class, viewType = 1, "
+                + "manager = \"AnimalDelegatesManager\")\n"
+                + "public class CatDelegate {}\n"));
+        Assert.assertFalse(result.success);
+        Assert.assertEquals(Collections.singletonList("An AdapterDelegate annotated with @DelegateFor must extend "
+                + "com.hannesdorfmann.adapterdelegates4.AdapterDelegate"), result.errors);
+    }
+}